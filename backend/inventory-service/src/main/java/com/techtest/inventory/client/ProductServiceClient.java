@@ -1,5 +1,6 @@
 package com.techtest.inventory.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techtest.inventory.dto.response.InventoryResponse.ProductInfo;
@@ -18,6 +19,13 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Cliente HTTP para comunicarse con el microservicio de Productos.
  *
@@ -75,6 +83,39 @@ public class ProductServiceClient {
         }
     }
 
+    /**
+     * Verifica en una sola llamada qué productos de la lista existen (carga masiva de inventario).
+     *
+     * @return los IDs que existen; los que no vienen en la respuesta no existen
+     */
+    @Retryable(
+            retryFor = {ResourceAccessException.class, HttpServerErrorException.class},
+            maxAttempts = 3,
+            backoff = @Backoff(delay = 1000, multiplier = 2)
+    )
+    public Set<Long> existingProducts(Collection<Long> productIds) {
+        String url = productsServiceUrl + "/products/exists";
+        log.debug("Verificando existencia de {} productos en: {}", productIds.size(), url);
+
+        try {
+            ResponseEntity<Long[]> response = restTemplate.postForEntity(url, productIds, Long[].class);
+
+            Set<Long> existing = response.getBody() != null
+                    ? new HashSet<>(Arrays.asList(response.getBody()))
+                    : Set.of();
+            log.debug("Productos existentes: {} de {}", existing.size(), productIds.size());
+            return existing;
+
+        } catch (HttpClientErrorException e) {
+            log.error("Error del cliente al verificar {} productos: {} - {}",
+                    productIds.size(), e.getStatusCode(), e.getMessage());
+            throw new ProductServiceException("Error de cliente al verificar productos: " + e.getStatusCode());
+        } catch (ResourceAccessException e) {
+            log.error("Timeout al verificar {} productos: {}", productIds.size(), e.getMessage());
+            throw e; // Se reintentará
+        }
+    }
+
     /**
      * Obtiene información detallada de un producto.
      * La respuesta viene en formato JSON:API.
@@ -120,6 +161,52 @@ public class ProductServiceClient {
         }
     }
 
+    /**
+     * Obtiene en una sola llamada la información de varios productos (una página de inventario
+     * con include=product). La respuesta viene en formato JSON:API.
+     *
+     * @return la información por ID; los productos que no existen no vienen en el mapa
+     */
+    @Retryable(
+            retryFor = {ResourceAccessException.class, HttpServerErrorException.class},
+            maxAttempts = 3,
+            backoff = @Backoff(delay = 1000, multiplier = 2)
+    )
+    public Map<Long, ProductInfo> getProductsInfo(Collection<Long> productIds) {
+        String url = productsServiceUrl + "/products/batch";
+        log.debug("Obteniendo información de {} productos desde: {}", productIds.size(), url);
+
+        try {
+            ResponseEntity<String> response = restTemplate.postForEntity(url, productIds, String.class);
+
+            // Parsear respuesta JSON:API (lista)
+            Map<Long, ProductInfo> products = new HashMap<>();
+            for (JsonNode data : objectMapper.readTree(response.getBody()).path("data")) {
+                JsonNode attributes = data.path("attributes");
+                Long productId = data.path("id").asLong();
+                products.put(productId, ProductInfo.builder()
+                        .id(productId)
+                        .name(attributes.path("name").asText(null))
+                        .sku(attributes.path("sku").asText(null))
+                        .category(attributes.path("category").asText(null))
+                        .build());
+            }
+
+            log.debug("Productos obtenidos: {} de {}", products.size(), productIds.size());
+            return products;
+
+        } catch (HttpClientErrorException e) {
+            log.error("Error del cliente al obtener {} productos: {}", productIds.size(), e.getStatusCode());
+            throw new ProductServiceException("Error de cliente al obtener productos: " + e.getStatusCode());
+        } catch (ResourceAccessException e) {
+            log.error("Timeout al obtener {} productos: {}", productIds.size(), e.getMessage());
+            throw e; // Se reintentará
+        } catch (JsonProcessingException e) {
+            log.error("Respuesta inválida al obtener {} productos: {}", productIds.size(), e.getMessage());
+            throw new ProductServiceException(e.getMessage());
+        }
+    }
+
     /**
      * Método de recuperación cuando se agotan los reintentos.
      * Se ejecuta después de que fallen todos los intentos.
@@ -132,6 +219,32 @@ public class ProductServiceClient {
                 "Servicio de productos no disponible después de múltiples intentos", e);
     }
 
+    /**
+     * Recuperación de la verificación en lote: también recibe los errores no reintentables
+     * (ProductServiceException), que se propagan tal cual.
+     */
+    @Recover
+    public Set<Long> recoverExistingProducts(RuntimeException e, Collection<Long> productIds) {
+        if (e instanceof ProductServiceException productServiceError) {
+            throw productServiceError;
+        }
+        log.error("Todos los reintentos agotados para verificar {} productos. Error: {}",
+                productIds.size(), e.getMessage());
+        throw new ProductServiceException(
+                "Servicio de productos no disponible después de múltiples intentos", e);
+    }
+
+    @Recover
+    public Map<Long, ProductInfo> recoverGetProductsInfo(RuntimeException e, Collection<Long> productIds) {
+        if (e instanceof ProductServiceException productServiceError) {
+            throw productServiceError;
+        }
+        log.error("Todos los reintentos agotados para obtener {} productos. Error: {}",
+                productIds.size(), e.getMessage());
+        throw new ProductServiceException(
+                "Servicio de productos no disponible después de múltiples intentos", e);
+    }
+
     @Recover
     public ProductInfo recoverGetProductInfo(ResourceAccessException e, Long productId) {
         log.error("Todos los reintentos agotados para obtener producto {}. Error: {}",
@@ -8,6 +8,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,6 +19,7 @@ import java.util.Arrays;
 import java.util.List;
 
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)  // Antes de IdempotencyFilter
 @Slf4j
 public class ApiKeyFilter extends OncePerRequestFilter {
 
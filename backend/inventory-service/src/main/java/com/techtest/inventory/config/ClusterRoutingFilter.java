@@ -0,0 +1,179 @@
+package com.techtest.inventory.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techtest.inventory.dto.response.JsonApiErrorResponse;
+import com.techtest.inventory.service.cluster.ClusterClient;
+import com.techtest.inventory.service.cluster.ClusterMembership;
+import com.techtest.inventory.service.reservation.ReservationManager;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Enrutamiento de peticiones por producto en modo cluster.
+ *
+ * - Una petición sobre un producto (/inventory/product/{id}/..., /inventory/hot-stock/{id},
+ *   /inventory/reservations/{id}/confirm|release) que pertenece a otro nodo se reenvía a ese
+ *   nodo y se devuelve su respuesta tal cual
+ * - Las operaciones sobre varios productos (compra múltiple, carga masiva, consulta en lote) se
+ *   rechazan: cada producto puede tener otro dueño
+ * - Una petición reenviada por otro nodo (con el secreto del cluster) se atiende aquí aunque la
+ *   vista del anillo difiera (sin cadenas); la marca de reenvío de un cliente se ignora
+ * - Con single-writer, las escrituras de un producto local se aplican de a una
+ *
+ * Corre después de ApiKeyFilter y antes de IdempotencyFilter: la clave idempotente la registra
+ * el dueño del producto.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 5)
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    public static final String NODE_HEADER = "X-Inventory-Node";
+
+    private static final Pattern PRODUCT_PATH = Pattern.compile("^/inventory/(?:product|hot-stock)/(\\d+)(?:/.*)?$");
+    private static final Pattern RESERVATION_PATH = Pattern.compile("^/inventory/reservations/([^/]+)/(?:confirm|release)$");
+    private static final Set<String> MULTI_PRODUCT_PATHS = Set.of(
+            "/inventory/purchases", "/inventory/bulk", "/inventory/lookup");
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "host", "connection", "content-length", "transfer-encoding", "keep-alive", "x-api-key",
+            ClusterClient.FORWARDED_HEADER.toLowerCase(), ClusterClient.SECRET_HEADER.toLowerCase());
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !membership.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (isMultiProduct(request)) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "CLUSTER_MULTI_PRODUCT_UNSUPPORTED",
+                    "Operación no soportada en modo cluster",
+                    "Los productos pueden pertenecer a distintos nodos: use las operaciones por producto");
+            return;
+        }
+
+        Long productId = productId(request);
+        if (productId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean forwardedByPeer = request.getHeader(ClusterClient.FORWARDED_HEADER) != null
+                && clusterClient.isFromPeer(request.getHeader(ClusterClient.SECRET_HEADER));
+        String owner = forwardedByPeer ? null : membership.remoteOwner(productId);
+
+        if (owner != null) {
+            forward(owner, request, response);
+            return;
+        }
+
+        response.setHeader(NODE_HEADER, membership.self());
+        if (membership.isSingleWriter() && MUTATING_METHODS.contains(request.getMethod())) {
+            Lock lock = membership.writeLock(productId);
+            lock.lock();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private void forward(String owner, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String pathAndQuery = path(request) + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        log.debug("Reenviando {} {} al nodo dueño {}", request.getMethod(), pathAndQuery, owner);
+
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+
+        ResponseEntity<byte[]> forwarded;
+        try {
+            forwarded = clusterClient.forward(owner, HttpMethod.valueOf(request.getMethod()), pathAndQuery,
+                    headers, request.getInputStream().readAllBytes(), membership.self());
+        } catch (RestClientException e) {
+            log.error("El nodo dueño {} no respondió: {}", owner, e.getMessage());
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "CLUSTER_OWNER_UNAVAILABLE",
+                    "Nodo dueño no disponible", "El nodo " + owner + " dueño del producto no está disponible");
+            return;
+        }
+
+        response.setStatus(forwarded.getStatusCode().value());
+        forwarded.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        if (forwarded.getBody() != null) {
+            response.getOutputStream().write(forwarded.getBody());
+        }
+    }
+
+    private Long productId(HttpServletRequest request) {
+        String path = path(request);
+        Matcher matcher = PRODUCT_PATH.matcher(path);
+        if (matcher.matches()) {
+            return Long.valueOf(matcher.group(1));
+        }
+        // Reservas con el formato anterior (sin productId) se atienden en el nodo que las recibe
+        matcher = RESERVATION_PATH.matcher(path);
+        return matcher.matches() ? ReservationManager.productIdOf(matcher.group(1)) : null;
+    }
+
+    private static boolean isMultiProduct(HttpServletRequest request) {
+        String path = path(request);
+        return MULTI_PRODUCT_PATHS.contains(path)
+                || ("/inventory".equals(path) && request.getParameter("productIds") != null);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void sendError(HttpServletResponse response, int status, String code, String title, String detail)
+            throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        JsonApiErrorResponse errorResponse = JsonApiErrorResponse.of(String.valueOf(status), code, title, detail);
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+}
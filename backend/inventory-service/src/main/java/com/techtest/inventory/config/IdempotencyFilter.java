@@ -0,0 +1,255 @@
+package com.techtest.inventory.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techtest.inventory.dto.response.JsonApiErrorResponse;
+import com.techtest.inventory.service.idempotency.IdempotencyStore;
+import com.techtest.inventory.service.idempotency.IdempotencyStore.Claim;
+import com.techtest.inventory.service.idempotency.IdempotencyStore.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Soporte del header Idempotency-Key en los endpoints que modifican inventario.
+ *
+ * Si la petición trae el header:
+ * - Primera vez: se ejecuta y se guarda su respuesta
+ * - Reintento con el mismo cuerpo: se devuelve la respuesta guardada sin ejecutar nada
+ *   (header Idempotent-Replayed: true)
+ * - Reintento mientras la original sigue en curso: 409
+ * - Misma clave con otro cuerpo: 422
+ *
+ * La respuesta se guarda con su status, Content-Type y ETag. Las respuestas NDJSON (carga masiva)
+ * no se guardan: se envían tramo a tramo sin pasar por memoria y la clave se libera al terminar,
+ * así que un reintento vuelve a ejecutar la carga (que reemplaza las mismas filas con los mismos
+ * valores). Mientras la original sigue en curso, el reintento recibe 409 igual que el resto.
+ *
+ * Corre después de ApiKeyFilter: una petición no autenticada no reclama claves.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !MUTATING_METHODS.contains(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !request.getRequestURI().contains("/inventory");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "INVALID_IDEMPOTENCY_KEY",
+                    "Idempotency-Key inválida", "El header Idempotency-Key debe tener entre 1 y 255 caracteres");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        String scope = request.getMethod() + " " + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+
+        Claim claim = idempotencyStore.claim(scope, key, body);
+        switch (claim.outcome()) {
+            case REPLAY -> replay(response, claim.response());
+            case IN_PROGRESS -> sendError(response, HttpServletResponse.SC_CONFLICT, "IDEMPOTENCY_KEY_IN_USE",
+                    "Petición en curso", "Otra petición con el mismo Idempotency-Key aún no ha terminado");
+            case MISMATCH -> sendError(response, 422, "IDEMPOTENCY_KEY_MISMATCH",
+                    "Idempotency-Key reutilizada", "El Idempotency-Key ya se usó con un cuerpo de petición distinto");
+            case CLAIMED -> execute(new CachedBodyRequest(request, body), response, filterChain, claim);
+        }
+    }
+
+    private void execute(HttpServletRequest request,
+                         HttpServletResponse response,
+                         FilterChain filterChain,
+                         Claim claim) throws ServletException, IOException {
+
+        ReplayableResponse cachingResponse = new ReplayableResponse(response);
+        try {
+            filterChain.doFilter(request, cachingResponse);
+        } catch (ServletException | IOException | RuntimeException ex) {
+            idempotencyStore.abandon(claim);
+            throw ex;
+        }
+
+        // Los 5xx no son definitivos: se libera la clave para que el reintento se ejecute.
+        // Una respuesta en streaming ya se envió y no se guardó: tampoco hay nada que repetir
+        if (cachingResponse.getStatus() >= 500 || cachingResponse.isStreaming()) {
+            idempotencyStore.abandon(claim);
+        } else {
+            idempotencyStore.complete(claim, cachingResponse.getStatus(), cachingResponse.getContentType(),
+                    cachingResponse.getHeader(HttpHeaders.ETAG), cachingResponse.getContentAsByteArray());
+        }
+        cachingResponse.copyBodyToResponse();
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        log.debug("Respuesta idempotente reutilizada (status {})", stored.statusCode());
+
+        response.setStatus(stored.statusCode());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.etag());
+        }
+        if (stored.body() != null) {
+            response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void sendError(HttpServletResponse response, int status, String code, String title, String detail)
+            throws IOException {
+
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        JsonApiErrorResponse errorResponse = JsonApiErrorResponse.of(
+                String.valueOf(status), code, title, detail);
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+
+    /**
+     * Respuesta que se guarda en memoria para poder repetirla, salvo que el controller la declare
+     * NDJSON: desde ahí se escribe directo al cliente y flushBuffer envía cada tramo.
+     */
+    private static class ReplayableResponse extends ContentCachingResponseWrapper {
+
+        private boolean streaming;
+
+        ReplayableResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        boolean isStreaming() {
+            return streaming;
+        }
+
+        @Override
+        public void setContentType(String type) {
+            super.setContentType(type);
+            if (type != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(type))) {
+                streaming = true;
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (streaming) {
+                copyBodyToResponse(false);
+                return getResponse().getOutputStream();
+            }
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (streaming) {
+                copyBodyToResponse(false);
+                return getResponse().getWriter();
+            }
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (streaming) {
+                copyBodyToResponse(false);
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+    }
+
+    /**
+     * Petición con el cuerpo ya leído (se necesitó para calcular su hash).
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -4,12 +4,16 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.HeaderParameter;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.oas.models.servers.Server;
+import org.springdoc.core.customizers.OperationCustomizer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
 
 import java.util.List;
 
@@ -53,4 +57,22 @@ public class OpenApiConfig {
                                         .in(SecurityScheme.In.HEADER)
                                         .description("API Key para autenticación")));
     }
-}
\ No newline at end of file
+
+    /**
+     * Documenta el header opcional Idempotency-Key en las operaciones que modifican datos.
+     */
+    @Bean
+    public OperationCustomizer idempotencyKeyHeader() {
+        return (operation, handlerMethod) -> {
+            if (!handlerMethod.hasMethodAnnotation(GetMapping.class)) {
+                operation.addParametersItem(new HeaderParameter()
+                        .name(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER)
+                        .required(false)
+                        .description("Clave única del cliente: un reintento con la misma clave " +
+                                "devuelve la respuesta original sin repetir la operación")
+                        .schema(new StringSchema().maxLength(255)));
+            }
+            return operation;
+        };
+    }
+}
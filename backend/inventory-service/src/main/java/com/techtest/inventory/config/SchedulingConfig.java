@@ -0,0 +1,13 @@
+package com.techtest.inventory.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita tareas programadas (flush de stock hot).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,147 @@
+package com.techtest.inventory.controller;
+
+import com.techtest.inventory.dto.request.ClusterMembersRequest;
+import com.techtest.inventory.dto.request.ClusterNodeRequest;
+import com.techtest.inventory.dto.response.ClusterStateResponse;
+import com.techtest.inventory.dto.response.JsonApiErrorResponse;
+import com.techtest.inventory.exception.ClusterPeerRequiredException;
+import com.techtest.inventory.service.cluster.ClusterClient;
+import com.techtest.inventory.service.cluster.ClusterMembership;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST de administración del cluster (reparto de productos entre nodos).
+ *
+ * Las operaciones que cambian la membresía exigen el secreto del cluster además de la API key:
+ * un anillo instalado por un cliente podría apuntar a cualquier URL, y los reenvíos llevan ambas
+ * credenciales.
+ *
+ * Base path: /api/v1/inventory/cluster
+ */
+@RestController
+@RequestMapping("/inventory/cluster")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Inventario - Cluster", description = "Membresía del cluster y dueño de cada producto")
+public class ClusterController {
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+
+    @GetMapping
+    @Operation(
+            summary = "Consultar membresía",
+            description = "Retorna los nodos del cluster y la versión (epoch) de la membresía vista desde este nodo"
+    )
+    public ResponseEntity<ClusterStateResponse> getState() {
+        log.info("GET /inventory/cluster - Consultando membresía");
+
+        return ResponseEntity.ok(membership.state());
+    }
+
+    @GetMapping("/owner/{productId}")
+    @Operation(
+            summary = "Consultar dueño de un producto",
+            description = "Retorna el nodo que atiende las peticiones del producto"
+    )
+    public ResponseEntity<ClusterStateResponse> getOwner(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId) {
+
+        log.info("GET /inventory/cluster/owner/{} - Consultando dueño", productId);
+
+        ClusterStateResponse response = membership.state();
+        response.setProductId(productId);
+        response.setOwner(membership.ownerOf(productId));
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/members")
+    @Operation(
+            summary = "Recibir membresía",
+            description = "Uso interno entre nodos: aplica la membresía si su epoch es más nuevo que el actual"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Membresía recibida"),
+            @ApiResponse(responseCode = "403", description = "La petición no viene de un nodo del cluster",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<ClusterStateResponse> applyMembers(
+            @Parameter(hidden = true) @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @Valid @RequestBody ClusterMembersRequest request) {
+        log.info("PUT /inventory/cluster/members - Membresía epoch {}: {}", request.getEpoch(), request.getNodes());
+
+        requirePeer(secret, "recibir membresía");
+
+        membership.apply(request);
+
+        return ResponseEntity.ok(membership.state());
+    }
+
+    @PostMapping("/nodes")
+    @Operation(
+            summary = "Agregar nodo",
+            description = "Uso interno entre nodos: agrega el nodo al anillo y difunde la nueva membresía a todos los nodos"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Nodo agregado"),
+            @ApiResponse(responseCode = "400", description = "Cluster deshabilitado o URL inválida",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
+            @ApiResponse(responseCode = "403", description = "La petición no viene de un nodo del cluster",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<ClusterStateResponse> addNode(
+            @Parameter(hidden = true) @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @Valid @RequestBody ClusterNodeRequest request) {
+        log.info("POST /inventory/cluster/nodes - Agregando nodo {}", request.getUrl());
+
+        requirePeer(secret, "agregar nodo");
+
+        membership.join(request.getUrl());
+
+        return ResponseEntity.ok(membership.state());
+    }
+
+    @DeleteMapping("/nodes")
+    @Operation(
+            summary = "Quitar nodo",
+            description = "Uso interno entre nodos: quita el nodo del anillo y difunde la nueva membresía; "
+                    + "sus productos pasan a los nodos restantes"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Nodo quitado"),
+            @ApiResponse(responseCode = "403", description = "La petición no viene de un nodo del cluster",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<ClusterStateResponse> removeNode(
+            @Parameter(hidden = true) @RequestHeader(value = ClusterClient.SECRET_HEADER, required = false) String secret,
+            @Parameter(description = "URL base del nodo", example = "http://inventory-2:8082/api/v1")
+            @RequestParam String url) {
+
+        log.info("DELETE /inventory/cluster/nodes - Quitando nodo {}", url);
+
+        requirePeer(secret, "quitar nodo");
+
+        membership.leave(url);
+
+        return ResponseEntity.ok(membership.state());
+    }
+
+    private void requirePeer(String secret, String operation) {
+        if (!clusterClient.isFromPeer(secret)) {
+            throw new ClusterPeerRequiredException(operation);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.techtest.inventory.controller;
+
+import com.techtest.inventory.dto.response.HotStockResponse;
+import com.techtest.inventory.dto.response.JsonApiErrorResponse;
+import com.techtest.inventory.dto.response.JsonApiResponse;
+import com.techtest.inventory.service.hotstock.HotStockManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller REST de administración del modo hot (stock en memoria para productos con mucho tráfico).
+ *
+ * Base path: /api/v1/inventory/hot-stock
+ */
+@RestController
+@RequestMapping("/inventory/hot-stock")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Inventario - Modo hot", description = "Administración de productos servidos desde memoria")
+public class HotStockController {
+
+    private final HotStockManager hotStockManager;
+
+    private static final String RESOURCE_TYPE = "hot-stock";
+
+    @GetMapping
+    @Operation(
+            summary = "Listar productos en modo hot",
+            description = "Lista los productos cuyo stock se sirve desde memoria y su delta pendiente de escribir en BD"
+    )
+    public ResponseEntity<List<HotStockResponse>> getHotProducts() {
+        log.info("GET /inventory/hot-stock - Consultando productos en modo hot");
+
+        return ResponseEntity.ok(hotStockManager.status());
+    }
+
+    @PutMapping("/{productId}")
+    @Operation(
+            summary = "Activar modo hot",
+            description = "Carga el stock disponible del producto en contadores en memoria. " +
+                    "Las compras y verificaciones de stock dejan de acceder a la BD."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Modo hot activado"),
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiResponse<HotStockResponse>> enable(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId) {
+
+        log.info("PUT /inventory/hot-stock/{} - Activando modo hot", productId);
+
+        HotStockResponse response = hotStockManager.enable(productId);
+
+        return ResponseEntity.ok(JsonApiResponse.of(RESOURCE_TYPE, productId, response));
+    }
+
+    @DeleteMapping("/{productId}")
+    @Operation(
+            summary = "Desactivar modo hot",
+            description = "Escribe en BD el delta pendiente y vuelve a servir el producto desde la BD"
+    )
+    @ApiResponse(responseCode = "204", description = "Modo hot desactivado")
+    public ResponseEntity<Void> disable(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId) {
+
+        log.info("DELETE /inventory/hot-stock/{} - Desactivando modo hot", productId);
+
+        hotStockManager.disable(productId);
+
+        return ResponseEntity.noContent().build();
+    }
+}
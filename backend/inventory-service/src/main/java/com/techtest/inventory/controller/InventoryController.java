@@ -1,10 +1,22 @@
 package com.techtest.inventory.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.LocationStockRequest;
+import com.techtest.inventory.dto.request.OrderPurchaseRequest;
 import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.ReservationRequest;
+import com.techtest.inventory.dto.request.StockAdjustmentRequest;
+import com.techtest.inventory.dto.response.BulkInventoryResult;
+import com.techtest.inventory.dto.response.InventoryLocationResponse;
+import com.techtest.inventory.dto.response.InventoryLookup;
+import com.techtest.inventory.dto.response.InventoryMovementResponse;
+import com.techtest.inventory.dto.response.InventoryPage;
 import com.techtest.inventory.dto.response.InventoryResponse;
 import com.techtest.inventory.dto.response.JsonApiErrorResponse;
+import com.techtest.inventory.dto.response.JsonApiListResponse;
 import com.techtest.inventory.dto.response.JsonApiResponse;
+import com.techtest.inventory.dto.response.ReservationResponse;
 import com.techtest.inventory.service.InventoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,14 +25,24 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller REST para gestión de inventario.
@@ -35,8 +57,18 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final ObjectMapper objectMapper;
 
     private static final String RESOURCE_TYPE = "inventory";
+    private static final String RESERVATION_TYPE = "reservations";
+    private static final String MOVEMENT_TYPE = "movements";
+    private static final String LOCATION_TYPE = "inventory-locations";
+    private static final String PRODUCT_INCLUDE = "product";
+
+    /**
+     * IDs por consulta en lote (una página de catálogo entra con holgura)
+     */
+    private static final int MAX_LOOKUP_IDS = 1000;
 
     // ==================== CREAR/ACTUALIZAR INVENTARIO ====================
 
@@ -44,34 +76,186 @@ public class InventoryController {
     @Operation(
             summary = "Crear o actualizar inventario",
             description = "Crea un nuevo registro de inventario o actualiza uno existente para un producto. " +
-                    "Valida que el producto exista en el servicio de productos."
+                    "Valida que el producto exista en el servicio de productos. " +
+                    "Con include=product la respuesta trae los datos del producto."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Inventario creado/actualizado"),
             @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match ya no es la actual",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
             @ApiResponse(responseCode = "503", description = "Servicio de productos no disponible",
                     content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
     })
     public ResponseEntity<JsonApiResponse<InventoryResponse>> createOrUpdateInventory(
-            @Valid @RequestBody InventoryRequest request) {
+            @Valid @RequestBody InventoryRequest request,
+            @Parameter(description = "ETag de la versión sobre la que se hace el cambio")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
 
         log.info("POST /inventory - Producto: {}, Cantidad: {}",
                 request.getProductId(), request.getQuantity());
 
-        InventoryResponse response = inventoryService.createOrUpdateInventory(request);
+        boolean withProduct = includesProduct(include);
+        InventoryResponse response = inventoryService.createOrUpdateInventory(request, parseIfMatch(ifMatch));
+        if (withProduct) {
+            response = inventoryService.includeProduct(response);
+        }
 
         return ResponseEntity
                 .status(HttpStatus.CREATED)
+                .eTag(toETag(response))
                 .body(JsonApiResponse.of(RESOURCE_TYPE, response.getId(), response));
     }
 
+    // ==================== CARGA MASIVA ====================
+
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Carga masiva de inventario",
+            description = "Crea o reemplaza el inventario de muchos productos en una sola petición. " +
+                    "La existencia de los productos se verifica con una sola llamada al servicio de productos " +
+                    "y las filas se escriben por tramos con upserts en lote. La respuesta es NDJSON: " +
+                    "una línea por fila (CREATED, UPDATED o REJECTED con el error), enviada tramo a tramo."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Resultado de cada fila (application/x-ndjson)"),
+            @ApiResponse(responseCode = "400", description = "Demasiadas filas",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
+            @ApiResponse(responseCode = "503", description = "Servicio de productos no disponible",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public void bulkUpsertInventory(@RequestBody List<InventoryRequest> rows,
+                                    HttpServletResponse response) {
+
+        log.info("POST /inventory/bulk - Filas: {}", rows.size());
+
+        // Las filas se validan una a una en el servicio: una fila inválida no rechaza la carga
+        inventoryService.bulkUpsertInventory(rows, chunk -> writeNdjson(response, chunk));
+    }
+
+    // ==================== LISTAR INVENTARIO ====================
+
+    @GetMapping
+    @Operation(
+            summary = "Listar inventario",
+            description = "Lista el inventario en orden de productId, paginado por cursor: links.next trae la " +
+                    "página siguiente (cada página cuesta lo mismo sin importar cuán adentro del catálogo esté). " +
+                    "Filtros opcionales por cantidad total y por estado del stock. Con include=product los " +
+                    "datos de los productos de la página se obtienen en una sola llamada."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página de inventario"),
+            @ApiResponse(responseCode = "400", description = "Límite, cursor o filtro inválido",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiListResponse<InventoryResponse>> listInventory(
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include,
+            @Parameter(description = "Cantidad máxima de productos por página (1-1000)", example = "100")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Cursor de links.next de la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Cantidad total mínima", example = "1")
+            @RequestParam(required = false) Integer minQuantity,
+            @Parameter(description = "Cantidad total máxima", example = "100")
+            @RequestParam(required = false) Integer maxQuantity,
+            @Parameter(description = "Estado del stock: low (en o por debajo del mínimo) u out (sin stock)", example = "low")
+            @RequestParam(required = false) String stock) {
+        log.info("GET /inventory - Listando inventario (límite {}, cursor {}, cantidad [{}, {}], stock {})",
+                limit, cursor, minQuantity, maxQuantity, stock);
+
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y 1000");
+        }
+        boolean withProduct = includesProduct(include);
+        InventoryPage page = inventoryService.listInventory(cursor, limit, minQuantity, maxQuantity, stock);
+        if (withProduct) {
+            page.setItems(inventoryService.includeProduct(page.getItems()));
+        }
+
+        return ResponseEntity.ok(toPagedResponse(page));
+    }
+
+    // ==================== CONSULTA EN LOTE ====================
+
+    @GetMapping(params = "productIds")
+    @Operation(
+            summary = "Inventario de varios productos",
+            description = "Devuelve el inventario (cantidad, disponible y stock bajo) de los productos indicados " +
+                    "con una sola consulta. Los IDs sin inventario se informan en meta.missing en lugar de " +
+                    "responder 404. Para listas largas usar POST /inventory/lookup."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Inventario de los productos encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado larga",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiListResponse<InventoryResponse>> getInventoryByProductIds(
+            @Parameter(description = "IDs de los productos separados por coma", example = "1,2,3")
+            @RequestParam List<Long> productIds,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
+
+        log.info("GET /inventory?productIds - Consultando {} productos", productIds.size());
+
+        return ResponseEntity.ok(lookupInventory(productIds, include));
+    }
+
+    @PostMapping("/lookup")
+    @Operation(
+            summary = "Inventario de varios productos (lista larga)",
+            description = "Igual que GET /inventory?productIds=... con los IDs en el cuerpo, para listas que " +
+                    "no caben en la URL."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Inventario de los productos encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado larga",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiListResponse<InventoryResponse>> lookupInventoryByProductIds(
+            @RequestBody List<Long> productIds,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
+
+        log.info("POST /inventory/lookup - Consultando {} productos", productIds.size());
+
+        return ResponseEntity.ok(lookupInventory(productIds, include));
+    }
+
+    /**
+     * Respuesta de la consulta en lote: los IDs sin inventario van en meta.missing.
+     */
+    private JsonApiListResponse<InventoryResponse> lookupInventory(List<Long> productIds, String include) {
+        if (productIds.isEmpty() || productIds.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("Se deben indicar entre 1 y " + MAX_LOOKUP_IDS + " productos");
+        }
+        if (productIds.contains(null)) {
+            throw new IllegalArgumentException("Los IDs de producto no pueden ser nulos");
+        }
+        boolean withProduct = includesProduct(include);
+        InventoryLookup lookup = inventoryService.lookupInventory(productIds);
+        List<InventoryResponse> items = withProduct
+                ? inventoryService.includeProduct(lookup.getItems())
+                : lookup.getItems();
+
+        JsonApiListResponse<InventoryResponse> response =
+                JsonApiListResponse.of(RESOURCE_TYPE, items, InventoryResponse::getId);
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("count", items.size());
+        meta.put("missing", lookup.getMissingProductIds());
+        response.setMeta(meta);
+        return response;
+    }
+
     // ==================== CONSULTAR INVENTARIO POR PRODUCTO ====================
 
     @GetMapping("/product/{productId}")
     @Operation(
             summary = "Consultar inventario por producto",
             description = "Obtiene la cantidad disponible de un producto. " +
-                    "Incluye información del producto obtenida del microservicio de productos."
+                    "Con include=product incluye la información obtenida del microservicio de productos."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Inventario encontrado"),
@@ -80,15 +264,21 @@ public class InventoryController {
     })
     public ResponseEntity<JsonApiResponse<InventoryResponse>> getInventoryByProductId(
             @Parameter(description = "ID del producto", example = "1")
-            @PathVariable Long productId) {
+            @PathVariable Long productId,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
 
         log.info("GET /inventory/product/{} - Consultando inventario", productId);
 
+        boolean withProduct = includesProduct(include);
         InventoryResponse response = inventoryService.getInventoryByProductId(productId);
+        if (withProduct) {
+            response = inventoryService.includeProduct(response);
+        }
 
-        return ResponseEntity.ok(
-                JsonApiResponse.of(RESOURCE_TYPE, response.getId(), response)
-        );
+        return ResponseEntity.ok()
+                .eTag(toETag(response))
+                .body(JsonApiResponse.of(RESOURCE_TYPE, response.getId(), response));
     }
 
     // ==================== ACTUALIZAR CANTIDAD ====================
@@ -100,21 +290,68 @@ public class InventoryController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Cantidad actualizada"),
-            @ApiResponse(responseCode = "404", description = "Inventario no encontrado")
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match ya no es la actual",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
     })
     public ResponseEntity<JsonApiResponse<InventoryResponse>> updateQuantity(
             @Parameter(description = "ID del producto", example = "1")
             @PathVariable Long productId,
             @Parameter(description = "Nueva cantidad", example = "50")
-            @RequestParam Integer quantity) {
+            @RequestParam Integer quantity,
+            @Parameter(description = "ETag de la versión sobre la que se hace el cambio")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
 
         log.info("PATCH /inventory/product/{}/quantity - Nueva cantidad: {}", productId, quantity);
 
-        InventoryResponse response = inventoryService.updateQuantity(productId, quantity);
+        boolean withProduct = includesProduct(include);
+        InventoryResponse response = inventoryService.updateQuantity(productId, quantity, parseIfMatch(ifMatch));
+        if (withProduct) {
+            response = inventoryService.includeProduct(response);
+        }
 
-        return ResponseEntity.ok(
-                JsonApiResponse.of(RESOURCE_TYPE, response.getId(), response)
-        );
+        return ResponseEntity.ok()
+                .eTag(toETag(response))
+                .body(JsonApiResponse.of(RESOURCE_TYPE, response.getId(), response));
+    }
+
+    // ==================== AJUSTAR STOCK (DELTA) ====================
+
+    @PostMapping("/product/{productId}/adjust")
+    @Operation(
+            summary = "Ajustar stock con un delta",
+            description = "Suma un delta (positivo en recepciones, negativo en mermas o devoluciones al proveedor) " +
+                    "en una sola sentencia atómica, sin leer antes la fila. Opcionalmente la cantidad " +
+                    "resultante debe quedar entre floor y ceiling; nunca por debajo de lo reservado."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock ajustado"),
+            @ApiResponse(responseCode = "400", description = "Delta inválido",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado"),
+            @ApiResponse(responseCode = "409", description = "La cantidad resultante quedaría fuera de los límites",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiResponse<InventoryResponse>> adjustQuantity(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId,
+            @Valid @RequestBody StockAdjustmentRequest request,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
+
+        log.info("POST /inventory/product/{}/adjust - Delta: {}", productId, request.getDelta());
+
+        boolean withProduct = includesProduct(include);
+        InventoryResponse response = inventoryService.adjustQuantity(productId, request);
+        if (withProduct) {
+            response = inventoryService.includeProduct(response);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(toETag(response))
+                .body(JsonApiResponse.of(RESOURCE_TYPE, response.getId(), response));
     }
 
     // ==================== PROCESAR COMPRA ====================
@@ -134,30 +371,269 @@ public class InventoryController {
     public ResponseEntity<JsonApiResponse<InventoryResponse>> processPurchase(
             @Parameter(description = "ID del producto", example = "1")
             @PathVariable Long productId,
-            @Valid @RequestBody PurchaseRequest request) {
+            @Valid @RequestBody PurchaseRequest request,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
 
         log.info("POST /inventory/product/{}/purchase - Cantidad: {}", productId, request.getQuantity());
 
+        boolean withProduct = includesProduct(include);
         InventoryResponse response = inventoryService.processPurchase(productId, request);
+        if (withProduct) {
+            response = inventoryService.includeProduct(response);
+        }
 
         return ResponseEntity.ok(
                 JsonApiResponse.of(RESOURCE_TYPE, response.getId(), response)
         );
     }
 
+    // ==================== PROCESAR ORDEN (VARIAS LÍNEAS) ====================
+
+    @PostMapping("/purchases")
+    @Operation(
+            summary = "Procesar orden de compra",
+            description = "Descuenta el inventario de varias líneas en una sola transacción. " +
+                    "Si alguna línea no puede aplicarse, la orden completa se rechaza."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Orden procesada exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Stock insuficiente o inventario inexistente en alguna línea",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiListResponse<InventoryResponse>> processOrderPurchase(
+            @Valid @RequestBody OrderPurchaseRequest request,
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include) {
+
+        log.info("POST /inventory/purchases - Líneas: {}", request.getLines().size());
+
+        boolean withProduct = includesProduct(include);
+        List<InventoryResponse> responses = inventoryService.processOrderPurchase(request);
+        if (withProduct) {
+            responses = inventoryService.includeProduct(responses);
+        }
+
+        return ResponseEntity.ok(
+                JsonApiListResponse.of(RESOURCE_TYPE, responses, InventoryResponse::getId)
+        );
+    }
+
+    // ==================== RESERVAS ====================
+
+    @PostMapping("/product/{productId}/reservations")
+    @Operation(
+            summary = "Reservar stock",
+            description = "Aparta unidades del producto durante un TTL sin descontarlas. " +
+                    "La reserva debe confirmarse o liberarse; si vence, las unidades vuelven al disponible."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Reserva creada"),
+            @ApiResponse(responseCode = "400", description = "Stock insuficiente",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiResponse<ReservationResponse>> reserveStock(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId,
+            @Valid @RequestBody ReservationRequest request) {
+
+        log.info("POST /inventory/product/{}/reservations - Cantidad: {}", productId, request.getQuantity());
+
+        ReservationResponse response = inventoryService.reserveStock(productId, request);
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(JsonApiResponse.of(RESERVATION_TYPE, response.getId(), response));
+    }
+
+    @PostMapping("/reservations/{reservationId}/confirm")
+    @Operation(
+            summary = "Confirmar reserva",
+            description = "Descuenta del stock las unidades de una reserva pendiente"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reserva confirmada"),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "La reserva ya no está pendiente",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiResponse<ReservationResponse>> confirmReservation(
+            @Parameter(description = "ID de la reserva")
+            @PathVariable String reservationId) {
+
+        log.info("POST /inventory/reservations/{}/confirm", reservationId);
+
+        ReservationResponse response = inventoryService.confirmReservation(reservationId);
+
+        return ResponseEntity.ok(JsonApiResponse.of(RESERVATION_TYPE, response.getId(), response));
+    }
+
+    @PostMapping("/reservations/{reservationId}/release")
+    @Operation(
+            summary = "Liberar reserva",
+            description = "Devuelve al stock disponible las unidades de una reserva pendiente"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reserva liberada"),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "La reserva ya no está pendiente",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiResponse<ReservationResponse>> releaseReservation(
+            @Parameter(description = "ID de la reserva")
+            @PathVariable String reservationId) {
+
+        log.info("POST /inventory/reservations/{}/release", reservationId);
+
+        ReservationResponse response = inventoryService.releaseReservation(reservationId);
+
+        return ResponseEntity.ok(JsonApiResponse.of(RESERVATION_TYPE, response.getId(), response));
+    }
+
     // ==================== PRODUCTOS CON STOCK BAJO ====================
 
     @GetMapping("/low-stock")
     @Operation(
             summary = "Productos con stock bajo",
-            description = "Lista todos los productos cuyo stock está por debajo del mínimo configurado"
+            description = "Lista los productos cuyo stock está en o por debajo del mínimo configurado, del " +
+                    "faltante (minStock - quantity) mayor al menor. Paginado por cursor: links.next trae " +
+                    "la página siguiente y meta.total la cantidad de productos con stock bajo."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página de productos con stock bajo"),
+            @ApiResponse(responseCode = "400", description = "Límite o cursor inválido",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiListResponse<InventoryResponse>> getLowStockItems(
+            @Parameter(description = "Relaciones a incluir: product (datos del servicio de productos)", example = "product")
+            @RequestParam(required = false) String include,
+            @Parameter(description = "Cantidad máxima de productos por página (1-1000)", example = "100")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Cursor de links.next de la página anterior")
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /inventory/low-stock - Consultando productos con stock bajo (límite {}, cursor {})", limit, cursor);
+
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y 1000");
+        }
+        InventoryPage page = inventoryService.getLowStockItems(cursor, limit);
+        if (includesProduct(include)) {
+            page.setItems(inventoryService.includeProduct(page.getItems()));
+        }
+
+        return ResponseEntity.ok(toPagedResponse(page));
+    }
+
+    // ==================== UBICACIONES ====================
+
+    @GetMapping("/product/{productId}/locations")
+    @Operation(
+            summary = "Stock por ubicación",
+            description = "Lista el stock del producto en cada ubicación. La cantidad del inventario es la de " +
+                    "su fila principal más la de todas sus ubicaciones."
     )
-    public ResponseEntity<List<InventoryResponse>> getLowStockItems() {
-        log.info("GET /inventory/low-stock - Consultando productos con stock bajo");
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ubicaciones del producto"),
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiListResponse<InventoryLocationResponse>> getLocations(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId) {
 
-        List<InventoryResponse> items = inventoryService.getLowStockItems();
+        log.info("GET /inventory/product/{}/locations - Consultando ubicaciones", productId);
 
-        return ResponseEntity.ok(items);
+        List<InventoryLocationResponse> locations = inventoryService.getLocations(productId);
+
+        return ResponseEntity.ok(
+                JsonApiListResponse.of(LOCATION_TYPE, locations, InventoryLocationResponse::getId)
+        );
+    }
+
+    @PutMapping("/product/{productId}/locations/{locationId}")
+    @Operation(
+            summary = "Fijar stock en una ubicación",
+            description = "Crea o reemplaza el stock del producto en una ubicación. Las compras toman primero " +
+                    "de una ubicación con stock suficiente: repartir un producto en N ubicaciones permite " +
+                    "hasta N compras concurrentes sin esperarse."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock de la ubicación actualizado"),
+            @ApiResponse(responseCode = "400", description = "Cantidad inválida",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiResponse<InventoryLocationResponse>> setLocationStock(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId,
+            @Parameter(description = "ID de la ubicación", example = "almacen-norte")
+            @PathVariable String locationId,
+            @Valid @RequestBody LocationStockRequest request) {
+
+        log.info("PUT /inventory/product/{}/locations/{} - Cantidad: {}", productId, locationId, request.getQuantity());
+
+        InventoryLocationResponse location = inventoryService.setLocationStock(productId, locationId, request.getQuantity());
+
+        return ResponseEntity.ok(JsonApiResponse.of(LOCATION_TYPE, location.getId(), location));
+    }
+
+    @DeleteMapping("/product/{productId}/locations/{locationId}")
+    @Operation(
+            summary = "Eliminar ubicación",
+            description = "Elimina la ubicación del producto junto con su stock"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Ubicación eliminada"),
+            @ApiResponse(responseCode = "404", description = "Inventario o ubicación no encontrados",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<Void> removeLocation(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId,
+            @Parameter(description = "ID de la ubicación", example = "almacen-norte")
+            @PathVariable String locationId) {
+
+        log.info("DELETE /inventory/product/{}/locations/{} - Eliminando ubicación", productId, locationId);
+
+        inventoryService.removeLocation(productId, locationId);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    // ==================== MOVIMIENTOS (LEDGER) ====================
+
+    @GetMapping("/product/{productId}/movements")
+    @Operation(
+            summary = "Historial de movimientos",
+            description = "Últimos movimientos de stock registrados en el ledger (modo LEDGER), " +
+                    "del más reciente al más antiguo"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Movimientos del producto"),
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
+    })
+    public ResponseEntity<JsonApiListResponse<InventoryMovementResponse>> getMovements(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long productId,
+            @Parameter(description = "Cantidad máxima de movimientos (1-1000)", example = "50")
+            @RequestParam(defaultValue = "50") int limit) {
+
+        log.info("GET /inventory/product/{}/movements - Límite: {}", productId, limit);
+
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y 1000");
+        }
+        List<InventoryMovementResponse> movements = inventoryService.getMovements(productId, limit);
+
+        return ResponseEntity.ok(
+                JsonApiListResponse.of(MOVEMENT_TYPE, movements, InventoryMovementResponse::getId)
+        );
     }
 
     // ==================== VERIFICAR STOCK ====================
@@ -189,16 +665,117 @@ public class InventoryController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Inventario eliminado"),
-            @ApiResponse(responseCode = "404", description = "Inventario no encontrado")
+            @ApiResponse(responseCode = "404", description = "Inventario no encontrado"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match ya no es la actual",
+                    content = @Content(schema = @Schema(implementation = JsonApiErrorResponse.class)))
     })
     public ResponseEntity<Void> deleteInventory(
             @Parameter(description = "ID del producto", example = "1")
-            @PathVariable Long productId) {
+            @PathVariable Long productId,
+            @Parameter(description = "ETag de la versión que se quiere eliminar")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         log.info("DELETE /inventory/product/{} - Eliminando inventario", productId);
 
-        inventoryService.deleteInventory(productId);
+        inventoryService.deleteInventory(productId, parseIfMatch(ifMatch));
 
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // ==================== NDJSON ====================
+
+    /**
+     * Escribe un tramo de resultados (una línea JSON por fila) y lo envía al cliente. El primer
+     * tramo confirma la respuesta: los errores previos a él siguen usando el formato JSON:API.
+     */
+    private void writeNdjson(HttpServletResponse response, List<BulkInventoryResult> chunk) {
+        try {
+            if (!response.isCommitted()) {
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            }
+            OutputStream out = response.getOutputStream();
+            for (BulkInventoryResult result : chunk) {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+            }
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo enviar el resultado de la carga masiva", e);
+        }
+    }
+
+    // ==================== PAGINACIÓN ====================
+
+    /**
+     * Listado JSON:API de una página por cursor: meta con conteos y links.next si hay más.
+     */
+    private static JsonApiListResponse<InventoryResponse> toPagedResponse(InventoryPage page) {
+        JsonApiListResponse<InventoryResponse> response =
+                JsonApiListResponse.of(RESOURCE_TYPE, page.getItems(), InventoryResponse::getId);
+
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("count", page.getItems().size());
+        if (page.getTotal() != null) {
+            meta.put("total", page.getTotal());
+        }
+        response.setMeta(meta);
+
+        if (page.getNextCursor() != null) {
+            response.setLinks(Map.of("next", ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build()
+                    .toUriString()));
+        }
+        return response;
+    }
+
+    // ==================== ETAG / IF-MATCH ====================
+
+    /**
+     * ETag fuerte con la versión de la fila. Los productos en modo hot no tienen versión
+     * estable (su stock cambia en memoria), así que no llevan ETag.
+     */
+    private static String toETag(InventoryResponse response) {
+        return response.getVersion() != null ? "\"" + response.getVersion() + "\"" : null;
+    }
+
+    /**
+     * Versión indicada en If-Match ("5", W/"5" o 5). Sin header o "*": sin condición.
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+        }
+    }
+
+    // ==================== INCLUDE ====================
+
+    /**
+     * Indica si el cliente pidió los datos del producto (?include=product). Sin include la respuesta
+     * se arma solo con la fila local y no hay llamadas al servicio de productos.
+     * Una relación desconocida es un error (JSON:API: 400), y se valida antes de aplicar cambios.
+     */
+    private static boolean includesProduct(String include) {
+        if (include == null || include.isBlank()) {
+            return false;
+        }
+        for (String path : include.split(",")) {
+            if (!PRODUCT_INCLUDE.equals(path.trim())) {
+                throw new IllegalArgumentException("include no soportado: " + path.trim());
+            }
+        }
+        return true;
+    }
+}
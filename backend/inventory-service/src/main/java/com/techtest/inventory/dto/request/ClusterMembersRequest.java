@@ -0,0 +1,24 @@
+package com.techtest.inventory.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Membresía completa del cluster que un nodo difunde a los demás tras un alta o una baja.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClusterMembersRequest {
+
+    // Versión de la membresía: un nodo ignora las que no sean más nuevas que la suya
+    @NotNull(message = "La versión es obligatoria")
+    private Long epoch;
+
+    @NotNull(message = "La lista de nodos es obligatoria")
+    private List<String> nodes;
+}
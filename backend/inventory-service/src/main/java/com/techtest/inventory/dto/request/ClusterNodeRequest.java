@@ -0,0 +1,19 @@
+package com.techtest.inventory.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+/**
+ * DTO para agregar un nodo al cluster.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClusterNodeRequest {
+
+    // URL base del nodo, incluido el context-path (ej: http://inventory-2:8082/api/v1)
+    @NotBlank(message = "La URL del nodo es obligatoria")
+    private String url;
+}
@@ -0,0 +1,24 @@
+package com.techtest.inventory.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * DTO para comprar varias líneas en una sola transacción (checkout de un carrito).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPurchaseRequest {
+
+    @NotEmpty(message = "La orden debe tener al menos una línea")
+    @Size(max = 200, message = "La orden no puede tener más de 200 líneas")
+    @Valid
+    private List<PurchaseLineRequest> lines;
+}
@@ -0,0 +1,23 @@
+package com.techtest.inventory.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * Línea de una orden de compra (producto + cantidad).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseLineRequest {
+
+    @NotNull(message = "El ID del producto es obligatorio")
+    private Long productId;
+
+    @NotNull(message = "La cantidad a comprar es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    private Integer quantity;
+}
@@ -1,5 +1,6 @@
 package com.techtest.inventory.dto.request;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -16,5 +17,6 @@ public class PurchaseRequest {
 
     @NotNull(message = "La cantidad a comprar es obligatoria")
     @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Max(value = 1_000_000, message = "La cantidad no puede ser mayor a 1000000")
     private Integer quantity;
 }
\ No newline at end of file
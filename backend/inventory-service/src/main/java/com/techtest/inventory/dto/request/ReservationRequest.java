@@ -0,0 +1,24 @@
+package com.techtest.inventory.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * DTO para reservar stock mientras se completa un checkout.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationRequest {
+
+    @NotNull(message = "La cantidad a reservar es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    private Integer quantity;
+
+    // Opcional: si no se indica se usa el TTL configurado (y nunca supera el máximo)
+    @Min(value = 1, message = "El TTL debe ser al menos 1 segundo")
+    private Integer ttlSeconds;
+}
@@ -0,0 +1,30 @@
+package com.techtest.inventory.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * DTO para ajustar el stock con un delta relativo (recepciones, devoluciones, mermas).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustmentRequest {
+
+    @NotNull(message = "El delta es obligatorio")
+    @Min(value = -1_000_000, message = "El delta no puede ser menor a -1000000")
+    @Max(value = 1_000_000, message = "El delta no puede ser mayor a 1000000")
+    private Integer delta;
+
+    // Opcional: la cantidad resultante no puede quedar por debajo (por defecto 0)
+    @Min(value = 0, message = "El mínimo no puede ser negativo")
+    private Integer floor;
+
+    // Opcional: la cantidad resultante no puede superarlo (por defecto sin tope)
+    @Min(value = 0, message = "El máximo no puede ser negativo")
+    private Integer ceiling;
+}
@@ -0,0 +1,49 @@
+package com.techtest.inventory.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.techtest.inventory.dto.response.JsonApiErrorResponse.JsonApiError;
+import lombok.*;
+
+/**
+ * Resultado de una fila de la carga masiva de inventario (una línea de la respuesta NDJSON).
+ *
+ * index es la posición de la fila en la solicitud; data viene si se aplicó y error si se rechazó.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkInventoryResult {
+
+    public enum Status { CREATED, UPDATED, REJECTED }
+
+    private int index;
+    private Long productId;
+    private Status status;
+    private InventoryResponse data;
+    private JsonApiError error;
+
+    public static BulkInventoryResult applied(int index, boolean created, InventoryResponse data) {
+        return BulkInventoryResult.builder()
+                .index(index)
+                .productId(data.getProductId())
+                .status(created ? Status.CREATED : Status.UPDATED)
+                .data(data)
+                .build();
+    }
+
+    public static BulkInventoryResult rejected(int index, Long productId, String status, String code, String detail) {
+        return BulkInventoryResult.builder()
+                .index(index)
+                .productId(productId)
+                .status(Status.REJECTED)
+                .error(JsonApiError.builder()
+                        .status(status)
+                        .code(code)
+                        .detail(detail)
+                        .build())
+                .build();
+    }
+}
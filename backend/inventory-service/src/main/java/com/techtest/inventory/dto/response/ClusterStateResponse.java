@@ -0,0 +1,27 @@
+package com.techtest.inventory.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Membresía del cluster vista desde un nodo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClusterStateResponse {
+
+    private Boolean enabled;
+    private String self;
+    private Long epoch;
+    private List<String> nodes;
+
+    // Solo en la consulta del dueño de un producto
+    private Long productId;
+    private String owner;
+}
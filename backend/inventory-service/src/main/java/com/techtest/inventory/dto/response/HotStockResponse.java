@@ -0,0 +1,25 @@
+package com.techtest.inventory.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Estado de un producto en modo hot (stock servido desde memoria).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HotStockResponse {
+
+    private Long productId;
+    private Long availableQuantity;
+
+    // Unidades vendidas en memoria aún no escritas en BD
+    private Long pendingDelta;
+
+    private Integer stripes;
+    private Boolean frozen;
+}
@@ -0,0 +1,26 @@
+package com.techtest.inventory.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Resultado de la consulta de inventario de varios productos: los encontrados y los IDs sin inventario.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryLookup {
+
+    /**
+     * Inventario de los productos encontrados, en el orden pedido
+     */
+    private List<InventoryResponse> items;
+
+    /**
+     * IDs pedidos que no tienen inventario
+     */
+    private List<Long> missingProductIds;
+}
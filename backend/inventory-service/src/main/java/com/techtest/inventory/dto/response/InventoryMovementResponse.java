@@ -0,0 +1,25 @@
+package com.techtest.inventory.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de respuesta para movimientos del ledger de inventario.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InventoryMovementResponse {
+
+    private Long id;
+    private Long productId;
+    private Integer delta;
+    private String reason;
+    private Boolean folded;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.techtest.inventory.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Página de inventario recorrida por cursor (keyset): los items y el cursor de la página siguiente.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryPage {
+
+    private List<InventoryResponse> items;
+
+    /**
+     * Cursor para pedir la página siguiente, o null si esta es la última
+     */
+    private String nextCursor;
+
+    /**
+     * Total de elementos del listado (sin paginar), o null si no se calcula
+     */
+    private Long total;
+}
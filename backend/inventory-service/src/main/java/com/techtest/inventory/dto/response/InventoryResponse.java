@@ -24,6 +24,7 @@ public class InventoryResponse {
     private Integer availableQuantity;
     private Integer minStock;
     private Boolean lowStock;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
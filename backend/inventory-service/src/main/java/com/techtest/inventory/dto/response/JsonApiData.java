@@ -22,4 +22,12 @@ public class JsonApiData<T> {
                 .attributes(attributes)
                 .build();
     }
-}
\ No newline at end of file
+
+    public static <T> JsonApiData<T> of(String type, String id, T attributes) {
+        return JsonApiData.<T>builder()
+                .type(type)
+                .id(id)
+                .attributes(attributes)
+                .build();
+    }
+}
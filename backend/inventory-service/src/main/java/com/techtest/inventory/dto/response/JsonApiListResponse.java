@@ -0,0 +1,43 @@
+package com.techtest.inventory.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Respuesta JSON:API para una lista de recursos.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JsonApiListResponse<T> {
+
+    private List<JsonApiData<T>> data;
+
+    /**
+     * Información del listado (conteos); solo en listados paginados
+     */
+    private Map<String, Object> meta;
+
+    /**
+     * Enlaces de paginación (next); solo en listados paginados
+     */
+    private Map<String, String> links;
+
+    public static <T> JsonApiListResponse<T> of(String type, List<T> items, Function<T, Long> idExtractor) {
+        List<JsonApiData<T>> dataList = items.stream()
+                .map(item -> JsonApiData.of(type, idExtractor.apply(item), item))
+                .collect(Collectors.toList());
+
+        return JsonApiListResponse.<T>builder()
+                .data(dataList)
+                .build();
+    }
+}
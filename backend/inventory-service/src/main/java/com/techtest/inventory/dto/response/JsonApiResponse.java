@@ -18,4 +18,10 @@ public class JsonApiResponse<T> {
                 .data(JsonApiData.of(type, id, attributes))
                 .build();
     }
-}
\ No newline at end of file
+
+    public static <T> JsonApiResponse<T> of(String type, String id, T attributes) {
+        return JsonApiResponse.<T>builder()
+                .data(JsonApiData.of(type, id, attributes))
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.techtest.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad EscrowLease - Porción del stock de un producto cedida a una instancia del servicio.
+ *
+ * Mientras existe, sus unidades forman parte de Inventory.reservedQuantity: ninguna otra instancia
+ * puede venderlas. La instancia dueña las vende desde memoria, escribe periódicamente lo vendido y
+ * renueva el vencimiento; si deja de renovarlo (caída), otra instancia devuelve las unidades al
+ * disponible.
+ */
+@Entity
+@Table(name = "inventory_escrow_lease", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_escrow_product_instance", columnNames = {"product_id", "instance_id"})
+}, indexes = {
+        @Index(name = "idx_escrow_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EscrowLease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "instance_id", nullable = false, length = 64)
+    private String instanceId;
+
+    /**
+     * Unidades apartadas en reservedQuantity a nombre de esta instancia (sin vender o vendidas
+     * y aún no escritas)
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer units = 0;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,6 +2,7 @@ package com.techtest.inventory.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -23,6 +24,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Inventory {
 
+    public static final int DEFAULT_MIN_STOCK = 5;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,9 +41,21 @@ public class Inventory {
     @Builder.Default
     private Integer reservedQuantity = 0;  // Cantidad reservada en órdenes pendientes
 
+    // Parte de reservedQuantity cedida a instancias en modo escrow: figura como reservada pero se vende
+    @Column(name = "escrow_quantity", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer escrowQuantity = 0;
+
     @Column(name = "min_stock")
     @Builder.Default
-    private Integer minStock = 5;  // Alerta cuando el stock baja de este valor
+    private Integer minStock = DEFAULT_MIN_STOCK;  // Alerta cuando el stock baja de este valor
+
+    // Concurrencia optimista: las escrituras directas (UPDATE en bloque) también lo incrementan.
+    // El default permite agregar la columna a tablas con filas existentes.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -65,6 +80,24 @@ public class Inventory {
         return getAvailableQuantity() >= requestedQuantity;
     }
 
+    /**
+     * Copia desacoplada del contexto de persistencia con otra cantidad (vistas con la cantidad
+     * vigente: movimientos del ledger pendientes, stock en otras ubicaciones)
+     */
+    public Inventory withQuantity(int quantity) {
+        return Inventory.builder()
+                .id(id)
+                .productId(productId)
+                .quantity(quantity)
+                .reservedQuantity(reservedQuantity)
+                .escrowQuantity(escrowQuantity)
+                .minStock(minStock)
+                .version(version)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
     /**
      * Verifica si el stock está por debajo del mínimo
      */
@@ -0,0 +1,50 @@
+package com.techtest.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad InventoryLocation - Stock de un producto en una ubicación (almacén o shard).
+ *
+ * La fila de Inventory sigue siendo la ubicación principal: conserva mínimo, reservas y versión.
+ * La cantidad de un producto es la de su fila principal más la de todas sus ubicaciones; cada
+ * ubicación es una fila distinta, así que las compras sobre ubicaciones distintas no compiten
+ * por el mismo bloqueo.
+ */
+@Entity
+@Table(name = "inventory_location", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_location_product_location", columnNames = {"product_id", "location_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "location_id", nullable = false, length = 64)
+    private String locationId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer quantity = 0;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
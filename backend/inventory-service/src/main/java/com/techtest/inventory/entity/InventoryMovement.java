@@ -0,0 +1,60 @@
+package com.techtest.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad InventoryMovement - Movimiento de stock del ledger (modo LEDGER).
+ *
+ * Las compras y los cambios de cantidad se insertan como movimientos (solo INSERT, sin tocar
+ * la fila de inventario). El compactador los suma a Inventory.quantity y los marca como
+ * plegados; la cantidad vigente es la del snapshot más los movimientos sin plegar.
+ * Los movimientos plegados se conservan: son el historial del producto.
+ */
+@Entity
+@Table(name = "inventory_movement", indexes = {
+        @Index(name = "idx_movement_product_folded", columnList = "product_id, folded"),
+        @Index(name = "idx_movement_folded", columnList = "folded")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryMovement {
+
+    // Secuencia con reserva de bloques: insertar no compite por nada más que el bloque de IDs
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_movement_seq")
+    @SequenceGenerator(name = "inventory_movement_seq", sequenceName = "inventory_movement_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Reason reason;
+
+    // Ya sumado al snapshot (Inventory.quantity)
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean folded = false;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Reason {
+        PURCHASE,
+        // Compensaba una compra que al verificarse dejaba el disponible en negativo; hoy las
+        // compras se verifican antes de insertarse y solo aparece en el historial anterior
+        PURCHASE_REVERTED,
+        STOCK_UPDATE,
+        QUANTITY_ADJUSTMENT
+    }
+}
@@ -0,0 +1,49 @@
+package com.techtest.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad OutboxEvent - Evento de inventario pendiente de entregar (patrón transactional outbox).
+ *
+ * La fila se inserta en la misma transacción que el cambio de inventario, así que el evento
+ * existe si y solo si el cambio se confirmó. El relay la entrega después y marca publishedAt.
+ * Mientras claimedUntil está en el futuro la fila está reclamada por un relay.
+ */
+@Entity
+@Table(name = "inventory_outbox", indexes = {
+        @Index(name = "idx_outbox_published_id", columnList = "published_at, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // Secuencia con reserva de bloques: las inserciones de una orden van en lote JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_outbox_seq")
+    @SequenceGenerator(name = "inventory_outbox_seq", sequenceName = "inventory_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+}
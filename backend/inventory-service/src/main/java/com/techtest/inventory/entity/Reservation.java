@@ -0,0 +1,59 @@
+package com.techtest.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad Reservation - Unidades apartadas de un producto mientras se completa un checkout.
+ *
+ * Mientras está PENDING, su cantidad forma parte de Inventory.reservedQuantity.
+ * Al confirmarse se descuenta del stock; al liberarse o expirar se devuelve al disponible.
+ */
+@Entity
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservation_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Reservation {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        PENDING,    // Unidades apartadas en reservedQuantity
+        CONFIRMED,  // Descontadas del stock
+        RELEASED,   // Devueltas por el cliente
+        EXPIRED     // Devueltas al vencer el TTL
+    }
+}
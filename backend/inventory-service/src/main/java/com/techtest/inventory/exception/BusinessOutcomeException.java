@@ -0,0 +1,21 @@
+package com.techtest.inventory.exception;
+
+/**
+ * Resultado de negocio esperado (sin stock, inventario inexistente) propagado como excepción.
+ *
+ * En un agotamiento de stock se rechazan miles de compras por segundo: estas excepciones no
+ * capturan stack trace ni admiten suprimidas, y el mensaje se arma solo si alguien lo lee.
+ */
+public abstract class BusinessOutcomeException extends RuntimeException {
+
+    protected BusinessOutcomeException() {
+        super(null, null, false, false);
+    }
+
+    @Override
+    public String getMessage() {
+        return buildMessage();
+    }
+
+    protected abstract String buildMessage();
+}
@@ -0,0 +1,12 @@
+package com.techtest.inventory.exception;
+
+/**
+ * Excepción cuando una operación de membresía del cluster no viene de otro nodo
+ * (falta el secreto del cluster o no coincide).
+ */
+public class ClusterPeerRequiredException extends RuntimeException {
+
+    public ClusterPeerRequiredException(String operation) {
+        super(String.format("La operación '%s' solo puede invocarla otro nodo del cluster", operation));
+    }
+}
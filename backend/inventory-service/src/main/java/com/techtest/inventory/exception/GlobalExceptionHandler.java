@@ -2,7 +2,10 @@ package com.techtest.inventory.exception;
 
 import com.techtest.inventory.dto.response.JsonApiErrorResponse;
 import com.techtest.inventory.dto.response.JsonApiErrorResponse.JsonApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -22,9 +25,31 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    // Stock insuficiente, inventario inexistente y ajustes fuera de límites son resultados esperados
+    // (miles por segundo en un agotamiento): se cuentan en métricas y se registran solo en DEBUG
+    private final Counter notFoundCounter;
+    private final Counter insufficientStockCounter;
+    private final Counter stockBoundsCounter;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.notFoundCounter = rejectedCounter(meterRegistry, "INVENTORY_NOT_FOUND");
+        this.insufficientStockCounter = rejectedCounter(meterRegistry, "INSUFFICIENT_STOCK");
+        this.stockBoundsCounter = rejectedCounter(meterRegistry, "STOCK_BOUNDS_VIOLATED");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String code) {
+        return Counter.builder("inventory.requests.rejected")
+                .description("Peticiones rechazadas por un resultado de negocio esperado")
+                .tag("code", code)
+                .register(meterRegistry);
+    }
+
     @ExceptionHandler(InventoryNotFoundException.class)
     public ResponseEntity<JsonApiErrorResponse> handleInventoryNotFound(InventoryNotFoundException ex) {
-        log.warn("Inventario no encontrado: {}", ex.getMessage());
+        notFoundCounter.increment();
+        if (log.isDebugEnabled()) {
+            log.debug("Inventario no encontrado: {}", ex.getMessage());
+        }
 
         JsonApiErrorResponse response = JsonApiErrorResponse.of(
                 "404",
@@ -38,7 +63,10 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(InsufficientStockException.class)
     public ResponseEntity<JsonApiErrorResponse> handleInsufficientStock(InsufficientStockException ex) {
-        log.warn("Stock insuficiente: {}", ex.getMessage());
+        insufficientStockCounter.increment();
+        if (log.isDebugEnabled()) {
+            log.debug("Stock insuficiente: {}", ex.getMessage());
+        }
 
         JsonApiErrorResponse response = JsonApiErrorResponse.of(
                 "400",
@@ -50,6 +78,132 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(StockBoundsException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleStockBounds(StockBoundsException ex) {
+        stockBoundsCounter.increment();
+        if (log.isDebugEnabled()) {
+            log.debug("Ajuste de stock fuera de límites: {}", ex.getMessage());
+        }
+
+        JsonApiErrorResponse response = JsonApiErrorResponse.of(
+                "409",
+                "STOCK_BOUNDS_VIOLATED",
+                "Ajuste fuera de los límites de stock",
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(InventoryVersionMismatchException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleVersionMismatch(InventoryVersionMismatchException ex) {
+        log.warn("Precondición If-Match fallida: {}", ex.getMessage());
+
+        JsonApiErrorResponse response = JsonApiErrorResponse.of(
+                "412",
+                "PRECONDITION_FAILED",
+                "El inventario fue modificado",
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        log.warn("Conflicto de concurrencia persistente: {}", ex.getMessage());
+
+        JsonApiErrorResponse response = JsonApiErrorResponse.of(
+                "409",
+                "CONCURRENT_MODIFICATION",
+                "Conflicto de concurrencia",
+                "El inventario se está modificando concurrentemente. Intente nuevamente."
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(InventoryLocationNotFoundException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleLocationNotFound(InventoryLocationNotFoundException ex) {
+        log.warn("Ubicación no encontrada: {}", ex.getMessage());
+
+        JsonApiErrorResponse response = JsonApiErrorResponse.of(
+                "404",
+                "LOCATION_NOT_FOUND",
+                "Ubicación no encontrada",
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleReservationNotFound(ReservationNotFoundException ex) {
+        log.warn("Reserva no encontrada: {}", ex.getMessage());
+
+        JsonApiErrorResponse response = JsonApiErrorResponse.of(
+                "404",
+                "RESERVATION_NOT_FOUND",
+                "Reserva no encontrada",
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    @ExceptionHandler(ReservationStateException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleReservationState(ReservationStateException ex) {
+        log.warn("Reserva no pendiente: {}", ex.getMessage());
+
+        JsonApiErrorResponse response = JsonApiErrorResponse.of(
+                "409",
+                "RESERVATION_NOT_PENDING",
+                "La reserva ya no está pendiente",
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(OrderPurchaseException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleOrderPurchase(OrderPurchaseException ex) {
+        log.warn("Orden de compra rechazada: {}", ex.getMessage());
+
+        List<JsonApiError> errors = ex.getLineErrors().entrySet().stream()
+                .map(entry -> mapLineError(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(JsonApiErrorResponse.ofList(errors));
+    }
+
+    private JsonApiError mapLineError(Integer lineIndex, RuntimeException cause) {
+        boolean notFound = cause instanceof InventoryNotFoundException;
+
+        return JsonApiError.builder()
+                .status(notFound ? "404" : "400")
+                .code(notFound ? "INVENTORY_NOT_FOUND" : "INSUFFICIENT_STOCK")
+                .title(notFound ? "Inventario no encontrado" : "Stock insuficiente")
+                .detail(cause.getMessage())
+                .source("lines[" + lineIndex + "]")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @ExceptionHandler(ClusterPeerRequiredException.class)
+    public ResponseEntity<JsonApiErrorResponse> handleClusterPeerRequired(ClusterPeerRequiredException ex) {
+        log.warn("Operación de cluster rechazada: {}", ex.getMessage());
+
+        JsonApiErrorResponse response = JsonApiErrorResponse.of(
+                "403",
+                "CLUSTER_PEER_REQUIRED",
+                "Operación reservada a los nodos del cluster",
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+
     @ExceptionHandler(ProductServiceException.class)
     public ResponseEntity<JsonApiErrorResponse> handleProductServiceError(ProductServiceException ex) {
         log.error("Error en servicio de productos: {}", ex.getMessage());
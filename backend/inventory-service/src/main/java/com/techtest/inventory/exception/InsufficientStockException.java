@@ -1,24 +1,28 @@
 package com.techtest.inventory.exception;
 
 /**
- * Excepción cuando no hay stock suficiente para una compra.
+ * Excepción cuando no hay stock suficiente para una compra (sin stack trace).
  */
-public class InsufficientStockException extends RuntimeException {
+public class InsufficientStockException extends BusinessOutcomeException {
 
     private final Long productId;
     private final Integer requestedQuantity;
     private final Integer availableQuantity;
 
     public InsufficientStockException(Long productId, Integer requestedQuantity, Integer availableQuantity) {
-        super(String.format(
-                "Stock insuficiente para el producto %d. Solicitado: %d, Disponible: %d",
-                productId, requestedQuantity, availableQuantity
-        ));
         this.productId = productId;
         this.requestedQuantity = requestedQuantity;
         this.availableQuantity = availableQuantity;
     }
 
+    @Override
+    protected String buildMessage() {
+        return String.format(
+                "Stock insuficiente para el producto %d. Solicitado: %d, Disponible: %d",
+                productId, requestedQuantity, availableQuantity
+        );
+    }
+
     public Long getProductId() {
         return productId;
     }
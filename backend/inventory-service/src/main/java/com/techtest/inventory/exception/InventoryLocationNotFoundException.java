@@ -0,0 +1,24 @@
+package com.techtest.inventory.exception;
+
+/**
+ * Excepción cuando un producto no tiene stock registrado en la ubicación indicada.
+ */
+public class InventoryLocationNotFoundException extends RuntimeException {
+
+    private final Long productId;
+    private final String locationId;
+
+    public InventoryLocationNotFoundException(Long productId, String locationId) {
+        super(String.format("El producto %d no tiene stock en la ubicación: %s", productId, locationId));
+        this.productId = productId;
+        this.locationId = locationId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+}
@@ -1,17 +1,21 @@
 package com.techtest.inventory.exception;
 
 /**
- * Excepción cuando no se encuentra inventario para un producto.
+ * Excepción cuando no se encuentra inventario para un producto (sin stack trace).
  */
-public class InventoryNotFoundException extends RuntimeException {
+public class InventoryNotFoundException extends BusinessOutcomeException {
 
     private final Long productId;
 
     public InventoryNotFoundException(Long productId) {
-        super(String.format("No se encontró inventario para el producto con ID: %d", productId));
         this.productId = productId;
     }
 
+    @Override
+    protected String buildMessage() {
+        return String.format("No se encontró inventario para el producto con ID: %d", productId);
+    }
+
     public Long getProductId() {
         return productId;
     }
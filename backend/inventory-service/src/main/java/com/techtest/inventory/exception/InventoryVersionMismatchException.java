@@ -0,0 +1,27 @@
+package com.techtest.inventory.exception;
+
+/**
+ * Excepción cuando la versión indicada en If-Match ya no es la actual del inventario.
+ */
+public class InventoryVersionMismatchException extends RuntimeException {
+
+    private final Long productId;
+    private final Long expectedVersion;
+
+    public InventoryVersionMismatchException(Long productId, Long expectedVersion) {
+        super(String.format(
+                "El inventario del producto %d fue modificado. Versión esperada: %d",
+                productId, expectedVersion
+        ));
+        this.productId = productId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
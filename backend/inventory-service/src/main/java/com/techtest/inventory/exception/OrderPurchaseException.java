@@ -0,0 +1,22 @@
+package com.techtest.inventory.exception;
+
+import java.util.Map;
+
+/**
+ * Excepción cuando una o más líneas de una orden de compra no pueden aplicarse.
+ * La orden completa se rechaza (ninguna línea descuenta stock).
+ */
+public class OrderPurchaseException extends RuntimeException {
+
+    // Índice de la línea → causa (InsufficientStockException o InventoryNotFoundException)
+    private final Map<Integer, RuntimeException> lineErrors;
+
+    public OrderPurchaseException(Map<Integer, RuntimeException> lineErrors) {
+        super(String.format("La orden fue rechazada: %d línea(s) con error", lineErrors.size()));
+        this.lineErrors = lineErrors;
+    }
+
+    public Map<Integer, RuntimeException> getLineErrors() {
+        return lineErrors;
+    }
+}
@@ -0,0 +1,18 @@
+package com.techtest.inventory.exception;
+
+/**
+ * Excepción cuando no existe una reserva con el ID indicado.
+ */
+public class ReservationNotFoundException extends RuntimeException {
+
+    private final String reservationId;
+
+    public ReservationNotFoundException(String reservationId) {
+        super(String.format("No se encontró la reserva con ID: %s", reservationId));
+        this.reservationId = reservationId;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.techtest.inventory.exception;
+
+/**
+ * Excepción cuando una reserva ya no está pendiente (confirmada, liberada o vencida).
+ */
+public class ReservationStateException extends RuntimeException {
+
+    private final String reservationId;
+
+    public ReservationStateException(String reservationId, String state) {
+        super(String.format("La reserva %s ya no está pendiente. Estado: %s", reservationId, state));
+        this.reservationId = reservationId;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+}
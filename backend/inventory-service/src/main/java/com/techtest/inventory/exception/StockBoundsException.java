@@ -0,0 +1,51 @@
+package com.techtest.inventory.exception;
+
+/**
+ * Excepción cuando un ajuste de stock dejaría la cantidad fuera de sus límites
+ * (mínimo/máximo pedidos o por debajo de lo reservado). Sin stack trace.
+ */
+public class StockBoundsException extends BusinessOutcomeException {
+
+    private final Long productId;
+    private final Integer delta;
+    private final Integer currentQuantity;
+    private final Integer lowerBound;
+    private final Integer upperBound;
+
+    public StockBoundsException(Long productId, Integer delta, Integer currentQuantity,
+                                Integer lowerBound, Integer upperBound) {
+        this.productId = productId;
+        this.delta = delta;
+        this.currentQuantity = currentQuantity;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    @Override
+    protected String buildMessage() {
+        return String.format(
+                "El ajuste de %d unidades dejaría el producto %d en %d, fuera de los límites [%d, %d]",
+                delta, productId, (long) currentQuantity + delta, lowerBound, upperBound
+        );
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public Integer getCurrentQuantity() {
+        return currentQuantity;
+    }
+
+    public Integer getLowerBound() {
+        return lowerBound;
+    }
+
+    public Integer getUpperBound() {
+        return upperBound;
+    }
+}
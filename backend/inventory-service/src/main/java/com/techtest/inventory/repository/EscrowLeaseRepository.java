@@ -0,0 +1,51 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.EscrowLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EscrowLeaseRepository extends JpaRepository<EscrowLease, Long> {
+
+    Optional<EscrowLease> findByProductIdAndInstanceId(Long productId, String instanceId);
+
+    /**
+     * Suma (o resta) unidades a la cesión vigente de una instancia y renueva su vencimiento.
+     * Retorna 0 si la cesión no existe o ya venció. Vencimiento y vigencia se toman del reloj de
+     * la BD: las instancias no dependen de tener los relojes sincronizados.
+     */
+    @Modifying
+    @Query("UPDATE EscrowLease e SET e.units = e.units + :delta, " +
+            "e.expiresAt = local datetime + (:ttlMillis * 1000000L) nanosecond " +
+            "WHERE e.productId = :productId AND e.instanceId = :instanceId " +
+            "AND e.expiresAt > local datetime AND e.units + :delta >= 0")
+    int settle(@Param("productId") Long productId, @Param("instanceId") String instanceId,
+               @Param("delta") Integer delta, @Param("ttlMillis") long ttlMillis);
+
+    /**
+     * Fija el vencimiento de una cesión recién creada desde el reloj de la BD.
+     */
+    @Modifying
+    @Query("UPDATE EscrowLease e SET e.expiresAt = local datetime + (:ttlMillis * 1000000L) nanosecond WHERE e.id = :id")
+    int resetExpiry(@Param("id") Long id, @Param("ttlMillis") long ttlMillis);
+
+    @Query("SELECT e FROM EscrowLease e WHERE e.expiresAt <= local datetime ORDER BY e.expiresAt")
+    List<EscrowLease> findExpired();
+
+    /**
+     * Borra una cesión vencida; si otra instancia ya la recuperó (o su dueña la renovó) no borra nada
+     */
+    @Modifying
+    @Query("DELETE FROM EscrowLease e WHERE e.id = :id AND e.expiresAt <= local datetime")
+    int deleteExpired(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM EscrowLease e WHERE e.productId = :productId AND e.instanceId = :instanceId AND e.units = 0")
+    int deleteIfEmpty(@Param("productId") Long productId, @Param("instanceId") String instanceId);
+}
@@ -0,0 +1,62 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.IdempotencyRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Reclamar una clave con un INSERT directo: si otra petición ya la reclamó,
+     * falla por la clave primaria (sin SELECT previo).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (key_hash, request_hash, created_at, expires_at) " +
+            "VALUES (:keyHash, :requestHash, :createdAt, :expiresAt)", nativeQuery = true)
+    int insertClaim(@Param("keyHash") String keyHash,
+                    @Param("requestHash") String requestHash,
+                    @Param("createdAt") LocalDateTime createdAt,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Tomar una clave en curso cuya petición original se abandonó (p. ej. la instancia cayó).
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now, r.requestHash = :requestHash " +
+            "WHERE r.keyHash = :keyHash AND r.statusCode IS NULL AND r.createdAt < :staleBefore")
+    int takeOverStaleClaim(@Param("keyHash") String keyHash,
+                           @Param("requestHash") String requestHash,
+                           @Param("now") LocalDateTime now,
+                           @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Guardar la respuesta final de una clave reclamada.
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, " +
+            "r.etag = :etag, r.responseBody = :responseBody WHERE r.keyHash = :keyHash")
+    int complete(@Param("keyHash") String keyHash,
+                 @Param("statusCode") Integer statusCode,
+                 @Param("contentType") String contentType,
+                 @Param("etag") String etag,
+                 @Param("responseBody") String responseBody);
+
+    /**
+     * Claves vencidas, de a un lote por llamada.
+     */
+    @Query("SELECT r.keyHash FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    List<String> findExpiredKeys(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.keyHash IN :keyHashes")
+    int deleteByKeyHashIn(@Param("keyHashes") Collection<String> keyHashes);
+}
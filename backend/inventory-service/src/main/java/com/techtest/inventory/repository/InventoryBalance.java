@@ -0,0 +1,16 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.Inventory;
+
+/**
+ * Fila de inventario y suma de sus movimientos del ledger todavía sin plegar.
+ */
+public record InventoryBalance(Inventory inventory, Long pending) {
+
+    /**
+     * Cantidad vigente: snapshot más movimientos pendientes.
+     */
+    public int quantity() {
+        return inventory.getQuantity() + Math.toIntExact(pending);
+    }
+}
@@ -0,0 +1,84 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.InventoryLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryLocationRepository extends JpaRepository<InventoryLocation, Long> {
+
+    List<InventoryLocation> findByProductIdOrderByLocationId(Long productId);
+
+    Optional<InventoryLocation> findByProductIdAndLocationId(Long productId, String locationId);
+
+    /**
+     * Stock del producto en todas sus ubicaciones (sin la fila principal)
+     */
+    @Query("SELECT COALESCE(SUM(l.quantity), 0) FROM InventoryLocation l WHERE l.productId = :productId")
+    long sumQuantity(@Param("productId") Long productId);
+
+    /**
+     * Stock en ubicaciones de cada producto que tiene alguna (almacenamiento embebido: la fila
+     * principal no está en la BD y no puede unirse en la consulta)
+     */
+    @Query("SELECT l.productId AS productId, SUM(l.quantity) AS quantity FROM InventoryLocation l GROUP BY l.productId")
+    List<LocatedQuantity> sumQuantityByProduct();
+
+    /**
+     * Stock en ubicaciones de los productos de la lista que tienen alguna (una página del listado)
+     */
+    @Query("SELECT l.productId AS productId, SUM(l.quantity) AS quantity FROM InventoryLocation l " +
+            "WHERE l.productId IN :productIds GROUP BY l.productId")
+    List<LocatedQuantity> sumQuantityByProductIn(@Param("productIds") Collection<Long> productIds);
+
+    interface LocatedQuantity {
+
+        Long getProductId();
+
+        Long getQuantity();
+    }
+
+    /**
+     * Bloquea la ubicación con más stock que alcance para la cantidad, salteando las que otra
+     * transacción tiene bloqueadas (FOR UPDATE SKIP LOCKED): compras concurrentes se reparten
+     * entre ubicaciones en lugar de esperarse. La sintaxis es la misma en PostgreSQL y en H2.
+     */
+    @Query(value = "SELECT id FROM inventory_location WHERE product_id = :productId AND quantity >= :amount " +
+            "ORDER BY quantity DESC LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Long> lockUnlockedWithStock(@Param("productId") Long productId, @Param("amount") Integer amount);
+
+    /**
+     * Como {@link #lockUnlockedWithStock} pero esperando el bloqueo: se usa cuando todas las
+     * ubicaciones con stock suficiente estaban bloqueadas
+     */
+    @Query(value = "SELECT id FROM inventory_location WHERE product_id = :productId AND quantity >= :amount " +
+            "ORDER BY quantity DESC LIMIT 1 FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockWithStock(@Param("productId") Long productId, @Param("amount") Integer amount);
+
+    /**
+     * Lectura sin bloqueo: si alguna ubicación alcanza (aunque esté bloqueada por otra compra)
+     */
+    boolean existsByProductIdAndQuantityGreaterThanEqual(Long productId, Integer quantity);
+
+    @Query("SELECT DISTINCT l.productId FROM InventoryLocation l")
+    List<Long> findLocatedProductIds();
+
+    /**
+     * Descuenta de una ubicación ya bloqueada; la condición protege contra un cambio entre la
+     * selección y el UPDATE
+     */
+    @Modifying
+    @Query("UPDATE InventoryLocation l SET l.quantity = l.quantity - :amount WHERE l.id = :id AND l.quantity >= :amount")
+    int decrement(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Modifying
+    @Query("DELETE FROM InventoryLocation l WHERE l.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
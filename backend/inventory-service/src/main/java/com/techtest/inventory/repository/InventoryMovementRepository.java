@@ -0,0 +1,42 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    /**
+     * Suma de los movimientos confirmados que todavía no se plegaron al snapshot
+     */
+    @Query("SELECT COALESCE(SUM(m.delta), 0) FROM InventoryMovement m WHERE m.productId = :productId AND m.folded = false")
+    long sumPending(@Param("productId") Long productId);
+
+    /**
+     * Movimientos sin plegar de un producto, en orden de inserción
+     */
+    List<InventoryMovement> findByProductIdAndFoldedFalseOrderById(Long productId, Pageable pageable);
+
+    /**
+     * Productos con movimientos sin plegar (trabajo pendiente del compactador)
+     */
+    @Query("SELECT DISTINCT m.productId FROM InventoryMovement m WHERE m.folded = false")
+    List<Long> findProductIdsWithPending(Pageable pageable);
+
+    /**
+     * Historial de un producto, del más reciente al más antiguo
+     */
+    List<InventoryMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE InventoryMovement m SET m.folded = true WHERE m.id IN :ids")
+    int markFolded(@Param("ids") Collection<Long> ids);
+}
@@ -1,37 +1,132 @@
 package com.techtest.inventory.repository;
 
 import com.techtest.inventory.entity.Inventory;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository para acceso a la tabla de inventario.
+ *
+ * Solo expone las operaciones CRUD que usa el servicio (no todo JpaRepository): cada una debe
+ * tener también su versión en el almacenamiento embebido.
  */
-@Repository
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+@org.springframework.stereotype.Repository
+public interface InventoryRepository extends Repository<Inventory, Long>, InventoryRepositoryCustom {
+
+    /**
+     * Stock del producto en sus ubicaciones (InventoryLocation), para consultas JPQL sobre la fila i
+     */
+    String LOCATED_QUANTITY =
+            "COALESCE((SELECT SUM(l.quantity) FROM InventoryLocation l WHERE l.productId = i.productId), 0)";
+
+    /**
+     * Crear o actualizar la fila (con control de versión)
+     */
+    <S extends Inventory> S save(S entity);
+
+    <S extends Inventory> S saveAndFlush(S entity);
+
+    void delete(Inventory entity);
+
+    void deleteAll();
+
+    long count();
+
+    void flush();
 
     /**
      * Buscar inventario por ID de producto
      */
     Optional<Inventory> findByProductId(Long productId);
 
+    /**
+     * Buscar inventario por ID de producto bloqueando la fila (SELECT ... FOR UPDATE)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.productId = :productId")
+    Optional<Inventory> findByProductIdForUpdate(@Param("productId") Long productId);
+
+    /**
+     * Bloquea la fila sin cargar la entidad (SELECT id ... FOR UPDATE): el contexto de persistencia
+     * no retiene una copia que un UPDATE posterior de la misma transacción dejaría desactualizada
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i.id FROM Inventory i WHERE i.productId = :productId")
+    Optional<Long> lockByProductId(@Param("productId") Long productId);
+
+    /**
+     * Bloquea la fila y devuelve su cantidad disponible sin cargar la entidad (ver {@link #lockByProductId})
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i.quantity - i.reservedQuantity FROM Inventory i WHERE i.productId = :productId")
+    Optional<Integer> lockAvailableQuantity(@Param("productId") Long productId);
+
+    /**
+     * Fila de inventario junto con la suma de sus movimientos sin plegar (modo LEDGER), en una
+     * sola sentencia: una compactación concurrente no puede hacer que se cuente dos veces o ninguna
+     */
+    @Query("SELECT new com.techtest.inventory.repository.InventoryBalance(i, " +
+            "COALESCE((SELECT SUM(m.delta) FROM InventoryMovement m WHERE m.productId = i.productId AND m.folded = false), 0)) " +
+            "FROM Inventory i WHERE i.productId = :productId")
+    Optional<InventoryBalance> findBalanceByProductId(@Param("productId") Long productId);
+
+    /**
+     * Buscar y bloquear varias filas en una sola consulta.
+     * Las filas se bloquean ordenadas por productId para que transacciones concurrentes
+     * adquieran los bloqueos en el mismo orden (sin deadlocks).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.productId IN :productIds ORDER BY i.productId")
+    List<Inventory> findAllByProductIdInForUpdate(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Buscar varias filas por ID de producto en una sola consulta (sin bloqueo)
+     */
+    List<Inventory> findAllByProductIdIn(Collection<Long> productIds);
+
     /**
      * Verificar si existe inventario para un producto
      */
     boolean existsByProductId(Long productId);
 
     /**
-     * Obtener productos con stock bajo
+     * Obtener productos con stock bajo (fila principal más ubicaciones)
      */
-    @Query("SELECT i FROM Inventory i WHERE i.quantity <= i.minStock")
+    @Query("SELECT i FROM Inventory i " +
+            "WHERE i.quantity + " + LOCATED_QUANTITY + " <= i.minStock")
     List<Inventory> findLowStockItems();
 
+    /**
+     * IDs de los productos con stock bajo (sin cargar las entidades)
+     */
+    @Query("SELECT i.productId FROM Inventory i " +
+            "WHERE i.quantity + " + LOCATED_QUANTITY + " <= i.minStock")
+    List<Long> findLowStockProductIds();
+
+    /**
+     * Página del listado en orden de productId a partir de un producto (keyset: recorre el índice
+     * único de productId, sin OFFSET). Los filtros son sobre la cantidad total (fila principal
+     * más ubicaciones)
+     */
+    @Query("SELECT i FROM Inventory i WHERE i.productId > :afterProductId " +
+            "AND i.quantity + " + LOCATED_QUANTITY + " BETWEEN :minQuantity AND :maxQuantity " +
+            "AND (:lowStockOnly = false OR i.quantity + " + LOCATED_QUANTITY + " <= i.minStock) " +
+            "ORDER BY i.productId")
+    List<Inventory> findPageAfter(@Param("afterProductId") long afterProductId,
+                                  @Param("minQuantity") int minQuantity,
+                                  @Param("maxQuantity") int maxQuantity,
+                                  @Param("lowStockOnly") boolean lowStockOnly,
+                                  Limit limit);
+
     /**
      * Obtener productos sin stock
      */
@@ -42,15 +137,92 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
      * Actualizar cantidad directamente
      */
     @Modifying
-    @Query("UPDATE Inventory i SET i.quantity = :quantity WHERE i.productId = :productId")
+    @Query("UPDATE Inventory i SET i.quantity = :quantity, i.version = i.version + 1 WHERE i.productId = :productId")
     int updateQuantityByProductId(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
     /**
      * Decrementar cantidad (para compras)
+     * Respeta la cantidad reservada: solo descuenta si (quantity - reservedQuantity) >= amount.
      * Retorna el número de filas afectadas (0 si no hay stock suficiente)
      */
     @Modifying
-    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :amount " +
-            "WHERE i.productId = :productId AND i.quantity >= :amount")
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :amount, i.version = i.version + 1 " +
+            "WHERE i.productId = :productId AND i.quantity - i.reservedQuantity >= :amount")
     int decrementQuantity(@Param("productId") Long productId, @Param("amount") Integer amount);
-}
\ No newline at end of file
+
+    /**
+     * Sumar un delta (positivo o negativo) a la cantidad sin condición.
+     * Usado para volcar deltas agregados ya validados en memoria.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :delta, i.version = i.version + 1 " +
+            "WHERE i.productId = :productId")
+    int applyQuantityDelta(@Param("productId") Long productId, @Param("delta") Integer delta);
+
+    /**
+     * Suma al snapshot los movimientos plegados del ledger. No cambia la versión: la cantidad
+     * vigente (snapshot + movimientos) es la misma antes y después.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :delta WHERE i.productId = :productId")
+    int foldIntoSnapshot(@Param("productId") Long productId, @Param("delta") Integer delta);
+
+    /**
+     * Apartar unidades en reservedQuantity si hay disponible suficiente.
+     * Retorna 0 si no hay stock disponible (o no existe inventario).
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity + :amount, i.version = i.version + 1 " +
+            "WHERE i.productId = :productId AND i.quantity - i.reservedQuantity >= :amount")
+    int reserveQuantity(@Param("productId") Long productId, @Param("amount") Integer amount);
+
+    /**
+     * Devolver unidades reservadas al disponible (liberación o expiración).
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity - :amount, i.version = i.version + 1 " +
+            "WHERE i.productId = :productId AND i.reservedQuantity >= :amount")
+    int releaseReservedQuantity(@Param("productId") Long productId, @Param("amount") Integer amount);
+
+    /**
+     * Convertir unidades reservadas en venta: descuenta quantity y reservedQuantity a la vez,
+     * por lo que el disponible no cambia.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :amount, " +
+            "i.reservedQuantity = i.reservedQuantity - :amount, i.version = i.version + 1 " +
+            "WHERE i.productId = :productId AND i.reservedQuantity >= :amount")
+    int confirmReservedQuantity(@Param("productId") Long productId, @Param("amount") Integer amount);
+
+    /**
+     * Ceder unidades a una instancia en modo escrow: se apartan en reservedQuantity y en
+     * escrowQuantity si hay disponible suficiente.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity + :amount, " +
+            "i.escrowQuantity = i.escrowQuantity + :amount, i.version = i.version + 1 " +
+            "WHERE i.productId = :productId AND i.quantity - i.reservedQuantity >= :amount")
+    int reserveEscrowQuantity(@Param("productId") Long productId, @Param("amount") Integer amount);
+
+    /**
+     * Devolver al disponible unidades cedidas en modo escrow.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reservedQuantity = i.reservedQuantity - :amount, " +
+            "i.escrowQuantity = CASE WHEN i.escrowQuantity >= :amount THEN i.escrowQuantity - :amount ELSE 0 END, " +
+            "i.version = i.version + 1 " +
+            "WHERE i.productId = :productId AND i.reservedQuantity >= :amount")
+    int releaseEscrowQuantity(@Param("productId") Long productId, @Param("amount") Integer amount);
+
+    /**
+     * Escribir lo vendido desde una porción escrow: descuenta quantity, reservedQuantity y
+     * escrowQuantity a la vez.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :amount, " +
+            "i.reservedQuantity = i.reservedQuantity - :amount, " +
+            "i.escrowQuantity = CASE WHEN i.escrowQuantity >= :amount THEN i.escrowQuantity - :amount ELSE 0 END, " +
+            "i.version = i.version + 1 " +
+            "WHERE i.productId = :productId AND i.reservedQuantity >= :amount")
+    int confirmEscrowQuantity(@Param("productId") Long productId, @Param("amount") Integer amount);
+}
@@ -0,0 +1,54 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.Inventory;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operaciones de inventario que requieren SQL nativo (no expresables en JPQL).
+ */
+public interface InventoryRepositoryCustom {
+
+    /**
+     * Decrementa la cantidad de forma atómica y retorna la fila resultante en la misma sentencia.
+     * Solo descuenta si la cantidad disponible (quantity - reservedQuantity) alcanza.
+     *
+     * @return la fila actualizada, o vacío si no existe o no hay stock suficiente
+     */
+    Optional<Inventory> decrementAndGet(Long productId, int amount);
+
+    /**
+     * Suma un delta (positivo o negativo) a la cantidad de forma atómica y retorna la fila resultante.
+     * Solo se aplica si la cantidad resultante queda entre floor y ceiling (inclusive) y no por
+     * debajo de la cantidad reservada.
+     *
+     * @return la fila actualizada, o vacío si no existe o el resultado queda fuera de los límites
+     */
+    Optional<Inventory> adjustAndGet(Long productId, int delta, int floor, int ceiling);
+
+    /**
+     * Crea o reemplaza en lote la cantidad (y el mínimo, si viene) de varios productos, con
+     * sentencias agrupadas en un solo batch JDBC. Las filas se bloquean durante la transacción.
+     *
+     * @param rows filas a escribir; un productId no puede repetirse
+     * @return el resultado de cada fila, en el mismo orden
+     */
+    List<UpsertResult> upsertAll(List<Upsert> rows);
+
+    /**
+     * Fila a crear o reemplazar: minStock null conserva el actual (o el default en una fila nueva).
+     */
+    record Upsert(Long productId, int quantity, Integer minStock) {
+    }
+
+    /**
+     * Fila tal como quedó; previousQuantity es null si la fila no existía.
+     */
+    record UpsertResult(Inventory inventory, Integer previousQuantity) {
+
+        public boolean created() {
+            return previousQuantity == null;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.Inventory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementación de {@link InventoryRepositoryCustom}.
+ *
+ * Los UPDATE condicionales bloquean la fila solo durante la sentencia y retornan la fila
+ * resultante sin un segundo SELECT:
+ * - PostgreSQL: UPDATE ... RETURNING
+ * - H2 (tests): SELECT ... FROM FINAL TABLE (UPDATE ...)
+ *
+ * La escritura en lote usa un batch JDBC sobre la conexión de la transacción:
+ * - PostgreSQL: INSERT ... ON CONFLICT (product_id) DO UPDATE
+ * - H2 (tests): MERGE INTO ... USING ... (H2 no soporta ON CONFLICT DO UPDATE)
+ */
+class InventoryRepositoryCustomImpl implements InventoryRepositoryCustom {
+
+    private static final String DECREMENT_UPDATE =
+            "UPDATE inventory SET quantity = quantity - :amount, version = version + 1, " +
+            "updated_at = LOCALTIMESTAMP " +
+            "WHERE product_id = :productId AND quantity - reserved_quantity >= :amount";
+
+    private static final String DECREMENT_RETURNING_POSTGRES = DECREMENT_UPDATE + " RETURNING *";
+
+    private static final String DECREMENT_RETURNING_H2 = "SELECT * FROM FINAL TABLE (" + DECREMENT_UPDATE + ")";
+
+    // La cantidad resultante nunca queda por debajo de lo reservado, además de los límites pedidos.
+    // Las comparaciones van en BIGINT: con el tope por defecto (Integer.MAX_VALUE) la suma en int
+    // desbordaría la columna y fallaría en lugar de no aplicar el ajuste
+    private static final String ADJUSTED_QUANTITY = "CAST(quantity AS BIGINT) + :delta";
+
+    private static final String ADJUST_UPDATE =
+            "UPDATE inventory SET quantity = quantity + :delta, version = version + 1, " +
+            "updated_at = LOCALTIMESTAMP " +
+            "WHERE product_id = :productId AND " + ADJUSTED_QUANTITY + " >= :floor " +
+            "AND " + ADJUSTED_QUANTITY + " >= reserved_quantity AND " + ADJUSTED_QUANTITY + " <= :ceiling";
+
+    private static final String ADJUST_RETURNING_POSTGRES = ADJUST_UPDATE + " RETURNING *";
+
+    private static final String ADJUST_RETURNING_H2 = "SELECT * FROM FINAL TABLE (" + ADJUST_UPDATE + ")";
+
+    // Parámetros: productId, quantity, minStock, minStock por defecto, minStock
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO inventory (product_id, quantity, reserved_quantity, min_stock, version, created_at, updated_at) " +
+            "VALUES (?, ?, 0, COALESCE(?, ?), 0, LOCALTIMESTAMP, LOCALTIMESTAMP) " +
+            "ON CONFLICT (product_id) DO UPDATE SET quantity = EXCLUDED.quantity, " +
+            "min_stock = COALESCE(?, inventory.min_stock), version = inventory.version + 1, " +
+            "updated_at = LOCALTIMESTAMP";
+
+    // Parámetros: productId, quantity, minStock, minStock por defecto
+    private static final String UPSERT_H2 =
+            "MERGE INTO inventory t " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS INTEGER), CAST(? AS INTEGER))) s(product_id, quantity, min_stock) " +
+            "ON t.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET quantity = s.quantity, min_stock = COALESCE(s.min_stock, t.min_stock), " +
+            "version = t.version + 1, updated_at = LOCALTIMESTAMP " +
+            "WHEN NOT MATCHED THEN INSERT (product_id, quantity, reserved_quantity, min_stock, version, created_at, updated_at) " +
+            "VALUES (s.product_id, s.quantity, 0, COALESCE(s.min_stock, CAST(? AS INTEGER)), 0, LOCALTIMESTAMP, LOCALTIMESTAMP)";
+
+    // Bloqueo en orden de product_id: dos cargas concurrentes no se bloquean mutuamente
+    private static final String LOCK_QUANTITIES =
+            "SELECT product_id, quantity FROM inventory WHERE product_id IN (%s) ORDER BY product_id FOR UPDATE";
+
+    private static final String SELECT_BY_PRODUCT_IDS = "SELECT * FROM inventory WHERE product_id IN (%s)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean h2;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Inventory> decrementAndGet(Long productId, int amount) {
+        String sql = isH2() ? DECREMENT_RETURNING_H2 : DECREMENT_RETURNING_POSTGRES;
+        List<Inventory> rows = entityManager.createNativeQuery(sql, Inventory.class)
+                .setParameter("productId", productId)
+                .setParameter("amount", amount)
+                .getResultList();
+
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Inventory> adjustAndGet(Long productId, int delta, int floor, int ceiling) {
+        String sql = isH2() ? ADJUST_RETURNING_H2 : ADJUST_RETURNING_POSTGRES;
+        List<Inventory> rows = entityManager.createNativeQuery(sql, Inventory.class)
+                .setParameter("productId", productId)
+                .setParameter("delta", delta)
+                .setParameter("floor", floor)
+                .setParameter("ceiling", ceiling)
+                .getResultList();
+
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public List<UpsertResult> upsertAll(List<Upsert> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Upsert> ordered = rows.stream()
+                .sorted(Comparator.comparing(Upsert::productId))
+                .toList();
+        String inClause = String.join(",", Collections.nCopies(ordered.size(), "?"));
+        boolean h2Dialect = isH2();
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Map<Long, Integer> previous = new HashMap<>();
+            try (PreparedStatement lock = connection.prepareStatement(String.format(LOCK_QUANTITIES, inClause))) {
+                bindProductIds(lock, ordered);
+                try (ResultSet rs = lock.executeQuery()) {
+                    while (rs.next()) {
+                        previous.put(rs.getLong("product_id"), rs.getInt("quantity"));
+                    }
+                }
+            }
+
+            try (PreparedStatement upsert = connection.prepareStatement(h2Dialect ? UPSERT_H2 : UPSERT_POSTGRES)) {
+                for (Upsert row : ordered) {
+                    upsert.setLong(1, row.productId());
+                    upsert.setInt(2, row.quantity());
+                    upsert.setObject(3, row.minStock(), Types.INTEGER);
+                    upsert.setInt(4, Inventory.DEFAULT_MIN_STOCK);
+                    if (!h2Dialect) {
+                        upsert.setObject(5, row.minStock(), Types.INTEGER);
+                    }
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+
+            Map<Long, Inventory> written = new HashMap<>();
+            try (PreparedStatement select = connection.prepareStatement(String.format(SELECT_BY_PRODUCT_IDS, inClause))) {
+                bindProductIds(select, ordered);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        Inventory inventory = mapRow(rs);
+                        written.put(inventory.getProductId(), inventory);
+                    }
+                }
+            }
+
+            List<UpsertResult> results = new ArrayList<>(rows.size());
+            for (Upsert row : rows) {
+                results.add(new UpsertResult(written.get(row.productId()), previous.get(row.productId())));
+            }
+            return results;
+        });
+    }
+
+    private static void bindProductIds(PreparedStatement statement, List<Upsert> rows) throws SQLException {
+        for (int i = 0; i < rows.size(); i++) {
+            statement.setLong(i + 1, rows.get(i).productId());
+        }
+    }
+
+    private static Inventory mapRow(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return Inventory.builder()
+                .id(rs.getLong("id"))
+                .productId(rs.getLong("product_id"))
+                .quantity(rs.getInt("quantity"))
+                .reservedQuantity(rs.getInt("reserved_quantity"))
+                .escrowQuantity(rs.getInt("escrow_quantity"))
+                .minStock(rs.getInt("min_stock"))
+                .version(rs.getLong("version"))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .updatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null)
+                .build();
+    }
+
+    private boolean isH2() {
+        if (h2 == null) {
+            Dialect dialect = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect();
+            h2 = dialect instanceof H2Dialect;
+        }
+        return h2;
+    }
+}
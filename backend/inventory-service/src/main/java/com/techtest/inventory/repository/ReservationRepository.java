@@ -0,0 +1,43 @@
+package com.techtest.inventory.repository;
+
+import com.techtest.inventory.entity.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, String> {
+
+    /**
+     * Reservas pendientes (para reprogramar su expiración al arrancar)
+     */
+    List<Reservation> findByStatus(Reservation.Status status);
+
+    /**
+     * Cambiar el estado solo si la reserva sigue en el estado esperado.
+     * Retorna 0 si otra operación ya la confirmó, liberó o expiró.
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :to, r.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") String id,
+                   @Param("from") Reservation.Status from,
+                   @Param("to") Reservation.Status to);
+
+    /**
+     * Igual que {@link #transition} pero solo si el TTL de la reserva aún no ha pasado.
+     * Retorna 0 si no existe, ya no está en el estado esperado o ya venció.
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :to, r.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE r.id = :id AND r.status = :from AND r.expiresAt > :now")
+    int transitionIfActive(@Param("id") String id,
+                           @Param("from") Reservation.Status from,
+                           @Param("to") Reservation.Status to,
+                           @Param("now") LocalDateTime now);
+}
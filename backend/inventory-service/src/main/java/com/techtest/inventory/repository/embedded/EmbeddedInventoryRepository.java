@@ -0,0 +1,591 @@
+package com.techtest.inventory.repository.embedded;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.repository.InventoryBalance;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link InventoryRepository} sobre el almacenamiento embebido ({@link EmbeddedInventoryStore})
+ * en lugar de JPA. Se activa con inventory.storage.engine=embedded (perfil "embedded"); el resto
+ * de las tablas (movimientos, outbox, reservas, ubicaciones) sigue en la BD.
+ *
+ * Reproduce la semántica de la BD que usa el servicio:
+ * - Cada escritura toma el lock de la fila; dentro de una transacción se retiene hasta que
+ *   termina (como un UPDATE o un SELECT ... FOR UPDATE) y las imágenes nuevas se publican al
+ *   hacer commit; en un rollback se descartan
+ * - Las lecturas ven lo confirmado más lo escrito por la propia transacción
+ * - Las entidades leídas dentro de una transacción quedan administradas: sus cambios se
+ *   escriben al hacer flush o commit, con control de versión
+ * - Fuera de una transacción cada escritura se confirma sola
+ *
+ * Visibilidad de un commit: las imágenes se publican justo después del commit de la BD, en el
+ * primer callback posterior al commit y antes de liberar los locks de las filas. Así, una
+ * escritura confirmada ya se ve desde cualquier hilo cuando la transacción vuelve al llamador,
+ * en los demás callbacks posteriores al commit (cache, índice de stock bajo) y en toda escritura
+ * que esperaba el lock de la fila. Solo una lectura sin lock de otro hilo que caiga entre el
+ * commit de la BD y la publicación puede ver la imagen anterior aunque ya vea lo confirmado en
+ * la BD (p. ej. el outbox). No se publica antes: si la BD rechazara el commit, otros hilos
+ * habrían visto un cambio que no existe.
+ *
+ * El modo de compra LEDGER no está disponible: sus consultas unen la fila con los movimientos.
+ */
+@Repository("embeddedInventoryRepository")
+@Primary
+@ConditionalOnProperty(name = "inventory.storage.engine", havingValue = "embedded")
+public class EmbeddedInventoryRepository implements InventoryRepository {
+
+    private final EmbeddedInventoryStore store;
+    private final InventoryLocationRepository locationRepository;
+
+    public EmbeddedInventoryRepository(EmbeddedInventoryStore store,
+                                       InventoryLocationRepository locationRepository,
+                                       @Value("${inventory.purchase.mode:CONDITIONAL_UPDATE}") String purchaseMode) {
+        if ("LEDGER".equals(purchaseMode)) {
+            throw new IllegalStateException("El modo de compra LEDGER no está disponible con el almacenamiento embebido");
+        }
+        this.store = store;
+        this.locationRepository = locationRepository;
+    }
+
+    // ==================== LECTURAS ====================
+
+    @Override
+    public Optional<Inventory> findByProductId(Long productId) {
+        UnitOfWork unit = unit();
+        if (unit == null) {
+            return store.row(productId).map(StoredRow::toEntity);
+        }
+        SlotTable.Slot slot = store.find(productId);
+        return slot == null ? Optional.empty() : Optional.ofNullable(unit.current(slot)).map(unit::manage);
+    }
+
+    @Override
+    public Optional<Inventory> findByProductIdForUpdate(Long productId) {
+        UnitOfWork unit = requireTransaction();
+        SlotTable.Slot slot = store.find(productId);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        unit.lock(slot);
+        return Optional.ofNullable(unit.current(slot)).map(unit::manage);
+    }
+
+    @Override
+    public Optional<Long> lockByProductId(Long productId) {
+        return findByProductIdForUpdate(productId).map(Inventory::getId);
+    }
+
+    @Override
+    public Optional<Integer> lockAvailableQuantity(Long productId) {
+        return findByProductIdForUpdate(productId).map(Inventory::getAvailableQuantity);
+    }
+
+    @Override
+    public List<Inventory> findAllByProductIdInForUpdate(Collection<Long> productIds) {
+        requireTransaction();
+        // En orden de productId, como la consulta JPA: transacciones concurrentes no se bloquean mutuamente
+        return productIds.stream()
+                .distinct()
+                .sorted()
+                .map(this::findByProductIdForUpdate)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    @Override
+    public List<Inventory> findAllByProductIdIn(Collection<Long> productIds) {
+        return productIds.stream()
+                .distinct()
+                .map(this::findByProductId)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    @Override
+    public Optional<InventoryBalance> findBalanceByProductId(Long productId) {
+        throw ledgerUnsupported();
+    }
+
+    @Override
+    public boolean existsByProductId(Long productId) {
+        return findByProductId(productId).isPresent();
+    }
+
+    @Override
+    public List<Inventory> findLowStockItems() {
+        Map<Long, Long> located = locatedQuantities();
+        return findRows(row -> row.quantity() + located.getOrDefault(row.productId(), 0L) <= row.minStock());
+    }
+
+    @Override
+    public List<Long> findLowStockProductIds() {
+        return findLowStockItems().stream().map(Inventory::getProductId).toList();
+    }
+
+    @Override
+    public List<Inventory> findPageAfter(long afterProductId, int minQuantity, int maxQuantity,
+                                         boolean lowStockOnly, Limit limit) {
+        Map<Long, Long> located = locatedQuantities();
+        return visibleRows().stream()
+                .filter(row -> row.productId() > afterProductId)
+                .filter(row -> {
+                    long quantity = row.quantity() + located.getOrDefault(row.productId(), 0L);
+                    return quantity >= minQuantity && quantity <= maxQuantity
+                            && (!lowStockOnly || quantity <= row.minStock());
+                })
+                .sorted(Comparator.comparingLong(StoredRow::productId))
+                .limit(limit.isLimited() ? limit.max() : Long.MAX_VALUE)
+                .map(this::view)
+                .toList();
+    }
+
+    @Override
+    public List<Inventory> findOutOfStockItems() {
+        return findRows(row -> row.quantity() == 0);
+    }
+
+    // ==================== ESCRITURAS CONDICIONALES ====================
+
+    @Override
+    public int updateQuantityByProductId(Long productId, Integer quantity) {
+        return affected(write(productId, false, row -> row.withQuantities(quantity, row.reservedQuantity())));
+    }
+
+    @Override
+    public int decrementQuantity(Long productId, Integer amount) {
+        return affected(decrement(productId, amount));
+    }
+
+    @Override
+    public int applyQuantityDelta(Long productId, Integer delta) {
+        return affected(write(productId, false, row -> row.withQuantities(row.quantity() + delta, row.reservedQuantity())));
+    }
+
+    @Override
+    public int foldIntoSnapshot(Long productId, Integer delta) {
+        throw ledgerUnsupported();
+    }
+
+    @Override
+    public int reserveQuantity(Long productId, Integer amount) {
+        return affected(write(productId, false, row -> row.availableQuantity() >= amount
+                ? row.withQuantities(row.quantity(), row.reservedQuantity() + amount)
+                : null));
+    }
+
+    @Override
+    public int releaseReservedQuantity(Long productId, Integer amount) {
+        return affected(write(productId, false, row -> row.reservedQuantity() >= amount
+                ? row.withQuantities(row.quantity(), row.reservedQuantity() - amount)
+                : null));
+    }
+
+    @Override
+    public int confirmReservedQuantity(Long productId, Integer amount) {
+        return affected(write(productId, false, row -> row.reservedQuantity() >= amount
+                ? row.withQuantities(row.quantity() - amount, row.reservedQuantity() - amount)
+                : null));
+    }
+
+    @Override
+    public int reserveEscrowQuantity(Long productId, Integer amount) {
+        return affected(write(productId, false, row -> row.availableQuantity() >= amount
+                ? row.withQuantities(row.quantity(), row.reservedQuantity() + amount, row.escrowQuantity() + amount)
+                : null));
+    }
+
+    @Override
+    public int releaseEscrowQuantity(Long productId, Integer amount) {
+        return affected(write(productId, false, row -> row.reservedQuantity() >= amount
+                ? row.withQuantities(row.quantity(), row.reservedQuantity() - amount,
+                        Math.max(0, row.escrowQuantity() - amount))
+                : null));
+    }
+
+    @Override
+    public int confirmEscrowQuantity(Long productId, Integer amount) {
+        return affected(write(productId, false, row -> row.reservedQuantity() >= amount
+                ? row.withQuantities(row.quantity() - amount, row.reservedQuantity() - amount,
+                        Math.max(0, row.escrowQuantity() - amount))
+                : null));
+    }
+
+    @Override
+    public Optional<Inventory> decrementAndGet(Long productId, int amount) {
+        return Optional.ofNullable(decrement(productId, amount)).map(this::view);
+    }
+
+    @Override
+    public Optional<Inventory> adjustAndGet(Long productId, int delta, int floor, int ceiling) {
+        StoredRow adjusted = write(productId, false, row -> {
+            long result = (long) row.quantity() + delta;
+            return result >= floor && result >= row.reservedQuantity() && result <= ceiling
+                    ? row.withQuantities((int) result, row.reservedQuantity())
+                    : null;
+        });
+        return Optional.ofNullable(adjusted).map(this::view);
+    }
+
+    @Override
+    public List<UpsertResult> upsertAll(List<Upsert> rows) {
+        Map<Long, UpsertResult> results = new HashMap<>();
+        rows.stream()
+                .sorted(Comparator.comparing(Upsert::productId))
+                .forEach(upsert -> {
+                    Integer[] previous = new Integer[1];
+                    StoredRow written = write(upsert.productId(), true, row -> {
+                        LocalDateTime now = LocalDateTime.now();
+                        if (row == null) {
+                            int minStock = upsert.minStock() != null ? upsert.minStock() : Inventory.DEFAULT_MIN_STOCK;
+                            return new StoredRow(store.nextId(), upsert.productId(), upsert.quantity(), 0, 0, minStock,
+                                    0, now, now, false);
+                        }
+                        previous[0] = row.quantity();
+                        int minStock = upsert.minStock() != null ? upsert.minStock() : row.minStock();
+                        return new StoredRow(row.id(), row.productId(), upsert.quantity(), row.reservedQuantity(),
+                                row.escrowQuantity(), minStock, row.version() + 1, row.createdAt(), now, false);
+                    });
+                    results.put(upsert.productId(), new UpsertResult(view(written), previous[0]));
+                });
+        return rows.stream().map(upsert -> results.get(upsert.productId())).toList();
+    }
+
+    // ==================== CRUD ====================
+
+    @Override
+    public <S extends Inventory> S save(S entity) {
+        StoredRow written = write(entity.getProductId(), true, row -> {
+            if (row == null) {
+                if (entity.getId() != null) {
+                    // Entidad desprendida cuya fila ya no existe
+                    throw new ObjectOptimisticLockingFailureException(Inventory.class, entity.getId());
+                }
+                LocalDateTime now = LocalDateTime.now();
+                return new StoredRow(store.nextId(), entity.getProductId(), entity.getQuantity(),
+                        entity.getReservedQuantity(), entity.getEscrowQuantity(), entity.getMinStock(), 0, now, now, false);
+            }
+            if (entity.getId() == null) {
+                throw new DataIntegrityViolationException(
+                        "Ya existe inventario para el producto " + entity.getProductId());
+            }
+            if (entity.getVersion() != null && entity.getVersion() != row.version()) {
+                throw new ObjectOptimisticLockingFailureException(Inventory.class, entity.getId());
+            }
+            if (row.sameState(entity)) {
+                return row;  // sin cambios: la versión no se incrementa
+            }
+            return new StoredRow(row.id(), row.productId(), entity.getQuantity(), entity.getReservedQuantity(),
+                    entity.getEscrowQuantity(), entity.getMinStock(), row.version() + 1, row.createdAt(),
+                    LocalDateTime.now(), false);
+        });
+        copyInto(written, entity);
+        UnitOfWork unit = unit();
+        if (unit != null) {
+            unit.attach(entity, written);
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends Inventory> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public void flush() {
+        UnitOfWork unit = unit();
+        if (unit != null) {
+            unit.flushDirty();
+        }
+    }
+
+    @Override
+    public long count() {
+        return visibleRows().size();
+    }
+
+    @Override
+    public void delete(Inventory entity) {
+        write(entity.getProductId(), false, row -> {
+            if (entity.getVersion() != null && entity.getVersion() != row.version()) {
+                throw new ObjectOptimisticLockingFailureException(Inventory.class, entity.getId());
+            }
+            return row.asDeleted();
+        });
+    }
+
+    @Override
+    public void deleteAll() {
+        visibleRows().forEach(row -> write(row.productId(), false, StoredRow::asDeleted));
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    private StoredRow decrement(Long productId, int amount) {
+        return write(productId, false, row -> row.availableQuantity() >= amount
+                ? row.withQuantities(row.quantity() - amount, row.reservedQuantity())
+                : null);
+    }
+
+    /**
+     * Aplica un cambio a la fila con su lock tomado. Fuera de una transacción la imagen nueva se
+     * confirma enseguida; dentro, queda pendiente hasta el commit y el lock se retiene.
+     *
+     * @param create si el cambio puede crear la fila (recibe null si no existe)
+     * @param change recibe la imagen vigente y retorna la nueva, la misma (sin cambios) o null
+     *               si la condición no se cumple
+     * @return la imagen resultante, o null si no se escribió
+     */
+    private StoredRow write(long productId, boolean create, UnaryOperator<StoredRow> change) {
+        SlotTable.Slot slot = create ? store.findOrCreate(productId) : store.find(productId);
+        if (slot == null) {
+            return null;
+        }
+        UnitOfWork unit = unit();
+        if (unit == null) {
+            slot.lock.lock();
+            try {
+                StoredRow current = slot.row;
+                if (current == null && !create) {
+                    return null;
+                }
+                StoredRow next = change.apply(current);
+                if (next != null && next != current) {
+                    store.commit(List.of(next));
+                }
+                return next;
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+
+        unit.lock(slot);
+        StoredRow current = unit.current(slot);
+        if (current == null && !create) {
+            return null;
+        }
+        StoredRow next = change.apply(current);
+        if (next != null && next != current) {
+            unit.write(next);
+        }
+        return next;
+    }
+
+    private List<StoredRow> visibleRows() {
+        UnitOfWork unit = unit();
+        if (unit == null || unit.pending.isEmpty()) {
+            return store.rows();
+        }
+        Map<Long, StoredRow> rows = new LinkedHashMap<>();
+        store.rows().forEach(row -> rows.put(row.productId(), row));
+        unit.pending.forEach((productId, row) -> {
+            if (row.deleted()) {
+                rows.remove(productId);
+            } else {
+                rows.put(productId, row);
+            }
+        });
+        return new ArrayList<>(rows.values());
+    }
+
+    private List<Inventory> findRows(Predicate<StoredRow> filter) {
+        return visibleRows().stream()
+                .filter(filter)
+                .sorted(Comparator.comparingLong(StoredRow::productId))
+                .map(this::view)
+                .toList();
+    }
+
+    private Map<Long, Long> locatedQuantities() {
+        Map<Long, Long> located = new HashMap<>();
+        locationRepository.sumQuantityByProduct()
+                .forEach(sum -> located.put(sum.getProductId(), sum.getQuantity()));
+        return located;
+    }
+
+    /**
+     * Entidad de la fila: administrada dentro de una transacción, copia suelta fuera.
+     */
+    private Inventory view(StoredRow row) {
+        UnitOfWork unit = unit();
+        return unit == null ? row.toEntity() : unit.manage(row);
+    }
+
+    private static int affected(StoredRow written) {
+        return written == null ? 0 : 1;
+    }
+
+    private static void copyInto(StoredRow row, Inventory entity) {
+        Inventory source = row.toEntity();
+        entity.setId(source.getId());
+        entity.setQuantity(source.getQuantity());
+        entity.setReservedQuantity(source.getReservedQuantity());
+        entity.setEscrowQuantity(source.getEscrowQuantity());
+        entity.setMinStock(source.getMinStock());
+        entity.setVersion(source.getVersion());
+        entity.setCreatedAt(source.getCreatedAt());
+        entity.setUpdatedAt(source.getUpdatedAt());
+    }
+
+    private UnitOfWork requireTransaction() {
+        UnitOfWork unit = unit();
+        if (unit == null) {
+            throw new InvalidDataAccessApiUsageException("El bloqueo de filas requiere una transacción activa");
+        }
+        return unit;
+    }
+
+    /**
+     * Unidad de trabajo de la transacción actual, o null fuera de una transacción.
+     */
+    private UnitOfWork unit() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        UnitOfWork unit = (UnitOfWork) TransactionSynchronizationManager.getResource(this);
+        if (unit == null) {
+            unit = new UnitOfWork();
+            TransactionSynchronizationManager.bindResource(this, unit);
+            TransactionSynchronizationManager.registerSynchronization(unit);
+        }
+        return unit;
+    }
+
+    private static UnsupportedOperationException ledgerUnsupported() {
+        return new UnsupportedOperationException("El modo LEDGER no está disponible con el almacenamiento embebido");
+    }
+
+    /**
+     * Filas bloqueadas, imágenes pendientes y entidades administradas de una transacción.
+     */
+    private final class UnitOfWork implements TransactionSynchronization {
+
+        private final Set<SlotTable.Slot> locked = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<Long, StoredRow> pending = new LinkedHashMap<>();
+        private final Map<Long, Inventory> managed = new HashMap<>();
+        // Imagen desde la que se cargó (o escribió) cada entidad administrada, para detectar cambios
+        private final Map<Long, StoredRow> loaded = new HashMap<>();
+
+        void lock(SlotTable.Slot slot) {
+            if (locked.add(slot)) {
+                slot.lock.lock();
+            }
+        }
+
+        StoredRow current(SlotTable.Slot slot) {
+            StoredRow written = pending.get(slot.productId);
+            if (written != null) {
+                return written.deleted() ? null : written;
+            }
+            return slot.row;
+        }
+
+        void write(StoredRow row) {
+            pending.put(row.productId(), row);
+            Inventory entity = managed.get(row.productId());
+            if (row.deleted()) {
+                managed.remove(row.productId());
+                loaded.remove(row.productId());
+            } else if (entity != null) {
+                copyInto(row, entity);
+                loaded.put(row.productId(), row);
+            }
+        }
+
+        /**
+         * Entidad administrada de la fila: la misma instancia en toda la transacción.
+         */
+        Inventory manage(StoredRow row) {
+            return managed.computeIfAbsent(row.productId(), productId -> {
+                loaded.put(productId, row);
+                return row.toEntity();
+            });
+        }
+
+        void attach(Inventory entity, StoredRow row) {
+            managed.put(row.productId(), entity);
+            loaded.put(row.productId(), row);
+        }
+
+        /**
+         * Escribe los cambios hechos sobre entidades administradas (dirty checking).
+         */
+        void flushDirty() {
+            for (Inventory entity : List.copyOf(managed.values())) {
+                StoredRow base = loaded.get(entity.getProductId());
+                if (base.sameState(entity)) {
+                    continue;
+                }
+                EmbeddedInventoryRepository.this.write(entity.getProductId(), false, row -> {
+                    if (row.version() != base.version()) {
+                        throw new ObjectOptimisticLockingFailureException(Inventory.class, entity.getId());
+                    }
+                    return new StoredRow(row.id(), row.productId(), entity.getQuantity(), entity.getReservedQuantity(),
+                            entity.getEscrowQuantity(), entity.getMinStock(), row.version() + 1, row.createdAt(),
+                            LocalDateTime.now(), false);
+                });
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            // Publicar antes de que otros callbacks posteriores al commit lean el inventario
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(EmbeddedInventoryRepository.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(EmbeddedInventoryRepository.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushDirty();
+        }
+
+        @Override
+        public void afterCommit() {
+            store.commit(List.copyOf(pending.values()));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmbeddedInventoryRepository.this);
+            locked.forEach(slot -> slot.lock.unlock());
+            locked.clear();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.techtest.inventory.repository.embedded;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Almacenamiento embebido de las filas de inventario: índice en memoria por productId, WAL y
+ * snapshots periódicos.
+ *
+ * Funcionamiento:
+ * - {@link #commit} escribe en el WAL las imágenes de las filas de una transacción y recién
+ *   después las publica en el índice, bajo el mismo monitor: el orden del WAL es el orden en
+ *   que los lectores ven los cambios
+ * - El WAL está mapeado en memoria: un commit sobrevive a una caída del proceso al escribirlo, y
+ *   a una caída del sistema tras el fsync (cada sync-interval-ms, o en cada commit con
+ *   fsync-on-commit)
+ * - Un snapshot abre un segmento nuevo del WAL, vuelca todas las filas y borra los segmentos
+ *   anteriores; las filas que cambian durante el volcado se reaplican desde el segmento nuevo
+ * - Al arrancar se carga el último snapshot válido y se reaplica el WAL desde su secuencia
+ *
+ * Un archivo de lock impide que dos procesos usen el mismo directorio.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.storage.engine", havingValue = "embedded")
+@Slf4j
+public class EmbeddedInventoryStore {
+
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String LOCK_FILE = "store.lock";
+    private static final int SNAPSHOT_MAGIC = 0x494E5653;  // "INVS"
+
+    private final SlotTable slots = new SlotTable();
+    private final Object snapshotLock = new Object();
+    private final AtomicLong ids = new AtomicLong();
+    private final Counter committedCounter;
+    private final Counter snapshotCounter;
+
+    @Value("${inventory.storage.embedded.dir:data/store}")
+    private String directory = "data/store";
+
+    @Value("${inventory.storage.embedded.fsync-on-commit:false}")
+    private boolean fsyncOnCommit;
+
+    @Value("${inventory.storage.embedded.segment-records:262144}")
+    private int segmentRecords = 262_144;
+
+    @Value("${inventory.storage.embedded.snapshot-min-records:100000}")
+    private long snapshotMinRecords = 100_000;
+
+    private Path dir;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private WriteAheadLog wal;
+    private volatile long snapshotSequence;
+
+    public EmbeddedInventoryStore(MeterRegistry meterRegistry) {
+        this.committedCounter = Counter.builder("inventory.storage.wal.appended")
+                .description("Imágenes de fila escritas en el WAL del almacenamiento embebido")
+                .register(meterRegistry);
+        this.snapshotCounter = Counter.builder("inventory.storage.snapshots")
+                .description("Snapshots escritos por el almacenamiento embebido")
+                .register(meterRegistry);
+        Gauge.builder("inventory.storage.wal.pending-records", this, EmbeddedInventoryStore::walRecordsSinceSnapshot)
+                .description("Registros del WAL posteriores al último snapshot")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    synchronized void open() {
+        try {
+            dir = Path.of(directory);
+            Files.createDirectories(dir);
+            acquireLock();
+
+            long started = System.nanoTime();
+            long loaded = loadLatestSnapshot();
+            wal = new WriteAheadLog(dir, segmentRecords);
+            long replayed = wal.open(snapshotSequence, this::install);
+            log.info("Almacenamiento embebido abierto en {}: {} filas del snapshot, {} registros del WAL ({} ms)",
+                    dir.toAbsolutePath(), loaded, replayed, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el almacenamiento embebido en " + directory, e);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (wal != null) {
+            wal.close();
+        }
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error cerrando el almacenamiento embebido: {}", e.getMessage());
+        }
+    }
+
+    // ==================== LECTURA ====================
+
+    SlotTable.Slot find(long productId) {
+        return slots.find(productId);
+    }
+
+    SlotTable.Slot findOrCreate(long productId) {
+        return slots.findOrCreate(productId);
+    }
+
+    Optional<StoredRow> row(long productId) {
+        SlotTable.Slot slot = slots.find(productId);
+        return slot == null ? Optional.empty() : Optional.ofNullable(slot.row);
+    }
+
+    List<StoredRow> rows() {
+        return slots.rows();
+    }
+
+    long nextId() {
+        return ids.incrementAndGet();
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Escribe las imágenes en el WAL y las publica. El llamador tiene los locks de las filas.
+     */
+    synchronized void commit(List<StoredRow> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        wal.append(images);
+        if (fsyncOnCommit) {
+            wal.sync();
+        }
+        images.forEach(this::install);
+        committedCounter.increment(images.size());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.storage.embedded.sync-interval-ms:20}")
+    public synchronized void sync() {
+        if (wal != null) {
+            wal.sync();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.storage.embedded.snapshot-check-ms:10000}")
+    public void snapshotIfNeeded() {
+        if (walRecordsSinceSnapshot() >= snapshotMinRecords) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Escribe un snapshot de todas las filas y borra el WAL que cubre.
+     */
+    public void snapshot() {
+        synchronized (snapshotLock) {
+            dumpSnapshot();
+        }
+    }
+
+    private void dumpSnapshot() {
+        long sequence;
+        synchronized (this) {
+            sequence = wal.rotate();
+        }
+        try {
+            List<StoredRow> rows = slots.rows();
+            Path target = snapshotPath(sequence);
+            Path temp = dir.resolve(target.getFileName() + ".tmp");
+            writeSnapshot(temp, sequence, rows);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            synchronized (this) {
+                snapshotSequence = sequence;
+                wal.deleteBefore(sequence);
+            }
+            deleteSnapshotsBefore(sequence);
+            snapshotCounter.increment();
+            log.debug("Snapshot del almacenamiento embebido: {} filas hasta la secuencia {}", rows.size(), sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el snapshot del almacenamiento embebido", e);
+        }
+    }
+
+    long walRecordsSinceSnapshot() {
+        WriteAheadLog current = wal;
+        return current == null ? 0 : current.nextSequence() - snapshotSequence;
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    private void install(StoredRow image) {
+        SlotTable.Slot slot = slots.findOrCreate(image.productId());
+        slot.row = image.deleted() ? null : image;
+        ids.accumulateAndGet(image.id(), Math::max);
+    }
+
+    /**
+     * Formato: magic, secuencia del WAL, cantidad de filas, filas ({@link StoredRow}) y CRC32C
+     * de todo lo anterior.
+     */
+    private void writeSnapshot(Path file, long sequence, List<StoredRow> rows) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             OutputStream raw = Channels.newOutputStream(channel);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(raw, crc), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(rows.size());
+            ByteBuffer record = ByteBuffer.allocate(StoredRow.RECORD_SIZE);
+            for (StoredRow row : rows) {
+                row.write(record, 0, 0);
+                out.write(record.array());
+            }
+            out.flush();
+            new DataOutputStream(raw).writeInt((int) crc.getValue());
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Carga el snapshot más reciente que sea válido.
+     *
+     * @return filas cargadas
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Path> snapshots;
+        try (Stream<Path> files = Files.list(dir)) {
+            snapshots = files.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted((a, b) -> b.getFileName().compareTo(a.getFileName()))
+                    .toList();
+        }
+        for (Path snapshot : snapshots) {
+            try {
+                return readSnapshot(snapshot);
+            } catch (IOException | IllegalStateException e) {
+                log.warn("Snapshot {} inválido, se prueba el anterior: {}", snapshot.getFileName(), e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    private long readSnapshot(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        List<StoredRow> rows = new ArrayList<>();
+        long sequence;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            CheckedInputStream checked = new CheckedInputStream(in, crc);
+            DataInputStream data = new DataInputStream(checked);
+            if (data.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("formato desconocido");
+            }
+            sequence = data.readLong();
+            int count = data.readInt();
+            byte[] record = new byte[StoredRow.RECORD_SIZE];
+            for (int i = 0; i < count; i++) {
+                data.readFully(record);
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                if (!StoredRow.isValid(buffer, 0)) {
+                    throw new IllegalStateException("fila " + i + " corrupta");
+                }
+                rows.add(StoredRow.read(buffer, 0));
+            }
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IllegalStateException("checksum inválido");
+            }
+        }
+        rows.forEach(this::install);
+        snapshotSequence = sequence;
+        return rows.size();
+    }
+
+    private void deleteSnapshotsBefore(long sequence) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .filter(file -> file.getFileName().compareTo(snapshotPath(sequence).getFileName()) < 0)
+                    .forEach(file -> {
+                        try {
+                            Files.deleteIfExists(file);
+                        } catch (IOException e) {
+                            log.warn("No se pudo borrar el snapshot {}: {}", file, e.getMessage());
+                        }
+                    });
+        }
+    }
+
+    private void acquireLock() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("El almacenamiento embebido en " + dir.toAbsolutePath()
+                    + " está en uso por otro proceso");
+        }
+    }
+
+    private Path snapshotPath(long sequence) {
+        return dir.resolve(String.format("%020d%s", sequence, SNAPSHOT_SUFFIX));
+    }
+}
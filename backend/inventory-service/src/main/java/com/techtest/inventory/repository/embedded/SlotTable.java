@@ -0,0 +1,136 @@
+package com.techtest.inventory.repository.embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice productId → {@link Slot} con claves primitivas (sin boxing), en segmentos de
+ * direccionamiento abierto protegidos cada uno por su monitor.
+ *
+ * Un slot no se quita al eliminar la fila: conserva su lock para las transacciones que lo
+ * esperan y se descarta al reconstruir el índice en el siguiente arranque.
+ */
+final class SlotTable {
+
+    private static final int SEGMENTS = 64;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    SlotTable() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Slot del producto, o null si nunca tuvo fila.
+     */
+    Slot find(long productId) {
+        int hash = mix(productId);
+        Segment segment = segments[hash & (SEGMENTS - 1)];
+        synchronized (segment) {
+            return segment.find(productId, hash >>> 6);
+        }
+    }
+
+    /**
+     * Slot del producto, creándolo vacío si no existe (alta de una fila).
+     */
+    Slot findOrCreate(long productId) {
+        int hash = mix(productId);
+        Segment segment = segments[hash & (SEGMENTS - 1)];
+        synchronized (segment) {
+            Slot slot = segment.find(productId, hash >>> 6);
+            if (slot == null) {
+                slot = new Slot(productId);
+                segment.insert(slot, hash >>> 6);
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * Filas vigentes (sin las eliminadas), copiadas segmento por segmento.
+     */
+    List<StoredRow> rows() {
+        List<StoredRow> rows = new ArrayList<>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (Slot slot : segment.slots) {
+                    StoredRow row = slot == null ? null : slot.row;
+                    if (row != null) {
+                        rows.add(row);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Fila de un producto: la imagen confirmada y el lock que serializa sus escrituras.
+     */
+    static final class Slot {
+
+        final long productId;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile StoredRow row;
+
+        Slot(long productId) {
+            this.productId = productId;
+        }
+    }
+
+    private static final class Segment {
+
+        private long[] keys = new long[MIN_CAPACITY];
+        private Slot[] slots = new Slot[MIN_CAPACITY];
+        private int size;
+
+        Slot find(long key, int hash) {
+            int mask = slots.length - 1;
+            for (int i = hash & mask; slots[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return slots[i];
+                }
+            }
+            return null;
+        }
+
+        void insert(Slot slot, int hash) {
+            if ((size + 1) * 2 > slots.length) {
+                grow();
+            }
+            place(slot, hash);
+            size++;
+        }
+
+        private void place(Slot slot, int hash) {
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = slot.productId;
+            slots[i] = slot;
+        }
+
+        private void grow() {
+            Slot[] old = slots;
+            keys = new long[old.length * 2];
+            slots = new Slot[old.length * 2];
+            for (Slot slot : old) {
+                if (slot != null) {
+                    place(slot, mix(slot.productId) >>> 6);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.techtest.inventory.repository.embedded;
+
+import com.techtest.inventory.entity.Inventory;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32C;
+
+/**
+ * Imagen inmutable de una fila de inventario en el almacenamiento embebido, y su codificación
+ * binaria en el WAL y en los snapshots. Las fechas se guardan ya convertidas: leer una fila no
+ * pasa por la zona horaria.
+ *
+ * Formato (72 bytes, big endian):
+ * - 0  long  secuencia del WAL (0 en los snapshots)
+ * - 8  long  productId
+ * - 16 long  id
+ * - 24 int   cantidad
+ * - 28 int   cantidad reservada
+ * - 32 int   stock mínimo
+ * - 36 int   1 si la fila fue eliminada
+ * - 40 long  versión
+ * - 48 long  creación en milisegundos epoch
+ * - 56 long  última modificación en milisegundos epoch
+ * - 64 int   cantidad cedida en modo escrow (parte de la reservada; 0 en registros anteriores)
+ * - 68 int   CRC32C de los 68 bytes anteriores
+ *
+ * Cada registro es la imagen completa de la fila: reaplicar un registro es idempotente.
+ */
+record StoredRow(long id, long productId, int quantity, int reservedQuantity, int escrowQuantity, int minStock,
+                 long version, LocalDateTime createdAt, LocalDateTime updatedAt, boolean deleted) {
+
+    static final int RECORD_SIZE = 72;
+
+    private static final int SEQUENCE = 0;
+    private static final int PRODUCT_ID = 8;
+    private static final int ID = 16;
+    private static final int QUANTITY = 24;
+    private static final int RESERVED_QUANTITY = 28;
+    private static final int MIN_STOCK = 32;
+    private static final int DELETED = 36;
+    private static final int VERSION = 40;
+    private static final int CREATED_AT = 48;
+    private static final int UPDATED_AT = 56;
+    private static final int ESCROW_QUANTITY = 64;
+    private static final int CHECKSUM = 68;
+
+    /**
+     * Copia desacoplada de la fila como entidad (el llamador puede modificarla).
+     */
+    Inventory toEntity() {
+        return Inventory.builder()
+                .id(id)
+                .productId(productId)
+                .quantity(quantity)
+                .reservedQuantity(reservedQuantity)
+                .escrowQuantity(escrowQuantity)
+                .minStock(minStock)
+                .version(version)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    /**
+     * Nueva imagen tras un cambio de cantidades: incrementa la versión como los UPDATE de JPA.
+     */
+    StoredRow withQuantities(int newQuantity, int newReservedQuantity) {
+        return withQuantities(newQuantity, newReservedQuantity, escrowQuantity);
+    }
+
+    StoredRow withQuantities(int newQuantity, int newReservedQuantity, int newEscrowQuantity) {
+        return new StoredRow(id, productId, newQuantity, newReservedQuantity, newEscrowQuantity, minStock,
+                version + 1, createdAt, LocalDateTime.now(), false);
+    }
+
+    StoredRow asDeleted() {
+        return new StoredRow(id, productId, quantity, reservedQuantity, escrowQuantity, minStock,
+                version, createdAt, LocalDateTime.now(), true);
+    }
+
+    int availableQuantity() {
+        return quantity - reservedQuantity;
+    }
+
+    boolean sameState(Inventory inventory) {
+        return quantity == inventory.getQuantity()
+                && reservedQuantity == inventory.getReservedQuantity()
+                && escrowQuantity == inventory.getEscrowQuantity()
+                && minStock == inventory.getMinStock();
+    }
+
+    // ==================== CODIFICACIÓN ====================
+
+    void write(ByteBuffer buffer, int offset, long sequence) {
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putLong(offset + PRODUCT_ID, productId);
+        buffer.putLong(offset + ID, id);
+        buffer.putInt(offset + QUANTITY, quantity);
+        buffer.putInt(offset + RESERVED_QUANTITY, reservedQuantity);
+        buffer.putInt(offset + MIN_STOCK, minStock);
+        buffer.putInt(offset + DELETED, deleted ? 1 : 0);
+        buffer.putLong(offset + VERSION, version);
+        buffer.putLong(offset + CREATED_AT, toMillis(createdAt));
+        buffer.putLong(offset + UPDATED_AT, toMillis(updatedAt));
+        buffer.putInt(offset + ESCROW_QUANTITY, escrowQuantity);
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset));
+    }
+
+    static StoredRow read(ByteBuffer buffer, int offset) {
+        return new StoredRow(
+                buffer.getLong(offset + ID),
+                buffer.getLong(offset + PRODUCT_ID),
+                buffer.getInt(offset + QUANTITY),
+                buffer.getInt(offset + RESERVED_QUANTITY),
+                buffer.getInt(offset + ESCROW_QUANTITY),
+                buffer.getInt(offset + MIN_STOCK),
+                buffer.getLong(offset + VERSION),
+                toDateTime(buffer.getLong(offset + CREATED_AT)),
+                toDateTime(buffer.getLong(offset + UPDATED_AT)),
+                buffer.getInt(offset + DELETED) == 1);
+    }
+
+    static long sequence(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + SEQUENCE);
+    }
+
+    /**
+     * Un registro es válido si su checksum coincide: un registro escrito a medias marca el final
+     * del WAL.
+     */
+    static boolean isValid(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + CHECKSUM) == checksum(buffer, offset);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM));
+        return (int) crc.getValue();
+    }
+
+    private static long toMillis(LocalDateTime value) {
+        return value == null ? 0 : value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
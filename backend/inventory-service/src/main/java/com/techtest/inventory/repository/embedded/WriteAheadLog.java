@@ -0,0 +1,175 @@
+package com.techtest.inventory.repository.embedded;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead log del almacenamiento embebido: imágenes de fila ({@link StoredRow}) en segmentos
+ * de tamaño fijo mapeados en memoria, como el journal de inventario.
+ *
+ * - Escribir un registro es copiarlo al segmento mapeado (sin syscall): sobrevive a una caída
+ *   del proceso; {@link #sync} lo fuerza a disco para sobrevivir a una caída del sistema
+ * - Cada segmento se llama con la secuencia de su primer registro; al llenarse, o al tomar un
+ *   snapshot, se abre el siguiente. Los cubiertos por un snapshot se borran
+ * - Al abrir se recorre cada segmento hasta el primer registro inválido (slot vacío o escrito
+ *   a medias) y se continúa escribiendo desde ahí
+ *
+ * No es thread-safe: el llamador serializa los accesos.
+ */
+@Slf4j
+final class WriteAheadLog {
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path dir;
+    private final int segmentRecords;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private MappedByteBuffer active;
+    private long activeBase;
+    private long nextSequence;
+    private int syncedSlot;
+
+    WriteAheadLog(Path dir, int segmentRecords) {
+        if (segmentRecords <= 0 || segmentRecords > Integer.MAX_VALUE / StoredRow.RECORD_SIZE) {
+            throw new IllegalArgumentException("inventory.storage.embedded.segment-records fuera de rango: " + segmentRecords);
+        }
+        this.dir = dir;
+        this.segmentRecords = segmentRecords;
+    }
+
+    /**
+     * Abre el WAL y reaplica en orden los registros desde una secuencia.
+     *
+     * @return cantidad de registros reaplicados
+     */
+    long open(long fromSequence, Consumer<StoredRow> replay) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> segments.put(baseOf(file), file));
+        }
+        // Segmentos ya cubiertos por el snapshot (borrado interrumpido)
+        deleteBefore(fromSequence);
+        if (segments.isEmpty()) {
+            segments.put(fromSequence, segmentPath(fromSequence));
+        }
+
+        long replayed = 0;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            MappedByteBuffer buffer = map(segment.getValue());
+            int slot = 0;
+            while (slot < segmentRecords
+                    && StoredRow.isValid(buffer, slot * StoredRow.RECORD_SIZE)
+                    && StoredRow.sequence(buffer, slot * StoredRow.RECORD_SIZE) == segment.getKey() + slot) {
+                replay.accept(StoredRow.read(buffer, slot * StoredRow.RECORD_SIZE));
+                slot++;
+            }
+            replayed += slot;
+            active = buffer;
+            activeBase = segment.getKey();
+            syncedSlot = slot;
+            nextSequence = activeBase + slot;
+        }
+        return replayed;
+    }
+
+    /**
+     * Agrega las imágenes (sin fsync).
+     */
+    void append(List<StoredRow> rows) {
+        for (StoredRow row : rows) {
+            int slot = (int) (nextSequence - activeBase);
+            if (slot == segmentRecords) {
+                rotate();
+                slot = 0;
+            }
+            row.write(active, slot * StoredRow.RECORD_SIZE, nextSequence);
+            nextSequence++;
+        }
+    }
+
+    /**
+     * Fuerza a disco los registros escritos desde el último sync.
+     */
+    void sync() {
+        int written = (int) (nextSequence - activeBase);
+        if (written > syncedSlot) {
+            active.force(syncedSlot * StoredRow.RECORD_SIZE, (written - syncedSlot) * StoredRow.RECORD_SIZE);
+            syncedSlot = written;
+        }
+    }
+
+    /**
+     * Cierra el segmento activo y abre uno nuevo.
+     *
+     * @return secuencia del primer registro del segmento nuevo
+     */
+    long rotate() {
+        sync();
+        Path path = segmentPath(nextSequence);
+        try {
+            active = map(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el segmento " + path, e);
+        }
+        activeBase = nextSequence;
+        syncedSlot = 0;
+        segments.put(activeBase, path);
+        return activeBase;
+    }
+
+    /**
+     * Borra los segmentos anteriores a una secuencia (ya cubiertos por un snapshot).
+     */
+    void deleteBefore(long sequence) {
+        segments.headMap(sequence).values().removeIf(WriteAheadLog::deleteQuietly);
+    }
+
+    void close() {
+        if (active != null) {
+            sync();
+        }
+    }
+
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * StoredRow.RECORD_SIZE);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return dir.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el segmento {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+}
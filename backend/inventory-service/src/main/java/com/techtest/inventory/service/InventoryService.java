@@ -1,10 +1,20 @@
 package com.techtest.inventory.service;
 
 import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.OrderPurchaseRequest;
 import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.ReservationRequest;
+import com.techtest.inventory.dto.request.StockAdjustmentRequest;
+import com.techtest.inventory.dto.response.BulkInventoryResult;
+import com.techtest.inventory.dto.response.InventoryLocationResponse;
+import com.techtest.inventory.dto.response.InventoryLookup;
+import com.techtest.inventory.dto.response.InventoryMovementResponse;
+import com.techtest.inventory.dto.response.InventoryPage;
 import com.techtest.inventory.dto.response.InventoryResponse;
+import com.techtest.inventory.dto.response.ReservationResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface del servicio de inventario.
@@ -15,37 +25,154 @@ public interface InventoryService {
      * Crea o actualiza el inventario de un producto.
      * Valida que el producto exista en el servicio de productos.
      */
-    InventoryResponse createOrUpdateInventory(InventoryRequest request);
+    default InventoryResponse createOrUpdateInventory(InventoryRequest request) {
+        return createOrUpdateInventory(request, null);
+    }
 
     /**
-     * Obtiene el inventario de un producto por su ID.
-     * Incluye información del producto obtenida del otro microservicio.
+     * Igual que {@link #createOrUpdateInventory(InventoryRequest)}, pero si expectedVersion no es null
+     * solo se aplica cuando coincide con la versión actual (If-Match).
+     */
+    InventoryResponse createOrUpdateInventory(InventoryRequest request, Long expectedVersion);
+
+    /**
+     * Crea o reemplaza el inventario de muchos productos (carga masiva).
+     *
+     * La existencia de todos los productos se verifica con una sola llamada al servicio de productos
+     * y las filas se escriben por tramos, cada uno con un upsert en lote en su propia transacción.
+     * Los resultados por fila se entregan a sink tramo a tramo, en el orden de la solicitud.
+     * Una fila inválida o de un producto inexistente se rechaza sin afectar a las demás; si un
+     * productId se repite, se aplica la última fila.
+     */
+    void bulkUpsertInventory(List<InventoryRequest> rows, Consumer<List<BulkInventoryResult>> sink);
+
+    /**
+     * Obtiene el inventario de un producto por su ID (solo datos locales, sin llamadas remotas).
      */
     InventoryResponse getInventoryByProductId(Long productId);
 
     /**
      * Actualiza la cantidad de inventario directamente.
      */
-    InventoryResponse updateQuantity(Long productId, Integer quantity);
+    default InventoryResponse updateQuantity(Long productId, Integer quantity) {
+        return updateQuantity(productId, quantity, null);
+    }
+
+    /**
+     * Actualiza la cantidad solo si la versión actual coincide con expectedVersion (null: sin condición).
+     */
+    InventoryResponse updateQuantity(Long productId, Integer quantity, Long expectedVersion);
+
+    /**
+     * Suma un delta (positivo o negativo) a la cantidad en un único UPDATE atómico, sin leer la
+     * fila antes. La cantidad resultante debe quedar entre floor (por defecto 0) y ceiling, y no
+     * por debajo de lo reservado.
+     */
+    InventoryResponse adjustQuantity(Long productId, StockAdjustmentRequest request);
 
     /**
      * Procesa una compra (decrementa el inventario).
-     * Emite un evento (log) cuando cambia el inventario.
+     * Publica un evento de inventario (entregado de forma asíncrona tras el commit).
      */
     InventoryResponse processPurchase(Long productId, PurchaseRequest request);
 
     /**
-     * Obtiene productos con stock bajo.
+     * Procesa una orden con varias líneas en una sola transacción (todo o nada).
+     * Retorna el resultado de cada línea en el mismo orden de la solicitud.
+     */
+    List<InventoryResponse> processOrderPurchase(OrderPurchaseRequest request);
+
+    /**
+     * Reserva stock de un producto durante un TTL (sin descontarlo todavía).
      */
-    List<InventoryResponse> getLowStockItems();
+    ReservationResponse reserveStock(Long productId, ReservationRequest request);
+
+    /**
+     * Confirma una reserva pendiente: las unidades reservadas se descuentan del stock.
+     */
+    ReservationResponse confirmReservation(String reservationId);
+
+    /**
+     * Libera una reserva pendiente: las unidades vuelven al stock disponible.
+     */
+    ReservationResponse releaseReservation(String reservationId);
+
+    /**
+     * Lista el inventario en orden de productId, paginado por cursor (keyset). Los filtros de
+     * cantidad son sobre la cantidad total (fila principal más ubicaciones).
+     *
+     * @param cursor      cursor devuelto por la página anterior, o null para la primera
+     * @param limit       cantidad máxima de productos de la página
+     * @param minQuantity cantidad mínima, o null
+     * @param maxQuantity cantidad máxima, o null
+     * @param stock       low (en o por debajo del mínimo), out (sin stock) o null para todos
+     */
+    InventoryPage listInventory(String cursor, int limit, Integer minQuantity, Integer maxQuantity, String stock);
+
+    /**
+     * Obtiene el inventario de varios productos en una sola consulta. Los productos sin
+     * inventario se informan en el resultado (no son un error).
+     *
+     * @param productIds IDs de los productos (los repetidos se consultan una vez)
+     */
+    InventoryLookup lookupInventory(List<Long> productIds);
+
+    /**
+     * Obtiene productos con stock bajo, del faltante mayor al menor.
+     *
+     * @param cursor cursor devuelto por la página anterior, o null para la primera
+     * @param limit  cantidad máxima de productos de la página
+     */
+    InventoryPage getLowStockItems(String cursor, int limit);
 
     /**
      * Elimina el registro de inventario de un producto.
      */
-    void deleteInventory(Long productId);
+    default void deleteInventory(Long productId) {
+        deleteInventory(productId, null);
+    }
+
+    /**
+     * Elimina el inventario solo si la versión actual coincide con expectedVersion (null: sin condición).
+     */
+    void deleteInventory(Long productId, Long expectedVersion);
 
     /**
      * Verifica si hay stock disponible para un producto.
      */
     boolean hasStock(Long productId, Integer quantity);
+
+    /**
+     * Últimos movimientos del ledger de un producto, del más reciente al más antiguo.
+     */
+    List<InventoryMovementResponse> getMovements(Long productId, int limit);
+
+    /**
+     * Stock del producto en cada una de sus ubicaciones.
+     */
+    List<InventoryLocationResponse> getLocations(Long productId);
+
+    /**
+     * Fija el stock del producto en una ubicación (la crea si no existe).
+     */
+    InventoryLocationResponse setLocationStock(Long productId, String locationId, Integer quantity);
+
+    /**
+     * Elimina una ubicación del producto junto con su stock.
+     */
+    void removeLocation(Long productId, String locationId);
+
+    /**
+     * Completa la respuesta con la información del producto obtenida del otro microservicio
+     * (include=product). Si el servicio no responde, solo se informa el ID del producto.
+     */
+    default InventoryResponse includeProduct(InventoryResponse response) {
+        return includeProduct(List.of(response)).get(0);
+    }
+
+    /**
+     * Igual que {@link #includeProduct(InventoryResponse)} para varias respuestas: los
+     * productos distintos se consultan en una sola llamada al servicio de productos.
+     */
+    List<InventoryResponse> includeProduct(List<InventoryResponse> responses);
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.techtest.inventory.service;
+
+/**
+ * Estrategia usada por {@link InventoryService#processPurchase} para descontar stock.
+ */
+public enum PurchaseMode {
+
+    /**
+     * Lee la fila, valida el stock en Java y guarda la entidad.
+     * Puede perder actualizaciones con compras concurrentes sobre el mismo producto
+     * y no se coordina con la activación del modo hot.
+     */
+    READ_MODIFY_WRITE,
+
+    /**
+     * Un único UPDATE condicional sobre la cantidad disponible.
+     * No requiere lectura previa ni bloqueos explícitos y nunca sobrevende.
+     */
+    CONDITIONAL_UPDATE,
+
+    /**
+     * Agrupa las compras concurrentes de un mismo producto durante una ventana corta y las aplica
+     * en una sola transacción con un único UPDATE condicional (group commit).
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Con la fila bloqueada verifica el disponible e inserta la compra como movimiento del ledger,
+     * sin actualizar la fila. Un compactador pliega los movimientos a la fila.
+     */
+    LEDGER
+}
@@ -0,0 +1,302 @@
+package com.techtest.inventory.service.cache;
+
+import com.techtest.inventory.entity.Inventory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache write-through del inventario por productId, para lecturas que se repiten mucho
+ * (verificación de stock y consulta de un producto desde las páginas de la tienda).
+ *
+ * Funcionamiento:
+ * - Cada entrada guarda la fila del producto y la suma de sus ubicaciones; la vista servida es el total
+ * - Las escrituras del servicio actualizan la entrada tras el commit (un rollback no toca el cache);
+ *   las que no conocen la fila resultante (reservas, activación de modos) la invalidan
+ * - Una lectura que falla carga desde la BD; si mientras tanto hubo una escritura en el segmento,
+ *   el resultado se descarta en vez de guardarse (podría ser anterior a esa escritura)
+ * - Acotado por maxEntries (LRU por segmento) y con TTL: cambios hechos fuera de esta instancia
+ *   (otras réplicas, SQL directo) se ven como mucho ttl-ms después
+ * - Una fracción de los aciertos se verifica contra la BD para medir lecturas desactualizadas
+ */
+@Component
+@Slf4j
+public class InventoryCache {
+
+    private static final int SEGMENTS = 64;
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final double verifySampleRate;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter verifications;
+    private final Counter staleReads;
+    private final DistributionSummary hitAge;
+
+    public InventoryCache(MeterRegistry meterRegistry,
+                          @Value("${inventory.cache.enabled:true}") boolean enabled,
+                          @Value("${inventory.cache.max-entries:100000}") int maxEntries,
+                          @Value("${inventory.cache.ttl-ms:5000}") long ttlMillis,
+                          @Value("${inventory.cache.verify-sample-rate:0.001}") double verifySampleRate) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("inventory.cache.max-entries debe ser positivo");
+        }
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        this.verifySampleRate = verifySampleRate;
+        int perSegment = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+
+        this.hits = Counter.builder("inventory.cache.hits")
+                .description("Lecturas de inventario servidas desde el cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("inventory.cache.misses")
+                .description("Lecturas de inventario que fueron a la BD")
+                .register(meterRegistry);
+        this.verifications = Counter.builder("inventory.cache.verifications")
+                .description("Aciertos comparados contra la BD (muestreo)")
+                .register(meterRegistry);
+        this.staleReads = Counter.builder("inventory.cache.stale-reads")
+                .description("Aciertos verificados que no coincidían con la BD")
+                .register(meterRegistry);
+        this.hitAge = DistributionSummary.builder("inventory.cache.hit-age")
+                .baseUnit("milliseconds")
+                .description("Tiempo desde la última carga o escritura de la entrada servida")
+                .register(meterRegistry);
+        Gauge.builder("inventory.cache.hit-ratio", this, InventoryCache::hitRatio)
+                .description("Fracción de lecturas servidas desde el cache")
+                .register(meterRegistry);
+        Gauge.builder("inventory.cache.size", this, InventoryCache::size)
+                .register(meterRegistry);
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Vista del producto desde el cache o, si no está (o venció), desde el loader.
+     *
+     * @param loader lectura de la BD; vacío si el producto no tiene inventario (no se cachea)
+     */
+    public Optional<Inventory> get(Long productId, Supplier<Optional<Snapshot>> loader) {
+        if (!enabled) {
+            return loader.get().map(Snapshot::view);
+        }
+        Segment segment = segment(productId);
+        long now = System.currentTimeMillis();
+        Entry entry;
+        long generation;
+        synchronized (segment) {
+            entry = segment.entries.get(productId);
+            generation = segment.generation;
+        }
+
+        if (entry != null && now - entry.writtenAt < ttlMillis) {
+            hits.increment();
+            hitAge.record(now - entry.writtenAt);
+            if (verifySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < verifySampleRate) {
+                return verify(productId, entry, generation, loader);
+            }
+            return Optional.of(entry.view);
+        }
+
+        misses.increment();
+        Optional<Snapshot> loaded = loader.get();
+        store(productId, segment, generation, loaded);
+        return loaded.map(Snapshot::view);
+    }
+
+    private Optional<Inventory> verify(Long productId, Entry entry, long generation,
+                                       Supplier<Optional<Snapshot>> loader) {
+        verifications.increment();
+        Optional<Snapshot> loaded = loader.get();
+        if (loaded.map(snapshot -> !sameState(snapshot.view(), entry.view)).orElse(true)) {
+            staleReads.increment();
+            log.debug("Entrada desactualizada en el cache del producto {}", productId);
+        }
+        store(productId, segment(productId), generation, loaded);
+        return loaded.map(Snapshot::view);
+    }
+
+    private void store(Long productId, Segment segment, long generation, Optional<Snapshot> loaded) {
+        synchronized (segment) {
+            if (segment.generation != generation) {
+                return;  // Hubo una escritura mientras se leía: el resultado puede ser anterior
+            }
+            if (loaded.isPresent()) {
+                segment.entries.put(productId, new Entry(loaded.get().row(), loaded.get().located()));
+            } else {
+                segment.entries.remove(productId);
+            }
+        }
+    }
+
+    // ==================== ESCRITURA (tras el commit de la transacción actual) ====================
+
+    /**
+     * Fila del producto tras una escritura (en modo LEDGER, con los movimientos pendientes).
+     * Solo actualiza una entrada existente: la suma de ubicaciones se conserva. La fila se copia
+     * tras el commit, cuando una entidad gestionada ya tiene su versión incrementada.
+     */
+    public void rowWritten(Inventory row) {
+        afterCommit(() -> {
+            Inventory copy = row.withQuantity(row.getQuantity());
+            update(copy.getProductId(), entry -> isOlder(copy, entry.row) ? entry : new Entry(copy, entry.located));
+        });
+    }
+
+    /**
+     * Cambio en el stock de las ubicaciones del producto (la fila principal no cambia).
+     */
+    public void locatedChanged(Long productId, int delta) {
+        afterCommit(() -> update(productId, entry -> new Entry(entry.row, entry.located + delta)));
+    }
+
+    /**
+     * Descarta la entrada del producto (cambios cuya fila resultante no se conoce).
+     */
+    public void evict(Long productId) {
+        afterCommit(() -> update(productId, entry -> null));
+    }
+
+    /**
+     * Descarta las entradas de los productos que cumplen la condición (p. ej. los que pasaron a otro nodo).
+     */
+    public void evictIf(LongPredicate condition) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                segment.entries.keySet().removeIf(condition::test);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        evictIf(productId -> true);
+    }
+
+    private void update(Long productId, UnaryOperator<Entry> change) {
+        Segment segment = segment(productId);
+        synchronized (segment) {
+            segment.generation++;
+            Entry entry = segment.entries.get(productId);
+            if (entry == null) {
+                return;
+            }
+            Entry updated = change.apply(entry);
+            if (updated == null) {
+                segment.entries.remove(productId);
+            } else if (updated != entry) {
+                segment.entries.put(productId, updated);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ==================== MÉTRICAS ====================
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    private Segment segment(Long productId) {
+        return segments[(Long.hashCode(productId) * 0x9E3779B9 >>> 16) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Una escritura confirmada con una versión menor que la cacheada llegó tarde (otro commit ya la pisó).
+     */
+    private static boolean isOlder(Inventory written, Inventory cached) {
+        return written.getVersion() != null && cached.getVersion() != null
+                && written.getVersion() < cached.getVersion();
+    }
+
+    private static boolean sameState(Inventory a, Inventory b) {
+        return Objects.equals(a.getQuantity(), b.getQuantity())
+                && Objects.equals(a.getReservedQuantity(), b.getReservedQuantity())
+                && Objects.equals(a.getMinStock(), b.getMinStock());
+    }
+
+    /**
+     * Lectura de la BD: fila del producto y suma de sus ubicaciones.
+     */
+    public record Snapshot(Inventory row, long located) {
+
+        public Inventory view() {
+            return located == 0 ? row : row.withQuantity(row.getQuantity() + Math.toIntExact(located));
+        }
+    }
+
+    private static final class Entry {
+
+        private final Inventory row;
+        private final long located;
+        private final Inventory view;
+        private final long writtenAt = System.currentTimeMillis();
+
+        private Entry(Inventory row, long located) {
+            this.row = row;
+            this.located = located;
+            this.view = new Snapshot(row, located).view();
+        }
+    }
+
+    private static final class Segment {
+
+        private final LinkedHashMap<Long, Entry> entries;
+        private long generation;
+
+        private Segment(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.techtest.inventory.service.cluster;
+
+import com.techtest.inventory.dto.request.ClusterMembersRequest;
+import com.techtest.inventory.dto.request.ClusterNodeRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+/**
+ * Llamadas HTTP entre nodos del cluster: reenvío de peticiones al dueño de un producto y
+ * difusión de la membresía.
+ *
+ * Usa su propio RestTemplate: las respuestas 4xx/5xx del dueño se devuelven tal cual al
+ * cliente original en lugar de convertirse en excepciones.
+ */
+@Component
+@Slf4j
+public class ClusterClient {
+
+    /**
+     * Marca las peticiones reenviadas por otro nodo: se atienden localmente aunque la vista del
+     * anillo difiera (sin reenvíos en cadena)
+     */
+    public static final String FORWARDED_HEADER = "X-Inventory-Forwarded-By";
+
+    /**
+     * Secreto compartido entre nodos: sin él, FORWARDED_HEADER no se respeta (un cliente con la
+     * API key no puede saltarse el enrutamiento)
+     */
+    public static final String SECRET_HEADER = "X-Inventory-Cluster-Secret";
+
+    private final RestTemplate restTemplate;
+    private final byte[] secret;
+
+    public ClusterClient(RestTemplateBuilder builder,
+                         @Value("${api.security.key}") String apiKey,
+                         @Value("${inventory.cluster.enabled:false}") boolean enabled,
+                         @Value("${inventory.cluster.secret:}") String secret,
+                         @Value("${inventory.cluster.connect-timeout-ms:1000}") long connectTimeoutMillis,
+                         @Value("${inventory.cluster.read-timeout-ms:5000}") long readTimeoutMillis) {
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("inventory.cluster.secret es obligatorio en modo cluster");
+        }
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.restTemplate = builder
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .readTimeout(Duration.ofMillis(readTimeoutMillis))
+                .additionalInterceptors((request, body, execution) -> {
+                    request.getHeaders().set("X-API-Key", apiKey);
+                    request.getHeaders().set(SECRET_HEADER, secret);
+                    return execution.execute(request, body);
+                })
+                .errorHandler(new PassThroughErrorHandler())
+                .build();
+    }
+
+    /**
+     * Indica si una petición viene de otro nodo: trae el secreto del cluster.
+     */
+    public boolean isFromPeer(String secretHeader) {
+        return secretHeader != null && secret.length > 0
+                && MessageDigest.isEqual(secret, secretHeader.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reenvía una petición al nodo dueño y retorna su respuesta sin interpretarla.
+     *
+     * @throws RestClientException si el nodo no responde
+     */
+    public ResponseEntity<byte[]> forward(String node, HttpMethod method, String pathAndQuery,
+                                          HttpHeaders headers, byte[] body, String self) {
+        HttpHeaders forwarded = new HttpHeaders();
+        forwarded.putAll(headers);
+        forwarded.set(FORWARDED_HEADER, self);
+        return restTemplate.exchange(URI.create(node + pathAndQuery), method,
+                new HttpEntity<>(body.length == 0 ? null : body, forwarded), byte[].class);
+    }
+
+    /**
+     * Envía la membresía completa a un nodo.
+     *
+     * @return true si el nodo la recibió
+     */
+    public boolean sendMembers(String node, ClusterMembersRequest members) {
+        try {
+            ResponseEntity<Void> response = restTemplate.exchange(URI.create(node + "/inventory/cluster/members"),
+                    HttpMethod.PUT, new HttpEntity<>(members), Void.class);
+            return response.getStatusCode().is2xxSuccessful();
+        } catch (RestClientException e) {
+            log.warn("No se pudo enviar la membresía a {}: {}", node, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Pide a un nodo del cluster que agregue a {@code self}; ese nodo difunde la nueva membresía.
+     */
+    public boolean requestJoin(String node, String self) {
+        try {
+            ResponseEntity<Void> response = restTemplate.exchange(URI.create(node + "/inventory/cluster/nodes"),
+                    HttpMethod.POST, new HttpEntity<>(new ClusterNodeRequest(self)), Void.class);
+            return response.getStatusCode().is2xxSuccessful();
+        } catch (RestClientException e) {
+            log.warn("No se pudo unir al cluster a través de {}: {}", node, e.getMessage());
+            return false;
+        }
+    }
+
+    private static final class PassThroughErrorHandler implements ResponseErrorHandler {
+
+        // Ninguna respuesta se considera error: handleError nunca se llama
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+    }
+}
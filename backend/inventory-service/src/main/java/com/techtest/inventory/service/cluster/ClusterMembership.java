@@ -0,0 +1,284 @@
+package com.techtest.inventory.service.cluster;
+
+import com.techtest.inventory.dto.request.ClusterMembersRequest;
+import com.techtest.inventory.dto.response.ClusterStateResponse;
+import com.techtest.inventory.dto.response.HotStockResponse;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.hotstock.HotStockManager;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Membresía del cluster de inventory-service y reparto de productos entre nodos con un
+ * {@link HashRing}.
+ *
+ * Funcionamiento:
+ * - Cada nodo conoce la lista completa de nodos y su versión (epoch); el dueño de un productId
+ *   es el mismo en todos los nodos con la misma versión
+ * - Un alta o una baja (endpoint de administración, o el propio nodo al arrancar o detenerse)
+ *   incrementa la versión y la difunde a todos los nodos; cada uno ignora versiones viejas
+ * - Al cambiar el anillo, los productos en modo hot que pasaron a otro nodo se desactivan aquí:
+ *   su estado en memoria solo lo mantiene el dueño
+ * - Con single-writer, las escrituras de un producto se aplican de a una y en orden de llegada
+ *   en su dueño
+ *
+ * Los cambios de membresía se asumen de a uno por vez (operación de administración): dos altas
+ * simultáneas en nodos distintos producen la misma versión y solo una se impone.
+ */
+@Component
+@Slf4j
+public class ClusterMembership {
+
+    private static final int WRITE_LOCK_STRIPES = 1024;
+
+    private final ClusterClient client;
+    private final HotStockManager hotStockManager;
+    private final InventoryCache inventoryCache;
+    private final boolean enabled;
+    private final String advertisedHost;
+    private final String contextPath;
+    private final List<String> configuredNodes;
+    private final int virtualNodes;
+    private final boolean singleWriter;
+    private final Lock[] writeLocks;
+
+    private volatile String self;
+    private volatile long epoch;
+    private volatile HashRing ring;
+
+    public ClusterMembership(ClusterClient client,
+                             HotStockManager hotStockManager,
+                             InventoryCache inventoryCache,
+                             @Value("${inventory.cluster.enabled:false}") boolean enabled,
+                             @Value("${inventory.cluster.self:}") String self,
+                             @Value("${inventory.cluster.advertised-host:localhost}") String advertisedHost,
+                             @Value("${server.servlet.context-path:}") String contextPath,
+                             @Value("${inventory.cluster.nodes:}") List<String> configuredNodes,
+                             @Value("${inventory.cluster.virtual-nodes:128}") int virtualNodes,
+                             @Value("${inventory.cluster.single-writer:false}") boolean singleWriter) {
+        this.client = client;
+        this.hotStockManager = hotStockManager;
+        this.inventoryCache = inventoryCache;
+        this.enabled = enabled;
+        this.self = normalize(self);
+        this.advertisedHost = advertisedHost;
+        this.contextPath = normalize(contextPath);
+        this.configuredNodes = configuredNodes.stream().filter(node -> !node.isBlank()).map(ClusterMembership::normalize).toList();
+        this.virtualNodes = virtualNodes;
+        this.singleWriter = singleWriter;
+
+        // Sin self configurado, se toma del puerto en el que arranca el servidor (onWebServerInitialized)
+        Set<String> nodes = new LinkedHashSet<>(this.configuredNodes);
+        if (enabled && !this.self.isEmpty()) {
+            nodes.add(this.self);
+        }
+        this.ring = HashRing.of(nodes, virtualNodes);
+
+        this.writeLocks = new Lock[WRITE_LOCK_STRIPES];
+        for (int i = 0; i < WRITE_LOCK_STRIPES; i++) {
+            // Justo: las escrituras de un producto se aplican en orden de llegada
+            writeLocks[i] = new ReentrantLock(true);
+        }
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isSingleWriter() {
+        return singleWriter;
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public String ownerOf(long productId) {
+        return enabled ? ring.ownerOf(productId) : self;
+    }
+
+    /**
+     * Nodo dueño del producto si no es este, o null si se atiende localmente.
+     */
+    public String remoteOwner(long productId) {
+        if (!enabled) {
+            return null;
+        }
+        String owner = ring.ownerOf(productId);
+        return owner == null || owner.equals(self) ? null : owner;
+    }
+
+    /**
+     * Lock de escritura del producto (compartido por los productos de la misma franja).
+     */
+    public Lock writeLock(long productId) {
+        int h = Long.hashCode(productId * 0x9E3779B97F4A7C15L);
+        return writeLocks[(h ^ (h >>> 16)) & (WRITE_LOCK_STRIPES - 1)];
+    }
+
+    public ClusterStateResponse state() {
+        return ClusterStateResponse.builder()
+                .enabled(enabled)
+                .self(self)
+                .epoch(epoch)
+                .nodes(ring.nodes())
+                .build();
+    }
+
+    // ==================== CAMBIOS DE MEMBRESÍA ====================
+
+    /**
+     * Aplica la membresía recibida de otro nodo si es más nueva que la actual.
+     *
+     * @return true si se aplicó
+     */
+    public synchronized boolean apply(ClusterMembersRequest members) {
+        if (!enabled || members.getEpoch() <= epoch) {
+            return false;
+        }
+        install(members.getEpoch(), members.getNodes());
+        return true;
+    }
+
+    /**
+     * Agrega un nodo y difunde la nueva membresía (a todos, incluido el nuevo).
+     */
+    public void join(String node) {
+        ClusterMembersRequest members;
+        synchronized (this) {
+            requireEnabled();
+            String normalized = normalize(node);
+            if (ring.contains(normalized)) {
+                members = new ClusterMembersRequest(epoch, ring.nodes());
+            } else {
+                List<String> nodes = new ArrayList<>(ring.nodes());
+                nodes.add(normalized);
+                members = new ClusterMembersRequest(epoch + 1, nodes);
+                install(members.getEpoch(), nodes);
+            }
+        }
+        broadcast(members, members.getNodes());
+    }
+
+    /**
+     * Quita un nodo y difunde la nueva membresía (a los que quedan y al que sale).
+     */
+    public void leave(String node) {
+        requireEnabled();
+        String normalized = normalize(node);
+        ClusterMembersRequest members;
+        synchronized (this) {
+            if (!ring.contains(normalized)) {
+                return;
+            }
+            List<String> nodes = new ArrayList<>(ring.nodes());
+            nodes.remove(normalized);
+            members = new ClusterMembersRequest(epoch + 1, nodes);
+            install(members.getEpoch(), nodes);
+        }
+        List<String> targets = new ArrayList<>(members.getNodes());
+        targets.add(normalized);
+        broadcast(members, targets);
+    }
+
+    /**
+     * Sin inventory.cluster.self, la URL de este nodo se arma con inventory.cluster.advertised-host
+     * y el puerto en el que quedó escuchando el servidor (admite server.port=0).
+     */
+    @EventListener
+    public synchronized void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (!enabled || !self.isEmpty() || event.getApplicationContext().getServerNamespace() != null) {
+            return;
+        }
+        self = "http://" + advertisedHost + ":" + event.getWebServer().getPort() + contextPath;
+        Set<String> nodes = new LinkedHashSet<>(ring.nodes());
+        nodes.add(self);
+        ring = HashRing.of(nodes, virtualNodes);
+        log.info("URL de este nodo tomada del servidor: {}", self);
+    }
+
+    /**
+     * Si este nodo no figura en la lista configurada, se une a través del primero que responda.
+     * Sin nodos configurados es el primero del cluster.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void joinOnStartup() {
+        if (!enabled || configuredNodes.isEmpty() || configuredNodes.contains(self)) {
+            return;
+        }
+        for (String node : configuredNodes) {
+            if (client.requestJoin(node, self)) {
+                log.info("Nodo {} unido al cluster a través de {}", self, node);
+                return;
+            }
+        }
+        log.warn("Ningún nodo configurado respondió: {} arranca con la membresía local", self);
+    }
+
+    @PreDestroy
+    public void leaveOnShutdown() {
+        if (enabled && ring.nodes().size() > 1) {
+            leave(self);
+        }
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    private void install(long newEpoch, List<String> nodes) {
+        HashRing previous = ring;
+        Set<String> members = new LinkedHashSet<>();
+        nodes.forEach(node -> members.add(normalize(node)));
+        ring = HashRing.of(members, virtualNodes);
+        epoch = newEpoch;
+        log.info("Anillo del cluster actualizado (epoch {}): {} -> {}", newEpoch, previous.nodes(), ring.nodes());
+        releaseMovedProducts();
+    }
+
+    /**
+     * El estado en memoria de un producto lo mantiene solo su dueño: los productos hot que
+     * pasaron a otro nodo vuelven a servirse desde la BD aquí y se descartan sus entradas del cache.
+     */
+    private void releaseMovedProducts() {
+        inventoryCache.evictIf(productId -> remoteOwner(productId) != null);
+        for (HotStockResponse hot : hotStockManager.status()) {
+            if (remoteOwner(hot.getProductId()) != null) {
+                log.info("Producto {} ahora pertenece a {}: se desactiva su modo hot local",
+                        hot.getProductId(), ring.ownerOf(hot.getProductId()));
+                hotStockManager.disable(hot.getProductId());
+            }
+        }
+    }
+
+    private void broadcast(ClusterMembersRequest members, List<String> targets) {
+        for (String node : targets) {
+            if (!node.equals(self)) {
+                client.sendMembers(node, members);
+            }
+        }
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new IllegalArgumentException("El cluster no está habilitado en este nodo");
+        }
+    }
+
+    private static String normalize(String node) {
+        String trimmed = node == null ? "" : node.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,101 @@
+package com.techtest.inventory.service.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Anillo de hash consistente inmutable: cada nodo ocupa varios puntos (nodos virtuales) y un
+ * productId pertenece al primer punto en sentido horario desde su hash.
+ *
+ * Al agregar o quitar un nodo solo cambian de dueño los productos de los tramos que ese nodo
+ * gana o pierde (en promedio 1/N del total); el resto sigue en el mismo nodo.
+ */
+public final class HashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    private HashRing(List<String> nodes, long[] points, String[] owners) {
+        this.nodes = nodes;
+        this.points = points;
+        this.owners = owners;
+    }
+
+    public static HashRing of(Collection<String> nodes, int virtualNodes) {
+        List<String> sorted = List.copyOf(new TreeSet<>(nodes));
+        int size = sorted.size() * virtualNodes;
+        long[] hashes = new long[size];
+        int n = 0;
+        for (int node = 0; node < sorted.size(); node++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[n++] = hash(sorted.get(node) + "#" + v);
+            }
+        }
+
+        // Ordenar los puntos conservando a qué nodo pertenece cada uno
+        Integer[] indexes = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        long[] points = new long[size];
+        String[] owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[indexes[i]];
+            owners[i] = sorted.get(indexes[i] / virtualNodes);
+        }
+        return new HashRing(sorted, points, owners);
+    }
+
+    /**
+     * Nodo dueño del producto, o null si el anillo está vacío.
+     */
+    public String ownerOf(long productId) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(productId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public boolean contains(String node) {
+        return nodes.contains(node);
+    }
+
+    /**
+     * FNV-1a de 64 bits con mezcla final: los nombres de nodo se parecen mucho entre sí
+     * (mismo host, otro puerto) y sin mezcla sus puntos quedarían agrupados.
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Finalizador de MurmurHash3: IDs consecutivos quedan repartidos por todo el anillo.
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85a53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,146 @@
+package com.techtest.inventory.service.concurrency;
+
+import com.techtest.inventory.exception.InventoryVersionMismatchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta escrituras sobre filas versionadas de inventario.
+ *
+ * - Sin versión esperada: si otra transacción modificó la fila (conflicto de versión) se reintenta
+ *   con espera exponencial aleatoria ("full jitter") hasta max-attempts intentos
+ * - Con versión esperada (If-Match): un solo intento; el conflicto se reporta al cliente
+ *
+ * Cada acción debe abrir y confirmar su propia transacción para que el reintento relea la fila.
+ *
+ * Métricas:
+ * - inventory.optimistic_lock.attempts por resultado (conflict / completed): el cociente es la
+ *   tasa de contención global
+ * - inventory.optimistic_lock.top_conflicts: conflictos de la última ventana de los productos con
+ *   más contención. Se cuentan en un mapa acotado (Space-Saving): un producto nuevo reemplaza al
+ *   de menos conflictos y hereda su cuenta, así que a lo sumo top-products series por ventana
+ */
+@Component
+@Slf4j
+public class OptimisticRetryExecutor {
+
+    private final Counter completedAttempts;
+    private final Counter conflictAttempts;
+    private final MultiGauge topConflicts;
+
+    // Conflictos de la ventana actual por producto; nunca más de topProducts entradas
+    private final Map<Long, Long> windowConflicts = new HashMap<>();
+
+    @Value("${inventory.optimistic.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${inventory.optimistic.base-backoff-ms:5}")
+    private long baseBackoffMillis = 5;
+
+    @Value("${inventory.optimistic.max-backoff-ms:100}")
+    private long maxBackoffMillis = 100;
+
+    @Value("${inventory.optimistic.top-products:20}")
+    private int topProducts = 20;
+
+    public OptimisticRetryExecutor(MeterRegistry meterRegistry) {
+        this.completedAttempts = attemptCounter(meterRegistry, "completed");
+        this.conflictAttempts = attemptCounter(meterRegistry, "conflict");
+        this.topConflicts = MultiGauge.builder("inventory.optimistic_lock.top_conflicts")
+                .description("Conflictos de versión en la última ventana de los productos con más contención")
+                .register(meterRegistry);
+    }
+
+    private static Counter attemptCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("inventory.optimistic_lock.attempts")
+                .description("Intentos de escritura sobre filas versionadas de inventario")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param expectedVersion versión indicada por el cliente, o null para reintentar ante conflictos
+     * @throws InventoryVersionMismatchException si hay versión esperada y otra escritura ganó
+     * @throws OptimisticLockingFailureException si se agotaron los intentos
+     */
+    public <T> T execute(Long productId, Long expectedVersion, Supplier<T> action) {
+        int attempts = expectedVersion != null ? 1 : maxAttempts;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = action.get();
+                completedAttempts.increment();
+                return result;
+            } catch (OptimisticLockingFailureException ex) {
+                conflictAttempts.increment();
+                recordConflict(productId);
+
+                if (expectedVersion != null) {
+                    throw new InventoryVersionMismatchException(productId, expectedVersion);
+                }
+                if (attempt >= attempts) {
+                    log.warn("Conflicto de versión en producto {} tras {} intentos", productId, attempt);
+                    throw ex;
+                }
+                log.debug("Conflicto de versión en producto {} (intento {}), reintentando", productId, attempt);
+                backoff(attempt);
+            } catch (RuntimeException ex) {
+                completedAttempts.increment();
+                throw ex;
+            }
+        }
+    }
+
+    private void recordConflict(Long productId) {
+        synchronized (windowConflicts) {
+            Long count = windowConflicts.get(productId);
+            if (count == null && windowConflicts.size() >= topProducts) {
+                Map.Entry<Long, Long> least = Collections.min(windowConflicts.entrySet(), Map.Entry.comparingByValue());
+                windowConflicts.remove(least.getKey());
+                count = least.getValue();
+            }
+            windowConflicts.put(productId, (count != null ? count : 0) + 1);
+        }
+    }
+
+    /**
+     * Publica los conflictos de la ventana que termina y empieza una nueva: los productos que
+     * dejan de tener contención desaparecen del gauge.
+     */
+    @Scheduled(fixedDelayString = "${inventory.optimistic.top-window-ms:60000}")
+    public void publishTopConflicts() {
+        Map<Long, Long> window;
+        synchronized (windowConflicts) {
+            window = new HashMap<>(windowConflicts);
+            windowConflicts.clear();
+        }
+        List<MultiGauge.Row<?>> rows = window.entrySet().stream()
+                .<MultiGauge.Row<?>>map(e -> MultiGauge.Row.of(Tags.of("productId", String.valueOf(e.getKey())), e.getValue()))
+                .toList();
+        topConflicts.register(rows, true);
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reintento interrumpido", ex);
+        }
+    }
+}
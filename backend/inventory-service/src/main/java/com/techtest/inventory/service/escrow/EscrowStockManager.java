@@ -0,0 +1,604 @@
+package com.techtest.inventory.service.escrow;
+
+import com.techtest.inventory.entity.EscrowLease;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.repository.EscrowLeaseRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.events.EscrowSalesFailedEvent;
+import com.techtest.inventory.service.events.InventoryChangedEvent;
+import com.techtest.inventory.service.events.LowStockEvent;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import com.techtest.inventory.service.outbox.OutboxWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Modo escrow: cada instancia del servicio vende un producto desde una porción de su stock
+ * cedida en exclusiva (lease), sin acceder a la BD en cada compra.
+ *
+ * Funcionamiento:
+ * - Pedir una porción: UPDATE condicional que suma a reservedQuantity si hay disponible suficiente,
+ *   y una fila {@link EscrowLease} a nombre de la instancia con las unidades y su vencimiento.
+ *   Ninguna otra instancia (ni otra ruta de compra) puede vender esas unidades, así que nunca se
+ *   sobrevende aunque cada instancia venda desde memoria
+ * - Comprar: descuento con CAS sobre la porción local; solo si no alcanza se pide más en el momento
+ * - Mantenimiento periódico, por producto y en una transacción: escribe lo vendido (descuenta quantity
+ *   y reservedQuantity a la vez), renueva el vencimiento, repone la porción cuando baja del umbral
+ *   y la devuelve si el producto dejó de venderse en esta instancia
+ * - Una instancia deja de vender de su porción si no pudo renovarla a tiempo; las porciones
+ *   vencidas de una instancia caída las devuelve al disponible cualquier otra
+ *
+ * El vencimiento de las porciones lo fija y lo compara el reloj de la BD (los relojes de las
+ * instancias pueden diferir). Cada instancia deja de vender con margen: mide con su reloj
+ * monótono desde antes de pedir la renovación, así que nunca vende después del vencimiento en BD.
+ *
+ * Las unidades cedidas figuran como reservadas en las consultas del inventario, y también en
+ * Inventory.escrowQuantity. Si una instancia queda aislada de la BD más que el vencimiento, sus
+ * ventas sin escribir se descuentan al reconectar solo si hay disponible; las que no alcanzan se
+ * registran como fallidas ({@link EscrowSalesFailedEvent}) para compensar sus órdenes.
+ */
+@Component
+@Slf4j
+public class EscrowStockManager {
+
+    private final InventoryRepository inventoryRepository;
+    private final EscrowLeaseRepository leaseRepository;
+    private final OutboxWriter outboxWriter;
+    private final InventoryCache inventoryCache;
+    private final LowStockIndex lowStockIndex;
+    private final TransactionTemplate requiresNew;
+    private final String instanceId;
+
+    private final Set<Long> enabled = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Slice> slices = new ConcurrentHashMap<>();
+
+    private final Counter localPurchases;
+    private final Counter leaseRequests;
+    private final Counter failedSales;
+
+    /**
+     * Unidades máximas por porción
+     */
+    @Value("${inventory.escrow.lease-size:100}")
+    private int leaseSize = 100;
+
+    /**
+     * Fracción máxima del disponible que se cede en cada pedido: con poco stock las porciones se
+     * achican y queda para las demás instancias
+     */
+    @Value("${inventory.escrow.lease-fraction:0.25}")
+    private double leaseFraction = 0.25;
+
+    /**
+     * La porción se repone en segundo plano al bajar de esta fracción de la última cesión
+     */
+    @Value("${inventory.escrow.refill-threshold:0.25}")
+    private double refillThreshold = 0.25;
+
+    @Value("${inventory.escrow.lease-ttl-ms:30000}")
+    private long leaseTtlMillis = 30_000;
+
+    /**
+     * Una porción sin ventas durante este tiempo se devuelve al disponible
+     */
+    @Value("${inventory.escrow.idle-return-ms:5000}")
+    private long idleReturnMillis = 5_000;
+
+    @Value("${inventory.escrow.product-ids:}")
+    private long[] configuredProductIds = new long[0];
+
+    public EscrowStockManager(InventoryRepository inventoryRepository,
+                              EscrowLeaseRepository leaseRepository,
+                              OutboxWriter outboxWriter,
+                              InventoryCache inventoryCache,
+                              LowStockIndex lowStockIndex,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${inventory.escrow.instance-id:}") String instanceId) {
+        this.inventoryRepository = inventoryRepository;
+        this.leaseRepository = leaseRepository;
+        this.outboxWriter = outboxWriter;
+        this.inventoryCache = inventoryCache;
+        this.lowStockIndex = lowStockIndex;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.instanceId = instanceId == null || instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.localPurchases = Counter.builder("inventory.escrow.local-purchases")
+                .tag("instance", this.instanceId)
+                .description("Compras servidas desde la porción local, sin acceder a la BD")
+                .register(meterRegistry);
+        this.leaseRequests = Counter.builder("inventory.escrow.lease-requests")
+                .tag("instance", this.instanceId)
+                .description("Pedidos de porción a la BD")
+                .register(meterRegistry);
+        this.failedSales = Counter.builder("inventory.escrow.failed-sales")
+                .tag("instance", this.instanceId)
+                .description("Unidades vendidas desde una porción vencida que ya no tenían stock al escribirse")
+                .register(meterRegistry);
+    }
+
+    // ==================== COMPRAS / CONSULTAS ====================
+
+    /**
+     * Procesa una compra desde la porción local, pidiendo más a la BD si no alcanza.
+     *
+     * @return vista del inventario tras la compra, o null si el producto no está en modo escrow
+     * @throws InsufficientStockException si ni la porción local ni el disponible en BD alcanzan
+     */
+    public Inventory purchase(Long productId, int quantity) {
+        while (true) {
+            Slice slice = slices.get(productId);
+            if (slice == null) {
+                if (!enabled.contains(productId)) {
+                    return null;
+                }
+                slice = slices.computeIfAbsent(productId, Slice::new);
+            }
+            if (slice.tryTake(quantity)) {
+                localPurchases.increment();
+                return slice.view();
+            }
+            int available = refill(slice, quantity);
+            if (available >= 0) {
+                throw new InsufficientStockException(productId, quantity, available);
+            }
+        }
+    }
+
+    /**
+     * true si la porción local alcanza para la cantidad (responde sin acceder a la BD).
+     */
+    public boolean hasLocalStock(Long productId, int quantity) {
+        Slice slice = slices.get(productId);
+        return slice != null && slice.canSell() && slice.available() >= quantity;
+    }
+
+    public boolean isEnabled(Long productId) {
+        return enabled.contains(productId);
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    // ==================== ACTIVACIÓN ====================
+
+    /**
+     * Activa el modo escrow para un producto en esta instancia; la primera compra pide la porción.
+     */
+    public void enable(Long productId) {
+        if (enabled.add(productId)) {
+            // Mientras esté en escrow la fila la escribe el mantenimiento: no debe quedar una entrada previa
+            inventoryCache.evict(productId);
+            log.info("Modo escrow activado para producto {} en instancia {}", productId, instanceId);
+        }
+    }
+
+    /**
+     * Desactiva el modo escrow: escribe lo vendido y devuelve la porción al disponible.
+     */
+    public void disable(Long productId) {
+        enabled.remove(productId);
+        Slice slice = slices.get(productId);
+        if (slice == null) {
+            return;
+        }
+        slice.lock.lock();
+        try {
+            retire(slice);
+            inventoryCache.evict(productId);
+            log.info("Modo escrow desactivado para producto {} en instancia {}", productId, instanceId);
+        } catch (RuntimeException e) {
+            log.error("No se pudo devolver la porción del producto {} (se reintentará): {}", productId, e.getMessage());
+        } finally {
+            slice.lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void enableConfiguredProducts() {
+        for (long productId : configuredProductIds) {
+            enable(productId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Long productId : Set.copyOf(slices.keySet())) {
+            disable(productId);
+        }
+        enabled.clear();
+    }
+
+    // ==================== MANTENIMIENTO ====================
+
+    /**
+     * Escribe lo vendido, renueva, repone o devuelve la porción de cada producto, y recupera las
+     * porciones vencidas de otras instancias.
+     */
+    @Scheduled(fixedDelayString = "${inventory.escrow.maintenance-interval-ms:200}")
+    public void maintain() {
+        if (enabled.isEmpty() && slices.isEmpty()) {
+            return;
+        }
+        for (Slice slice : slices.values()) {
+            if (!slice.lock.tryLock()) {
+                // Un pedido síncrono está en curso: ya renueva la porción
+                continue;
+            }
+            try {
+                boolean idle = System.nanoTime() - slice.lastSale > TimeUnit.MILLISECONDS.toNanos(idleReturnMillis);
+                if (idle || !enabled.contains(slice.productId)) {
+                    retire(slice);
+                } else {
+                    settle(slice, false);
+                    if (slice.needsRefill(refillThreshold)) {
+                        requestLease(slice, 0);
+                    }
+                }
+            } catch (InventoryNotFoundException e) {
+                slices.remove(slice.productId, slice);
+            } catch (RuntimeException e) {
+                log.error("Error en el mantenimiento de la porción del producto {} (se reintentará): {}",
+                        slice.productId, e.getMessage());
+            } finally {
+                slice.lock.unlock();
+            }
+        }
+        reapExpired();
+    }
+
+    /**
+     * Devuelve al disponible las porciones vencidas (de instancias que dejaron de renovarlas).
+     */
+    public void reapExpired() {
+        for (EscrowLease lease : leaseRepository.findExpired()) {
+            try {
+                requiresNew.executeWithoutResult(status -> {
+                    if (leaseRepository.deleteExpired(lease.getId()) == 1 && lease.getUnits() > 0) {
+                        inventoryRepository.releaseEscrowQuantity(lease.getProductId(), lease.getUnits());
+                        log.warn("Porción vencida de la instancia {} devuelta: producto {}, {} unidades",
+                                lease.getInstanceId(), lease.getProductId(), lease.getUnits());
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.error("No se pudo recuperar la porción vencida {}: {}", lease.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    /**
+     * Pedido síncrono desde una compra que no alcanzó con la porción local.
+     *
+     * @return -1 si hay que reintentar la compra (porción repuesta o retirada), o el stock total
+     *         que se podía vender si no alcanza
+     */
+    private int refill(Slice slice, int quantity) {
+        slice.lock.lock();
+        try {
+            if (slice.retired || (slice.canSell() && slice.available() >= quantity)) {
+                return -1;
+            }
+            if (!slice.canSell()) {
+                // Vencida localmente: escribir lo vendido y renovar antes de volver a vender
+                settle(slice, false);
+            }
+            int missing = Math.max(1, quantity - slice.available());
+            int dbAvailable = requestLease(slice, missing);
+            return dbAvailable < 0 ? -1 : dbAvailable + slice.available();
+        } catch (InventoryNotFoundException e) {
+            slices.remove(slice.productId, slice);
+            throw e;
+        } finally {
+            slice.lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve la porción y la saca del mapa; la próxima compra crea una nueva. Debe llamarse con
+     * el lock de la porción tomado.
+     */
+    private void retire(Slice slice) {
+        slice.retired = true;
+        try {
+            settle(slice, true);
+        } catch (InventoryNotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Sigue en el mapa con lo vendido pendiente: el mantenimiento lo reintenta
+            slice.retired = false;
+            throw e;
+        }
+        slices.remove(slice.productId, slice);
+    }
+
+    /**
+     * Pide una porción de al menos {@code missing} unidades (0: lo que corresponda, si hay).
+     * Debe llamarse con el lock de la porción tomado.
+     *
+     * @return -1 si se cedió, o el disponible en BD si no alcanza para {@code missing}
+     */
+    private int requestLease(Slice slice, int missing) {
+        Long productId = slice.productId;
+        leaseRequests.increment();
+        long requestStart = System.nanoTime();
+        Grant grant = requiresNew.execute(status -> {
+            Inventory row = inventoryRepository.findByProductId(productId)
+                    .orElseThrow(() -> new InventoryNotFoundException(productId));
+            int dbAvailable = row.getAvailableQuantity();
+            int units = Math.min(dbAvailable,
+                    Math.max(missing, Math.min(leaseSize, (int) Math.ceil(dbAvailable * leaseFraction))));
+            if (units <= 0 || units < missing || inventoryRepository.reserveEscrowQuantity(productId, units) == 0) {
+                return new Grant(0, dbAvailable, row);
+            }
+            if (leaseRepository.settle(productId, instanceId, units, leaseTtlMillis) == 0) {
+                openLease(slice, units);
+            }
+            return new Grant(units, dbAvailable, row);
+        });
+
+        if (grant.units() == 0) {
+            return grant.dbAvailable();
+        }
+        slice.granted(grant.units(), grant.row(), requestStart, leaseTtlMillis);
+        return -1;
+    }
+
+    /**
+     * Crea la fila de la porción. Si quedó una vencida de esta instancia sin recuperar, se devuelve
+     * primero (sus unidades ya no se venden: la porción local se vació al vencer).
+     */
+    private void openLease(Slice slice, int units) {
+        leaseRepository.findByProductIdAndInstanceId(slice.productId, instanceId).ifPresent(stale -> {
+            if (leaseRepository.deleteExpired(stale.getId()) == 1 && stale.getUnits() > 0) {
+                inventoryRepository.releaseEscrowQuantity(slice.productId, stale.getUnits());
+            }
+        });
+        EscrowLease lease = leaseRepository.save(EscrowLease.builder()
+                .productId(slice.productId)
+                .instanceId(instanceId)
+                .units(units)
+                .expiresAt(LocalDateTime.now())  // provisorio: el vencimiento lo fija el reloj de la BD
+                .build());
+        leaseRepository.resetExpiry(lease.getId(), leaseTtlMillis);
+    }
+
+    /**
+     * Escribe lo vendido y renueva el vencimiento; con {@code returnAll} también devuelve las
+     * unidades sin vender. Debe llamarse con el lock de la porción tomado.
+     */
+    private void settle(Slice slice, boolean returnAll) {
+        Long productId = slice.productId;
+        // Con returnAll se toman vendidas y disponibles en un solo paso: ninguna compra queda a medias
+        long state = returnAll ? slice.takeAll() : slice.state.get();
+        long sold = Slice.sold(state);
+        long returned = returnAll ? Slice.available(state) : 0;
+        if (state == 0) {
+            return;
+        }
+        long renewStart = System.nanoTime();
+        try {
+            boolean renewed = Boolean.TRUE.equals(requiresNew.execute(status -> {
+                int delta = Math.toIntExact(-(sold + returned));
+                boolean leaseAlive = leaseRepository.settle(productId, instanceId, delta, leaseTtlMillis) == 1;
+                if (leaseAlive) {
+                    if (sold > 0 && inventoryRepository.confirmEscrowQuantity(productId, Math.toIntExact(sold)) == 0) {
+                        throw new InventoryNotFoundException(productId);
+                    }
+                    if (returned > 0) {
+                        inventoryRepository.releaseEscrowQuantity(productId, Math.toIntExact(returned));
+                    }
+                    if (returnAll) {
+                        leaseRepository.deleteIfEmpty(productId, instanceId);
+                    }
+                    if (sold > 0) {
+                        inventoryRepository.findByProductId(productId).ifPresent(row -> writeSoldEvents(row, sold));
+                    }
+                } else if (sold > 0) {
+                    settleExpiredSales(productId, Math.toIntExact(sold));
+                }
+                return leaseAlive;
+            }));
+            if (!returnAll) {
+                slice.flushed(sold);
+            }
+            if (renewed) {
+                slice.sellDeadline = renewStart + Slice.sellWindowNanos(leaseTtlMillis);
+            } else {
+                // Sus unidades sin vender ya no son de esta instancia
+                slice.dropAvailable();
+            }
+        } catch (RuntimeException e) {
+            if (returnAll) {
+                slice.state.addAndGet(state);
+            }
+            if (e instanceof InventoryNotFoundException || !inventoryRepository.existsByProductId(productId)) {
+                slice.retired = true;
+                slices.remove(productId, slice);
+                requiresNew.executeWithoutResult(status ->
+                        leaseRepository.findByProductIdAndInstanceId(productId, instanceId).ifPresent(leaseRepository::delete));
+                throw new InventoryNotFoundException(productId);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Ventas de una porción que venció antes de escribirse: otra instancia ya devolvió sus unidades
+     * al disponible, así que se descuentan con el UPDATE condicional de una compra. Las que ya no
+     * tienen stock (se vendieron por otra ruta) no se descuentan: se registran como fallidas.
+     */
+    private void settleExpiredSales(Long productId, int sold) {
+        int applied = sold;
+        Optional<Inventory> written = inventoryRepository.decrementAndGet(productId, sold);
+        if (written.isEmpty()) {
+            applied = inventoryRepository.findByProductId(productId)
+                    .map(row -> Math.max(0, Math.min(sold, row.getAvailableQuantity())))
+                    .orElse(0);
+            written = applied > 0 ? inventoryRepository.decrementAndGet(productId, applied) : Optional.empty();
+            if (written.isEmpty()) {
+                applied = 0;
+            }
+        }
+        int appliedUnits = applied;
+        written.ifPresent(row -> writeSoldEvents(row, appliedUnits));
+
+        int failed = sold - applied;
+        if (failed > 0) {
+            log.error("Ventas de una porción vencida sin stock disponible: producto {}, {} unidades no aplicadas",
+                    productId, failed);
+            failedSales.increment(failed);
+            outboxWriter.append(new EscrowSalesFailedEvent(productId, instanceId, failed));
+        }
+    }
+
+    /**
+     * Evento agregado de las unidades vendidas desde la porción, en la transacción que las escribe
+     * (las compras escrow no pasan por una transacción propia).
+     */
+    private void writeSoldEvents(Inventory row, long sold) {
+        Long productId = row.getProductId();
+        int previousQuantity = row.getQuantity() + Math.toIntExact(sold);
+        outboxWriter.append(new InventoryChangedEvent(productId, previousQuantity,
+                row.getQuantity(), InventoryChangedEvent.Reason.PURCHASE));
+        if (row.isLowStock() && previousQuantity > row.getMinStock()) {
+            outboxWriter.append(new LowStockEvent(productId, row.getQuantity(), row.getMinStock()));
+        }
+        lowStockIndex.rowWritten(row);
+    }
+
+    private record Grant(int units, int dbAvailable, Inventory row) {
+    }
+
+    /**
+     * Porción local de un producto. Disponible y vendidas sin escribir comparten un long (32 bits
+     * cada uno) para que una compra mueva unidades de uno a otro con un solo CAS.
+     */
+    private static final class Slice {
+        private static final long SOLD_UNIT = 1L << 32;
+        private static final long AVAILABLE_MASK = SOLD_UNIT - 1;
+
+        final Long productId;
+        final AtomicLong state = new AtomicLong();
+        final ReentrantLock lock = new ReentrantLock();
+
+        /** Hasta cuándo (System.nanoTime) se puede vender sin renovar */
+        volatile long sellDeadline = System.nanoTime();
+        volatile long lastSale = System.nanoTime();
+        volatile Inventory snapshot;
+        volatile boolean retired;
+        int lastGrant;
+
+        Slice(Long productId) {
+            this.productId = productId;
+        }
+
+        static int available(long state) {
+            return (int) (state & AVAILABLE_MASK);
+        }
+
+        static long sold(long state) {
+            return state >>> 32;
+        }
+
+        int available() {
+            return available(state.get());
+        }
+
+        boolean canSell() {
+            return !retired && System.nanoTime() - sellDeadline < 0;
+        }
+
+        boolean tryTake(int quantity) {
+            if (!canSell()) {
+                return false;
+            }
+            long current;
+            while (available(current = state.get()) >= quantity) {
+                if (state.compareAndSet(current, current - quantity + quantity * SOLD_UNIT)) {
+                    lastSale = System.nanoTime();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long takeAll() {
+            return state.getAndSet(0);
+        }
+
+        void flushed(long sold) {
+            state.addAndGet(-sold * SOLD_UNIT);
+        }
+
+        void dropAvailable() {
+            long current;
+            do {
+                current = state.get();
+            } while (!state.compareAndSet(current, current & ~AVAILABLE_MASK));
+        }
+
+        boolean needsRefill(double threshold) {
+            return available() < Math.max(1, lastGrant * threshold);
+        }
+
+        /**
+         * @param requestStart System.nanoTime() antes de pedir la porción: la BD fijó el
+         *                     vencimiento después, así que la ventana local nunca lo pasa
+         */
+        void granted(int units, Inventory row, long requestStart, long ttlMillis) {
+            snapshot = row;
+            lastGrant = units;
+            state.addAndGet(units);
+            sellDeadline = requestStart + sellWindowNanos(ttlMillis);
+        }
+
+        /**
+         * Se deja de vender con un tercio del vencimiento de margen, para escribir lo vendido
+         * antes de que otra instancia pueda recuperar la porción (y cubrir la deriva entre el
+         * reloj monótono local y el de la BD)
+         */
+        static long sellWindowNanos(long ttlMillis) {
+            return TimeUnit.MILLISECONDS.toNanos(ttlMillis * 2 / 3);
+        }
+
+        Inventory view() {
+            Inventory row = snapshot;
+            return Inventory.builder()
+                    .id(row.getId())
+                    .productId(row.getProductId())
+                    .quantity(Math.toIntExact(Math.max(0, row.getQuantity() - sold(state.get()))))
+                    .reservedQuantity(row.getReservedQuantity())
+                    .escrowQuantity(row.getEscrowQuantity())
+                    .minStock(row.getMinStock())
+                    .createdAt(row.getCreatedAt())
+                    .updatedAt(row.getUpdatedAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.techtest.inventory.service.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ventas hechas desde una porción escrow que venció antes de escribirse y que ya no tenían stock
+ * al escribirlas: no se descontaron y las órdenes que las originaron deben compensarse.
+ */
+public record EscrowSalesFailedEvent(Long productId,
+                                     String instanceId,
+                                     int failedUnits,
+                                     LocalDateTime occurredAt) implements InventoryEvent {
+
+    public EscrowSalesFailedEvent(Long productId, String instanceId, int failedUnits) {
+        this(productId, instanceId, failedUnits, LocalDateTime.now());
+    }
+
+    @Override
+    public String type() {
+        return "ESCROW_SALES_FAILED";
+    }
+}
@@ -0,0 +1,23 @@
+package com.techtest.inventory.service.events;
+
+/**
+ * Qué hacer al publicar cuando el buffer de un suscriptor está lleno.
+ */
+public enum EventOverflowPolicy {
+
+    /**
+     * Se descarta el evento nuevo: la publicación nunca espera (por defecto).
+     */
+    DROP_NEWEST,
+
+    /**
+     * Se descarta el evento más antiguo pendiente para hacer sitio al nuevo.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Backpressure: quien publica espera hasta block-timeout-ms a que haya sitio;
+     * si no lo hay, el evento se descarta.
+     */
+    BLOCK
+}
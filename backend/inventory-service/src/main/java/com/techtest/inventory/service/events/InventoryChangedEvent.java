@@ -0,0 +1,34 @@
+package com.techtest.inventory.service.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * La cantidad de un producto cambió (compra, ajuste, reserva confirmada, borrado...).
+ */
+public record InventoryChangedEvent(Long productId,
+                                    int previousQuantity,
+                                    int newQuantity,
+                                    Reason reason,
+                                    LocalDateTime occurredAt) implements InventoryEvent {
+
+    public InventoryChangedEvent(Long productId, int previousQuantity, int newQuantity, Reason reason) {
+        this(productId, previousQuantity, newQuantity, reason, LocalDateTime.now());
+    }
+
+    @Override
+    public String type() {
+        return "INVENTORY_CHANGED";
+    }
+
+    public int difference() {
+        return newQuantity - previousQuantity;
+    }
+
+    public enum Reason {
+        STOCK_UPDATE,
+        QUANTITY_ADJUSTMENT,
+        PURCHASE,
+        RESERVATION_CONFIRMED,
+        DELETED
+    }
+}
@@ -0,0 +1,19 @@
+package com.techtest.inventory.service.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio del inventario publicado en el {@link InventoryEventBus}.
+ */
+public sealed interface InventoryEvent permits InventoryChangedEvent, LowStockEvent, StockRecoveredEvent,
+        EscrowSalesFailedEvent {
+
+    /**
+     * Tipo del evento para consumidores externos (outbox).
+     */
+    String type();
+
+    Long productId();
+
+    LocalDateTime occurredAt();
+}
@@ -0,0 +1,237 @@
+package com.techtest.inventory.service.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus de eventos de inventario en proceso y asíncrono.
+ *
+ * Funcionamiento:
+ * - Cada suscriptor tiene un buffer circular acotado y un hilo que lo consume por lotes
+ * - Publicar dentro de una transacción solo acumula el evento: se entrega tras el commit
+ *   y se descarta si hay rollback
+ * - Con el buffer lleno se aplica la política configurada ({@link EventOverflowPolicy})
+ *
+ * Quien publica nunca ejecuta código de los suscriptores: el coste en el hilo de la petición
+ * es encolar el evento.
+ */
+@Component
+@Slf4j
+public class InventoryEventBus {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000;
+
+    private final List<InventoryEventSubscriber> subscribers;
+    private final MeterRegistry meterRegistry;
+    private final Counter publishedCounter;
+
+    private List<Channel> channels = List.of();
+
+    @Value("${inventory.events.buffer-size:8192}")
+    private int bufferSize = 8192;
+
+    @Value("${inventory.events.batch-size:256}")
+    private int batchSize = 256;
+
+    @Value("${inventory.events.overflow-policy:DROP_NEWEST}")
+    private EventOverflowPolicy overflowPolicy = EventOverflowPolicy.DROP_NEWEST;
+
+    @Value("${inventory.events.block-timeout-ms:50}")
+    private long blockTimeoutMillis = 50;
+
+    public InventoryEventBus(List<InventoryEventSubscriber> subscribers, MeterRegistry meterRegistry) {
+        this.subscribers = subscribers;
+        this.meterRegistry = meterRegistry;
+        this.publishedCounter = Counter.builder("inventory.events.published")
+                .description("Eventos de inventario publicados (tras el commit)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        channels = subscribers.stream().map(Channel::new).toList();
+        channels.forEach(channel -> channel.thread.start());
+        log.info("Bus de eventos iniciado: {} suscriptores, buffer {}, política {}",
+                channels.size(), bufferSize, overflowPolicy);
+    }
+
+    /**
+     * Detiene los hilos tras entregar lo pendiente (con un tiempo máximo).
+     */
+    @PreDestroy
+    void stop() {
+        channels.forEach(channel -> channel.running = false);
+        for (Channel channel : channels) {
+            try {
+                channel.thread.join(SHUTDOWN_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!channel.buffer.isEmpty()) {
+                log.warn("{} eventos sin entregar al suscriptor {} al detener el bus",
+                        channel.buffer.size(), channel.subscriber.name());
+            }
+        }
+    }
+
+    // ==================== PUBLICACIÓN ====================
+
+    /**
+     * Publica un evento. Dentro de una transacción se entrega al hacer commit.
+     */
+    public void publish(InventoryEvent event) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingInTransaction().events.add(event);
+        } else {
+            dispatch(event);
+        }
+    }
+
+    /**
+     * Eventos de la transacción actual: una sola sincronización por transacción, que se
+     * suspende con ella (una REQUIRES_NEW interna acumula en la suya).
+     */
+    private AfterCommitEvents pendingInTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof AfterCommitEvents pending && pending.bus == this) {
+                return pending;
+            }
+        }
+        AfterCommitEvents pending = new AfterCommitEvents(this);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void dispatch(InventoryEvent event) {
+        publishedCounter.increment();
+        for (Channel channel : channels) {
+            channel.offer(event);
+        }
+    }
+
+    private static final class AfterCommitEvents implements TransactionSynchronization {
+
+        private final InventoryEventBus bus;
+        private final List<InventoryEvent> events = new ArrayList<>();
+
+        private AfterCommitEvents(InventoryEventBus bus) {
+            this.bus = bus;
+        }
+
+        @Override
+        public void afterCommit() {
+            events.forEach(bus::dispatch);
+        }
+    }
+
+    // ==================== CANAL POR SUSCRIPTOR ====================
+
+    private final class Channel implements Runnable {
+
+        private final InventoryEventSubscriber subscriber;
+        private final ArrayBlockingQueue<InventoryEvent> buffer;
+        private final Counter delivered;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Channel(InventoryEventSubscriber subscriber) {
+            this.subscriber = subscriber;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+            this.delivered = subscriberCounter("inventory.events.delivered", "Eventos entregados al suscriptor");
+            this.dropped = subscriberCounter("inventory.events.dropped", "Eventos descartados por buffer lleno");
+            this.failed = subscriberCounter("inventory.events.failed", "Eventos de lotes en los que el suscriptor falló");
+            Gauge.builder("inventory.events.pending", buffer, ArrayBlockingQueue::size)
+                    .description("Eventos en el buffer del suscriptor")
+                    .tag("subscriber", subscriber.name())
+                    .register(meterRegistry);
+            this.thread = new Thread(this, "inventory-events-" + subscriber.name());
+            this.thread.setDaemon(true);
+        }
+
+        private void offer(InventoryEvent event) {
+            boolean accepted = switch (overflowPolicy) {
+                case DROP_NEWEST -> buffer.offer(event);
+                case DROP_OLDEST -> offerDroppingOldest(event);
+                case BLOCK -> offerBlocking(event);
+            };
+            if (!accepted) {
+                dropped.increment();
+            }
+        }
+
+        private boolean offerDroppingOldest(InventoryEvent event) {
+            while (!buffer.offer(event)) {
+                if (buffer.poll() != null) {
+                    dropped.increment();
+                }
+            }
+            return true;
+        }
+
+        private boolean offerBlocking(InventoryEvent event) {
+            try {
+                return buffer.offer(event, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
+            List<InventoryEvent> batch = new ArrayList<>(batchSize);
+            while (running || !buffer.isEmpty()) {
+                try {
+                    InventoryEvent first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                    deliver(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void deliver(List<InventoryEvent> batch) {
+            try {
+                subscriber.onEvents(List.copyOf(batch));
+                delivered.increment(batch.size());
+            } catch (RuntimeException ex) {
+                failed.increment(batch.size());
+                log.error("El suscriptor {} falló procesando {} eventos: {}",
+                        subscriber.name(), batch.size(), ex.getMessage());
+            }
+        }
+
+        private Counter subscriberCounter(String name, String description) {
+            return Counter.builder(name)
+                    .description(description)
+                    .tag("subscriber", subscriber.name())
+                    .register(meterRegistry);
+        }
+    }
+}
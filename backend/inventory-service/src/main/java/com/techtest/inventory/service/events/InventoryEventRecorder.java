@@ -0,0 +1,72 @@
+package com.techtest.inventory.service.events;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.service.outbox.OutboxWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Punto único de emisión de eventos de inventario.
+ *
+ * - Dentro de una transacción: el evento se inserta en el outbox (misma transacción que el
+ *   cambio, durable) y se publica en el bus en proceso tras el commit
+ * - Fuera de transacción (compras en modo hot): solo el bus; el outbox recibe el delta
+ *   agregado cuando {@code HotStockManager} lo escribe en BD
+ * - Las alertas de stock bajo solo se emiten en las transiciones ({@link LowStockAlerts})
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryEventRecorder {
+
+    private final InventoryEventBus eventBus;
+    private final OutboxWriter outboxWriter;
+    private final LowStockAlerts lowStockAlerts;
+
+    public void changed(Long productId, int previousQuantity, int newQuantity, InventoryChangedEvent.Reason reason) {
+        record(new InventoryChangedEvent(productId, previousQuantity, newQuantity, reason));
+        if (reason == InventoryChangedEvent.Reason.DELETED) {
+            lowStockAlerts.forget(productId);
+        }
+    }
+
+    /**
+     * Nivel de stock tras un cambio: emite la alerta solo si cruzó el mínimo.
+     */
+    public void stockLevel(Inventory after) {
+        LowStockAlerts.Transition transition = lowStockAlerts.update(
+                after.getProductId(), after.getQuantity(), after.getMinStock());
+        if (transition == LowStockAlerts.Transition.LOW) {
+            record(new LowStockEvent(after.getProductId(), after.getQuantity(), after.getMinStock()));
+        } else if (transition == LowStockAlerts.Transition.RECOVERED) {
+            record(new StockRecoveredEvent(after.getProductId(), after.getQuantity(), after.getMinStock()));
+        }
+    }
+
+    /**
+     * Eventos de una compra ya aplicada: el cambio de cantidad y, si cruzó el mínimo, la alerta.
+     */
+    public void purchased(Inventory after, int quantity) {
+        changed(after.getProductId(), after.getQuantity() + quantity, after.getQuantity(),
+                InventoryChangedEvent.Reason.PURCHASE);
+        stockLevel(after);
+    }
+
+    /**
+     * Emite las alertas que quedaron coalescidas en la ventana que termina.
+     */
+    @Scheduled(fixedDelayString = "${inventory.low-stock-alerts.window-ms:60000}")
+    @Transactional
+    public void closeAlertWindow() {
+        lowStockAlerts.closeWindow().forEach(level -> record(level.toEvent()));
+    }
+
+    private void record(InventoryEvent event) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            outboxWriter.append(event);
+        }
+        eventBus.publish(event);
+    }
+}
@@ -0,0 +1,24 @@
+package com.techtest.inventory.service.events;
+
+import java.util.List;
+
+/**
+ * Consumidor de eventos de inventario. Todo bean que implemente esta interfaz se registra
+ * en el {@link InventoryEventBus} con su propio buffer e hilo: un suscriptor lento no
+ * retrasa a los demás ni a las escrituras.
+ */
+public interface InventoryEventSubscriber {
+
+    /**
+     * Nombre usado en métricas y en el nombre del hilo.
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Recibe un lote de eventos en orden de publicación. Se invoca siempre desde el hilo
+     * del suscriptor; una excepción descarta el lote (se cuenta en métricas) y no detiene la entrega.
+     */
+    void onEvents(List<InventoryEvent> events);
+}
@@ -0,0 +1,60 @@
+package com.techtest.inventory.service.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Suscriptor que escribe los eventos en el log (antes se escribían en el hilo de la petición).
+ * En un sistema real otro suscriptor enviaría los eventos a un broker (Kafka, RabbitMQ).
+ */
+@Component
+@Slf4j
+public class LoggingEventSubscriber implements InventoryEventSubscriber {
+
+    @Override
+    public String name() {
+        return "logging";
+    }
+
+    @Override
+    public void onEvents(List<InventoryEvent> events) {
+        for (InventoryEvent event : events) {
+            if (event instanceof InventoryChangedEvent changed) {
+                logChanged(changed);
+            } else if (event instanceof LowStockEvent lowStock) {
+                logLowStock(lowStock);
+            } else if (event instanceof StockRecoveredEvent recovered) {
+                log.info("Stock recuperado - Producto: {}, Stock: {}, Mínimo: {}",
+                        recovered.productId(), recovered.currentStock(), recovered.minStock());
+            } else if (event instanceof EscrowSalesFailedEvent failed) {
+                log.error("Ventas escrow sin stock - Producto: {}, Instancia: {}, Unidades: {}",
+                        failed.productId(), failed.instanceId(), failed.failedUnits());
+            }
+        }
+    }
+
+    private void logChanged(InventoryChangedEvent event) {
+        log.info("========== EVENTO DE INVENTARIO ==========");
+        log.info("| Tipo:              INVENTORY_CHANGED");
+        log.info("| Timestamp:         {}", event.occurredAt());
+        log.info("| Product ID:        {}", event.productId());
+        log.info("| Cantidad Anterior: {}", event.previousQuantity());
+        log.info("| Cantidad Nueva:    {}", event.newQuantity());
+        log.info("| Diferencia:        {}", event.difference());
+        log.info("| Razón:             {}", event.reason());
+        log.info("===========================================");
+    }
+
+    private void logLowStock(LowStockEvent event) {
+        log.warn("⚠️ ========== ALERTA DE STOCK BAJO ==========");
+        log.warn("| Tipo:           LOW_STOCK_ALERT");
+        log.warn("| Timestamp:      {}", event.occurredAt());
+        log.warn("| Product ID:     {}", event.productId());
+        log.warn("| Stock Actual:   {}", event.currentStock());
+        log.warn("| Stock Mínimo:   {}", event.minStock());
+        log.warn("| Acción:         Reponer inventario");
+        log.warn("⚠️ ============================================");
+    }
+}
@@ -0,0 +1,165 @@
+package com.techtest.inventory.service.events;
+
+import com.techtest.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estado de alertas de stock bajo por producto: decide qué cambios de nivel generan alerta.
+ *
+ * Funcionamiento:
+ * - Solo las transiciones generan alerta: de sobre el mínimo a bajo ({@link LowStockEvent})
+ *   y de vuelta ({@link StockRecoveredEvent}); compras sucesivas de un producto bajo no alertan
+ * - El estado son bitsets indexados por productId, reconstruidos al arrancar desde la BD
+ * - Por producto se emite como mucho una alerta por ventana; las transiciones siguientes se
+ *   coalescen y al cerrar la ventana se emite solo el estado final si difiere del último emitido
+ *
+ * El volumen de alertas depende de la cantidad de productos, no del ritmo de compras.
+ */
+@Component
+@Slf4j
+public class LowStockAlerts {
+
+    public enum Transition { NONE, LOW, RECOVERED }
+
+    /**
+     * Nivel de stock de un producto (para alertas diferidas al cerrar la ventana).
+     */
+    public record Level(Long productId, boolean low, int currentStock, int minStock) {
+
+        public InventoryEvent toEvent() {
+            return low
+                    ? new LowStockEvent(productId, currentStock, minStock)
+                    : new StockRecoveredEvent(productId, currentStock, minStock);
+        }
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final Counter coalescedCounter;
+
+    private final ProductBits low = new ProductBits();       // estado actual
+    private final ProductBits alertedLow = new ProductBits(); // último estado emitido
+    private final ProductBits recent = new ProductBits();     // con alerta en la ventana actual
+    private final Map<Long, Level> coalesced = new LinkedHashMap<>();
+
+    public LowStockAlerts(InventoryRepository inventoryRepository, MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.coalescedCounter = Counter.builder("inventory.low_stock.coalesced")
+                .description("Transiciones de stock bajo coalescidas dentro de la ventana")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void rebuild() {
+        List<Long> lowStockIds = inventoryRepository.findLowStockProductIds();
+        synchronized (this) {
+            low.clear();
+            alertedLow.clear();
+            recent.clear();
+            coalesced.clear();
+            for (Long productId : lowStockIds) {
+                low.set(productId, true);
+                alertedLow.set(productId, true);
+            }
+        }
+        log.info("Estado de alertas de stock bajo reconstruido: {} productos bajo el mínimo", lowStockIds.size());
+    }
+
+    /**
+     * Registra el nivel actual de un producto tras un cambio.
+     *
+     * @return la alerta a emitir ahora, o NONE si no hay transición o quedó coalescida
+     */
+    public synchronized Transition update(Long productId, int currentStock, int minStock) {
+        boolean isLow = currentStock <= minStock;
+        if (low.get(productId) == isLow) {
+            coalesced.computeIfPresent(productId, (id, level) -> new Level(id, isLow, currentStock, minStock));
+            return Transition.NONE;
+        }
+        low.set(productId, isLow);
+
+        if (recent.get(productId)) {
+            coalesced.put(productId, new Level(productId, isLow, currentStock, minStock));
+            coalescedCounter.increment();
+            return Transition.NONE;
+        }
+        recent.set(productId, true);
+        alertedLow.set(productId, isLow);
+        return isLow ? Transition.LOW : Transition.RECOVERED;
+    }
+
+    /**
+     * Olvida un producto eliminado (una nueva fila empieza sin alerta).
+     */
+    public synchronized void forget(Long productId) {
+        low.set(productId, false);
+        alertedLow.set(productId, false);
+        recent.set(productId, false);
+        coalesced.remove(productId);
+    }
+
+    /**
+     * Cierra la ventana actual: devuelve las alertas coalescidas cuyo estado final difiere del
+     * último emitido (se dan por emitidas y cuentan para la ventana nueva).
+     */
+    public synchronized List<Level> closeWindow() {
+        recent.clear();
+        List<Level> due = new ArrayList<>();
+        for (Level level : coalesced.values()) {
+            if (alertedLow.get(level.productId()) != level.low()) {
+                alertedLow.set(level.productId(), level.low());
+                recent.set(level.productId(), true);
+                due.add(level);
+            }
+        }
+        coalesced.clear();
+        return due;
+    }
+
+    public synchronized boolean isLow(Long productId) {
+        return low.get(productId);
+    }
+
+    /**
+     * Bitset por productId; los IDs fuera del rango de int (no usados en la práctica) van a un set.
+     */
+    private static final class ProductBits {
+
+        private final BitSet bits = new BitSet();
+        private final Set<Long> outOfRange = new HashSet<>();
+
+        boolean get(Long productId) {
+            return fitsInt(productId) ? bits.get(productId.intValue()) : outOfRange.contains(productId);
+        }
+
+        void set(Long productId, boolean value) {
+            if (fitsInt(productId)) {
+                bits.set(productId.intValue(), value);
+            } else if (value) {
+                outOfRange.add(productId);
+            } else {
+                outOfRange.remove(productId);
+            }
+        }
+
+        void clear() {
+            bits.clear();
+            outOfRange.clear();
+        }
+
+        private static boolean fitsInt(Long productId) {
+            return productId >= 0 && productId <= Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.techtest.inventory.service.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * El stock de un producto pasó a estar en su mínimo o por debajo (solo en la transición,
+ * ver {@link LowStockAlerts}).
+ */
+public record LowStockEvent(Long productId,
+                            int currentStock,
+                            int minStock,
+                            LocalDateTime occurredAt) implements InventoryEvent {
+
+    public LowStockEvent(Long productId, int currentStock, int minStock) {
+        this(productId, currentStock, minStock, LocalDateTime.now());
+    }
+
+    @Override
+    public String type() {
+        return "LOW_STOCK_ALERT";
+    }
+}
@@ -0,0 +1,21 @@
+package com.techtest.inventory.service.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * El stock de un producto con alerta de stock bajo volvió a superar su mínimo.
+ */
+public record StockRecoveredEvent(Long productId,
+                                  int currentStock,
+                                  int minStock,
+                                  LocalDateTime occurredAt) implements InventoryEvent {
+
+    public StockRecoveredEvent(Long productId, int currentStock, int minStock) {
+        this(productId, currentStock, minStock, LocalDateTime.now());
+    }
+
+    @Override
+    public String type() {
+        return "STOCK_RECOVERED";
+    }
+}
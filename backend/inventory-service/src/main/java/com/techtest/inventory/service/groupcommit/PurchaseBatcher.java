@@ -0,0 +1,314 @@
+package com.techtest.inventory.service.groupcommit;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.events.InventoryEventRecorder;
+import com.techtest.inventory.service.hotstock.HotStockManager;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit de compras: agrupa las compras concurrentes de un mismo producto durante una
+ * ventana corta y las aplica en una sola transacción.
+ *
+ * Funcionamiento (líder/seguidores):
+ * - La primera compra de un producto abre un lote y actúa como líder
+ * - Las compras que llegan durante la ventana se añaden al lote y esperan su resultado
+ * - Al cerrar la ventana (o llenarse el lote) el líder aplica el lote con un UPDATE condicional
+ *   por la suma de cantidades; si no alcanza, reparte el stock en orden de llegada
+ * - Cada compra recibe su propio resultado o {@link InsufficientStockException}; los eventos de
+ *   las compras aceptadas se registran en la transacción del lote
+ * - El cache y el índice de stock bajo reciben una sola vez la fila final del lote: las vistas
+ *   de cada compra son estados intermedios con la misma versión
+ */
+@Component
+@Slf4j
+public class PurchaseBatcher {
+
+    private final InventoryRepository inventoryRepository;
+    private final HotStockManager hotStockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryEventRecorder events;
+    private final InventoryCache inventoryCache;
+    private final LowStockIndex lowStockIndex;
+    private final Counter batchCounter;
+    private final Counter purchaseCounter;
+
+    private final ConcurrentHashMap<Long, Batch> openBatches = new ConcurrentHashMap<>();
+
+    @Value("${inventory.purchase.group-commit.window-ms:2}")
+    private long windowMillis = 2;
+
+    @Value("${inventory.purchase.group-commit.max-batch-size:128}")
+    private int maxBatchSize = 128;
+
+    public PurchaseBatcher(InventoryRepository inventoryRepository,
+                           HotStockManager hotStockManager,
+                           TransactionTemplate transactionTemplate,
+                           InventoryEventRecorder events,
+                           InventoryCache inventoryCache,
+                           LowStockIndex lowStockIndex,
+                           MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.hotStockManager = hotStockManager;
+        this.transactionTemplate = transactionTemplate;
+        this.events = events;
+        this.inventoryCache = inventoryCache;
+        this.lowStockIndex = lowStockIndex;
+        this.batchCounter = Counter.builder("inventory.purchase.group_commit.batches")
+                .description("Transacciones de group commit aplicadas")
+                .register(meterRegistry);
+        this.purchaseCounter = Counter.builder("inventory.purchase.group_commit.purchases")
+                .description("Compras aplicadas mediante group commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola una compra y espera a que su lote se aplique.
+     * No debe llamarse dentro de una transacción: la espera no debe retener una conexión.
+     *
+     * @return vista del inventario justo después de esta compra
+     */
+    public Inventory submit(Long productId, int quantity) {
+        PendingPurchase purchase = new PendingPurchase(quantity);
+        Batch[] created = new Batch[1];
+
+        Batch batch = openBatches.compute(productId, (id, current) -> {
+            if (current != null && current.add(purchase, maxBatchSize)) {
+                return current;
+            }
+            created[0] = new Batch(purchase);
+            return created[0];
+        });
+
+        if (batch == created[0]) {
+            lead(productId, batch);
+        }
+
+        try {
+            return purchase.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * El líder espera la ventana, cierra el lote y lo aplica.
+     */
+    private void lead(Long productId, Batch batch) {
+        batch.awaitWindow(TimeUnit.MILLISECONDS.toNanos(windowMillis), maxBatchSize);
+        openBatches.remove(productId, batch);
+        List<PendingPurchase> purchases = batch.close();
+
+        try {
+            List<Object> results = transactionTemplate.execute(status -> {
+                List<Object> applied = apply(productId, purchases);
+                // Eventos de cada compra aceptada en la misma transacción que el descuento
+                for (int i = 0; i < purchases.size(); i++) {
+                    if (applied.get(i) instanceof Inventory view) {
+                        events.purchased(view, purchases.get(i).quantity);
+                    }
+                }
+                return applied;
+            });
+            batchCounter.increment();
+            purchaseCounter.increment(purchases.size());
+            for (int i = 0; i < purchases.size(); i++) {
+                purchases.get(i).complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.error("Error aplicando lote de {} compras del producto {}: {}",
+                    purchases.size(), productId, e.getMessage());
+            purchases.forEach(p -> p.result.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Aplica un lote dentro de la transacción actual.
+     *
+     * @return por cada compra (en orden de llegada) la vista resultante o la excepción a lanzar
+     */
+    List<Object> apply(Long productId, List<PendingPurchase> purchases) {
+        // La suma en long: varias compras grandes desbordarían un int y el UPDATE condicional
+        // recibiría un total negativo. Un total fuera de rango nunca cabe en el stock
+        long total = 0;
+        for (PendingPurchase p : purchases) {
+            total += p.quantity;
+        }
+
+        // Caso habitual: hay stock para todo el lote con un único UPDATE condicional
+        Inventory row = total <= Integer.MAX_VALUE
+                ? inventoryRepository.decrementAndGet(productId, (int) total).orElse(null)
+                : null;
+        if (row != null) {
+            hotStockManager.reconcileDirectPurchase(productId, (int) total);
+            rowWritten(row);
+            return resultsFor(row, purchases, new boolean[purchases.size()]);
+        }
+
+        // No alcanza para todo el lote: repartir en orden de llegada sobre la fila bloqueada. Se
+        // bloquea sin cargar la entidad: el UPDATE posterior debe devolver la fila ya descontada
+        Integer available = inventoryRepository.lockAvailableQuantity(productId).orElse(null);
+        List<Object> results = new ArrayList<>(purchases.size());
+        if (available == null) {
+            InventoryNotFoundException notFound = new InventoryNotFoundException(productId);
+            purchases.forEach(p -> results.add(notFound));
+            return results;
+        }
+
+        int accepted = 0;
+        boolean[] rejected = new boolean[purchases.size()];
+        for (int i = 0; i < purchases.size(); i++) {
+            int quantity = purchases.get(i).quantity;
+            if (available - accepted >= quantity) {
+                accepted += quantity;
+            } else {
+                rejected[i] = true;
+            }
+        }
+
+        if (accepted == 0) {
+            purchases.forEach(p -> results.add(new InsufficientStockException(productId, p.quantity, available)));
+            return results;
+        }
+
+        int acceptedTotal = accepted;
+        row = inventoryRepository.decrementAndGet(productId, accepted)
+                .orElseThrow(() -> new IllegalStateException(
+                        "UPDATE condicional rechazado con la fila bloqueada: " + acceptedTotal));
+        hotStockManager.reconcileDirectPurchase(productId, accepted);
+        rowWritten(row);
+        return resultsFor(row, purchases, rejected);
+    }
+
+    /**
+     * Calcula la cantidad que vio cada compra: la cantidad final más lo descontado
+     * por las compras aceptadas que llegaron después.
+     */
+    private List<Object> resultsFor(Inventory row, List<PendingPurchase> purchases, boolean[] rejected) {
+        Object[] results = new Object[purchases.size()];
+        int quantityAfter = row.getQuantity();
+        int availableBefore = row.getAvailableQuantity();
+
+        for (int i = purchases.size() - 1; i >= 0; i--) {
+            if (rejected[i]) {
+                continue;
+            }
+            results[i] = viewWithQuantity(row, quantityAfter);
+            quantityAfter += purchases.get(i).quantity;
+            availableBefore += purchases.get(i).quantity;
+        }
+
+        // Los rechazos informan el stock disponible en su turno
+        int available = availableBefore;
+        for (int i = 0; i < purchases.size(); i++) {
+            int quantity = purchases.get(i).quantity;
+            if (rejected[i]) {
+                results[i] = new InsufficientStockException(row.getProductId(), quantity, available);
+            } else {
+                available -= quantity;
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Fila final del lote: cache e índice de stock bajo se actualizan tras el commit.
+     */
+    private void rowWritten(Inventory row) {
+        inventoryCache.rowWritten(row);
+        lowStockIndex.rowWritten(row);
+    }
+
+    private Inventory viewWithQuantity(Inventory row, int quantity) {
+        return Inventory.builder()
+                .id(row.getId())
+                .productId(row.getProductId())
+                .quantity(quantity)
+                .reservedQuantity(row.getReservedQuantity())
+                .minStock(row.getMinStock())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Compra en espera de que su lote se aplique.
+     */
+    static final class PendingPurchase {
+        final int quantity;
+        final CompletableFuture<Inventory> result = new CompletableFuture<>();
+
+        PendingPurchase(int quantity) {
+            this.quantity = quantity;
+        }
+
+        void complete(Object outcome) {
+            if (outcome instanceof RuntimeException e) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete((Inventory) outcome);
+            }
+        }
+    }
+
+    /**
+     * Lote abierto de un producto. Las compras se guardan en orden de llegada.
+     */
+    private static final class Batch {
+        private final List<PendingPurchase> purchases = new ArrayList<>();
+        private boolean closed;
+
+        Batch(PendingPurchase leader) {
+            purchases.add(leader);
+        }
+
+        synchronized boolean add(PendingPurchase purchase, int maxSize) {
+            if (closed || purchases.size() >= maxSize) {
+                return false;
+            }
+            purchases.add(purchase);
+            if (purchases.size() >= maxSize) {
+                notifyAll();
+            }
+            return true;
+        }
+
+        synchronized void awaitWindow(long windowNanos, int maxSize) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (remaining > 0 && purchases.size() < maxSize) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+        }
+
+        synchronized List<PendingPurchase> close() {
+            closed = true;
+            return purchases;
+        }
+    }
+}
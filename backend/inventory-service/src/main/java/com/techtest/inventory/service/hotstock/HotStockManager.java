@@ -0,0 +1,380 @@
+package com.techtest.inventory.service.hotstock;
+
+import com.techtest.inventory.dto.response.HotStockResponse;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.events.InventoryChangedEvent;
+import com.techtest.inventory.service.events.LowStockEvent;
+import com.techtest.inventory.service.ledger.InventoryLedger;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import com.techtest.inventory.service.outbox.OutboxWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Modo "hot product": el stock disponible de productos con mucho tráfico de compras
+ * se sirve desde contadores en memoria ({@link StripedStockCounter}) en lugar de la fila
+ * de la tabla inventory.
+ *
+ * Funcionamiento:
+ * - Al activar un producto se lee su fila con bloqueo y se siembra el contador
+ * - Las compras descuentan del contador sin acceder a la BD
+ * - Periódicamente se escribe en BD el delta agregado de unidades vendidas (un UPDATE por producto),
+ *   junto con un evento agregado en el outbox
+ * - Las escrituras administrativas congelan el contador, vuelcan el delta y lo vuelven a sembrar
+ *   al terminar su transacción
+ */
+@Component
+@Slf4j
+public class HotStockManager {
+
+    private static final long RELEASE_WAIT_MILLIS = 5000;
+
+    private final InventoryRepository inventoryRepository;
+    private final OutboxWriter outboxWriter;
+    private final InventoryLedger ledger;
+    private final InventoryCache inventoryCache;
+    private final LowStockIndex lowStockIndex;
+    private final TransactionTemplate requiresNew;
+
+    private final LongObjectMap<HotStock> products = new LongObjectMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Value("${inventory.hot-stock.stripes:8}")
+    private int stripes = 8;
+
+    @Value("${inventory.hot-stock.product-ids:}")
+    private long[] configuredProductIds = new long[0];
+
+    public HotStockManager(InventoryRepository inventoryRepository,
+                           OutboxWriter outboxWriter,
+                           InventoryLedger ledger,
+                           InventoryCache inventoryCache,
+                           LowStockIndex lowStockIndex,
+                           PlatformTransactionManager transactionManager) {
+        this.inventoryRepository = inventoryRepository;
+        this.outboxWriter = outboxWriter;
+        this.ledger = ledger;
+        this.inventoryCache = inventoryCache;
+        this.lowStockIndex = lowStockIndex;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ==================== CONSULTAS / COMPRAS ====================
+
+    public boolean isHot(Long productId) {
+        return !products.isEmpty() && products.get(productId) != null;
+    }
+
+    /**
+     * Procesa una compra desde memoria.
+     *
+     * @return vista del inventario tras la compra, o null si el producto no está en modo hot
+     * @throws InsufficientStockException si no hay stock suficiente
+     */
+    public Inventory purchase(Long productId, int quantity) {
+        while (true) {
+            HotStock hot = products.get(productId);
+            if (hot == null) {
+                return null;
+            }
+            long result = hot.counter.tryAcquire(quantity);
+            if (result >= 0) {
+                return hot.view(result);
+            }
+            if (result == StripedStockCounter.FROZEN_RESULT) {
+                // Una escritura administrativa está en curso: esperar al nuevo contador
+                hot.counter.awaitRelease(RELEASE_WAIT_MILLIS);
+                continue;
+            }
+            throw new InsufficientStockException(productId, quantity, (int) (-1 - result));
+        }
+    }
+
+    /**
+     * Stock disponible en memoria, o vacío si el producto no está en modo hot.
+     */
+    public OptionalLong availableQuantity(Long productId) {
+        HotStock hot = products.get(productId);
+        return hot == null ? OptionalLong.empty() : OptionalLong.of(hot.counter.available());
+    }
+
+    /**
+     * Vista del inventario con la cantidad en memoria, o null si el producto no está en modo hot.
+     */
+    public Inventory view(Long productId) {
+        HotStock hot = products.get(productId);
+        return hot == null ? null : hot.view(hot.counter.available());
+    }
+
+    /**
+     * Debe llamarse tras un descuento directo en BD (dentro de la misma transacción y con la fila
+     * bloqueada). Si el producto se activó en modo hot entre la comprobación y el UPDATE, el contador
+     * se sembró antes del descuento y debe absorberlo; si ya no tiene esas unidades se rechaza la
+     * compra para que la transacción haga rollback.
+     */
+    public void reconcileDirectPurchase(Long productId, int quantity) {
+        HotStock hot = products.get(productId);
+        if (hot != null && !hot.counter.absorb(quantity)) {
+            throw new InsufficientStockException(productId, quantity, (int) hot.counter.available());
+        }
+    }
+
+    // ==================== ACTIVACIÓN ====================
+
+    /**
+     * Activa el modo hot para un producto sembrando el contador desde su fila bloqueada.
+     */
+    public HotStockResponse enable(Long productId) {
+        flushLock.lock();
+        try {
+            HotStock existing = products.get(productId);
+            if (existing != null) {
+                return existing.toResponse();
+            }
+            HotStock hot = requiresNew.execute(status -> seed(productId));
+            // Mientras sea hot la fila la escribe el flush: al desactivarlo no debe quedar una entrada previa
+            inventoryCache.evict(productId);
+            log.info("Modo hot activado para producto {} con {} unidades disponibles",
+                    productId, hot.counter.available());
+            return hot.toResponse();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Desactiva el modo hot: congela el contador, escribe el delta pendiente y lo retira.
+     */
+    public void disable(Long productId) {
+        flushLock.lock();
+        try {
+            HotStock hot = products.get(productId);
+            if (hot == null) {
+                return;
+            }
+            freezeAndFlush(productId, hot);
+            products.remove(productId);
+            hot.counter.release();
+            inventoryCache.evict(productId);
+            log.info("Modo hot desactivado para producto {}", productId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Congela el contador de un producto hot mientras dura la transacción actual, para que una
+     * escritura directa sobre su fila vea el stock actualizado. Al terminar la transacción se
+     * vuelve a sembrar desde la BD (o se retira si la fila ya no existe).
+     */
+    public void suspendUntilTransactionEnds(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            HotStock hot = products.get(productId);
+            if (hot == null || hot.counter.isFrozen()) {
+                return;
+            }
+            freezeAndFlush(productId, hot);
+        } finally {
+            flushLock.unlock();
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                HotStockManager.this.resume(productId);
+            }
+        });
+    }
+
+    public List<HotStockResponse> status() {
+        return products.values().stream()
+                .map(HotStock::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    // ==================== FLUSH ====================
+
+    /**
+     * Escribe en BD las unidades vendidas desde el último flush, un UPDATE por producto
+     * y una sola transacción por ciclo.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-stock.flush-interval-ms:100}")
+    public void flush() {
+        if (products.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            long[] productIds = products.keys();
+            long[] deltas = new long[productIds.length];
+            HotStock[] stocks = new HotStock[productIds.length];
+            boolean pending = false;
+
+            for (int i = 0; i < productIds.length; i++) {
+                stocks[i] = products.get(productIds[i]);
+                deltas[i] = stocks[i] == null ? 0 : stocks[i].counter.pendingDelta();
+                pending |= deltas[i] != 0;
+            }
+            if (!pending) {
+                return;
+            }
+
+            requiresNew.executeWithoutResult(status -> {
+                for (int i = 0; i < productIds.length; i++) {
+                    if (deltas[i] != 0) {
+                        writeDelta(productIds[i], deltas[i]);
+                    }
+                }
+            });
+
+            for (int i = 0; i < productIds.length; i++) {
+                if (deltas[i] != 0) {
+                    stocks[i].counter.markFlushed(deltas[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error escribiendo deltas de stock hot (se reintentará): {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void enableConfiguredProducts() {
+        for (long productId : configuredProductIds) {
+            try {
+                enable(productId);
+            } catch (InventoryNotFoundException e) {
+                log.warn("No se activó el modo hot para producto {}: sin inventario", productId);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (long productId : products.keys()) {
+            disable(productId);
+        }
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    private HotStock seed(Long productId) {
+        ledger.foldBeforeRowWrite(productId);
+        Inventory row = inventoryRepository.findByProductIdForUpdate(productId)
+                .orElseThrow(() -> new InventoryNotFoundException(productId));
+        HotStock hot = new HotStock(row, new StripedStockCounter(stripes, row.getAvailableQuantity()));
+        products.put(productId, hot);
+        return hot;
+    }
+
+    private void resume(Long productId) {
+        flushLock.lock();
+        try {
+            HotStock previous = products.get(productId);
+            if (previous == null || !previous.counter.isFrozen()) {
+                return;
+            }
+            try {
+                requiresNew.executeWithoutResult(status -> seed(productId));
+            } catch (InventoryNotFoundException e) {
+                products.remove(productId);
+                log.info("Modo hot retirado para producto {}: inventario eliminado", productId);
+            } catch (RuntimeException e) {
+                // El delta ya se escribió al congelar: la BD queda como fuente de verdad
+                products.remove(productId);
+                log.error("No se pudo reanudar el modo hot para producto {}: {}", productId, e.getMessage());
+            } finally {
+                previous.counter.release();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Escribe las unidades vendidas en la fila y, en la misma transacción, un evento agregado
+     * en el outbox (las compras hot no pasan por una transacción propia).
+     */
+    private void writeDelta(Long productId, long delta) {
+        inventoryRepository.applyQuantityDelta(productId, Math.toIntExact(-delta));
+        inventoryRepository.findByProductId(productId).ifPresent(row -> {
+            int previousQuantity = row.getQuantity() + Math.toIntExact(delta);
+            outboxWriter.append(new InventoryChangedEvent(productId, previousQuantity,
+                    row.getQuantity(), InventoryChangedEvent.Reason.PURCHASE));
+            // Solo si este delta cruzó el mínimo, no en cada escritura mientras siga bajo
+            if (row.isLowStock() && previousQuantity > row.getMinStock()) {
+                outboxWriter.append(new LowStockEvent(productId, row.getQuantity(), row.getMinStock()));
+            }
+            lowStockIndex.rowWritten(row);
+        });
+    }
+
+    private void freezeAndFlush(Long productId, HotStock hot) {
+        hot.counter.freeze();
+        long delta = hot.counter.pendingDelta();
+        if (delta != 0) {
+            requiresNew.executeWithoutResult(status -> writeDelta(productId, delta));
+            hot.counter.markFlushed(delta);
+        }
+    }
+
+    /**
+     * Contador de un producto junto con los datos de su fila al momento de sembrarlo.
+     */
+    private static final class HotStock {
+        final Inventory snapshot;
+        final StripedStockCounter counter;
+
+        HotStock(Inventory snapshot, StripedStockCounter counter) {
+            this.snapshot = snapshot;
+            this.counter = counter;
+        }
+
+        Inventory view(long available) {
+            return Inventory.builder()
+                    .id(snapshot.getId())
+                    .productId(snapshot.getProductId())
+                    .quantity(Math.toIntExact(snapshot.getReservedQuantity() + available))
+                    .reservedQuantity(snapshot.getReservedQuantity())
+                    .minStock(snapshot.getMinStock())
+                    .createdAt(snapshot.getCreatedAt())
+                    .updatedAt(snapshot.getUpdatedAt())
+                    .build();
+        }
+
+        HotStockResponse toResponse() {
+            return HotStockResponse.builder()
+                    .productId(snapshot.getProductId())
+                    .availableQuantity(counter.available())
+                    .pendingDelta(counter.pendingDelta())
+                    .stripes(counter.stripes())
+                    .frozen(counter.isFrozen())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.techtest.inventory.service.hotstock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mapa long → objeto con direccionamiento abierto y copy-on-write.
+ *
+ * Las lecturas no bloquean ni hacen boxing de la clave; las escrituras (poco frecuentes:
+ * activar o desactivar un producto) reconstruyen la tabla completa bajo el monitor.
+ */
+final class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        Table t = table;
+        if (t.size == 0) {
+            return null;
+        }
+        int mask = t.keys.length - 1;
+        int i = mix(key) & mask;
+        while (true) {
+            Object value = t.values[i];
+            if (value == null) {
+                return null;
+            }
+            if (t.keys[i] == key) {
+                return (V) value;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    boolean isEmpty() {
+        return table.size == 0;
+    }
+
+    synchronized void put(long key, V value) {
+        Table current = table;
+        Table next = new Table(capacityFor(current.size + 1));
+        copyInto(current, next, key);
+        next.insert(key, value);
+        table = next;
+    }
+
+    synchronized void remove(long key) {
+        Table current = table;
+        Table next = new Table(capacityFor(current.size));
+        copyInto(current, next, key);
+        table = next;
+    }
+
+    long[] keys() {
+        Table t = table;
+        long[] keys = new long[t.size];
+        int n = 0;
+        for (int i = 0; i < t.keys.length; i++) {
+            if (t.values[i] != null) {
+                keys[n++] = t.keys[i];
+            }
+        }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        Table t = table;
+        List<V> values = new ArrayList<>(t.size);
+        for (Object value : t.values) {
+            if (value != null) {
+                values.add((V) value);
+            }
+        }
+        return values;
+    }
+
+    private static void copyInto(Table from, Table to, long skipKey) {
+        for (int i = 0; i < from.keys.length; i++) {
+            if (from.values[i] != null && from.keys[i] != skipKey) {
+                to.insert(from.keys[i], from.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Capacidad potencia de 2 con factor de carga máximo de 0.5.
+     */
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        int size;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        void insert(long key, Object value) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.techtest.inventory.service.hotstock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock disponible de un producto repartido en franjas (stripes) independientes.
+ *
+ * Cada compra descuenta con CAS de la franja asociada al hilo actual; si no alcanza,
+ * prueba las demás franjas y, como último recurso, reúne todo el stock bajo el monitor
+ * (rebalanceo). Ninguna franja baja de cero, por lo que nunca se sobrevende.
+ *
+ * Cada franja ocupa su propia línea de caché para evitar false sharing.
+ */
+final class StripedStockCounter {
+
+    /**
+     * Resultado de {@link #tryAcquire} cuando el contador está congelado.
+     */
+    static final long FROZEN_RESULT = Long.MIN_VALUE;
+
+    private static final long FROZEN = Long.MIN_VALUE;
+
+    /** 16 longs = 128 bytes entre franjas. */
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    /** Stock con el que se sembró el contador (ajustado por compras directas en BD). */
+    private long seeded;
+
+    /** Unidades vendidas ya escritas en BD. Protegido por el lock de flush del manager. */
+    private long flushed;
+
+    private volatile boolean frozen;
+    private long frozenRemaining;
+
+    StripedStockCounter(int stripes, long available) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+        this.seeded = available;
+        spread(available);
+    }
+
+    /**
+     * Intenta descontar {@code amount} unidades.
+     *
+     * @return stock restante (>= 0) si la compra se aplicó, {@code -1 - disponible} si no hay
+     *         stock suficiente, o {@link #FROZEN_RESULT} si el contador está congelado
+     */
+    long tryAcquire(int amount) {
+        int start = stripeForCurrentThread();
+        for (int n = 0; n <= mask; n++) {
+            int index = ((start + n) & mask) * PADDING;
+            long value;
+            while ((value = cells.get(index)) >= amount) {
+                if (cells.compareAndSet(index, value, value - amount)) {
+                    return available();
+                }
+            }
+            if (value == FROZEN) {
+                return FROZEN_RESULT;
+            }
+        }
+        return rebalanceAndAcquire(amount);
+    }
+
+    /**
+     * Stock disponible (suma de las franjas).
+     */
+    long available() {
+        if (frozen) {
+            return frozenRemaining;
+        }
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += Math.max(0, cells.get(i * PADDING));
+        }
+        return total;
+    }
+
+    /**
+     * Unidades vendidas pendientes de escribir en BD.
+     */
+    synchronized long pendingDelta() {
+        return seeded - available() - flushed;
+    }
+
+    void markFlushed(long delta) {
+        flushed += delta;
+    }
+
+    /**
+     * Descuenta unidades que ya se restaron directamente en BD (compra concurrente con la
+     * activación del modo). No cuentan como venta pendiente de flush.
+     *
+     * @return false si el contador ya no tiene esas unidades
+     */
+    synchronized boolean absorb(int amount) {
+        if (frozen) {
+            return false;
+        }
+        long result = rebalanceAndAcquire(amount);
+        if (result < 0) {
+            return false;
+        }
+        seeded -= amount;
+        return true;
+    }
+
+    /**
+     * Congela el contador: a partir de aquí toda compra recibe {@link #FROZEN_RESULT}.
+     */
+    synchronized void freeze() {
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.getAndSet(i * PADDING, FROZEN);
+        }
+        frozenRemaining = total;
+        frozen = true;
+    }
+
+    boolean isFrozen() {
+        return frozen;
+    }
+
+    int stripes() {
+        return mask + 1;
+    }
+
+    /**
+     * Despierta a los hilos que esperan a que el contador congelado sea reemplazado o retirado.
+     */
+    void release() {
+        released.countDown();
+    }
+
+    void awaitRelease(long timeoutMillis) {
+        try {
+            released.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized long rebalanceAndAcquire(int amount) {
+        if (frozen) {
+            return FROZEN_RESULT;
+        }
+        long total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        if (total < amount) {
+            spread(total);
+            return -1 - total;
+        }
+        spread(total - amount);
+        return total - amount;
+    }
+
+    private void spread(long amount) {
+        int stripes = mask + 1;
+        long share = amount / stripes;
+        long remainder = amount % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    private int stripeForCurrentThread() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16;
+    }
+}
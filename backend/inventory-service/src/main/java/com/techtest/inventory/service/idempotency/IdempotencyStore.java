@@ -0,0 +1,234 @@
+package com.techtest.inventory.service.idempotency;
+
+import com.techtest.inventory.entity.IdempotencyRecord;
+import com.techtest.inventory.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Almacén de claves Idempotency-Key: un LRU acotado en memoria delante de la tabla idempotency_keys.
+ *
+ * Funcionamiento:
+ * - Una clave ya completada se responde desde el LRU o, si no está, desde su fila (y se carga en el LRU)
+ * - Una clave nueva se reclama con un INSERT; si otra petición la reclamó primero queda "en curso"
+ * - Al terminar la petición se guarda su respuesta (las 5xx liberan la clave para permitir el reintento)
+ * - Las claves vencidas se borran por lotes en segundo plano
+ *
+ * Cada operación sobre la tabla corre en su propia transacción, fuera de la de la petición.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate requiresNew;
+    private final MeterRegistry meterRegistry;
+
+    private LruCache<String, StoredResponse> cache;
+    private Counter memoryHits;
+    private Counter databaseHits;
+    private Counter misses;
+    private Counter conflicts;
+
+    @Value("${inventory.idempotency.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    @Value("${inventory.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${inventory.idempotency.stale-claim-seconds:60}")
+    private long staleClaimSeconds = 60;
+
+    @Value("${inventory.idempotency.purge-batch-size:500}")
+    private int purgeBatchSize = 500;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = new LruCache<>(cacheSize);
+        memoryHits = requestCounter("memory_hit");
+        databaseHits = requestCounter("db_hit");
+        misses = requestCounter("miss");
+        conflicts = requestCounter("conflict");
+        Gauge.builder("inventory.idempotency.cache.size", cache, LruCache::size)
+                .description("Respuestas idempotentes en memoria")
+                .register(meterRegistry);
+    }
+
+    // ==================== RECLAMAR / COMPLETAR ====================
+
+    /**
+     * Busca o reclama una clave.
+     *
+     * @param scope método y ruta de la petición (la misma clave en otra ruta es otra clave)
+     * @param key   valor del header Idempotency-Key
+     * @param body  cuerpo de la petición (para detectar reutilización con otro payload)
+     */
+    public Claim claim(String scope, String key, byte[] body) {
+        String keyHash = sha256(scope + "\n" + key);
+        String requestHash = sha256(body);
+
+        StoredResponse cached = cache.get(keyHash);
+        if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+            memoryHits.increment();
+            return replayOrMismatch(keyHash, requestHash, cached);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            requiresNew.executeWithoutResult(status ->
+                    repository.insertClaim(keyHash, requestHash, now, now.plusHours(ttlHours)));
+            misses.increment();
+            return new Claim(Outcome.CLAIMED, keyHash, requestHash, null);
+        } catch (DataIntegrityViolationException ex) {
+            // Ya existe: respuesta guardada o petición en curso
+        }
+
+        IdempotencyRecord existing = requiresNew.execute(status -> repository.findById(keyHash).orElse(null));
+        if (existing == null) {
+            // Borrada entre el INSERT y la lectura (purga): el cliente puede reintentar
+            conflicts.increment();
+            return new Claim(Outcome.IN_PROGRESS, keyHash, requestHash, null);
+        }
+        if (existing.isCompleted()) {
+            StoredResponse stored = StoredResponse.of(existing);
+            cache.put(keyHash, stored);
+            databaseHits.increment();
+            return replayOrMismatch(keyHash, requestHash, stored);
+        }
+
+        Integer takenOver = requiresNew.execute(status -> repository.takeOverStaleClaim(
+                keyHash, requestHash, now, now.minusSeconds(staleClaimSeconds)));
+        if (takenOver != null && takenOver == 1) {
+            log.warn("Idempotency-Key abandonada retomada: {}", keyHash);
+            misses.increment();
+            return new Claim(Outcome.CLAIMED, keyHash, requestHash, null);
+        }
+
+        conflicts.increment();
+        return new Claim(Outcome.IN_PROGRESS, keyHash, requestHash, null);
+    }
+
+    /**
+     * Guarda la respuesta de una clave reclamada.
+     *
+     * @param etag header ETag de la respuesta, o null
+     */
+    public void complete(Claim claim, int statusCode, String contentType, String etag, byte[] body) {
+        String responseBody = new String(body, StandardCharsets.UTF_8);
+        requiresNew.executeWithoutResult(status ->
+                repository.complete(claim.keyHash(), statusCode, contentType, etag, responseBody));
+        // El vencimiento en memoria es aproximado: la fila manda al purgar
+        cache.put(claim.keyHash(), new StoredResponse(claim.requestHash(), statusCode, contentType, etag,
+                responseBody, LocalDateTime.now().plusHours(ttlHours)));
+    }
+
+    /**
+     * Libera una clave reclamada sin respuesta definitiva (error 5xx o excepción),
+     * para que un reintento vuelva a ejecutar la petición.
+     */
+    public void abandon(Claim claim) {
+        requiresNew.executeWithoutResult(status -> repository.deleteById(claim.keyHash()));
+    }
+
+    // ==================== PURGA ====================
+
+    /**
+     * Borra las claves vencidas por lotes, una transacción corta por lote.
+     */
+    @Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = 0;
+        while (true) {
+            List<String> expired = repository.findExpiredKeys(
+                    LocalDateTime.now(), PageRequest.of(0, purgeBatchSize));
+            if (expired.isEmpty()) {
+                break;
+            }
+            requiresNew.executeWithoutResult(status -> repository.deleteByKeyHashIn(expired));
+            expired.forEach(cache::remove);
+            purged += expired.size();
+            if (expired.size() < purgeBatchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            log.info("{} Idempotency-Keys vencidas eliminadas", purged);
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private Claim replayOrMismatch(String keyHash, String requestHash, StoredResponse stored) {
+        if (!requestHash.equals(stored.requestHash())) {
+            return new Claim(Outcome.MISMATCH, keyHash, requestHash, null);
+        }
+        return new Claim(Outcome.REPLAY, keyHash, requestHash, stored);
+    }
+
+    private Counter requestCounter(String result) {
+        return Counter.builder("inventory.idempotency.requests")
+                .description("Peticiones con Idempotency-Key por resultado")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 no disponible", ex);
+        }
+    }
+
+    // ==================== TIPOS ====================
+
+    public enum Outcome {
+        CLAIMED,      // Clave nueva: ejecutar la petición y completar
+        REPLAY,       // Respuesta guardada: devolverla sin ejecutar
+        IN_PROGRESS,  // Otra petición con la misma clave aún no termina
+        MISMATCH      // La clave ya se usó con otro cuerpo
+    }
+
+    public record Claim(Outcome outcome, String keyHash, String requestHash, StoredResponse response) {
+    }
+
+    public record StoredResponse(String requestHash, int statusCode, String contentType, String etag,
+                                 String body, LocalDateTime expiresAt) {
+
+        static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getStatusCode(), record.getContentType(),
+                    record.getEtag(), record.getResponseBody(), record.getExpiresAt());
+        }
+    }
+}
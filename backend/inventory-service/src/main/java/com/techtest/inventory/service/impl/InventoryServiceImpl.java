@@ -2,31 +2,94 @@ package com.techtest.inventory.service.impl;
 
 import com.techtest.inventory.client.ProductServiceClient;
 import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.OrderPurchaseRequest;
+import com.techtest.inventory.dto.request.PurchaseLineRequest;
 import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.ReservationRequest;
+import com.techtest.inventory.dto.request.StockAdjustmentRequest;
+import com.techtest.inventory.dto.response.BulkInventoryResult;
+import com.techtest.inventory.dto.response.InventoryLocationResponse;
+import com.techtest.inventory.dto.response.InventoryLookup;
+import com.techtest.inventory.dto.response.InventoryMovementResponse;
+import com.techtest.inventory.dto.response.InventoryPage;
 import com.techtest.inventory.dto.response.InventoryResponse;
 import com.techtest.inventory.dto.response.InventoryResponse.ProductInfo;
+import com.techtest.inventory.dto.response.ReservationResponse;
 import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.entity.InventoryLocation;
+import com.techtest.inventory.entity.InventoryMovement;
+import com.techtest.inventory.entity.Reservation;
 import com.techtest.inventory.exception.InsufficientStockException;
 import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.exception.InventoryVersionMismatchException;
+import com.techtest.inventory.exception.OrderPurchaseException;
 import com.techtest.inventory.exception.ProductServiceException;
+import com.techtest.inventory.exception.StockBoundsException;
 import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.repository.InventoryRepositoryCustom;
 import com.techtest.inventory.service.InventoryService;
+import com.techtest.inventory.service.PurchaseMode;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.concurrency.OptimisticRetryExecutor;
+import com.techtest.inventory.service.escrow.EscrowStockManager;
+import com.techtest.inventory.service.events.InventoryChangedEvent;
+import com.techtest.inventory.service.events.InventoryEventRecorder;
+import com.techtest.inventory.service.groupcommit.PurchaseBatcher;
+import com.techtest.inventory.service.hotstock.HotStockManager;
+import com.techtest.inventory.service.ledger.InventoryLedger;
+import com.techtest.inventory.service.location.LocationStockManager;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import com.techtest.inventory.service.reservation.ReservationManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Implementación del servicio de inventario.
  *
  * Características:
  * - Valida existencia de productos llamando al otro microservicio
- * - Emite eventos (logs) cuando cambia el inventario
+ * - Registra un evento por cambio de inventario en el outbox, dentro de la misma transacción,
+ *   y lo publica en el bus en proceso tras el commit
  * - Maneja transacciones de base de datos
+ * - Las llamadas al servicio de productos se hacen fuera de las transacciones: una transacción
+ *   solo cubre la lectura/escritura de filas y no retiene una conexión del pool mientras
+ *   se espera la respuesta (con reintentos) del otro servicio
+ * - Las respuestas se construyen solo con la fila local; la información del producto se pide
+ *   al otro servicio únicamente cuando el cliente la solicita (include=product)
+ * - Sirve compras y verificación de stock desde memoria para productos en modo hot
+ * - Reserva stock con TTL (reservedQuantity) para checkouts en curso
+ * - En modo LEDGER, compras y cambios de cantidad sin If-Match se insertan como movimientos;
+ *   el resto de escrituras pliega antes los movimientos pendientes del producto
+ * - El stock de un producto puede repartirse en ubicaciones: las compras toman primero de una
+ *   ubicación con stock suficiente y las consultas informan el total
+ * - En modo escrow, cada instancia vende desde una porción del stock cedida en exclusiva
+ * - La verificación de stock y la consulta por producto se sirven desde un cache write-through
+ *   que cada escritura actualiza tras su commit
+ * - Los productos con stock bajo se listan desde un índice en memoria ordenado por faltante,
+ *   mantenido por las mismas escrituras
  */
 @Service
 @RequiredArgsConstructor
@@ -36,20 +99,67 @@ public class InventoryServiceImpl implements InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final ProductServiceClient productServiceClient;
+    private final HotStockManager hotStockManager;
+    private final InventoryLedger ledger;
+    private final EscrowStockManager escrowStock;
+    private final LocationStockManager locationStock;
+    private final InventoryCache inventoryCache;
+    private final LowStockIndex lowStockIndex;
+    private final PurchaseBatcher purchaseBatcher;
+    private final ReservationManager reservationManager;
+    private final OptimisticRetryExecutor optimisticRetry;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryEventRecorder events;
+    private final Validator validator;
+
+    /**
+     * Estrategia de descuento de stock en compras (ver {@link PurchaseMode}).
+     */
+    @Value("${inventory.purchase.mode:CONDITIONAL_UPDATE}")
+    private PurchaseMode purchaseMode = PurchaseMode.CONDITIONAL_UPDATE;
+
+    /**
+     * Filas por tramo de la carga masiva (un upsert en lote y una transacción por tramo).
+     */
+    @Value("${inventory.bulk.chunk-size:500}")
+    private int bulkChunkSize = 500;
+
+    @Value("${inventory.bulk.max-rows:50000}")
+    private int bulkMaxRows = 50_000;
 
     @Override
-    @Transactional
-    public InventoryResponse createOrUpdateInventory(InventoryRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryResponse createOrUpdateInventory(InventoryRequest request, Long expectedVersion) {
         log.info("Creando/actualizando inventario para producto: {}", request.getProductId());
 
         // Validar que el producto existe en el servicio de productos
         validateProductExists(request.getProductId());
 
+        Inventory saved = optimisticRetry.execute(request.getProductId(), expectedVersion,
+                () -> transactionTemplate.execute(status -> applyInventoryRequest(request, expectedVersion)));
+
+        return mapToResponse(saved, null);
+    }
+
+    private Inventory applyInventoryRequest(InventoryRequest request, Long expectedVersion) {
+        hotStockManager.suspendUntilTransactionEnds(request.getProductId());
+
+        // Modo LEDGER: sin If-Match, la nueva cantidad se inserta como movimiento (alta: fila nueva)
+        if (ledger.isEnabled() && expectedVersion == null) {
+            Optional<InventoryLedger.Change> change = ledger.setQuantity(request.getProductId(),
+                    request.getQuantity(), request.getMinStock(), InventoryMovement.Reason.STOCK_UPDATE);
+            if (change.isPresent()) {
+                return recordLedgerChange(change.get(), InventoryChangedEvent.Reason.STOCK_UPDATE);
+            }
+        }
+        ledger.foldBeforeRowWrite(request.getProductId());
+
         // Buscar inventario existente o crear nuevo
         Inventory inventory = inventoryRepository.findByProductId(request.getProductId())
                 .orElse(Inventory.builder()
                         .productId(request.getProductId())
                         .build());
+        checkVersion(inventory, expectedVersion);
 
         Integer previousQuantity = inventory.getQuantity();
 
@@ -59,112 +169,782 @@ public class InventoryServiceImpl implements InventoryService {
             inventory.setMinStock(request.getMinStock());
         }
 
-        Inventory saved = inventoryRepository.save(inventory);
+        // flush: el conflicto de versión se detecta aquí, antes de emitir el evento
+        Inventory saved = inventoryRepository.saveAndFlush(inventory);
 
         // Emitir evento de cambio de inventario
-        emitInventoryChangedEvent(saved.getProductId(), previousQuantity, saved.getQuantity(), "STOCK_UPDATE");
+        emitInventoryChangedEvent(saved.getProductId(), previousQuantity, saved.getQuantity(),
+                InventoryChangedEvent.Reason.STOCK_UPDATE);
+        events.stockLevel(saved);
+        rowWritten(saved);
 
-        return mapToResponse(saved, getProductInfoSafely(saved.getProductId()));
+        return saved;
     }
 
+    // ==================== CARGA MASIVA ====================
+
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bulkUpsertInventory(List<InventoryRequest> rows, Consumer<List<BulkInventoryResult>> sink) {
+        if (rows.size() > bulkMaxRows) {
+            throw new IllegalArgumentException(
+                    "La carga masiva admite hasta " + bulkMaxRows + " filas (recibidas: " + rows.size() + ")");
+        }
+        log.info("Carga masiva de inventario: {} filas", rows.size());
+
+        // Rechazos por fila; si un producto se repite, gana la última fila
+        BulkInventoryResult[] rejected = new BulkInventoryResult[rows.size()];
+        Map<Long, Integer> lastRowByProduct = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            InventoryRequest row = rows.get(i);
+            String violation = firstViolation(row);
+            if (violation != null) {
+                rejected[i] = BulkInventoryResult.rejected(i, row != null ? row.getProductId() : null,
+                        "400", "VALIDATION_ERROR", violation);
+                continue;
+            }
+            Integer replaced = lastRowByProduct.put(row.getProductId(), i);
+            if (replaced != null) {
+                rejected[replaced] = BulkInventoryResult.rejected(replaced, row.getProductId(),
+                        "409", "DUPLICATE_ROW", "Reemplazada por la fila " + i);
+            }
+        }
+
+        // Una sola llamada al servicio de productos, antes de escribir nada
+        Set<Long> existing = lastRowByProduct.isEmpty()
+                ? Set.of()
+                : productServiceClient.existingProducts(lastRowByProduct.keySet());
+        lastRowByProduct.forEach((productId, index) -> {
+            if (!existing.contains(productId)) {
+                rejected[index] = BulkInventoryResult.rejected(index, productId,
+                        "404", "PRODUCT_NOT_FOUND", "El producto no existe");
+            }
+        });
+
+        int created = 0;
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += bulkChunkSize) {
+            List<BulkInventoryResult> chunk = writeChunk(rows, rejected, from, Math.min(from + bulkChunkSize, rows.size()));
+            for (BulkInventoryResult result : chunk) {
+                if (result.getStatus() == BulkInventoryResult.Status.CREATED) {
+                    created++;
+                } else if (result.getStatus() == BulkInventoryResult.Status.UPDATED) {
+                    updated++;
+                }
+            }
+            sink.accept(chunk);
+        }
+        log.info("Carga masiva terminada: {} creadas, {} actualizadas, {} rechazadas",
+                created, updated, rows.size() - created - updated);
+    }
+
+    /**
+     * Escribe las filas válidas del tramo [from, to) con un upsert en lote, en una transacción.
+     * Si la escritura falla, se rechazan las filas del tramo y la carga sigue con el siguiente.
+     */
+    private List<BulkInventoryResult> writeChunk(List<InventoryRequest> rows, BulkInventoryResult[] rejected,
+                                                 int from, int to) {
+        List<Integer> indexes = new ArrayList<>();
+        List<InventoryRepositoryCustom.Upsert> upserts = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (rejected[i] == null) {
+                InventoryRequest row = rows.get(i);
+                indexes.add(i);
+                upserts.add(new InventoryRepositoryCustom.Upsert(row.getProductId(), row.getQuantity(), row.getMinStock()));
+            }
+        }
+
+        BulkInventoryResult[] chunk = new BulkInventoryResult[to - from];
+        if (!upserts.isEmpty()) {
+            try {
+                List<InventoryRepositoryCustom.UpsertResult> written = transactionTemplate.execute(status -> {
+                    upserts.forEach(upsert -> hotStockManager.suspendUntilTransactionEnds(upsert.productId()));
+                    upserts.stream().map(InventoryRepositoryCustom.Upsert::productId).sorted()
+                            .forEach(ledger::foldBeforeRowWrite);
+                    List<InventoryRepositoryCustom.UpsertResult> results = inventoryRepository.upsertAll(upserts);
+                    for (InventoryRepositoryCustom.UpsertResult result : results) {
+                        Inventory saved = result.inventory();
+                        emitInventoryChangedEvent(saved.getProductId(),
+                                result.created() ? 0 : result.previousQuantity(), saved.getQuantity(),
+                                InventoryChangedEvent.Reason.STOCK_UPDATE);
+                        events.stockLevel(saved);
+                        rowWritten(saved);
+                    }
+                    return results;
+                });
+                for (int j = 0; j < indexes.size(); j++) {
+                    InventoryRepositoryCustom.UpsertResult result = written.get(j);
+                    chunk[indexes.get(j) - from] = BulkInventoryResult.applied(indexes.get(j), result.created(),
+                            mapToResponse(result.inventory(), null));
+                }
+            } catch (DataAccessException e) {
+                log.error("Falló la escritura del tramo [{}, {}) de la carga masiva: {}", from, to, e.getMessage());
+                for (int index : indexes) {
+                    chunk[index - from] = BulkInventoryResult.rejected(index, rows.get(index).getProductId(),
+                            "500", "BULK_WRITE_FAILED", "No se pudo escribir el tramo de la fila");
+                }
+            }
+        }
+
+        for (int i = from; i < to; i++) {
+            if (rejected[i] != null) {
+                chunk[i - from] = rejected[i];
+            }
+        }
+        return Arrays.asList(chunk);
+    }
+
+    /**
+     * Primera restricción de {@link InventoryRequest} que incumple la fila, o null si es válida
+     * (mismas reglas que el alta individual con @Valid).
+     */
+    private String firstViolation(InventoryRequest row) {
+        if (row == null) {
+            return "La fila está vacía";
+        }
+        return validator.validate(row).stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public InventoryResponse getInventoryByProductId(Long productId) {
         log.debug("Consultando inventario para producto: {}", productId);
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
+        // Un fallo del cache lee en su propia transacción corta: sin ella el EntityManager (y su
+        // conexión) seguiría abierto hasta el final del método, incluida una llamada remota posterior
+        Inventory hot = hotStockManager.view(productId);
+        Inventory inventory = hot != null ? hot : inventoryCache.get(productId, () -> loadSnapshot(productId))
                 .orElseThrow(() -> new InventoryNotFoundException(productId));
 
-        // Obtener información del producto del otro servicio
-        ProductInfo productInfo = getProductInfoSafely(productId);
-
-        return mapToResponse(inventory, productInfo);
+        return mapToResponse(inventory, null);
     }
 
     @Override
-    @Transactional
-    public InventoryResponse updateQuantity(Long productId, Integer quantity) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryResponse updateQuantity(Long productId, Integer quantity, Long expectedVersion) {
         log.info("Actualizando cantidad de producto {} a {}", productId, quantity);
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new InventoryNotFoundException(productId));
+        Inventory saved = optimisticRetry.execute(productId, expectedVersion,
+                () -> transactionTemplate.execute(status -> {
+                    hotStockManager.suspendUntilTransactionEnds(productId);
 
-        Integer previousQuantity = inventory.getQuantity();
-        inventory.setQuantity(quantity);
+                    if (ledger.isEnabled() && expectedVersion == null) {
+                        return ledger.setQuantity(productId, quantity, null, InventoryMovement.Reason.QUANTITY_ADJUSTMENT)
+                                .map(change -> recordLedgerChange(change, InventoryChangedEvent.Reason.QUANTITY_ADJUSTMENT))
+                                .orElseThrow(() -> new InventoryNotFoundException(productId));
+                    }
+                    ledger.foldBeforeRowWrite(productId);
+
+                    Inventory inventory = inventoryRepository.findByProductId(productId)
+                            .orElseThrow(() -> new InventoryNotFoundException(productId));
+                    checkVersion(inventory, expectedVersion);
 
-        Inventory saved = inventoryRepository.save(inventory);
+                    Integer previousQuantity = inventory.getQuantity();
+                    inventory.setQuantity(quantity);
 
-        // Emitir evento
-        emitInventoryChangedEvent(productId, previousQuantity, quantity, "QUANTITY_ADJUSTMENT");
+                    Inventory updated = inventoryRepository.saveAndFlush(inventory);
 
-        return mapToResponse(saved, getProductInfoSafely(productId));
+                    // Emitir evento
+                    emitInventoryChangedEvent(productId, previousQuantity, quantity,
+                            InventoryChangedEvent.Reason.QUANTITY_ADJUSTMENT);
+                    events.stockLevel(updated);
+                    rowWritten(updated);
+                    return updated;
+                }));
+
+        return mapToResponse(saved, null);
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryResponse adjustQuantity(Long productId, StockAdjustmentRequest request) {
+        int delta = request.getDelta();
+        int floor = request.getFloor() != null ? request.getFloor() : 0;
+        int ceiling = request.getCeiling() != null ? request.getCeiling() : Integer.MAX_VALUE;
+        if (delta == 0) {
+            throw new IllegalArgumentException("El delta del ajuste no puede ser 0");
+        }
+        if (floor > ceiling) {
+            throw new IllegalArgumentException("El mínimo del ajuste no puede superar al máximo");
+        }
+        log.info("Ajustando stock de producto {} en {} unidades", productId, delta);
+
+        Inventory saved = transactionTemplate.execute(status -> {
+            // Un producto hot se congela para que el UPDATE parta del stock real
+            hotStockManager.suspendUntilTransactionEnds(productId);
+            ledger.foldBeforeRowWrite(productId);
+
+            Inventory adjusted = inventoryRepository.adjustAndGet(productId, delta, floor, ceiling)
+                    .orElseThrow(() -> adjustmentRejected(productId, delta, floor, ceiling));
+
+            emitInventoryChangedEvent(productId, adjusted.getQuantity() - delta, adjusted.getQuantity(),
+                    InventoryChangedEvent.Reason.QUANTITY_ADJUSTMENT);
+            events.stockLevel(adjusted);
+            rowWritten(adjusted);
+            return adjusted;
+        });
+
+        return mapToResponse(saved, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public InventoryResponse processPurchase(Long productId, PurchaseRequest request) {
         log.info("Procesando compra - Producto: {}, Cantidad: {}", productId, request.getQuantity());
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new InventoryNotFoundException(productId));
+        Integer quantity = request.getQuantity();
 
-        // Verificar stock disponible
-        if (!inventory.hasStock(request.getQuantity())) {
-            throw new InsufficientStockException(
-                    productId,
-                    request.getQuantity(),
-                    inventory.getAvailableQuantity()
-            );
+        // Sin transacción propia: el modo hot no toca la BD y el group commit espera sin retener conexión
+        Inventory saved = hotStockManager.purchase(productId, quantity);
+        if (saved == null) {
+            // Modo escrow: desde la porción de stock cedida a esta instancia
+            saved = escrowStock.purchase(productId, quantity);
+        }
+        if (saved != null) {
+            // Modo hot / escrow: solo el bus; el outbox recibe el delta agregado al escribirlo en BD
+            events.purchased(saved, quantity);
+        } else if (locationStock.hasLocations(productId)) {
+            // Primero una ubicación con stock suficiente; si ninguna alcanza, la fila principal
+            saved = transactionTemplate.execute(status -> purchaseFromLocation(productId, quantity));
+        }
+        if (saved == null) {
+            // Los eventos se registran dentro de la transacción de la compra (el group commit, en la del lote)
+            saved = switch (purchaseMode) {
+                case GROUP_COMMIT -> purchaseBatcher.submit(productId, quantity);
+                case CONDITIONAL_UPDATE -> transactionTemplate.execute(status ->
+                        recordPurchase(purchaseWithConditionalUpdate(productId, quantity), quantity));
+                case READ_MODIFY_WRITE -> transactionTemplate.execute(status ->
+                        recordPurchase(purchaseWithReadModifyWrite(productId, quantity), quantity));
+                case LEDGER -> ledger.purchase(productId, quantity);
+            };
+            // Ya confirmada: el cache se actualiza en el momento
+            switch (purchaseMode) {
+                // El lote publica su fila final: la vista de cada compra es un estado intermedio
+                case GROUP_COMMIT -> {
+                }
+                // La fila no cambia de versión: las vistas de compras concurrentes no se pueden
+                // ordenar y la siguiente lectura carga la cantidad vigente
+                case LEDGER -> {
+                    inventoryCache.evict(productId);
+                    lowStockIndex.rowWritten(saved);
+                }
+                default -> rowWritten(saved);
+            }
         }
 
-        Integer previousQuantity = inventory.getQuantity();
-        Integer newQuantity = previousQuantity - request.getQuantity();
-        inventory.setQuantity(newQuantity);
+        return mapToResponse(saved, null);
+    }
 
-        Inventory saved = inventoryRepository.save(inventory);
+    @Override
+    @Transactional
+    public List<InventoryResponse> processOrderPurchase(OrderPurchaseRequest request) {
+        List<PurchaseLineRequest> lines = request.getLines();
+        log.info("Procesando orden de compra con {} líneas", lines.size());
+
+        // Productos hot: se congelan antes de bloquear para que la fila sea la fuente de verdad
+        // y un rollback de la orden no deje unidades descontadas en memoria
+        List<Long> productIds = lines.stream().map(PurchaseLineRequest::getProductId).distinct().toList();
+        productIds.forEach(hotStockManager::suspendUntilTransactionEnds);
+        productIds.stream().sorted().forEach(ledger::foldBeforeRowWrite);
 
-        // Emitir evento de compra
-        emitInventoryChangedEvent(productId, previousQuantity, newQuantity, "PURCHASE");
+        // Un único SELECT ... FOR UPDATE con las filas ordenadas por productId
+        Map<Long, Inventory> rows = new HashMap<>();
+        inventoryRepository.findAllByProductIdInForUpdate(productIds)
+                .forEach(inv -> rows.put(inv.getProductId(), inv));
 
-        // Alerta si stock bajo
-        if (saved.isLowStock()) {
-            emitLowStockAlert(productId, newQuantity, saved.getMinStock());
+        // Validar y descontar en memoria, en el orden de las líneas
+        Map<Integer, RuntimeException> lineErrors = new LinkedHashMap<>();
+        List<Inventory> results = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            PurchaseLineRequest line = lines.get(i);
+            Inventory inventory = rows.get(line.getProductId());
+
+            if (inventory == null) {
+                lineErrors.put(i, new InventoryNotFoundException(line.getProductId()));
+            } else if (!inventory.hasStock(line.getQuantity())) {
+                lineErrors.put(i, new InsufficientStockException(
+                        line.getProductId(), line.getQuantity(), inventory.getAvailableQuantity()));
+            } else {
+                inventory.setQuantity(inventory.getQuantity() - line.getQuantity());
+                results.add(copyOf(inventory));
+            }
         }
 
-        return mapToResponse(saved, getProductInfoSafely(productId));
+        if (!lineErrors.isEmpty()) {
+            throw new OrderPurchaseException(lineErrors);
+        }
+        // Las entidades gestionadas: tras el commit ya tienen la versión incrementada
+        productIds.forEach(productId -> rowWritten(rows.get(productId)));
+
+        // Las filas modificadas se escriben al hacer commit (UPDATEs en lote JDBC)
+        List<InventoryResponse> responses = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Inventory result = results.get(i);
+            Integer quantity = lines.get(i).getQuantity();
+
+            events.purchased(result, quantity);
+
+            responses.add(mapToResponse(result, null));
+        }
+        return responses;
+    }
+
+    // ==================== RESERVAS ====================
+
+    @Override
+    @Transactional
+    public ReservationResponse reserveStock(Long productId, ReservationRequest request) {
+        log.info("Reservando {} unidades del producto {}", request.getQuantity(), productId);
+
+        Reservation reservation = reservationManager.reserve(
+                productId, request.getQuantity(), request.getTtlSeconds());
+
+        return mapToResponse(reservation);
     }
 
     @Override
-    public List<InventoryResponse> getLowStockItems() {
-        log.debug("Consultando productos con stock bajo");
+    @Transactional
+    public ReservationResponse confirmReservation(String reservationId) {
+        log.info("Confirmando reserva {}", reservationId);
 
-        return inventoryRepository.findLowStockItems().stream()
-                .map(inv -> mapToResponse(inv, getProductInfoSafely(inv.getProductId())))
-                .collect(Collectors.toList());
+        Reservation reservation = reservationManager.confirm(reservationId);
+
+        inventoryRepository.findByProductId(reservation.getProductId()).ifPresent(inventory -> {
+            emitInventoryChangedEvent(inventory.getProductId(),
+                    inventory.getQuantity() + reservation.getQuantity(), inventory.getQuantity(),
+                    InventoryChangedEvent.Reason.RESERVATION_CONFIRMED);
+            events.stockLevel(inventory);
+            rowWritten(inventory);
+        });
+
+        return mapToResponse(reservation);
     }
 
     @Override
     @Transactional
-    public void deleteInventory(Long productId) {
+    public ReservationResponse releaseReservation(String reservationId) {
+        log.info("Liberando reserva {}", reservationId);
+
+        return mapToResponse(reservationManager.release(reservationId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryLookup lookupInventory(List<Long> productIds) {
+        List<Long> distinct = productIds.stream().distinct().toList();
+        log.debug("Consultando inventario de {} productos", distinct.size());
+
+        // Filas y ubicaciones con una consulta IN cada una, en una transacción corta
+        Map<Long, InventoryCache.Snapshot> snapshots = transactionTemplate.execute(status -> {
+            Map<Long, Inventory> rows = currentRows(distinct);
+            Map<Long, Long> located = locationStock.locatedQuantities(rows.keySet());
+            Map<Long, InventoryCache.Snapshot> byProduct = new HashMap<>();
+            rows.forEach((productId, row) ->
+                    byProduct.put(productId, new InventoryCache.Snapshot(row, located.getOrDefault(productId, 0L))));
+            return byProduct;
+        });
+
+        List<InventoryResponse> items = new ArrayList<>(snapshots.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : distinct) {
+            InventoryCache.Snapshot snapshot = snapshots.get(productId);
+            if (snapshot == null) {
+                missing.add(productId);
+                continue;
+            }
+            Inventory hot = hotStockManager.view(productId);
+            items.add(mapToResponse(hot != null ? hot : snapshot.view(), null));
+        }
+        return InventoryLookup.builder()
+                .items(items)
+                .missingProductIds(missing)
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryPage getLowStockItems(String cursor, int limit) {
+        log.debug("Consultando productos con stock bajo - cursor: {}, límite: {}", cursor, limit);
+
+        // Candidatos desde el índice; sus filas se leen en una consulta y se descartan (y corrigen
+        // en el índice) las que ya no están bajo el mínimo
+        LowStockIndex.Cursor position = cursor != null ? LowStockIndex.Cursor.parse(cursor) : null;
+        List<InventoryResponse> items = new ArrayList<>(limit);
+        while (items.size() < limit) {
+            List<LowStockIndex.Entry> candidates = lowStockIndex.page(position, limit - items.size());
+            if (candidates.isEmpty()) {
+                break;
+            }
+            Map<Long, Inventory> rows = transactionTemplate.execute(status ->
+                    currentRows(candidates.stream().map(LowStockIndex.Entry::productId).toList()));
+            for (LowStockIndex.Entry candidate : candidates) {
+                Inventory row = rows.get(candidate.productId());
+                if (row == null) {
+                    lowStockIndex.removed(candidate.productId());
+                    continue;
+                }
+                Inventory current = row.withQuantity(row.getQuantity()
+                        + Math.toIntExact(lowStockIndex.located(candidate.productId())));
+                if (current.isLowStock()) {
+                    items.add(mapToResponse(current, null));
+                } else {
+                    lowStockIndex.rowWritten(row);
+                }
+            }
+            position = candidates.get(candidates.size() - 1).cursor();
+        }
+
+        boolean hasNext = position != null && !lowStockIndex.page(position, 1).isEmpty();
+        return InventoryPage.builder()
+                .items(items)
+                .nextCursor(hasNext ? position.toString() : null)
+                .total((long) lowStockIndex.size())
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryPage listInventory(String cursor, int limit, Integer minQuantity, Integer maxQuantity, String stock) {
+        log.debug("Listando inventario - cursor: {}, límite: {}, cantidad: [{}, {}], stock: {}",
+                cursor, limit, minQuantity, maxQuantity, stock);
+
+        if (minQuantity != null && maxQuantity != null && minQuantity > maxQuantity) {
+            throw new IllegalArgumentException("minQuantity no puede ser mayor que maxQuantity");
+        }
+        long afterProductId = parseProductCursor(cursor);
+        int min = minQuantity != null ? minQuantity : Integer.MIN_VALUE;
+        int max = maxQuantity != null ? maxQuantity : Integer.MAX_VALUE;
+        boolean lowStockOnly = false;
+        if (stock != null) {
+            switch (stock) {
+                case "low" -> lowStockOnly = true;
+                case "out" -> max = Math.min(max, 0);
+                default -> throw new IllegalArgumentException("Filtro de stock no soportado: " + stock);
+            }
+        }
+        int maxQuantityFilter = max;
+        boolean lowStockFilter = lowStockOnly;
+
+        // Una fila de más indica si hay página siguiente; las ubicaciones de la página, en una consulta
+        List<InventoryCache.Snapshot> snapshots = transactionTemplate.execute(status -> {
+            List<Inventory> rows = inventoryRepository.findPageAfter(
+                    afterProductId, min, maxQuantityFilter, lowStockFilter, Limit.of(limit + 1));
+            List<Long> productIds = rows.stream().map(Inventory::getProductId).toList();
+            Map<Long, Inventory> current = ledger.isEnabled() ? currentRows(productIds) : Map.of();
+            Map<Long, Long> located = locationStock.locatedQuantities(productIds);
+            return rows.stream()
+                    .map(row -> new InventoryCache.Snapshot(current.getOrDefault(row.getProductId(), row),
+                            located.getOrDefault(row.getProductId(), 0L)))
+                    .toList();
+        });
+
+        boolean hasNext = snapshots.size() > limit;
+        List<InventoryResponse> items = new ArrayList<>(Math.min(limit, snapshots.size()));
+        for (InventoryCache.Snapshot snapshot : hasNext ? snapshots.subList(0, limit) : snapshots) {
+            Inventory hot = hotStockManager.view(snapshot.row().getProductId());
+            items.add(mapToResponse(hot != null ? hot : snapshot.view(), null));
+        }
+        return InventoryPage.builder()
+                .items(items)
+                .nextCursor(hasNext ? String.valueOf(items.get(items.size() - 1).getProductId()) : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteInventory(Long productId, Long expectedVersion) {
         log.info("Eliminando inventario de producto: {}", productId);
 
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new InventoryNotFoundException(productId));
+        optimisticRetry.execute(productId, expectedVersion,
+                () -> transactionTemplate.execute(status -> {
+                    hotStockManager.suspendUntilTransactionEnds(productId);
+                    ledger.foldBeforeRowWrite(productId);
 
-        inventoryRepository.delete(inventory);
+                    Inventory inventory = inventoryRepository.findByProductId(productId)
+                            .orElseThrow(() -> new InventoryNotFoundException(productId));
+                    checkVersion(inventory, expectedVersion);
 
-        // Emitir evento
-        emitInventoryChangedEvent(productId, inventory.getQuantity(), 0, "DELETED");
+                    inventoryRepository.delete(inventory);
+                    locationStock.removeAll(productId);
+                    inventoryRepository.flush();
+                    inventoryCache.evict(productId);
+                    lowStockIndex.removed(productId);
+
+                    // Emitir evento
+                    emitInventoryChangedEvent(productId, inventory.getQuantity(), 0,
+                            InventoryChangedEvent.Reason.DELETED);
+                    return null;
+                }));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean hasStock(Long productId, Integer quantity) {
-        return inventoryRepository.findByProductId(productId)
-                .map(inv -> inv.hasStock(quantity))
+        OptionalLong hotAvailable = hotStockManager.availableQuantity(productId);
+        if (hotAvailable.isPresent()) {
+            return hotAvailable.getAsLong() >= quantity;
+        }
+        if (escrowStock.hasLocalStock(productId, quantity)) {
+            return true;
+        }
+        if (escrowStock.isEnabled(productId)) {
+            // Las porciones cedidas a instancias en modo escrow figuran como reservadas pero se venden
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> findCurrent(productId)
+                    .map(inv -> inv.getAvailableQuantity() + inv.getEscrowQuantity() >= quantity)
+                    .orElse(false)));
+        }
+
+        // Desde memoria: solo un fallo del cache (o una entrada vencida) lee la BD
+        return inventoryCache.get(productId, () -> loadSnapshot(productId))
+                .map(inv -> inv.getAvailableQuantity() >= quantity)
                 .orElse(false);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<InventoryMovementResponse> getMovements(Long productId, int limit) {
+        List<InventoryMovement> movements = transactionTemplate.execute(status -> {
+            if (!inventoryRepository.existsByProductId(productId)) {
+                throw new InventoryNotFoundException(productId);
+            }
+            return ledger.history(productId, limit);
+        });
+        return movements.stream().map(this::mapToResponse).toList();
+    }
+
+    // ==================== UBICACIONES ====================
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<InventoryLocationResponse> getLocations(Long productId) {
+        List<InventoryLocation> locations = transactionTemplate.execute(status -> {
+            if (!inventoryRepository.existsByProductId(productId)) {
+                throw new InventoryNotFoundException(productId);
+            }
+            return locationStock.list(productId);
+        });
+        return locations.stream().map(this::mapToResponse).toList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InventoryLocationResponse setLocationStock(Long productId, String locationId, Integer quantity) {
+        log.info("Fijando stock de producto {} en ubicación {} a {}", productId, locationId, quantity);
+
+        InventoryLocation saved = transactionTemplate.execute(status -> {
+            // La fila principal serializa los cambios de ubicaciones del producto (no las compras)
+            inventoryRepository.lockByProductId(productId)
+                    .orElseThrow(() -> new InventoryNotFoundException(productId));
+
+            LocationStockManager.Change change = locationStock.set(productId, locationId, quantity);
+            recordLocationChange(productId, quantity - change.previousQuantity());
+            return change.location();
+        });
+
+        return mapToResponse(saved);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void removeLocation(Long productId, String locationId) {
+        log.info("Eliminando ubicación {} del producto {}", locationId, productId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryRepository.lockByProductId(productId)
+                    .orElseThrow(() -> new InventoryNotFoundException(productId));
+
+            int removed = locationStock.remove(productId, locationId);
+            recordLocationChange(productId, -removed);
+        });
+    }
+
     // ==================== MÉTODOS PRIVADOS ====================
 
+    /**
+     * Compra descontada de una ubicación con stock suficiente.
+     *
+     * @return vista con el total del producto tras la compra, o null si ninguna ubicación alcanza
+     */
+    private Inventory purchaseFromLocation(Long productId, Integer quantity) {
+        if (!locationStock.purchase(productId, quantity)) {
+            return null;
+        }
+        InventoryCache.Snapshot after = currentSnapshot(productId)
+                .orElseThrow(() -> new InventoryNotFoundException(productId));
+        locationsWritten(after, -quantity);
+        events.purchased(after.view(), quantity);
+        return after.view();
+    }
+
+    /**
+     * Eventos de un cambio de stock en una ubicación, sobre el total del producto.
+     */
+    private void recordLocationChange(Long productId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        currentSnapshot(productId).ifPresent(snapshot -> {
+            Inventory after = snapshot.view();
+            emitInventoryChangedEvent(productId, after.getQuantity() - delta, after.getQuantity(),
+                    InventoryChangedEvent.Reason.STOCK_UPDATE);
+            events.stockLevel(after);
+            locationsWritten(snapshot, delta);
+        });
+    }
+
+    /**
+     * Fila del producto con la cantidad total: más el stock en ubicaciones y, en modo LEDGER,
+     * los movimientos pendientes.
+     */
+    private Optional<Inventory> findCurrent(Long productId) {
+        return currentRow(productId).map(locationStock::withLocations);
+    }
+
+    /**
+     * Lectura para el cache, en una transacción corta.
+     */
+    private Optional<InventoryCache.Snapshot> loadSnapshot(Long productId) {
+        return transactionTemplate.execute(status -> currentSnapshot(productId));
+    }
+
+    /**
+     * Fila vigente del producto y suma de sus ubicaciones.
+     */
+    private Optional<InventoryCache.Snapshot> currentSnapshot(Long productId) {
+        return currentRow(productId)
+                .map(row -> new InventoryCache.Snapshot(row, locationStock.locatedQuantity(productId)));
+    }
+
+    /**
+     * Filas vigentes de varios productos por productId (en modo LEDGER, con los movimientos pendientes).
+     */
+    private Map<Long, Inventory> currentRows(List<Long> productIds) {
+        List<Inventory> rows = ledger.isEnabled()
+                ? productIds.stream().map(ledger::current).flatMap(Optional::stream).toList()
+                : inventoryRepository.findAllByProductIdIn(productIds);
+        Map<Long, Inventory> byProduct = new HashMap<>();
+        rows.forEach(row -> byProduct.put(row.getProductId(), row));
+        return byProduct;
+    }
+
+    /**
+     * Cursor del listado: productId del último producto de la página anterior.
+     */
+    private static long parseProductCursor(String cursor) {
+        if (cursor == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    /**
+     * Fila del producto tras un cambio de cantidad o mínimo: cache e índice de stock bajo se
+     * actualizan tras el commit.
+     */
+    private void rowWritten(Inventory row) {
+        inventoryCache.rowWritten(row);
+        lowStockIndex.rowWritten(row);
+    }
+
+    /**
+     * Cambio de stock en una ubicación (delta sobre la suma de ubicaciones).
+     */
+    private void locationsWritten(InventoryCache.Snapshot after, int delta) {
+        inventoryCache.locatedChanged(after.row().getProductId(), delta);
+        lowStockIndex.locationsWritten(after.row(), after.located());
+    }
+
+    /**
+     * Fila del producto; en modo LEDGER, con los movimientos pendientes.
+     */
+    private Optional<Inventory> currentRow(Long productId) {
+        return ledger.isEnabled()
+                ? ledger.current(productId)
+                : inventoryRepository.findByProductId(productId);
+    }
+
+    /**
+     * Eventos de un cambio de cantidad insertado como movimiento del ledger.
+     */
+    private Inventory recordLedgerChange(InventoryLedger.Change change, InventoryChangedEvent.Reason reason) {
+        Inventory after = change.after();
+        emitInventoryChangedEvent(after.getProductId(), change.previousQuantity(), after.getQuantity(), reason);
+        events.stockLevel(after);
+        rowWritten(after);
+        return after;
+    }
+
+    /**
+     * Compra sin lectura previa: un único UPDATE condicional descuenta el stock y retorna la fila.
+     * Si no se afecta ninguna fila, se distingue entre inventario inexistente y stock insuficiente.
+     */
+    private Inventory purchaseWithConditionalUpdate(Long productId, Integer quantity) {
+        Inventory saved = inventoryRepository.decrementAndGet(productId, quantity)
+                .orElseThrow(() -> purchaseRejected(productId, quantity));
+
+        // La fila queda bloqueada hasta el commit: si el producto pasó a modo hot, el contador lo absorbe
+        hotStockManager.reconcileDirectPurchase(productId, quantity);
+
+        return saved;
+    }
+
+    /**
+     * Compra clásica: lee la fila, valida el stock en Java y guarda la entidad.
+     */
+    private Inventory purchaseWithReadModifyWrite(Long productId, Integer quantity) {
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new InventoryNotFoundException(productId));
+
+        // Verificar stock disponible
+        if (!inventory.hasStock(quantity)) {
+            throw new InsufficientStockException(
+                    productId,
+                    quantity,
+                    inventory.getAvailableQuantity()
+            );
+        }
+
+        inventory.setQuantity(inventory.getQuantity() - quantity);
+
+        return inventoryRepository.save(inventory);
+    }
+
+    /**
+     * Registra los eventos de una compra ya aplicada (dentro de su transacción).
+     */
+    private Inventory recordPurchase(Inventory saved, Integer quantity) {
+        events.purchased(saved, quantity);
+        return saved;
+    }
+
+    /**
+     * Motivo de un ajuste no aplicado (solo en el camino de rechazo se lee la fila).
+     */
+    private RuntimeException adjustmentRejected(Long productId, int delta, int floor, int ceiling) {
+        return inventoryRepository.findByProductId(productId)
+                .<RuntimeException>map(inv -> new StockBoundsException(
+                        productId, delta, inv.getQuantity(), Math.max(floor, inv.getReservedQuantity()), ceiling))
+                .orElseGet(() -> new InventoryNotFoundException(productId));
+    }
+
+    /**
+     * Construye la excepción de una compra rechazada por el UPDATE condicional.
+     */
+    private RuntimeException purchaseRejected(Long productId, Integer quantity) {
+        return inventoryRepository.findByProductId(productId)
+                .<RuntimeException>map(inv -> new InsufficientStockException(
+                        productId, quantity, locationStock.withLocations(inv).getAvailableQuantity()))
+                .orElseGet(() -> new InventoryNotFoundException(productId));
+    }
+
     /**
      * Valida que el producto exista en el servicio de productos.
      */
@@ -178,6 +958,23 @@ public class InventoryServiceImpl implements InventoryService {
         }
     }
 
+    // ==================== INFORMACIÓN DEL PRODUCTO (include=product) ====================
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<InventoryResponse> includeProduct(List<InventoryResponse> responses) {
+        // Un solo producto (una orden puede repetirlo): consulta individual; varios: una consulta en lote
+        Set<Long> productIds = new LinkedHashSet<>();
+        responses.forEach(response -> productIds.add(response.getProductId()));
+        Map<Long, ProductInfo> products = productIds.size() == 1
+                ? Map.of(productIds.iterator().next(), getProductInfoSafely(productIds.iterator().next()))
+                : getProductsInfoSafely(productIds);
+        for (InventoryResponse response : responses) {
+            response.setProduct(products.getOrDefault(response.getProductId(), basicProductInfo(response.getProductId())));
+        }
+        return responses;
+    }
+
     /**
      * Obtiene información del producto de forma segura (no falla si el servicio no está disponible).
      */
@@ -187,12 +984,58 @@ public class InventoryServiceImpl implements InventoryService {
         } catch (ProductServiceException e) {
             log.warn("No se pudo obtener info del producto {}: {}", productId, e.getMessage());
             // Retornar info básica si el servicio no está disponible
-            return ProductInfo.builder()
-                    .id(productId)
-                    .build();
+            return basicProductInfo(productId);
+        }
+    }
+
+    /**
+     * Igual que {@link #getProductInfoSafely} para varios productos, en una sola llamada.
+     * Si falla, cada producto queda con su info básica.
+     */
+    private Map<Long, ProductInfo> getProductsInfoSafely(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return productServiceClient.getProductsInfo(productIds);
+        } catch (ProductServiceException e) {
+            log.warn("No se pudo obtener info de {} productos: {}", productIds.size(), e.getMessage());
+            return Map.of();
         }
     }
 
+    private static ProductInfo basicProductInfo(Long productId) {
+        return ProductInfo.builder()
+                .id(productId)
+                .build();
+    }
+
+    /**
+     * Valida la versión indicada por el cliente (If-Match). Una fila nueva no tiene versión: nunca coincide.
+     */
+    private void checkVersion(Inventory inventory, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(inventory.getVersion())) {
+            throw new InventoryVersionMismatchException(inventory.getProductId(), expectedVersion);
+        }
+    }
+
+    /**
+     * Copia del estado actual de una fila (la entidad gestionada sigue cambiando con otras líneas).
+     */
+    private Inventory copyOf(Inventory inventory) {
+        return Inventory.builder()
+                .id(inventory.getId())
+                .productId(inventory.getProductId())
+                .quantity(inventory.getQuantity())
+                .reservedQuantity(inventory.getReservedQuantity())
+                .escrowQuantity(inventory.getEscrowQuantity())
+                .minStock(inventory.getMinStock())
+                .version(inventory.getVersion())
+                .createdAt(inventory.getCreatedAt())
+                .updatedAt(inventory.getUpdatedAt())
+                .build();
+    }
+
     /**
      * Convierte entidad a DTO de respuesta.
      */
@@ -205,42 +1048,54 @@ public class InventoryServiceImpl implements InventoryService {
                 .availableQuantity(inventory.getAvailableQuantity())
                 .minStock(inventory.getMinStock())
                 .lowStock(inventory.isLowStock())
+                .version(inventory.getVersion())
                 .createdAt(inventory.getCreatedAt())
                 .updatedAt(inventory.getUpdatedAt())
                 .product(productInfo)
                 .build();
     }
 
-    // ==================== EVENTOS (LOGS EN CONSOLA) ====================
+    private InventoryLocationResponse mapToResponse(InventoryLocation location) {
+        return InventoryLocationResponse.builder()
+                .id(location.getId())
+                .productId(location.getProductId())
+                .locationId(location.getLocationId())
+                .quantity(location.getQuantity())
+                .createdAt(location.getCreatedAt())
+                .updatedAt(location.getUpdatedAt())
+                .build();
+    }
+
+    private InventoryMovementResponse mapToResponse(InventoryMovement movement) {
+        return InventoryMovementResponse.builder()
+                .id(movement.getId())
+                .productId(movement.getProductId())
+                .delta(movement.getDelta())
+                .reason(movement.getReason().name())
+                .folded(movement.getFolded())
+                .createdAt(movement.getCreatedAt())
+                .build();
+    }
 
-    /**
-     * Emite un evento cuando cambia el inventario.
-     * En un sistema real, esto enviaría un mensaje a un broker (Kafka, RabbitMQ).
-     * Para esta prueba, lo implementamos como logs estructurados.
-     */
-    private void emitInventoryChangedEvent(Long productId, Integer previousQty, Integer newQty, String reason) {
-        log.info("========== EVENTO DE INVENTARIO ==========");
-        log.info("| Tipo:              INVENTORY_CHANGED");
-        log.info("| Timestamp:         {}", LocalDateTime.now());
-        log.info("| Product ID:        {}", productId);
-        log.info("| Cantidad Anterior: {}", previousQty);
-        log.info("| Cantidad Nueva:    {}", newQty);
-        log.info("| Diferencia:        {}", newQty - previousQty);
-        log.info("| Razón:             {}", reason);
-        log.info("===========================================");
+    private ReservationResponse mapToResponse(Reservation reservation) {
+        return ReservationResponse.builder()
+                .id(reservation.getId())
+                .productId(reservation.getProductId())
+                .quantity(reservation.getQuantity())
+                .status(reservation.getStatus().name())
+                .expiresAt(reservation.getExpiresAt())
+                .createdAt(reservation.getCreatedAt())
+                .updatedAt(reservation.getUpdatedAt())
+                .build();
     }
 
+    // ==================== EVENTOS ====================
+
     /**
-     * Emite alerta de stock bajo.
+     * Registra un cambio de inventario (outbox en la transacción actual + bus tras el commit).
      */
-    private void emitLowStockAlert(Long productId, Integer currentStock, Integer minStock) {
-        log.warn("⚠️ ========== ALERTA DE STOCK BAJO ==========");
-        log.warn("| Tipo:           LOW_STOCK_ALERT");
-        log.warn("| Timestamp:      {}", LocalDateTime.now());
-        log.warn("| Product ID:     {}", productId);
-        log.warn("| Stock Actual:   {}", currentStock);
-        log.warn("| Stock Mínimo:   {}", minStock);
-        log.warn("| Acción:         Reponer inventario");
-        log.warn("⚠️ ============================================");
+    private void emitInventoryChangedEvent(Long productId, Integer previousQty, Integer newQty,
+                                           InventoryChangedEvent.Reason reason) {
+        events.changed(productId, previousQty, newQty, reason);
     }
-}
\ No newline at end of file
+}
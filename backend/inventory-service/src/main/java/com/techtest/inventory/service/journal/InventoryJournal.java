@@ -0,0 +1,309 @@
+package com.techtest.inventory.service.journal;
+
+import com.techtest.inventory.service.events.InventoryChangedEvent;
+import com.techtest.inventory.service.events.InventoryEvent;
+import com.techtest.inventory.service.events.InventoryEventSubscriber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Journal local y binario de los cambios de cantidad, en segmentos mapeados en memoria.
+ *
+ * Funcionamiento:
+ * - Recibe los {@link InventoryChangedEvent} del bus tras el commit, sin tocar el hilo de la petición
+ * - Cada cambio es un registro de tamaño fijo ({@link JournalEntry}) escrito en el segmento activo;
+ *   la secuencia del registro es su offset global
+ * - Un fsync por lote entregado por el bus (group fsync), solo del rango escrito
+ * - Al llenarse un segmento se abre el siguiente; se conservan los últimos max-segments
+ * - Al arrancar se recorre el último segmento hasta el primer registro inválido (slot vacío o
+ *   escrito a medias) y se continúa desde ahí
+ *
+ * {@link #replay} recorre los segmentos mapeados desde una secuencia sin copiar los registros.
+ * Un archivo de lock impide que dos procesos escriban en el mismo directorio.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.journal.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class InventoryJournal implements InventoryEventSubscriber {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String LOCK_FILE = "journal.lock";
+
+    private final Counter appendedCounter;
+    private final Counter fsyncCounter;
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    @Value("${inventory.journal.dir:data/journal}")
+    private String directory = "data/journal";
+
+    @Value("${inventory.journal.segment-records:1048576}")
+    private int segmentRecords = 1_048_576;
+
+    @Value("${inventory.journal.max-segments:32}")
+    private int maxSegments = 32;
+
+    private Path dir;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private volatile Segment active;
+    private volatile long nextSequence;
+    private int flushedSlot;
+
+    public InventoryJournal(MeterRegistry meterRegistry) {
+        this.appendedCounter = Counter.builder("inventory.journal.appended")
+                .description("Registros escritos en el journal")
+                .register(meterRegistry);
+        this.fsyncCounter = Counter.builder("inventory.journal.fsyncs")
+                .description("Fsync del journal (uno por lote)")
+                .register(meterRegistry);
+        Gauge.builder("inventory.journal.sequence", this, InventoryJournal::nextSequence)
+                .description("Secuencia del próximo registro del journal")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void open() {
+        if (segmentRecords <= 0 || segmentRecords > Integer.MAX_VALUE / JournalEntry.RECORD_SIZE) {
+            throw new IllegalArgumentException("inventory.journal.segment-records fuera de rango: " + segmentRecords);
+        }
+        try {
+            dir = Path.of(directory);
+            Files.createDirectories(dir);
+            acquireLock();
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .forEach(file -> segments.put(baseOf(file), file));
+            }
+            if (segments.isEmpty()) {
+                segments.put(0L, segmentPath(0));
+            }
+            long base = segments.lastKey();
+            MappedByteBuffer buffer = map(segments.lastEntry().getValue(), FileChannel.MapMode.READ_WRITE);
+            int slot = 0;
+            while (slot < segmentRecords && JournalEntry.isValid(buffer, slot * JournalEntry.RECORD_SIZE, base + slot)) {
+                slot++;
+            }
+            active = new Segment(base, buffer);
+            flushedSlot = slot;
+            nextSequence = base + slot;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el journal en " + directory, e);
+        }
+        log.info("Journal abierto en {}: {} segmentos, secuencias {}..{}",
+                dir.toAbsolutePath(), segments.size(), firstSequence(), nextSequence);
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        flush();
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error liberando el lock del journal: {}", e.getMessage());
+        }
+    }
+
+    // ==================== ESCRITURA ====================
+
+    @Override
+    public String name() {
+        return "journal";
+    }
+
+    /**
+     * Escribe el lote del bus y hace un único fsync al final.
+     */
+    @Override
+    public void onEvents(List<InventoryEvent> events) {
+        for (InventoryEvent event : events) {
+            if (event instanceof InventoryChangedEvent changed) {
+                append(changed);
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Agrega un registro (sin fsync).
+     *
+     * @return secuencia asignada
+     */
+    public synchronized long append(InventoryChangedEvent event) {
+        long sequence = nextSequence;
+        int slot = (int) (sequence - active.base());
+        if (slot == segmentRecords) {
+            rotate();
+            slot = 0;
+        }
+        JournalEntry.write(active.buffer(), slot * JournalEntry.RECORD_SIZE, sequence, event);
+        nextSequence = sequence + 1;  // los lectores solo ven registros por debajo de nextSequence
+        appendedCounter.increment();
+        return sequence;
+    }
+
+    /**
+     * Fuerza a disco los registros escritos desde el último fsync.
+     */
+    public synchronized void flush() {
+        Segment segment = active;
+        if (segment == null) {
+            return;
+        }
+        int written = (int) (nextSequence - segment.base());
+        if (written > flushedSlot) {
+            segment.buffer().force(flushedSlot * JournalEntry.RECORD_SIZE,
+                    (written - flushedSlot) * JournalEntry.RECORD_SIZE);
+            flushedSlot = written;
+            fsyncCounter.increment();
+        }
+    }
+
+    private void rotate() {
+        flush();
+        long base = nextSequence;
+        Path path = segmentPath(base);
+        try {
+            active = new Segment(base, map(path, FileChannel.MapMode.READ_WRITE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el segmento " + path, e);
+        }
+        segments.put(base, path);
+        flushedSlot = 0;
+
+        while (segments.size() > maxSegments) {
+            Map.Entry<Long, Path> oldest = segments.pollFirstEntry();
+            try {
+                Files.deleteIfExists(oldest.getValue());
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el segmento {}: {}", oldest.getValue(), e.getMessage());
+            }
+        }
+        log.debug("Journal rotado: segmento {} ({} segmentos)", path.getFileName(), segments.size());
+    }
+
+    // ==================== REPLAY ====================
+
+    /**
+     * Recorre los registros desde una secuencia, en orden, leyendo directamente de los segmentos
+     * mapeados. Si la secuencia ya no está retenida se empieza por el registro más antiguo.
+     *
+     * @param fromSequence primera secuencia a leer
+     * @param maxRecords   registros máximos a recorrer
+     * @param visitor      recibe cada registro; la instancia se reutiliza entre llamadas
+     * @return secuencia desde la que continuar
+     */
+    public long replay(long fromSequence, int maxRecords, Consumer<JournalEntry> visitor) {
+        long end = nextSequence;
+        long sequence = Math.max(fromSequence, firstSequence());
+        int visited = 0;
+        JournalEntry entry = new JournalEntry();
+
+        while (sequence < end && visited < maxRecords) {
+            Map.Entry<Long, Path> segment = segments.floorEntry(sequence);
+            ByteBuffer buffer;
+            try {
+                buffer = readView(segment.getKey(), segment.getValue());
+            } catch (NoSuchFileException e) {
+                sequence = Math.max(sequence, firstSequence());  // borrado por retención durante el replay
+                continue;
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el segmento " + segment.getValue(), e);
+            }
+            long segmentEnd = Math.min(end, segment.getKey() + segmentRecords);
+            for (; sequence < segmentEnd && visited < maxRecords; sequence++, visited++) {
+                int offset = (int) (sequence - segment.getKey()) * JournalEntry.RECORD_SIZE;
+                visitor.accept(entry.wrap(buffer, offset));
+            }
+        }
+        return sequence;
+    }
+
+    public long firstSequence() {
+        return segments.isEmpty() ? 0 : segments.firstKey();
+    }
+
+    public long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * El segmento activo se lee a través del mismo mapeo que escribe; los anteriores se mapean
+     * de solo lectura.
+     */
+    private ByteBuffer readView(long base, Path path) throws IOException {
+        Segment segment = active;
+        if (segment.base() == base) {
+            return segment.buffer().duplicate();
+        }
+        return map(path, FileChannel.MapMode.READ_ONLY);
+    }
+
+    // ==================== ARCHIVOS ====================
+
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        long size = (long) segmentRecords * JournalEntry.RECORD_SIZE;
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(mode, 0, Math.min(size, channel.size()));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, size);  // extiende el archivo al tamaño del segmento
+        }
+    }
+
+    private void acquireLock() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("El journal en " + dir.toAbsolutePath() + " está en uso por otro proceso");
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return dir.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Segment(long base, MappedByteBuffer buffer) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.techtest.inventory.service.journal;
+
+import com.techtest.inventory.service.events.InventoryChangedEvent;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32C;
+
+/**
+ * Registro del journal leído directamente del segmento mapeado, sin copiarlo.
+ *
+ * Formato (40 bytes, big endian):
+ * - 0  long  secuencia (offset global del registro)
+ * - 8  long  timestamp en milisegundos epoch
+ * - 16 long  productId
+ * - 24 int   cantidad anterior
+ * - 28 int   cantidad nueva
+ * - 32 int   razón (ordinal de {@link InventoryChangedEvent.Reason})
+ * - 36 int   CRC32C de los 36 bytes anteriores
+ *
+ * Las razones se guardan por ordinal: nuevas razones se agregan al final del enum.
+ * La instancia se reutiliza durante un replay: solo es válida dentro del callback.
+ */
+public final class JournalEntry {
+
+    static final int RECORD_SIZE = 40;
+
+    private static final int SEQUENCE = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int PRODUCT_ID = 16;
+    private static final int PREVIOUS_QUANTITY = 24;
+    private static final int NEW_QUANTITY = 28;
+    private static final int REASON = 32;
+    private static final int CHECKSUM = 36;
+
+    private static final InventoryChangedEvent.Reason[] REASONS = InventoryChangedEvent.Reason.values();
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    JournalEntry wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    public long sequence() {
+        return buffer.getLong(offset + SEQUENCE);
+    }
+
+    public long timestampMillis() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    public LocalDateTime occurredAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis()), ZoneId.systemDefault());
+    }
+
+    public long productId() {
+        return buffer.getLong(offset + PRODUCT_ID);
+    }
+
+    public int previousQuantity() {
+        return buffer.getInt(offset + PREVIOUS_QUANTITY);
+    }
+
+    public int newQuantity() {
+        return buffer.getInt(offset + NEW_QUANTITY);
+    }
+
+    public InventoryChangedEvent.Reason reason() {
+        return REASONS[buffer.getInt(offset + REASON)];
+    }
+
+    /**
+     * Copia el registro a un evento (para guardarlo fuera del callback).
+     */
+    public InventoryChangedEvent toEvent() {
+        return new InventoryChangedEvent(productId(), previousQuantity(), newQuantity(), reason(), occurredAt());
+    }
+
+    // ==================== ESCRITURA / VALIDACIÓN ====================
+
+    static void write(ByteBuffer buffer, int offset, long sequence, InventoryChangedEvent event) {
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putLong(offset + TIMESTAMP, event.occurredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        buffer.putLong(offset + PRODUCT_ID, event.productId());
+        buffer.putInt(offset + PREVIOUS_QUANTITY, event.previousQuantity());
+        buffer.putInt(offset + NEW_QUANTITY, event.newQuantity());
+        buffer.putInt(offset + REASON, event.reason().ordinal());
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset));
+    }
+
+    /**
+     * Un slot es válido si tiene la secuencia esperada y su checksum coincide. Un slot vacío
+     * (ceros) o escrito a medias marca el final del journal.
+     */
+    static boolean isValid(ByteBuffer buffer, int offset, long expectedSequence) {
+        return buffer.getLong(offset + SEQUENCE) == expectedSequence
+                && buffer.getInt(offset + CHECKSUM) == checksum(buffer, offset)
+                && buffer.getInt(offset + REASON) >= 0
+                && buffer.getInt(offset + REASON) < REASONS.length;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM));
+        return (int) crc.getValue();
+    }
+}
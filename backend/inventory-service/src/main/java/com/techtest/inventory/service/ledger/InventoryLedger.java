@@ -0,0 +1,233 @@
+package com.techtest.inventory.service.ledger;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.entity.InventoryMovement;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.repository.InventoryMovementRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.PurchaseMode;
+import com.techtest.inventory.service.events.InventoryEventRecorder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ledger de inventario (modo LEDGER): la cantidad se modifica insertando movimientos en lugar de
+ * actualizar la fila, y un compactador los suma periódicamente al snapshot (Inventory.quantity).
+ *
+ * Compras (una transacción corta por compra, sin actualizar la fila):
+ * - Se bloquea la fila del producto y se calcula el disponible (snapshot + movimientos sin
+ *   plegar - reservado)
+ * - Si alcanza se inserta el movimiento (-cantidad); si no, la compra se rechaza sin escribir
+ * El bloqueo ordena las compras del mismo producto entre sí y con la compactación: cada una ve
+ * los movimientos de las confirmadas antes, así que nunca se sobrevende y toda compra que
+ * alcanza se acepta.
+ *
+ * Escrituras sobre la fila (reservas, ajustes, órdenes, altas con If-Match, borrado, modo hot):
+ * pliegan antes los movimientos del producto bajo el bloqueo de la fila, así sus condiciones
+ * se evalúan sobre la cantidad vigente.
+ *
+ * El compactador corre en cualquier modo: si se deja el modo LEDGER, drena lo pendiente.
+ */
+@Component
+@Slf4j
+public class InventoryLedger {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryMovementRepository movementRepository;
+    private final InventoryEventRecorder events;
+    private final TransactionTemplate requiresNew;
+    private final Counter appendedCounter;
+    private final Counter rejectedCounter;
+    private final Counter foldedCounter;
+
+    @Value("${inventory.purchase.mode:CONDITIONAL_UPDATE}")
+    private PurchaseMode purchaseMode = PurchaseMode.CONDITIONAL_UPDATE;
+
+    @Value("${inventory.ledger.fold-batch-size:1000}")
+    private int foldBatchSize = 1000;
+
+    @Value("${inventory.ledger.max-products-per-run:500}")
+    private int maxProductsPerRun = 500;
+
+    public InventoryLedger(InventoryRepository inventoryRepository,
+                           InventoryMovementRepository movementRepository,
+                           InventoryEventRecorder events,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.movementRepository = movementRepository;
+        this.events = events;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.appendedCounter = Counter.builder("inventory.ledger.appended")
+                .description("Movimientos insertados en el ledger")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("inventory.ledger.rejected")
+                .description("Compras del ledger rechazadas por falta de stock")
+                .register(meterRegistry);
+        this.foldedCounter = Counter.builder("inventory.ledger.folded")
+                .description("Movimientos del ledger plegados al snapshot")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return purchaseMode == PurchaseMode.LEDGER;
+    }
+
+    // ==================== COMPRAS ====================
+
+    /**
+     * Compra en una transacción corta: verificar el disponible e insertar el movimiento con la
+     * fila bloqueada. Los eventos se registran en la misma transacción.
+     *
+     * @return vista del inventario tras la compra (cantidad vigente)
+     * @throws InventoryNotFoundException si el producto no tiene inventario
+     * @throws InsufficientStockException si el disponible no alcanza (no se inserta nada)
+     */
+    public Inventory purchase(Long productId, int quantity) {
+        return requiresNew.execute(status -> {
+            if (inventoryRepository.lockByProductId(productId).isEmpty()) {
+                throw new InventoryNotFoundException(productId);
+            }
+            Inventory current = current(productId)
+                    .orElseThrow(() -> new InventoryNotFoundException(productId));
+            int available = current.getAvailableQuantity();
+            if (available < quantity) {
+                rejectedCounter.increment();
+                throw new InsufficientStockException(productId, quantity, Math.max(0, available));
+            }
+            append(productId, -quantity, InventoryMovement.Reason.PURCHASE);
+            Inventory after = current.withQuantity(current.getQuantity() - quantity);
+            events.purchased(after, quantity);
+            return after;
+        });
+    }
+
+    // ==================== ESCRITURAS (dentro de la transacción del llamador) ====================
+
+    /**
+     * Fija la cantidad vigente de un producto insertando un movimiento por la diferencia.
+     * Bloquea la fila mientras dura la transacción: compras que se verifiquen en paralelo esperan
+     * y ven el nuevo valor. Si viene minStock se actualiza en la fila.
+     *
+     * @return cantidad anterior y vista tras el cambio, o vacío si el producto no tiene inventario
+     */
+    public Optional<Change> setQuantity(Long productId, int quantity, Integer minStock,
+                                        InventoryMovement.Reason reason) {
+        return inventoryRepository.findByProductIdForUpdate(productId).map(row -> {
+            int previousQuantity = row.getQuantity() + Math.toIntExact(movementRepository.sumPending(productId));
+            if (minStock != null) {
+                row.setMinStock(minStock);
+            }
+            if (quantity != previousQuantity) {
+                append(productId, quantity - previousQuantity, reason);
+            }
+            return new Change(previousQuantity, row.withQuantity(quantity));
+        });
+    }
+
+    /**
+     * Antes de una escritura directa sobre la fila: suma al snapshot los movimientos pendientes
+     * del producto, con la fila bloqueada hasta el final de la transacción del llamador.
+     * Sin modo LEDGER no hace nada.
+     */
+    public void foldBeforeRowWrite(Long productId) {
+        if (isEnabled()) {
+            fold(productId);
+        }
+    }
+
+    // ==================== LECTURAS ====================
+
+    /**
+     * Vista del inventario con la cantidad vigente (snapshot + movimientos sin plegar).
+     */
+    public Optional<Inventory> current(Long productId) {
+        return inventoryRepository.findBalanceByProductId(productId)
+                .map(balance -> balance.inventory().withQuantity(balance.quantity()));
+    }
+
+    /**
+     * Movimientos de un producto, del más reciente al más antiguo.
+     */
+    public List<InventoryMovement> history(Long productId, int limit) {
+        return movementRepository.findByProductIdOrderByIdDesc(productId, PageRequest.of(0, limit));
+    }
+
+    // ==================== COMPACTACIÓN ====================
+
+    /**
+     * Pliega los movimientos pendientes al snapshot, un producto por transacción.
+     *
+     * @return cantidad de productos compactados
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.compact-interval-ms:1000}")
+    public int compact() {
+        List<Long> productIds = movementRepository.findProductIdsWithPending(PageRequest.of(0, maxProductsPerRun));
+        for (Long productId : productIds) {
+            try {
+                requiresNew.executeWithoutResult(status -> fold(productId));
+            } catch (RuntimeException e) {
+                log.error("No se pudo compactar el ledger del producto {}: {}", productId, e.getMessage());
+            }
+        }
+        if (!productIds.isEmpty()) {
+            log.debug("Ledger compactado: {} productos", productIds.size());
+        }
+        return productIds.size();
+    }
+
+    /**
+     * Bloquea la fila, marca como plegados los movimientos confirmados que ve y suma su total al
+     * snapshot. Los que se confirmen después quedan para la siguiente pasada. Si la fila ya no
+     * existe (inventario eliminado), los movimientos se marcan sin sumarse.
+     */
+    private void fold(Long productId) {
+        boolean exists = inventoryRepository.lockByProductId(productId).isPresent();
+        long total = 0;
+        List<InventoryMovement> pending;
+        do {
+            pending = movementRepository.findByProductIdAndFoldedFalseOrderById(
+                    productId, PageRequest.of(0, foldBatchSize));
+            if (pending.isEmpty()) {
+                break;
+            }
+            movementRepository.markFolded(pending.stream().map(InventoryMovement::getId).toList());
+            total += pending.stream().mapToLong(InventoryMovement::getDelta).sum();
+            foldedCounter.increment(pending.size());
+        } while (pending.size() == foldBatchSize);
+
+        if (exists && total != 0) {
+            inventoryRepository.foldIntoSnapshot(productId, Math.toIntExact(total));
+        }
+    }
+
+    private InventoryMovement append(Long productId, int delta, InventoryMovement.Reason reason) {
+        appendedCounter.increment();
+        return movementRepository.save(InventoryMovement.builder()
+                .productId(productId)
+                .delta(delta)
+                .reason(reason)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Resultado de {@link #setQuantity}: cantidad vigente antes del cambio y vista posterior.
+     */
+    public record Change(int previousQuantity, Inventory after) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.techtest.inventory.service.location;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.entity.InventoryLocation;
+import com.techtest.inventory.exception.InventoryLocationNotFoundException;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock por ubicación: un producto puede repartir su stock en varias filas (productId, locationId)
+ * además de su fila principal de Inventory.
+ *
+ * Funcionamiento:
+ * - La cantidad del producto es la suma de la fila principal y de sus ubicaciones
+ * - Una compra toma de una sola ubicación con stock suficiente, salteando las bloqueadas por
+ *   otras compras; con N ubicaciones, hasta N compras del mismo producto avanzan en paralelo
+ * - Si ninguna ubicación alcanza, la compra sigue por la fila principal (modo de compra configurado)
+ * - Reservas, órdenes de compra y modo hot trabajan solo sobre la fila principal
+ *
+ * Los productos con ubicaciones se llevan en memoria: la compra de un producto sin ubicaciones no
+ * consulta la tabla ni abre una transacción extra, y sigue por la sentencia única (o el lote) de
+ * su modo de compra. El conjunto se recarga periódicamente para ver las ubicaciones creadas por
+ * otras instancias; un producto solo sale de él al eliminar su inventario.
+ */
+@Component
+@Slf4j
+public class LocationStockManager {
+
+    private final InventoryLocationRepository locationRepository;
+    private final Set<Long> locatedProducts = ConcurrentHashMap.newKeySet();
+    private final Counter purchasesCounter;
+    private final Counter waitedCounter;
+
+    public LocationStockManager(InventoryLocationRepository locationRepository, MeterRegistry meterRegistry) {
+        this.locationRepository = locationRepository;
+        this.purchasesCounter = Counter.builder("inventory.location.purchases")
+                .description("Compras descontadas de una ubicación")
+                .register(meterRegistry);
+        this.waitedCounter = Counter.builder("inventory.location.waited")
+                .description("Compras que esperaron una ubicación porque todas las que alcanzaban estaban bloqueadas")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void initialize() {
+        refreshLocatedProducts();
+    }
+
+    /**
+     * Agrega los productos con ubicaciones según la BD (las creadas por otras instancias).
+     */
+    @Scheduled(initialDelayString = "${inventory.location.refresh-interval-ms:30000}",
+            fixedDelayString = "${inventory.location.refresh-interval-ms:30000}")
+    public void refreshLocatedProducts() {
+        locatedProducts.addAll(locationRepository.findLocatedProductIds());
+    }
+
+    /**
+     * true si el producto puede tener stock en ubicaciones (responde sin acceder a la BD).
+     */
+    public boolean hasLocations(Long productId) {
+        return locatedProducts.contains(productId);
+    }
+
+    // ==================== OPERACIONES (dentro de la transacción del llamador) ====================
+
+    /**
+     * Descuenta la cantidad de una ubicación con stock suficiente.
+     *
+     * @return true si se descontó; false si ninguna ubicación alcanza (el llamador usa la fila principal)
+     */
+    public boolean purchase(Long productId, int quantity) {
+        if (!hasLocations(productId)) {
+            return false;
+        }
+        Optional<Long> locked = locationRepository.lockUnlockedWithStock(productId, quantity);
+        if (locked.isEmpty()) {
+            // Ninguna alcanza: sin esperar bloqueos. Si alguna alcanza, estaban todas bloqueadas:
+            // se espera a la de más stock
+            if (!locationRepository.existsByProductIdAndQuantityGreaterThanEqual(productId, quantity)) {
+                return false;
+            }
+            locked = locationRepository.lockWithStock(productId, quantity);
+            if (locked.isEmpty()) {
+                return false;
+            }
+            waitedCounter.increment();
+        }
+        if (locationRepository.decrement(locked.get(), quantity) == 0) {
+            return false;
+        }
+        purchasesCounter.increment();
+        return true;
+    }
+
+    /**
+     * Fija el stock de una ubicación (la crea si no existe).
+     *
+     * @return la ubicación y su cantidad anterior (0 si es nueva)
+     */
+    public Change set(Long productId, String locationId, int quantity) {
+        InventoryLocation location = locationRepository.findByProductIdAndLocationId(productId, locationId)
+                .orElseGet(() -> InventoryLocation.builder()
+                        .productId(productId)
+                        .locationId(locationId)
+                        .build());
+        int previousQuantity = location.getQuantity();
+        location.setQuantity(quantity);
+        // Antes del commit: una compra concurrente a lo sumo consulta de más
+        locatedProducts.add(productId);
+        InventoryLocation saved = locationRepository.save(location);
+        log.info("Stock de producto {} en ubicación {}: {} -> {}", productId, locationId, previousQuantity, quantity);
+        return new Change(saved, previousQuantity);
+    }
+
+    /**
+     * Elimina una ubicación del producto junto con su stock.
+     *
+     * @return cantidad que tenía la ubicación
+     * @throws InventoryLocationNotFoundException si el producto no tiene esa ubicación
+     */
+    public int remove(Long productId, String locationId) {
+        InventoryLocation location = locationRepository.findByProductIdAndLocationId(productId, locationId)
+                .orElseThrow(() -> new InventoryLocationNotFoundException(productId, locationId));
+        locationRepository.delete(location);
+        return location.getQuantity();
+    }
+
+    /**
+     * Elimina todas las ubicaciones de un producto (al eliminar su inventario).
+     */
+    public void removeAll(Long productId) {
+        locationRepository.deleteByProductId(productId);
+        afterCommit(() -> locatedProducts.remove(productId));
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public List<InventoryLocation> list(Long productId) {
+        return locationRepository.findByProductIdOrderByLocationId(productId);
+    }
+
+    /**
+     * Unidades del producto repartidas en ubicaciones.
+     */
+    public long locatedQuantity(Long productId) {
+        return locationRepository.sumQuantity(productId);
+    }
+
+    /**
+     * Unidades en ubicaciones de varios productos en una sola consulta (los que no tienen no vienen en el mapa).
+     */
+    public Map<Long, Long> locatedQuantities(Collection<Long> productIds) {
+        Map<Long, Long> located = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            locationRepository.sumQuantityByProductIn(productIds)
+                    .forEach(sum -> located.put(sum.getProductId(), sum.getQuantity()));
+        }
+        return located;
+    }
+
+    /**
+     * Vista de la fila principal con la cantidad total del producto (fila principal + ubicaciones).
+     */
+    public Inventory withLocations(Inventory row) {
+        long located = locatedQuantity(row.getProductId());
+        return located == 0 ? row : row.withQuantity(row.getQuantity() + Math.toIntExact(located));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Resultado de {@link #set}: ubicación guardada y su cantidad anterior.
+     */
+    public record Change(InventoryLocation location, int previousQuantity) {
+    }
+}
@@ -0,0 +1,297 @@
+package com.techtest.inventory.service.lowstock;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Índice en memoria de los productos con stock bajo (cantidad total, fila principal más
+ * ubicaciones, en o por debajo del mínimo), ordenado por faltante (minStock - cantidad) de mayor a menor.
+ *
+ * Funcionamiento:
+ * - Se construye al arrancar desde la BD y se reconstruye periódicamente (cambios hechos fuera de
+ *   esta instancia); las escrituras que llegan durante la reconstrucción se vuelven a aplicar encima
+ * - Cada escritura de cantidad o mínimo lo actualiza tras su commit (un rollback no lo toca)
+ * - Un cambio confirmado con una versión de fila menor que la registrada llegó tarde y se ignora;
+ *   para los productos que salieron del índice se recuerda la versión con la que salieron
+ * - Una página se recorre desde un cursor (faltante, productId): el costo depende de los productos
+ *   con stock bajo, no del tamaño del catálogo
+ */
+@Component
+@Slf4j
+public class LowStockIndex {
+
+    private static final Comparator<Entry> BY_SEVERITY = Comparator.comparingInt(Entry::shortfall).reversed()
+            .thenComparing(Entry::productId);
+
+    /**
+     * Versiones de salida recordadas (las más recientes) para descartar escrituras que llegan tarde
+     */
+    private static final int REMOVED_VERSIONS = 65_536;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryLocationRepository locationRepository;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> bySeverity = new TreeSet<>(BY_SEVERITY);
+    private final Map<Long, Long> located = new HashMap<>();
+    private final Map<Long, Long> removedVersions = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > REMOVED_VERSIONS;
+        }
+    };
+
+    // Cambios aplicados mientras se lee la BD para reconstruir (null si no hay reconstrucción en curso)
+    private List<Runnable> replay;
+
+    public LowStockIndex(InventoryRepository inventoryRepository,
+                         InventoryLocationRepository locationRepository,
+                         MeterRegistry meterRegistry) {
+        this.inventoryRepository = inventoryRepository;
+        this.locationRepository = locationRepository;
+        Gauge.builder("inventory.low-stock.size", this, LowStockIndex::size)
+                .description("Productos con stock bajo en el índice")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Producto con stock bajo: fila principal y total con ubicaciones.
+     */
+    public record Entry(Long productId, int rowQuantity, int quantity, int minStock, Long version) {
+
+        public int shortfall() {
+            return minStock - quantity;
+        }
+
+        public Cursor cursor() {
+            return new Cursor(shortfall(), productId);
+        }
+    }
+
+    /**
+     * Posición en el orden por severidad; se serializa como "faltante:productId".
+     */
+    public record Cursor(int shortfall, long productId) {
+
+        public static Cursor parse(String value) {
+            String[] parts = value.split(":");
+            try {
+                if (parts.length == 2) {
+                    return new Cursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+                }
+            } catch (NumberFormatException e) {
+                // Formato inválido: se informa abajo
+            }
+            throw new IllegalArgumentException("Cursor inválido: " + value);
+        }
+
+        @Override
+        public String toString() {
+            return shortfall + ":" + productId;
+        }
+    }
+
+    // ==================== CONSTRUCCIÓN ====================
+
+    @PostConstruct
+    void initialize() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el índice desde la BD (una consulta sobre toda la tabla, fuera de las peticiones).
+     */
+    @Scheduled(initialDelayString = "${inventory.low-stock.rebuild-interval-ms:300000}",
+            fixedDelayString = "${inventory.low-stock.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        List<Inventory> lowStock;
+        Map<Long, Long> locatedByProduct = new HashMap<>();
+        try {
+            locationRepository.sumQuantityByProduct()
+                    .forEach(sum -> locatedByProduct.put(sum.getProductId(), sum.getQuantity()));
+            lowStock = inventoryRepository.findLowStockItems();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                replay = null;
+            }
+            log.error("No se pudo reconstruir el índice de stock bajo: {}", e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            entries.clear();
+            bySeverity.clear();
+            located.clear();
+            located.putAll(locatedByProduct);
+            for (Inventory row : lowStock) {
+                Entry entry = entry(row);
+                if (entry.quantity() <= entry.minStock()) {  // Las ubicaciones pueden cubrir el mínimo
+                    put(entry);
+                }
+            }
+            List<Runnable> pending = replay;
+            replay = null;
+            pending.forEach(Runnable::run);
+            log.info("Índice de stock bajo reconstruido: {} productos bajo el mínimo", entries.size());
+        }
+    }
+
+    // ==================== ESCRITURA (tras el commit de la transacción actual) ====================
+
+    /**
+     * Fila del producto tras un cambio de cantidad o mínimo (las ubicaciones no cambiaron).
+     */
+    public void rowWritten(Inventory row) {
+        afterCommit(() -> {
+            Inventory copy = copyOf(row);
+            apply(() -> evaluate(copy));
+        });
+    }
+
+    /**
+     * Fila del producto y suma de sus ubicaciones tras un cambio de stock en una ubicación.
+     */
+    public void locationsWritten(Inventory row, long locatedQuantity) {
+        afterCommit(() -> {
+            Inventory copy = copyOf(row);
+            apply(() -> {
+                if (locatedQuantity == 0) {
+                    located.remove(copy.getProductId());
+                } else {
+                    located.put(copy.getProductId(), locatedQuantity);
+                }
+                evaluate(copy);
+            });
+        });
+    }
+
+    /**
+     * Producto eliminado.
+     */
+    public void removed(Long productId) {
+        afterCommit(() -> apply(() -> {
+            located.remove(productId);
+            remove(productId, null);
+        }));
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Productos siguientes al cursor (desde el más grave si es null), como mucho limit.
+     */
+    public synchronized List<Entry> page(Cursor after, int limit) {
+        Iterable<Entry> tail = after == null
+                ? bySeverity
+                : bySeverity.tailSet(new Entry(after.productId(), 0, 0, after.shortfall(), null), false);
+        List<Entry> page = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Entry entry : tail) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+
+    /**
+     * Unidades del producto en ubicaciones según el índice.
+     */
+    public synchronized long located(Long productId) {
+        return located.getOrDefault(productId, 0L);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ==================== MÉTODOS PRIVADOS ====================
+
+    private synchronized void apply(Runnable change) {
+        change.run();
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    private void evaluate(Inventory row) {
+        Long productId = row.getProductId();
+        Entry current = entries.get(productId);
+        Long known = current != null ? current.version() : removedVersions.get(productId);
+        if (row.getVersion() != null && known != null && row.getVersion() < known) {
+            return;  // Llegó tarde: ya se aplicó un cambio posterior
+        }
+        Entry entry = entry(row);
+        if (entry.quantity() <= entry.minStock()) {
+            put(entry);
+        } else {
+            remove(productId, row.getVersion());
+        }
+    }
+
+    private Entry entry(Inventory row) {
+        long total = row.getQuantity() + located.getOrDefault(row.getProductId(), 0L);
+        return new Entry(row.getProductId(), row.getQuantity(), Math.toIntExact(total), row.getMinStock(), row.getVersion());
+    }
+
+    private void put(Entry entry) {
+        Entry previous = entries.put(entry.productId(), entry);
+        if (previous != null) {
+            bySeverity.remove(previous);
+        }
+        bySeverity.add(entry);
+        removedVersions.remove(entry.productId());
+    }
+
+    private void remove(Long productId, Long version) {
+        Entry previous = entries.remove(productId);
+        if (previous != null) {
+            bySeverity.remove(previous);
+        }
+        if (version != null) {
+            removedVersions.put(productId, version);
+        } else {
+            removedVersions.remove(productId);  // Eliminado: una fila nueva empieza de cero
+        }
+    }
+
+    /**
+     * Copia tomada tras el commit: una entidad gestionada ya tiene su versión incrementada.
+     */
+    private static Inventory copyOf(Inventory row) {
+        return row.withQuantity(row.getQuantity());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
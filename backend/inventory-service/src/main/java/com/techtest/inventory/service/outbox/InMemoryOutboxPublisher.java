@@ -0,0 +1,31 @@
+package com.techtest.inventory.service.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publicador en memoria (inventory.outbox.publisher=memory): guarda los eventos recibidos.
+ * Pensado para pruebas y entornos sin broker.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.outbox.publisher", havingValue = "memory")
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final List<OutboxMessage> published = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> messages) {
+        published.addAll(messages);
+    }
+
+    public synchronized List<OutboxMessage> published() {
+        return List.copyOf(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package com.techtest.inventory.service.outbox;
+
+import com.techtest.inventory.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento del outbox tal como lo recibe un {@link OutboxPublisher}. El id es único y creciente
+ * por instancia: los consumidores pueden usarlo para descartar duplicados.
+ */
+public record OutboxMessage(Long id,
+                            Long aggregateId,
+                            String eventType,
+                            String payload,
+                            LocalDateTime createdAt) {
+
+    static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateId(), event.getEventType(),
+                event.getPayload(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,17 @@
+package com.techtest.inventory.service.outbox;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos del outbox (broker, archivo, memoria...).
+ *
+ * La entrega es al menos una vez: si publish lanza una excepción el lote completo se reintenta,
+ * y un lote publicado puede repetirse si la instancia cae antes de marcarlo.
+ */
+public interface OutboxPublisher {
+
+    /**
+     * Publica un lote en orden de id. Debe retornar solo cuando el lote quedó entregado.
+     */
+    void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,169 @@
+package com.techtest.inventory.service.outbox;
+
+import com.techtest.inventory.entity.OutboxEvent;
+import com.techtest.inventory.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relay del outbox: entrega los eventos confirmados al {@link OutboxPublisher} por lotes.
+ *
+ * Cada lote pasa por tres pasos cortos, sin retener una conexión mientras se publica:
+ * - Reclamar: SELECT ... FOR UPDATE SKIP LOCKED de las filas pendientes en orden de id y
+ *   claimedUntil = ahora + lease (otras instancias saltan estas filas)
+ * - Publicar el lote fuera de transacción
+ * - Marcar publishedAt (o liberar el reclamo si la publicación falló)
+ *
+ * Si la instancia cae entre publicar y marcar, el lease vence y el lote se vuelve a publicar:
+ * la entrega es al menos una vez. El orden es por id dentro de cada lote; con varias instancias
+ * los lotes se entregan en paralelo.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository repository;
+    private final OutboxPublisher publisher;
+    private final TransactionTemplate requiresNew;
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong position = new AtomicLong();
+
+    @Value("${inventory.outbox.relay-enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${inventory.outbox.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${inventory.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+
+    @Value("${inventory.outbox.lease-seconds:30}")
+    private long leaseSeconds = 30;
+
+    @Value("${inventory.outbox.retention-hours:24}")
+    private long retentionHours = 24;
+
+    @Value("${inventory.outbox.purge-batch-size:500}")
+    private int purgeBatchSize = 500;
+
+    public OutboxRelay(OutboxEventRepository repository,
+                       OutboxPublisher publisher,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.relayedCounter = Counter.builder("inventory.outbox.relayed")
+                .description("Eventos del outbox publicados")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("inventory.outbox.failed")
+                .description("Eventos del outbox cuya publicación falló (se reintentan)")
+                .register(meterRegistry);
+        Gauge.builder("inventory.outbox.position", position, AtomicLong::get)
+                .description("Id del último evento del outbox publicado por esta instancia")
+                .register(meterRegistry);
+    }
+
+    // ==================== RELAY ====================
+
+    /**
+     * Drena el outbox mientras haya lotes completos (hasta max-batches-per-run por ciclo).
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (relayBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reclama, publica y marca un lote.
+     *
+     * @return eventos publicados (0 si no había pendientes o la publicación falló)
+     */
+    public int relayBatch() {
+        List<OutboxMessage> batch = requiresNew.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxMessage::id).toList();
+
+        try {
+            publisher.publish(batch);
+        } catch (RuntimeException ex) {
+            failedCounter.increment(batch.size());
+            log.error("Error publicando {} eventos del outbox (ids {}..{}), se reintentará: {}",
+                    batch.size(), ids.get(0), ids.get(ids.size() - 1), ex.getMessage());
+            requiresNew.executeWithoutResult(status -> repository.releaseClaim(ids));
+            return 0;
+        }
+
+        requiresNew.executeWithoutResult(status -> repository.markPublished(ids, LocalDateTime.now()));
+        relayedCounter.increment(batch.size());
+        position.accumulateAndGet(ids.get(ids.size() - 1), Math::max);
+        return batch.size();
+    }
+
+    /**
+     * Id del último evento publicado por esta instancia.
+     */
+    public long position() {
+        return position.get();
+    }
+
+    private List<OutboxMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> claimable = repository.findClaimable(now, PageRequest.of(0, batchSize));
+        if (claimable.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = claimable.stream().map(OutboxEvent::getId).toList();
+        repository.claim(ids, now.plusSeconds(leaseSeconds));
+        return claimable.stream().map(OutboxMessage::of).toList();
+    }
+
+    // ==================== PURGA ====================
+
+    /**
+     * Borra los eventos ya publicados más antiguos que la retención, una transacción corta por lote.
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.purge-interval-ms:60000}")
+    public void purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        int purged = 0;
+        while (true) {
+            List<Long> ids = repository.findPublishedBefore(before, PageRequest.of(0, purgeBatchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            requiresNew.executeWithoutResult(status -> repository.deleteByIdIn(ids));
+            purged += ids.size();
+            if (ids.size() < purgeBatchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            log.info("{} eventos publicados eliminados del outbox", purged);
+        }
+    }
+}
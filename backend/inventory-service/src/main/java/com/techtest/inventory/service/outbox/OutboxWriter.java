@@ -0,0 +1,48 @@
+package com.techtest.inventory.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techtest.inventory.entity.OutboxEvent;
+import com.techtest.inventory.repository.OutboxEventRepository;
+import com.techtest.inventory.service.events.InventoryEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Escribe eventos en la tabla inventory_outbox dentro de la transacción del cambio.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Inserta el evento en la transacción actual: se confirma o se descarta junto con el cambio.
+     *
+     * @throws IllegalStateException si no hay una transacción activa
+     */
+    public void append(InventoryEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("El outbox debe escribirse dentro de la transacción del cambio");
+        }
+        repository.save(OutboxEvent.builder()
+                .aggregateId(event.productId())
+                .eventType(event.type())
+                .payload(toJson(event))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private String toJson(InventoryEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + event.type(), e);
+        }
+    }
+}
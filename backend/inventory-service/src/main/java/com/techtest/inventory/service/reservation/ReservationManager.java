@@ -0,0 +1,286 @@
+package com.techtest.inventory.service.reservation;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.entity.Reservation;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.exception.ReservationNotFoundException;
+import com.techtest.inventory.exception.ReservationStateException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.repository.ReservationRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.hotstock.HotStockManager;
+import com.techtest.inventory.service.ledger.InventoryLedger;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reservas de stock sobre Inventory.reservedQuantity.
+ *
+ * Funcionamiento:
+ * - Reservar: UPDATE condicional que suma a reservedQuantity si hay disponible suficiente
+ * - Confirmar: descuenta quantity y reservedQuantity a la vez (el disponible no cambia)
+ * - Liberar / expirar: resta de reservedQuantity y las unidades vuelven al disponible
+ *
+ * El cambio de estado de la reserva es también un UPDATE condicional sobre su estado, así que
+ * confirmar, liberar y expirar compiten de forma segura: solo una de ellas aplica.
+ *
+ * Los vencimientos se llevan en una {@link TimingWheel} en memoria: cada tick solo procesa las
+ * reservas que vencen en él, sin recorrer la tabla. Al arrancar se reprograman las pendientes.
+ *
+ * El ID de una reserva empieza con su productId (16 dígitos hex): en modo cluster confirmar o
+ * liberar se enruta al nodo dueño del producto sin consultar la BD.
+ */
+@Component
+@Slf4j
+public class ReservationManager {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("^([0-9a-f]{16})-[0-9a-f]{19}$");
+
+    private final InventoryRepository inventoryRepository;
+    private final ReservationRepository reservationRepository;
+    private final HotStockManager hotStockManager;
+    private final InventoryLedger ledger;
+    private final InventoryCache inventoryCache;
+    private final TransactionTemplate requiresNew;
+
+    private TimingWheel<String> expiryWheel;
+
+    @Value("${inventory.reservation.ttl-seconds:900}")
+    private long defaultTtlSeconds = 900;
+
+    @Value("${inventory.reservation.max-ttl-seconds:3600}")
+    private long maxTtlSeconds = 3600;
+
+    @Value("${inventory.reservation.tick-ms:1000}")
+    private long tickMillis = 1000;
+
+    @Value("${inventory.reservation.wheel-size:512}")
+    private int wheelSize = 512;
+
+    public ReservationManager(InventoryRepository inventoryRepository,
+                              ReservationRepository reservationRepository,
+                              HotStockManager hotStockManager,
+                              InventoryLedger ledger,
+                              InventoryCache inventoryCache,
+                              PlatformTransactionManager transactionManager) {
+        this.inventoryRepository = inventoryRepository;
+        this.reservationRepository = reservationRepository;
+        this.hotStockManager = hotStockManager;
+        this.ledger = ledger;
+        this.inventoryCache = inventoryCache;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void initWheel() {
+        expiryWheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    // ==================== OPERACIONES (dentro de la transacción del llamador) ====================
+
+    /**
+     * Aparta unidades para un producto.
+     *
+     * @throws InventoryNotFoundException si el producto no tiene inventario
+     * @throws InsufficientStockException si no hay disponible suficiente
+     */
+    public Reservation reserve(Long productId, int quantity, Integer ttlSeconds) {
+        // Producto hot: el contador en memoria debe volver a sembrarse con el nuevo reservado
+        hotStockManager.suspendUntilTransactionEnds(productId);
+        // Modo LEDGER: la condición del UPDATE debe ver la cantidad vigente
+        ledger.foldBeforeRowWrite(productId);
+
+        if (inventoryRepository.reserveQuantity(productId, quantity) == 0) {
+            Inventory inventory = inventoryRepository.findByProductId(productId)
+                    .orElseThrow(() -> new InventoryNotFoundException(productId));
+            throw new InsufficientStockException(productId, quantity, inventory.getAvailableQuantity());
+        }
+
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .id(newId(productId))
+                .productId(productId)
+                .quantity(quantity)
+                .expiresAt(LocalDateTime.now().plusSeconds(resolveTtl(ttlSeconds)))
+                .build());
+
+        inventoryCache.evict(productId);
+        afterCommit(() -> expiryWheel.schedule(reservation.getId(), toEpochMillis(reservation.getExpiresAt())));
+        log.info("Reserva {} creada: producto {}, cantidad {}, vence {}",
+                reservation.getId(), productId, quantity, reservation.getExpiresAt());
+        return reservation;
+    }
+
+    /**
+     * Convierte una reserva pendiente en venta.
+     *
+     * @throws ReservationNotFoundException si no existe
+     * @throws ReservationStateException si ya no está pendiente o su TTL ya pasó
+     */
+    public Reservation confirm(String reservationId) {
+        int updated = reservationRepository.transitionIfActive(
+                reservationId, Reservation.Status.PENDING, Reservation.Status.CONFIRMED, LocalDateTime.now());
+        Reservation reservation = findReservation(reservationId);
+        if (updated == 0) {
+            throw rejected(reservation);
+        }
+
+        if (inventoryRepository.confirmReservedQuantity(reservation.getProductId(), reservation.getQuantity()) == 0) {
+            throw new IllegalStateException("reservedQuantity inconsistente para el producto " + reservation.getProductId());
+        }
+
+        inventoryCache.evict(reservation.getProductId());
+        afterCommit(() -> expiryWheel.cancel(reservationId));
+        log.info("Reserva {} confirmada: producto {}, cantidad {}",
+                reservationId, reservation.getProductId(), reservation.getQuantity());
+        return reservation;
+    }
+
+    /**
+     * Devuelve al disponible las unidades de una reserva pendiente.
+     *
+     * @throws ReservationNotFoundException si no existe
+     * @throws ReservationStateException si ya no está pendiente
+     */
+    public Reservation release(String reservationId) {
+        int updated = reservationRepository.transition(
+                reservationId, Reservation.Status.PENDING, Reservation.Status.RELEASED);
+        Reservation reservation = findReservation(reservationId);
+        if (updated == 0) {
+            throw rejected(reservation);
+        }
+
+        returnReservedUnits(reservation);
+        afterCommit(() -> expiryWheel.cancel(reservationId));
+        log.info("Reserva {} liberada: producto {}, cantidad {}",
+                reservationId, reservation.getProductId(), reservation.getQuantity());
+        return reservation;
+    }
+
+    // ==================== EXPIRACIÓN ====================
+
+    /**
+     * Avanza la rueda y expira las reservas vencidas, cada una en su propia transacción.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.tick-ms:1000}")
+    public void expireDue() {
+        List<String> due = expiryWheel.advance(System.currentTimeMillis());
+        int expired = 0;
+        for (String reservationId : due) {
+            try {
+                if (Boolean.TRUE.equals(requiresNew.execute(status -> expire(reservationId)))) {
+                    expired++;
+                }
+            } catch (RuntimeException ex) {
+                log.error("Error expirando la reserva {}: {}", reservationId, ex.getMessage());
+            }
+        }
+        if (expired > 0) {
+            log.info("{} reservas expiradas", expired);
+        }
+    }
+
+    /**
+     * Reprograma las reservas pendientes (las ya vencidas expiran en el siguiente tick).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePending() {
+        List<Reservation> pending = reservationRepository.findByStatus(Reservation.Status.PENDING);
+        pending.forEach(r -> expiryWheel.schedule(r.getId(), toEpochMillis(r.getExpiresAt())));
+        if (!pending.isEmpty()) {
+            log.info("{} reservas pendientes reprogramadas para expirar", pending.size());
+        }
+    }
+
+    /**
+     * Reservas pendientes con vencimiento programado en esta instancia.
+     */
+    public int scheduledCount() {
+        return expiryWheel.size();
+    }
+
+    private boolean expire(String reservationId) {
+        if (reservationRepository.transition(
+                reservationId, Reservation.Status.PENDING, Reservation.Status.EXPIRED) == 0) {
+            return false;  // Ya confirmada o liberada
+        }
+        returnReservedUnits(findReservation(reservationId));
+        return true;
+    }
+
+    // ==================== HELPERS ====================
+
+    private void returnReservedUnits(Reservation reservation) {
+        hotStockManager.suspendUntilTransactionEnds(reservation.getProductId());
+        if (inventoryRepository.releaseReservedQuantity(reservation.getProductId(), reservation.getQuantity()) == 0) {
+            throw new IllegalStateException("reservedQuantity inconsistente para el producto " + reservation.getProductId());
+        }
+        inventoryCache.evict(reservation.getProductId());
+    }
+
+    /**
+     * Producto de una reserva según su ID, o null si el ID no tiene ese formato (reservas
+     * creadas antes de incluirlo).
+     */
+    public static Long productIdOf(String reservationId) {
+        Matcher matcher = ID_PATTERN.matcher(reservationId);
+        return matcher.matches() ? Long.parseUnsignedLong(matcher.group(1), 16) : null;
+    }
+
+    private static String newId(Long productId) {
+        // 16 hex del producto + '-' + 19 hex aleatorios: cabe en la columna de 36 de un UUID
+        String random = UUID.randomUUID().toString().replace("-", "");
+        return String.format("%016x-%s", productId, random.substring(random.length() - 19));
+    }
+
+    private Reservation findReservation(String reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+    }
+
+    private ReservationStateException rejected(Reservation reservation) {
+        String state = reservation.getStatus() == Reservation.Status.PENDING
+                ? "VENCIDA"  // Pendiente pero con TTL pasado: la rueda la expirará
+                : reservation.getStatus().name();
+        return new ReservationStateException(reservation.getId(), state);
+    }
+
+    private long resolveTtl(Integer ttlSeconds) {
+        return ttlSeconds == null ? defaultTtlSeconds : Math.min(ttlSeconds, maxTtlSeconds);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.techtest.inventory.service.reservation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rueda de temporización (hashed timing wheel) para vencimientos.
+ *
+ * Cada slot cubre un tick; un vencimiento se guarda en el slot de su tick (módulo el tamaño de la
+ * rueda), así que los que están a más de una vuelta comparten slot con los cercanos y se saltan
+ * hasta que llega su tick. Avanzar la rueda solo recorre los slots de los ticks transcurridos:
+ * el costo depende de lo que vence, no del total de vencimientos pendientes.
+ *
+ * Los tiempos se reciben en milisegundos de época para no depender del reloj del sistema.
+ */
+final class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Timeout<K>>> slots;
+    private final Map<K, Timeout<K>> timeouts = new HashMap<>();
+
+    private long currentTick;
+
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis y wheelSize deben ser positivos");
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Programa (o reprograma) el vencimiento de una clave. Un vencimiento ya pasado se entrega
+     * en el siguiente avance.
+     */
+    synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Timeout<K> timeout = new Timeout<>(key, deadlineTick);
+        slots.get((int) (deadlineTick & mask)).add(timeout);
+        timeouts.put(key, timeout);
+    }
+
+    /**
+     * Cancela un vencimiento. La entrada se descarta de su slot la próxima vez que se recorra.
+     *
+     * @return true si la clave estaba programada
+     */
+    synchronized boolean cancel(K key) {
+        Timeout<K> timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        timeout.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado.
+     *
+     * @return claves cuyo vencimiento es anterior o igual a nowMillis
+     */
+    synchronized List<K> advance(long nowMillis) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        if (nowTick <= currentTick) {
+            return List.of();
+        }
+
+        // Más de una vuelta completa no visita slots nuevos: basta con recorrer cada slot una vez
+        long lastTick = Math.min(nowTick, currentTick + slots.size());
+        List<K> expired = new ArrayList<>();
+        for (long tick = currentTick + 1; tick <= lastTick; tick++) {
+            slots.get((int) (tick & mask)).removeIf(timeout -> {
+                if (timeout.cancelled) {
+                    return true;
+                }
+                if (timeout.deadlineTick > nowTick) {
+                    return false;
+                }
+                timeouts.remove(timeout.key);
+                expired.add(timeout.key);
+                return true;
+            });
+        }
+        currentTick = nowTick;
+        return expired;
+    }
+
+    synchronized int size() {
+        return timeouts.size();
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Timeout(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.techtest.inventory.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Las pruebas de integración de InventoryController contra el almacenamiento embebido
+ * (perfil "embedded") en lugar de la tabla JPA.
+ */
+@ActiveProfiles("embedded")
+@DisplayName("Inventory Controller - Integration Tests (almacenamiento embebido)")
+class EmbeddedInventoryControllerIntegrationTest extends InventoryControllerIntegrationTest {
+
+    @DynamicPropertySource
+    static void configureStore(DynamicPropertyRegistry registry) {
+        try {
+            Path dir = Files.createTempDirectory("inventory-store");
+            registry.add("inventory.storage.embedded.dir", dir::toString);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
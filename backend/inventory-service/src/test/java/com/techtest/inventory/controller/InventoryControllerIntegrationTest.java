@@ -1,12 +1,19 @@
 package com.techtest.inventory.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import com.jayway.jsonpath.JsonPath;
 import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.OrderPurchaseRequest;
+import com.techtest.inventory.dto.request.PurchaseLineRequest;
 import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.ReservationRequest;
+import com.techtest.inventory.dto.request.StockAdjustmentRequest;
 import com.techtest.inventory.entity.Inventory;
 import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -17,7 +24,15 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -58,6 +73,9 @@ class InventoryControllerIntegrationTest {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
     // ==================== CONSTANTES ====================
 
     private static WireMockServer wireMockServer;
@@ -72,6 +90,8 @@ class InventoryControllerIntegrationTest {
 
     private static final String PRODUCT_EXISTS_URL_PATTERN = "/api/v1/products/\\d+/exists";
     private static final String PRODUCT_DETAILS_URL_PATTERN = "/api/v1/products/\\d+";
+    private static final String PRODUCT_BATCH_EXISTS_URL = "/api/v1/products/exists";
+    private static final String PRODUCT_BATCH_URL = "/api/v1/products/batch";
 
     private static final String MOCK_PRODUCT_RESPONSE = """
             {
@@ -88,6 +108,15 @@ class InventoryControllerIntegrationTest {
             }
             """;
 
+    private static final String MOCK_PRODUCT_BATCH_RESPONSE = """
+            {
+                "data": [
+                    { "type": "products", "id": "1", "attributes": { "name": "Test Product", "sku": "TEST-001" } },
+                    { "type": "products", "id": "2", "attributes": { "name": "Other Product", "sku": "TEST-002" } }
+                ]
+            }
+            """;
+
     // ==================== SETUP / TEARDOWN ====================
 
     @BeforeAll
@@ -190,11 +219,12 @@ class InventoryControllerIntegrationTest {
 
         @Test
         @Order(4)
-        @DisplayName("Debe obtener inventario con información del producto")
+        @DisplayName("Debe obtener inventario con información del producto cuando se pide include=product")
         void shouldReturnInventory_WithProductInfo() throws Exception {
             createTestInventory(DEFAULT_PRODUCT_ID, DEFAULT_QUANTITY, DEFAULT_MIN_STOCK);
 
             mockMvc.perform(get("/inventory/product/{id}", DEFAULT_PRODUCT_ID)
+                            .param("include", "product")
                             .header(API_KEY_HEADER, API_KEY))
                     .andDo(print())
                     .andExpect(status().isOk())
@@ -217,6 +247,46 @@ class InventoryControllerIntegrationTest {
                     .andExpect(jsonPath("$.errors[0].code").value("INVENTORY_NOT_FOUND"))
                     .andExpect(jsonPath("$.errors[0].status").value("404"));
         }
+
+        @Test
+        @Order(23)
+        @DisplayName("Sin include debe responder solo con datos locales, sin llamar al servicio de productos")
+        void shouldNotCallProductService_WithoutInclude() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, DEFAULT_QUANTITY, DEFAULT_MIN_STOCK);
+
+            mockMvc.perform(get("/inventory/product/{id}", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.attributes.quantity").value(DEFAULT_QUANTITY))
+                    .andExpect(jsonPath("$.data.attributes.product").doesNotExist());
+
+            mockMvc.perform(post("/inventory/product/{id}/purchase", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new PurchaseRequest(1))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.attributes.product").doesNotExist());
+
+            wireMockServer.verify(0, WireMock.getRequestedFor(WireMock.urlPathMatching(PRODUCT_DETAILS_URL_PATTERN)));
+        }
+
+        @Test
+        @Order(24)
+        @DisplayName("Debe retornar 400 con un include no soportado, sin aplicar la compra")
+        void shouldReturn400_WhenIncludeNotSupported() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, DEFAULT_QUANTITY, DEFAULT_MIN_STOCK);
+
+            mockMvc.perform(post("/inventory/product/{id}/purchase", DEFAULT_PRODUCT_ID)
+                            .param("include", "product,supplier")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new PurchaseRequest(1))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors[0].code").value("INVALID_ARGUMENT"));
+
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity())
+                    .isEqualTo(DEFAULT_QUANTITY);
+        }
     }
 
     // ==================== TESTS: PROCESAR COMPRA ====================
@@ -281,6 +351,292 @@ class InventoryControllerIntegrationTest {
         }
     }
 
+    // ==================== TESTS: PROCESAR ORDEN ====================
+
+    @Nested
+    @DisplayName("POST /inventory/purchases - Procesar Orden")
+    class OrderPurchaseTests {
+
+        @Test
+        @Order(16)
+        @DisplayName("Debe descontar todas las líneas de la orden")
+        void shouldDecrementAllLines_WhenOrderSuccessful() throws Exception {
+            createTestInventory(1L, 50, DEFAULT_MIN_STOCK);
+            createTestInventory(2L, 30, DEFAULT_MIN_STOCK);
+            OrderPurchaseRequest request = new OrderPurchaseRequest(List.of(
+                    new PurchaseLineRequest(2L, 5),
+                    new PurchaseLineRequest(1L, 10)));
+
+            mockMvc.perform(post("/inventory/purchases")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[0].attributes.productId").value(2))
+                    .andExpect(jsonPath("$.data[0].attributes.quantity").value(25))
+                    .andExpect(jsonPath("$.data[1].attributes.quantity").value(40));
+
+            assertThat(inventoryRepository.findByProductId(1L).orElseThrow().getQuantity()).isEqualTo(40);
+            assertThat(inventoryRepository.findByProductId(2L).orElseThrow().getQuantity()).isEqualTo(25);
+        }
+
+        @Test
+        @Order(17)
+        @DisplayName("Debe rechazar la orden completa cuando una línea falla")
+        void shouldRollbackAllLines_WhenAnyLineFails() throws Exception {
+            createTestInventory(1L, 50, DEFAULT_MIN_STOCK);
+            createTestInventory(2L, 3, DEFAULT_MIN_STOCK);
+            OrderPurchaseRequest request = new OrderPurchaseRequest(List.of(
+                    new PurchaseLineRequest(1L, 10),
+                    new PurchaseLineRequest(2L, 5),
+                    new PurchaseLineRequest(999L, 1)));
+
+            mockMvc.perform(post("/inventory/purchases")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors.length()").value(2))
+                    .andExpect(jsonPath("$.errors[0].code").value("INSUFFICIENT_STOCK"))
+                    .andExpect(jsonPath("$.errors[0].source").value("lines[1]"))
+                    .andExpect(jsonPath("$.errors[1].code").value("INVENTORY_NOT_FOUND"))
+                    .andExpect(jsonPath("$.errors[1].source").value("lines[2]"));
+
+            // Ninguna línea debe haberse aplicado
+            assertThat(inventoryRepository.findByProductId(1L).orElseThrow().getQuantity()).isEqualTo(50);
+            assertThat(inventoryRepository.findByProductId(2L).orElseThrow().getQuantity()).isEqualTo(3);
+        }
+    }
+
+    // ==================== TESTS: RESERVAS ====================
+
+    @Nested
+    @DisplayName("Reservas - Reservar / Confirmar")
+    class ReservationTests {
+
+        @Test
+        @Order(18)
+        @DisplayName("Debe reservar, confirmar y rechazar una segunda confirmación")
+        void shouldReserveAndConfirm_ThenRejectSecondConfirm() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 20, DEFAULT_MIN_STOCK);
+            ReservationRequest request = new ReservationRequest(8, null);
+
+            String body = mockMvc.perform(post("/inventory/product/{id}/reservations", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andDo(print())
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.data.type").value("reservations"))
+                    .andExpect(jsonPath("$.data.attributes.status").value("PENDING"))
+                    .andReturn().getResponse().getContentAsString();
+            String reservationId = JsonPath.read(body, "$.data.id");
+
+            mockMvc.perform(post("/inventory/reservations/{id}/confirm", reservationId)
+                            .header(API_KEY_HEADER, API_KEY))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.attributes.status").value("CONFIRMED"));
+
+            mockMvc.perform(post("/inventory/reservations/{id}/confirm", reservationId)
+                            .header(API_KEY_HEADER, API_KEY))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.errors[0].code").value("RESERVATION_NOT_PENDING"));
+
+            Inventory updated = inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow();
+            assertThat(updated.getQuantity()).isEqualTo(12);
+            assertThat(updated.getReservedQuantity()).isZero();
+        }
+    }
+
+    // ==================== TESTS: IDEMPOTENCY-KEY ====================
+
+    @Nested
+    @DisplayName("Idempotency-Key - Reintentos de operaciones")
+    class IdempotencyTests {
+
+        @Test
+        @Order(19)
+        @DisplayName("Un reintento con la misma clave no debe volver a descontar stock")
+        void shouldReplayPurchase_WhenSameKeyRetried() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+            String key = UUID.randomUUID().toString();
+            String body = objectMapper.writeValueAsString(new PurchaseRequest(10));
+
+            String first = mockMvc.perform(post("/inventory/product/{id}/purchase", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                    .andReturn().getResponse().getContentAsString();
+
+            String replayed = mockMvc.perform(post("/inventory/product/{id}/purchase", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertThat(replayed).isEqualTo(first);
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity())
+                    .isEqualTo(40);
+        }
+
+        @Test
+        @Order(20)
+        @DisplayName("Debe retornar 422 cuando la clave se reutiliza con otro cuerpo")
+        void shouldReturn422_WhenKeyReusedWithDifferentBody() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+            String key = UUID.randomUUID().toString();
+
+            mockMvc.perform(post("/inventory/product/{id}/purchase", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new PurchaseRequest(10))))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(post("/inventory/product/{id}/purchase", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new PurchaseRequest(20))))
+                    .andDo(print())
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(jsonPath("$.errors[0].code").value("IDEMPOTENCY_KEY_MISMATCH"));
+
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity())
+                    .isEqualTo(40);
+        }
+
+        @Test
+        @Order(20)
+        @DisplayName("La respuesta repetida debe conservar el ETag de la original")
+        void shouldReplayETag_WhenSameKeyRetried() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+            String key = UUID.randomUUID().toString();
+            String body = objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(5).build());
+
+            for (String replayed : new String[]{null, "true"}) {
+                mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                                .header(API_KEY_HEADER, API_KEY)
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andExpect(status().isOk())
+                        .andExpect(replayed == null
+                                ? header().doesNotExist("Idempotent-Replayed")
+                                : header().string("Idempotent-Replayed", replayed))
+                        .andExpect(header().string("ETag", "\"1\""));
+            }
+
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity())
+                    .isEqualTo(55);
+        }
+
+        @Test
+        @Order(20)
+        @DisplayName("Una carga masiva con clave debe enviarse en streaming y no guardarse para repetirla")
+        void shouldStreamBulkUpsert_WhenKeyPresent() throws Exception {
+            WireMock.stubFor(
+                    WireMock.post(WireMock.urlPathEqualTo(PRODUCT_BATCH_EXISTS_URL))
+                            .willReturn(WireMock.aResponse()
+                                    .withStatus(200)
+                                    .withHeader("Content-Type", "application/json")
+                                    .withBody("[1, 2]"))
+            );
+            String key = UUID.randomUUID().toString();
+            String body = objectMapper.writeValueAsString(List.of(
+                    buildInventoryRequest(DEFAULT_PRODUCT_ID, 30, null),
+                    buildInventoryRequest(2L, 10, null)));
+
+            for (String expectedStatus : List.of("CREATED", "UPDATED")) {
+                String lines = mockMvc.perform(post("/inventory/bulk")
+                                .header(API_KEY_HEADER, API_KEY)
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                        .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                        // Sin Content-Length: la respuesta no se juntó en memoria
+                        .andExpect(header().doesNotExist("Content-Length"))
+                        .andReturn().getResponse().getContentAsString();
+
+                assertThat(lines.lines().map(line -> JsonPath.<String>read(line, "$.status")).toList())
+                        .containsExactly(expectedStatus, expectedStatus);
+            }
+
+            assertThat(inventoryRepository.findByProductId(2L).orElseThrow().getQuantity()).isEqualTo(10);
+        }
+    }
+
+    // ==================== TESTS: ETAG / IF-MATCH ====================
+
+    @Nested
+    @DisplayName("ETag / If-Match - Actualizaciones condicionales")
+    class ConditionalUpdateTests {
+
+        @Test
+        @Order(21)
+        @DisplayName("Debe aplicar el cambio con la versión actual y rechazar la versión vieja con 412")
+        void shouldApplyCurrentVersion_AndRejectStaleVersion() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+
+            String etag = mockMvc.perform(get("/inventory/product/{id}", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"0\""))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(patch("/inventory/product/{id}/quantity", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .header("If-Match", etag)
+                            .param("quantity", "30"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"1\""))
+                    .andExpect(jsonPath("$.data.attributes.version").value(1));
+
+            // La versión leída antes del cambio ya no es válida
+            mockMvc.perform(patch("/inventory/product/{id}/quantity", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .header("If-Match", etag)
+                            .param("quantity", "99"))
+                    .andDo(print())
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.errors[0].code").value("PRECONDITION_FAILED"));
+
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity())
+                    .isEqualTo(30);
+        }
+
+        @Test
+        @Order(22)
+        @DisplayName("Una compra debe cambiar la versión del inventario")
+        void shouldBumpVersion_WhenPurchased() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+
+            mockMvc.perform(post("/inventory/product/{id}/purchase", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new PurchaseRequest(5))))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(delete("/inventory/product/{id}", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .header("If-Match", "\"0\""))
+                    .andExpect(status().isPreconditionFailed());
+
+            assertThat(inventoryRepository.existsByProductId(DEFAULT_PRODUCT_ID)).isTrue();
+        }
+    }
+
     // ==================== TESTS: ACTUALIZAR CANTIDAD ====================
 
     @Nested
@@ -302,6 +658,189 @@ class InventoryControllerIntegrationTest {
         }
     }
 
+    // ==================== TESTS: AJUSTAR STOCK (DELTA) ====================
+
+    @Nested
+    @DisplayName("POST /inventory/product/{id}/adjust - Ajustar Stock")
+    class AdjustQuantityTests {
+
+        @Test
+        @Order(25)
+        @DisplayName("Debe sumar y restar el delta y retornar la cantidad nueva")
+        void shouldApplyDelta() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+
+            mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(30).build())))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andExpect(jsonPath("$.data.attributes.quantity").value(80));
+
+            mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(-75).build())))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.attributes.quantity").value(5));
+
+            WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathMatching("/api/v1/products/.*")));
+        }
+
+        @Test
+        @Order(26)
+        @DisplayName("Debe retornar 409 sin modificar el stock si el resultado queda fuera de los límites")
+        void shouldReturn409_WhenOutOfBounds() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+
+            mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(-60).build())))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.errors[0].code").value("STOCK_BOUNDS_VIOLATED"));
+
+            mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    StockAdjustmentRequest.builder().delta(20).ceiling(60).build())))
+                    .andExpect(status().isConflict());
+
+            mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    StockAdjustmentRequest.builder().delta(-45).floor(10).build())))
+                    .andExpect(status().isConflict());
+
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity())
+                    .isEqualTo(50);
+        }
+
+        @Test
+        @Order(26)
+        @DisplayName("Debe retornar 409 y no 500 si el resultado supera el máximo de la columna")
+        void shouldReturn409_WhenResultOverflowsInt() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, Integer.MAX_VALUE - 10, DEFAULT_MIN_STOCK);
+
+            mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(20).build())))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.errors[0].code").value("STOCK_BOUNDS_VIOLATED"))
+                    .andExpect(jsonPath("$.errors[0].detail").value(containsString("2147483657")));
+
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity())
+                    .isEqualTo(Integer.MAX_VALUE - 10);
+        }
+
+        @Test
+        @Order(27)
+        @DisplayName("Debe retornar 404 si no hay inventario y 400 con un delta 0")
+        void shouldRejectUnknownProductAndZeroDelta() throws Exception {
+            mockMvc.perform(post("/inventory/product/{id}/adjust", 999L)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(5).build())))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.errors[0].code").value("INVENTORY_NOT_FOUND"));
+
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+            mockMvc.perform(post("/inventory/product/{id}/adjust", DEFAULT_PRODUCT_ID)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(0).build())))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors[0].code").value("INVALID_ARGUMENT"));
+        }
+    }
+
+    // ==================== TESTS: CARGA MASIVA ====================
+
+    @Nested
+    @DisplayName("POST /inventory/bulk - Carga Masiva")
+    class BulkUpsertTests {
+
+        @Test
+        @Order(28)
+        @DisplayName("Debe crear y actualizar en lote y responder una línea por fila, rechazando solo las inválidas")
+        void shouldUpsertRowsAndStreamResults() throws Exception {
+            createTestInventory(DEFAULT_PRODUCT_ID, 50, DEFAULT_MIN_STOCK);
+            WireMock.stubFor(
+                    WireMock.post(WireMock.urlPathEqualTo(PRODUCT_BATCH_EXISTS_URL))
+                            .willReturn(WireMock.aResponse()
+                                    .withStatus(200)
+                                    .withHeader("Content-Type", "application/json")
+                                    .withBody("[1, 2]"))
+            );
+
+            List<InventoryRequest> rows = List.of(
+                    buildInventoryRequest(2L, 10, 3),
+                    buildInventoryRequest(DEFAULT_PRODUCT_ID, 80, null),
+                    buildInventoryRequest(3L, -1, null),
+                    buildInventoryRequest(999L, 5, null),
+                    buildInventoryRequest(2L, 20, null));
+
+            String body = mockMvc.perform(post("/inventory/bulk")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(rows)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            List<JsonNode> lines = body.lines().map(this::readLine).toList();
+            assertThat(lines).extracting(line -> line.path("index").asInt()).containsExactly(0, 1, 2, 3, 4);
+            assertThat(lines).extracting(line -> line.path("status").asText())
+                    .containsExactly("REJECTED", "UPDATED", "REJECTED", "REJECTED", "CREATED");
+            assertThat(lines).extracting(line -> line.path("error").path("code").asText())
+                    .containsExactly("DUPLICATE_ROW", "", "VALIDATION_ERROR", "PRODUCT_NOT_FOUND", "");
+            assertThat(lines.get(1).path("data").path("quantity").asInt()).isEqualTo(80);
+            assertThat(lines.get(1).path("data").path("minStock").asInt()).isEqualTo(DEFAULT_MIN_STOCK);
+            assertThat(lines.get(4).path("data").path("id").isNumber()).isTrue();
+
+            assertThat(inventoryRepository.findByProductId(DEFAULT_PRODUCT_ID).orElseThrow().getQuantity()).isEqualTo(80);
+            Inventory created = inventoryRepository.findByProductId(2L).orElseThrow();
+            assertThat(created.getQuantity()).isEqualTo(20);
+            assertThat(created.getMinStock()).isEqualTo(Inventory.DEFAULT_MIN_STOCK);
+            assertThat(inventoryRepository.findByProductId(999L)).isEmpty();
+
+            // Una sola verificación en lote, ninguna por producto
+            WireMock.verify(1, WireMock.postRequestedFor(WireMock.urlPathEqualTo(PRODUCT_BATCH_EXISTS_URL)));
+            WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathMatching(PRODUCT_EXISTS_URL_PATTERN)));
+        }
+
+        @Test
+        @Order(29)
+        @DisplayName("Debe retornar 503 sin escribir nada si no se puede verificar la existencia de los productos")
+        void shouldReturn503_WhenProductServiceFails() throws Exception {
+            WireMock.stubFor(
+                    WireMock.post(WireMock.urlPathEqualTo(PRODUCT_BATCH_EXISTS_URL))
+                            .willReturn(WireMock.aResponse().withStatus(400))
+            );
+
+            mockMvc.perform(post("/inventory/bulk")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(buildInventoryRequest(2L, 10, 3)))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.errors[0].code").value("PRODUCT_SERVICE_ERROR"));
+
+            assertThat(inventoryRepository.findByProductId(2L)).isEmpty();
+        }
+
+        private JsonNode readLine(String line) {
+            try {
+                return objectMapper.readTree(line);
+            } catch (Exception e) {
+                throw new AssertionError("Línea NDJSON inválida: " + line, e);
+            }
+        }
+    }
+
     // ==================== TESTS: VERIFICAR STOCK ====================
 
     @Nested
@@ -367,6 +906,231 @@ class InventoryControllerIntegrationTest {
         }
     }
 
+    // ==================== TESTS: LISTAR INVENTARIO ====================
+
+    @Nested
+    @DisplayName("GET /inventory - Listar Inventario")
+    class ListInventoryTests {
+
+        @BeforeEach
+        void setUpListing() {
+            createTestInventory(1L, 4, 5);
+            createTestInventory(2L, 0, 10);
+            createTestInventory(3L, 30, 5);
+            createTestInventory(4L, 50, 5);
+            createTestInventory(5L, 0, 5);
+        }
+
+        @Test
+        @Order(33)
+        @DisplayName("Debe recorrer el inventario por productId siguiendo links.next")
+        void shouldPageByProductId() throws Exception {
+            String body = mockMvc.perform(get("/inventory")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("limit", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[*].attributes.productId").value(contains(1, 2)))
+                    .andExpect(jsonPath("$.meta.count").value(2))
+                    .andExpect(jsonPath("$.meta.total").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+
+            List<Integer> productIds = new ArrayList<>();
+            String next = JsonPath.read(body, "$.links.next");
+            while (next != null) {
+                String page = mockMvc.perform(get(next.substring(next.indexOf("/inventory")))
+                                .header(API_KEY_HEADER, API_KEY))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+                productIds.addAll(JsonPath.read(page, "$.data[*].attributes.productId"));
+                List<String> links = JsonPath.read(page, "$..next");
+                next = links.isEmpty() ? null : links.get(0);
+            }
+
+            assertThat(productIds).containsExactly(3, 4, 5);
+        }
+
+        @Test
+        @Order(34)
+        @DisplayName("Debe filtrar por cantidad y por estado del stock")
+        void shouldFilterByQuantityAndStock() throws Exception {
+            mockMvc.perform(get("/inventory")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("minQuantity", "4")
+                            .param("maxQuantity", "40"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[*].attributes.productId").value(contains(1, 3)));
+
+            mockMvc.perform(get("/inventory")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("stock", "low"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[*].attributes.productId").value(contains(1, 2, 5)));
+
+            mockMvc.perform(get("/inventory")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("stock", "out"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[*].attributes.productId").value(contains(2, 5)))
+                    .andExpect(jsonPath("$.links").doesNotExist());
+
+            mockMvc.perform(get("/inventory")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("stock", "empty"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @Order(35)
+        @DisplayName("include=product debe consultar los productos de la página en una sola llamada")
+        void shouldIncludeProductsInOneCall() throws Exception {
+            WireMock.stubFor(
+                    WireMock.post(WireMock.urlPathEqualTo(PRODUCT_BATCH_URL))
+                            .willReturn(WireMock.aResponse()
+                                    .withStatus(200)
+                                    .withHeader("Content-Type", "application/json")
+                                    .withBody(MOCK_PRODUCT_BATCH_RESPONSE))
+            );
+
+            mockMvc.perform(get("/inventory")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("limit", "3")
+                            .param("include", "product"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[0].attributes.product.name").value("Test Product"))
+                    .andExpect(jsonPath("$.data[1].attributes.product.name").value("Other Product"))
+                    .andExpect(jsonPath("$.data[2].attributes.product.id").value(3))
+                    .andExpect(jsonPath("$.data[2].attributes.product.name").doesNotExist());
+
+            WireMock.verify(1, WireMock.postRequestedFor(WireMock.urlPathEqualTo(PRODUCT_BATCH_URL)));
+            WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathMatching(PRODUCT_DETAILS_URL_PATTERN)));
+        }
+    }
+
+    // ==================== TESTS: CONSULTA EN LOTE ====================
+
+    @Nested
+    @DisplayName("GET /inventory?productIds - Consulta en Lote")
+    class LookupTests {
+
+        @Test
+        @Order(36)
+        @DisplayName("Debe devolver el inventario pedido e informar los IDs sin inventario")
+        void shouldReturnFoundAndReportMissing() throws Exception {
+            createTestInventory(1L, 50, 5);
+            createTestInventory(2L, 3, 5);
+
+            mockMvc.perform(get("/inventory")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("productIds", "2,999,1,2"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.length()").value(2))
+                    .andExpect(jsonPath("$.data[0].attributes.productId").value(2))
+                    .andExpect(jsonPath("$.data[0].attributes.lowStock").value(true))
+                    .andExpect(jsonPath("$.data[1].attributes.productId").value(1))
+                    .andExpect(jsonPath("$.data[1].attributes.availableQuantity").value(50))
+                    .andExpect(jsonPath("$.meta.count").value(2))
+                    .andExpect(jsonPath("$.meta.missing").value(contains(999)));
+        }
+
+        @Test
+        @Order(37)
+        @DisplayName("POST /inventory/lookup debe aceptar los IDs en el cuerpo")
+        void shouldLookupWithBody() throws Exception {
+            createTestInventory(1L, 50, 5);
+
+            mockMvc.perform(post("/inventory/lookup")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(1L, 7L))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[0].attributes.quantity").value(50))
+                    .andExpect(jsonPath("$.meta.missing").value(contains(7)));
+
+            mockMvc.perform(post("/inventory/lookup")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[]"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    // ==================== TESTS: STOCK BAJO ====================
+
+    @Nested
+    @DisplayName("GET /inventory/low-stock - Productos con Stock Bajo")
+    class LowStockTests {
+
+        @BeforeEach
+        void setUpLowStock() {
+            createTestInventory(1L, 4, 5);
+            createTestInventory(2L, 0, 10);
+            createTestInventory(3L, 2, 5);
+            createTestInventory(4L, 50, 5);
+            lowStockIndex.rebuild();
+        }
+
+        @Test
+        @Order(30)
+        @DisplayName("Debe ordenar por faltante y paginar con links.next")
+        void shouldPageBySeverity() throws Exception {
+            String body = mockMvc.perform(get("/inventory/low-stock")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("limit", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.length()").value(2))
+                    .andExpect(jsonPath("$.data[0].attributes.productId").value(2))
+                    .andExpect(jsonPath("$.data[1].attributes.productId").value(3))
+                    .andExpect(jsonPath("$.meta.total").value(3))
+                    .andExpect(jsonPath("$.links.next").exists())
+                    .andReturn().getResponse().getContentAsString();
+
+            String next = JsonPath.read(body, "$.links.next");
+            String cursor = next.substring(next.indexOf("cursor=") + "cursor=".length());
+
+            mockMvc.perform(get("/inventory/low-stock")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("limit", "2")
+                            .param("cursor", URLDecoder.decode(cursor, StandardCharsets.UTF_8)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.length()").value(1))
+                    .andExpect(jsonPath("$.data[0].attributes.productId").value(1))
+                    .andExpect(jsonPath("$.links.next").doesNotExist());
+        }
+
+        @Test
+        @Order(31)
+        @DisplayName("Un producto que se repuso debe salir del listado")
+        void restockedProductShouldLeaveListing() throws Exception {
+            mockMvc.perform(post("/inventory/product/{id}/adjust", 2L)
+                            .header(API_KEY_HEADER, API_KEY)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(StockAdjustmentRequest.builder().delta(40).build())))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/inventory/low-stock")
+                            .header(API_KEY_HEADER, API_KEY))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data[*].attributes.productId").value(contains(3, 1)))
+                    .andExpect(jsonPath("$.meta.total").value(2));
+        }
+
+        @Test
+        @Order(32)
+        @DisplayName("Debe retornar 400 con un límite o cursor inválido")
+        void shouldReturn400_WhenPagingParamsInvalid() throws Exception {
+            mockMvc.perform(get("/inventory/low-stock")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            mockMvc.perform(get("/inventory/low-stock")
+                            .header(API_KEY_HEADER, API_KEY)
+                            .param("cursor", "abc"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     // ==================== TESTS: SEGURIDAD ====================
 
     @Nested
@@ -450,7 +1214,7 @@ class InventoryControllerIntegrationTest {
     /**
      * Builder para crear InventoryRequest.
      */
-    private InventoryRequest buildInventoryRequest(Long productId, int quantity, int minStock) {
+    private InventoryRequest buildInventoryRequest(Long productId, int quantity, Integer minStock) {
         return InventoryRequest.builder()
                 .productId(productId)
                 .quantity(quantity)
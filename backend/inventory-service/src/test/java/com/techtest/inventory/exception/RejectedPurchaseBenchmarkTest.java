@@ -0,0 +1,114 @@
+package com.techtest.inventory.exception;
+
+import com.techtest.inventory.dto.response.JsonApiErrorResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.LongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coste de una compra rechazada por falta de stock: excepción lanzada a la profundidad de pila
+ * típica de una petición (filtros, proxies, transacción) y convertida en respuesta de error.
+ *
+ * "Antes" reproduce la excepción previa (stack trace completo y mensaje armado al construirla).
+ */
+@Slf4j
+@DisplayName("Benchmark de compras rechazadas")
+class RejectedPurchaseBenchmarkTest {
+
+    private static final int STACK_DEPTH = 120;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 20_000;
+    private static final int ROUNDS = 5;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Rechazar una compra sin stack trace debe ser mucho más barato")
+    void stacklessRejectionShouldBeCheaper() {
+        LongFunction<RuntimeException> before = productId -> new LegacyInsufficientStockException(productId, 5, 0);
+        LongFunction<RuntimeException> after = productId -> new InsufficientStockException(productId, 5, 0);
+
+        warmUp(before);
+        warmUp(after);
+        // Rondas alternadas; se toma la mejor de cada variante para filtrar ruido del JIT y del GC
+        double beforeNanos = Double.MAX_VALUE;
+        double afterNanos = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            beforeNanos = Math.min(beforeNanos, measure(before));
+            afterNanos = Math.min(afterNanos, measure(after));
+        }
+        log.warn("Compra rechazada: antes {} ns/op, después {} ns/op ({}x)",
+                String.format("%.0f", beforeNanos), String.format("%.0f", afterNanos),
+                String.format("%.1f", beforeNanos / afterNanos));
+
+        // El desapilado cuesta igual en ambos casos; la diferencia es capturar el stack trace
+        assertThat(afterNanos).isLessThan(beforeNanos / 1.5);
+    }
+
+    @Test
+    @DisplayName("La respuesta de error debe conservar código y detalle")
+    void rejectionShouldKeepResponseBody() {
+        ResponseEntity<JsonApiErrorResponse> response =
+                handler.handleInsufficientStock(new InsufficientStockException(7L, 5, 2));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        JsonApiErrorResponse.JsonApiError error = response.getBody().getErrors().get(0);
+        assertThat(error.getCode()).isEqualTo("INSUFFICIENT_STOCK");
+        assertThat(error.getDetail()).isEqualTo("Stock insuficiente para el producto 7. Solicitado: 5, Disponible: 2");
+        assertThat(new InsufficientStockException(7L, 5, 2).getStackTrace()).isEmpty();
+    }
+
+    private void warmUp(LongFunction<RuntimeException> exceptionFactory) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += reject(exceptionFactory, i);
+        }
+        assertThat(sink).isPositive();
+    }
+
+    private double measure(LongFunction<RuntimeException> exceptionFactory) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += reject(exceptionFactory, i);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return (double) elapsed / ITERATIONS;
+    }
+
+    /**
+     * Lanza la excepción desde STACK_DEPTH marcos y arma el detalle de la respuesta, como el handler.
+     */
+    private long reject(LongFunction<RuntimeException> exceptionFactory, long productId) {
+        try {
+            throwAtDepth(STACK_DEPTH, exceptionFactory, productId);
+            return 0;
+        } catch (RuntimeException ex) {
+            return ex.getMessage().length();
+        }
+    }
+
+    private static void throwAtDepth(int depth, LongFunction<RuntimeException> exceptionFactory, long productId) {
+        if (depth == 0) {
+            throw exceptionFactory.apply(productId);
+        }
+        throwAtDepth(depth - 1, exceptionFactory, productId);
+    }
+
+    private static final class LegacyInsufficientStockException extends RuntimeException {
+
+        private LegacyInsufficientStockException(Long productId, Integer requestedQuantity, Integer availableQuantity) {
+            super(String.format(
+                    "Stock insuficiente para el producto %d. Solicitado: %d, Disponible: %d",
+                    productId, requestedQuantity, availableQuantity
+            ));
+        }
+    }
+}
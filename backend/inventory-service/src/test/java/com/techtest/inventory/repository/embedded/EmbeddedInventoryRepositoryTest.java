@@ -0,0 +1,172 @@
+package com.techtest.inventory.repository.embedded;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Visibilidad de los commits del almacenamiento embebido para otros hilos: las imágenes se
+ * publican tras el commit, antes de los demás callbacks y antes de liberar los locks.
+ */
+@DisplayName("Almacenamiento embebido - Visibilidad de los commits")
+class EmbeddedInventoryRepositoryTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    @TempDir
+    Path dir;
+
+    private final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new LocalTransactionManager());
+    private EmbeddedInventoryStore store;
+    private EmbeddedInventoryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        store = new EmbeddedInventoryStore(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "directory", dir.toString());
+        store.open();
+        repository = new EmbeddedInventoryRepository(store, mock(InventoryLocationRepository.class), "CONDITIONAL_UPDATE");
+        repository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(100)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherThread.shutdownNow();
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Otro hilo debe ver el cambio al volver la transacción y no antes del commit")
+    void commitShouldBeVisibleWhenTransactionReturns() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.decrementQuantity(PRODUCT_ID, 30);
+            assertThat(quantityFromOtherThread()).isEqualTo(100);
+        });
+
+        assertThat(quantityFromOtherThread()).isEqualTo(70);
+    }
+
+    @Test
+    @DisplayName("Los callbacks posteriores al commit deben leer la imagen confirmada")
+    void afterCommitCallbacksShouldSeeCommittedImage() {
+        AtomicInteger seen = new AtomicInteger();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.decrementQuantity(PRODUCT_ID, 10);
+            // Registrada después de la unidad de trabajo y con el orden por defecto (como el cache)
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    seen.set(quantityFromOtherThread());
+                }
+            });
+        });
+
+        assertThat(seen.get()).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Una escritura que esperaba el lock debe partir de la imagen confirmada")
+    void waitingWriterShouldSeeCommittedImage() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> transaction = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    repository.decrementQuantity(PRODUCT_ID, 60);
+                    written.countDown();
+                    await(release);
+                }));
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Sin transacción: espera el lock de la fila retenido por la transacción en curso
+        Future<Integer> waiting = otherThread.submit(() -> repository.decrementAndGet(PRODUCT_ID, 50)
+                .map(Inventory::getQuantity)
+                .orElse(-1));
+        release.countDown();
+        transaction.get(5, TimeUnit.SECONDS);
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo(-1);
+        assertThat(repository.findByProductId(PRODUCT_ID).orElseThrow().getQuantity()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Un rollback no debe publicar nada")
+    void rollbackShouldNotPublish() {
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.decrementQuantity(PRODUCT_ID, 30);
+            status.setRollbackOnly();
+        });
+
+        assertThat(quantityFromOtherThread()).isEqualTo(100);
+    }
+
+    private int quantityFromOtherThread() {
+        try {
+            return otherThread.submit(() -> repository.findByProductId(PRODUCT_ID).orElseThrow().getQuantity())
+                    .get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Transacciones sin recurso: solo la sincronización de Spring, que es lo que usa el repositorio.
+     */
+    private static final class LocalTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
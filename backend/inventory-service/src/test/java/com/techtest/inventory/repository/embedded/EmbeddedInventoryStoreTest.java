@@ -0,0 +1,163 @@
+package com.techtest.inventory.repository.embedded;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Recuperación del almacenamiento embebido (snapshot + WAL) y latencia de una compra sin BD.
+ */
+@Slf4j
+@DisplayName("Almacenamiento embebido - WAL, snapshots y recuperación")
+class EmbeddedInventoryStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<EmbeddedInventoryStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(EmbeddedInventoryStore::close);
+    }
+
+    @Test
+    @DisplayName("Al reabrir debe recuperar las filas desde el WAL")
+    void shouldRecoverFromWal() {
+        EmbeddedInventoryRepository repository = repository(open());
+        repository.save(inventory(1L, 100));
+        repository.save(inventory(2L, 50));
+        repository.decrementQuantity(1L, 30);
+        repository.reserveQuantity(2L, 5);
+        repository.delete(repository.findByProductId(2L).orElseThrow());
+        repository.save(inventory(3L, 7));
+
+        EmbeddedInventoryRepository recovered = repository(reopen());
+
+        assertThat(recovered.findByProductId(1L).orElseThrow().getQuantity()).isEqualTo(70);
+        assertThat(recovered.findByProductId(1L).orElseThrow().getVersion()).isEqualTo(1L);
+        assertThat(recovered.existsByProductId(2L)).isFalse();
+        assertThat(recovered.findByProductId(3L).orElseThrow().getQuantity()).isEqualTo(7);
+        // Los IDs continúan después del mayor recuperado
+        assertThat(recovered.save(inventory(4L, 1)).getId()).isGreaterThan(
+                recovered.findByProductId(3L).orElseThrow().getId());
+    }
+
+    @Test
+    @DisplayName("Al reabrir debe cargar el snapshot y reaplicar solo el WAL posterior")
+    void shouldRecoverFromSnapshotPlusWalTail() throws IOException {
+        EmbeddedInventoryStore store = open();
+        EmbeddedInventoryRepository repository = repository(store);
+        for (long productId = 1; productId <= 100; productId++) {
+            repository.save(inventory(productId, 10));
+        }
+        store.snapshot();
+        repository.decrementQuantity(1L, 4);
+        repository.applyQuantityDelta(100L, 5);
+
+        assertThat(files(".wal")).hasSize(1);
+        assertThat(files(".snapshot")).hasSize(1);
+        assertThat(store.walRecordsSinceSnapshot()).isEqualTo(2);
+
+        EmbeddedInventoryRepository recovered = repository(reopen());
+
+        assertThat(recovered.count()).isEqualTo(100);
+        assertThat(recovered.findByProductId(1L).orElseThrow().getQuantity()).isEqualTo(6);
+        assertThat(recovered.findByProductId(50L).orElseThrow().getQuantity()).isEqualTo(10);
+        assertThat(recovered.findByProductId(100L).orElseThrow().getQuantity()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Un registro escrito a medias al final del WAL debe descartarse")
+    void shouldDiscardTornTail() throws IOException {
+        EmbeddedInventoryRepository repository = repository(open());
+        repository.save(inventory(1L, 100));
+        repository.decrementQuantity(1L, 1);
+        opened.remove(0).close();
+
+        // Simula una caída a mitad de la escritura del último registro (slot 1)
+        Path wal = files(".wal").get(0);
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), StoredRow.RECORD_SIZE + 60);
+        }
+
+        EmbeddedInventoryRepository recovered = repository(open());
+        assertThat(recovered.findByProductId(1L).orElseThrow().getQuantity()).isEqualTo(100);
+
+        // El WAL sigue siendo utilizable tras el registro descartado
+        recovered.decrementQuantity(1L, 2);
+        assertThat(repository(reopen()).findByProductId(1L).orElseThrow().getQuantity()).isEqualTo(98);
+    }
+
+    @Test
+    @DisplayName("Una compra sin transacción debe tardar pocos microsegundos")
+    void purchaseShouldTakeMicroseconds() {
+        EmbeddedInventoryRepository repository = repository(open());
+        int purchases = 200_000;
+        repository.save(inventory(1L, purchases * 2));
+
+        for (int i = 0; i < purchases / 2; i++) {
+            repository.decrementAndGet(1L, 1);  // calentamiento
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < purchases; i++) {
+            repository.decrementAndGet(1L, 1);
+        }
+        double micros = (System.nanoTime() - started) / 1000.0 / purchases;
+
+        log.info("Compra en el almacenamiento embebido: {} µs en promedio", String.format("%.2f", micros));
+        assertThat(repository.findByProductId(1L).orElseThrow().getQuantity()).isEqualTo(purchases / 2);
+        assertThat(micros).isLessThan(50.0);
+    }
+
+    private EmbeddedInventoryStore open() {
+        EmbeddedInventoryStore store = new EmbeddedInventoryStore(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "directory", dir.toString());
+        store.open();
+        opened.add(store);
+        return store;
+    }
+
+    private EmbeddedInventoryStore reopen() {
+        opened.remove(opened.size() - 1).close();
+        return open();
+    }
+
+    private static EmbeddedInventoryRepository repository(EmbeddedInventoryStore store) {
+        return new EmbeddedInventoryRepository(store, mock(InventoryLocationRepository.class), "CONDITIONAL_UPDATE");
+    }
+
+    private static Inventory inventory(long productId, int quantity) {
+        return Inventory.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build();
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(suffix)).toList();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.techtest.inventory.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.response.BulkInventoryResult;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput de la carga de inventario: una petición por producto (validación remota, lectura
+ * y save por fila) frente a la carga masiva de 10.000 filas (una verificación en lote y upserts
+ * en lote por tramo). El servicio de productos se simula con WireMock, así que "antes" incluye
+ * una llamada HTTP por fila; se mide sobre una muestra de 1.000 filas para acotar la duración.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Slf4j
+@DisplayName("Throughput de la carga masiva de inventario")
+class BulkInventoryThroughputTest {
+
+    private static final int WIREMOCK_PORT = 8089;
+    private static final int ROWS = 10_000;
+    private static final int PER_ROW_SAMPLE = 1_000;
+    private static final long BEFORE_FIRST_ID = 1_000_000L;
+    private static final long AFTER_FIRST_ID = 2_000_000L;
+
+    private static WireMockServer wireMockServer;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMockServer = new WireMockServer(WIREMOCK_PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", WIREMOCK_PORT);
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        if (wireMockServer != null && wireMockServer.isRunning()) {
+            wireMockServer.stop();
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("services.products.url", () -> "http://localhost:" + WIREMOCK_PORT + "/api/v1");
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer.resetAll();
+        inventoryRepository.deleteAll();
+        WireMock.stubFor(WireMock.get(WireMock.urlPathMatching("/api/v1/products/\\d+/exists"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("true")));
+        // La verificación en lote devuelve todos los IDs del rango de "después"
+        WireMock.stubFor(WireMock.post(WireMock.urlPathEqualTo("/api/v1/products/exists"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody(LongStream.range(AFTER_FIRST_ID, AFTER_FIRST_ID + ROWS)
+                                .mapToObj(Long::toString)
+                                .toList()
+                                .toString())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Cargar 10.000 filas en lote debe tener mucho más throughput que una petición por fila")
+    void bulkUpsertShouldOutperformPerRowRequests() {
+        List<InventoryRequest> before = rows(BEFORE_FIRST_ID, PER_ROW_SAMPLE);
+        List<InventoryRequest> after = rows(AFTER_FIRST_ID, ROWS);
+
+        long start = System.nanoTime();
+        before.forEach(inventoryService::createOrUpdateInventory);
+        long beforeNanos = System.nanoTime() - start;
+
+        AtomicInteger applied = new AtomicInteger();
+        start = System.nanoTime();
+        inventoryService.bulkUpsertInventory(after, chunk -> chunk.stream()
+                .filter(result -> result.getStatus() == BulkInventoryResult.Status.CREATED)
+                .forEach(result -> applied.incrementAndGet()));
+        long afterNanos = System.nanoTime() - start;
+
+        long beforeRate = rowsPerSecond(PER_ROW_SAMPLE, beforeNanos);
+        long afterRate = rowsPerSecond(ROWS, afterNanos);
+        log.warn("Carga de inventario: antes {} filas/s ({} filas en {} ms), después {} filas/s ({} filas en {} ms), {}x",
+                beforeRate, PER_ROW_SAMPLE, beforeNanos / 1_000_000,
+                afterRate, ROWS, afterNanos / 1_000_000,
+                String.format("%.1f", (double) afterRate / beforeRate));
+
+        assertThat(applied.get()).isEqualTo(ROWS);
+        assertThat(inventoryRepository.count()).isEqualTo(PER_ROW_SAMPLE + ROWS);
+        assertThat(afterRate).isGreaterThan(beforeRate * 3);
+    }
+
+    private static List<InventoryRequest> rows(long firstProductId, int count) {
+        return LongStream.range(firstProductId, firstProductId + count)
+                .mapToObj(productId -> InventoryRequest.builder()
+                        .productId(productId)
+                        .quantity(100)
+                        .minStock(5)
+                        .build())
+                .toList();
+    }
+
+    private static long rowsPerSecond(int rows, long nanos) {
+        return rows * 1_000_000_000L / nanos;
+    }
+}
@@ -0,0 +1,109 @@
+package com.techtest.inventory.service;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compras concurrentes sobre un mismo producto con el modo UPDATE condicional.
+ * Verifica que nunca se vende más de lo disponible y que el cache termina con la fila confirmada.
+ */
+@SpringBootTest(properties = {
+        "inventory.purchase.mode=CONDITIONAL_UPDATE",
+        "inventory.cache.enabled=true"
+})
+@ActiveProfiles("test")
+@DisplayName("InventoryService - Compras concurrentes")
+class InventoryPurchaseConcurrencyTest {
+
+    private static final Long PRODUCT_ID = 500L;
+    private static final int INITIAL_STOCK = 100;
+    private static final int RESERVED = 10;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 300;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.deleteAll();
+        inventoryCache.invalidateAll();
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(INITIAL_STOCK)
+                .reservedQuantity(RESERVED)
+                .minStock(5)
+                .build());
+    }
+
+    @Test
+    @DisplayName("No debe sobrevender con compras concurrentes")
+    void shouldNeverOversellUnderConcurrentPurchases() throws Exception {
+        assertThat(inventoryService.hasStock(PRODUCT_ID, INITIAL_STOCK - RESERVED)).isTrue();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(1));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Inventory result = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+
+        assertThat(succeeded.get()).isEqualTo(INITIAL_STOCK - RESERVED);
+        assertThat(rejected.get()).isEqualTo(ATTEMPTS - (INITIAL_STOCK - RESERVED));
+        assertThat(result.getQuantity()).isEqualTo(RESERVED);
+        assertThat(result.getAvailableQuantity()).isZero();
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(RESERVED);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 1)).isFalse();
+    }
+}
@@ -2,15 +2,34 @@ package com.techtest.inventory.service;
 
 import com.techtest.inventory.client.ProductServiceClient;
 import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.OrderPurchaseRequest;
+import com.techtest.inventory.dto.request.PurchaseLineRequest;
 import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.StockAdjustmentRequest;
+import com.techtest.inventory.dto.response.InventoryLookup;
 import com.techtest.inventory.dto.response.InventoryResponse;
 import com.techtest.inventory.dto.response.InventoryResponse.ProductInfo;
 import com.techtest.inventory.entity.Inventory;
 import com.techtest.inventory.exception.InsufficientStockException;
 import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.exception.OrderPurchaseException;
 import com.techtest.inventory.exception.ProductServiceException;
+import com.techtest.inventory.exception.StockBoundsException;
 import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.exception.InventoryVersionMismatchException;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.concurrency.OptimisticRetryExecutor;
+import com.techtest.inventory.service.escrow.EscrowStockManager;
+import com.techtest.inventory.service.events.InventoryChangedEvent;
+import com.techtest.inventory.service.events.InventoryEventRecorder;
+import com.techtest.inventory.service.groupcommit.PurchaseBatcher;
+import com.techtest.inventory.service.hotstock.HotStockManager;
 import com.techtest.inventory.service.impl.InventoryServiceImpl;
+import com.techtest.inventory.service.ledger.InventoryLedger;
+import com.techtest.inventory.service.location.LocationStockManager;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import com.techtest.inventory.service.reservation.ReservationManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,12 +37,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -37,6 +64,40 @@ class InventoryServiceTest {
     @Mock
     private ProductServiceClient productServiceClient;
 
+    @Mock
+    private HotStockManager hotStockManager;
+
+    @Mock
+    private InventoryLedger ledger;
+
+    @Mock
+    private EscrowStockManager escrowStock;
+
+    @Mock
+    private LocationStockManager locationStock;
+
+    @Mock
+    private PurchaseBatcher purchaseBatcher;
+
+    @Mock
+    private ReservationManager reservationManager;
+
+    @Mock
+    private InventoryEventRecorder events;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Spy
+    private OptimisticRetryExecutor optimisticRetry = new OptimisticRetryExecutor(new SimpleMeterRegistry());
+
+    // Deshabilitado: cada lectura va al repositorio simulado
+    @Spy
+    private InventoryCache inventoryCache = new InventoryCache(new SimpleMeterRegistry(), false, 1, 0, 0);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -66,6 +127,9 @@ class InventoryServiceTest {
                 .sku("TEST-001")
                 .category("Electronics")
                 .build();
+
+        // Sin ubicaciones: la vista total es la fila principal
+        lenient().when(locationStock.withLocations(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Nested
@@ -77,8 +141,7 @@ class InventoryServiceTest {
         void shouldCreateInventoryWhenProductExists() {
             when(productServiceClient.productExists(100L)).thenReturn(true);
             when(inventoryRepository.findByProductId(100L)).thenReturn(Optional.empty());
-            when(inventoryRepository.save(any(Inventory.class))).thenReturn(testInventory);
-            when(productServiceClient.getProductInfo(100L)).thenReturn(testProductInfo);
+            when(inventoryRepository.saveAndFlush(any(Inventory.class))).thenReturn(testInventory);
 
             InventoryResponse response = inventoryService.createOrUpdateInventory(testRequest);
 
@@ -87,7 +150,7 @@ class InventoryServiceTest {
             assertThat(response.getQuantity()).isEqualTo(50);
 
             verify(productServiceClient).productExists(100L);
-            verify(inventoryRepository).save(any(Inventory.class));
+            verify(inventoryRepository).saveAndFlush(any(Inventory.class));
         }
 
         @Test
@@ -99,7 +162,52 @@ class InventoryServiceTest {
                     .isInstanceOf(ProductServiceException.class)
                     .hasMessageContaining("no existe");
 
-            verify(inventoryRepository, never()).save(any(Inventory.class));
+            verify(inventoryRepository, never()).saveAndFlush(any(Inventory.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrencia optimista")
+    class OptimisticConcurrencyTests {
+
+        @Test
+        @DisplayName("Debe rechazar la actualización cuando la versión de If-Match no es la actual")
+        void shouldRejectStaleIfMatchVersion() {
+            testInventory.setVersion(3L);
+            when(inventoryRepository.findByProductId(100L)).thenReturn(Optional.of(testInventory));
+
+            assertThatThrownBy(() -> inventoryService.updateQuantity(100L, 10, 2L))
+                    .isInstanceOf(InventoryVersionMismatchException.class);
+
+            verify(inventoryRepository, never()).saveAndFlush(any(Inventory.class));
+        }
+
+        @Test
+        @DisplayName("Debe releer y reintentar cuando otra escritura gana sin If-Match")
+        void shouldRetryOnVersionConflict() {
+            when(inventoryRepository.findByProductId(100L)).thenReturn(Optional.of(testInventory));
+            when(inventoryRepository.saveAndFlush(any(Inventory.class)))
+                    .thenThrow(new ObjectOptimisticLockingFailureException(Inventory.class, 1L))
+                    .thenReturn(testInventory);
+
+            InventoryResponse response = inventoryService.updateQuantity(100L, 10);
+
+            assertThat(response.getQuantity()).isEqualTo(10);
+            verify(inventoryRepository, times(2)).findByProductId(100L);
+        }
+
+        @Test
+        @DisplayName("Con If-Match un conflicto no se reintenta")
+        void shouldNotRetryConflictWithIfMatch() {
+            testInventory.setVersion(3L);
+            when(inventoryRepository.findByProductId(100L)).thenReturn(Optional.of(testInventory));
+            when(inventoryRepository.saveAndFlush(any(Inventory.class)))
+                    .thenThrow(new ObjectOptimisticLockingFailureException(Inventory.class, 1L));
+
+            assertThatThrownBy(() -> inventoryService.updateQuantity(100L, 10, 3L))
+                    .isInstanceOf(InventoryVersionMismatchException.class);
+
+            verify(inventoryRepository, times(1)).saveAndFlush(any(Inventory.class));
         }
     }
 
@@ -108,17 +216,73 @@ class InventoryServiceTest {
     class GetInventoryTests {
 
         @Test
-        @DisplayName("Debe obtener inventario por producto ID")
+        @DisplayName("Debe obtener inventario por producto ID sin llamar al servicio de productos")
         void shouldGetInventoryByProductId() {
             when(inventoryRepository.findByProductId(100L)).thenReturn(Optional.of(testInventory));
-            when(productServiceClient.getProductInfo(100L)).thenReturn(testProductInfo);
 
             InventoryResponse response = inventoryService.getInventoryByProductId(100L);
 
             assertThat(response).isNotNull();
             assertThat(response.getProductId()).isEqualTo(100L);
-            assertThat(response.getProduct()).isNotNull();
-            assertThat(response.getProduct().getName()).isEqualTo("Test Product");
+            assertThat(response.getProduct()).isNull();
+            verifyNoInteractions(productServiceClient);
+        }
+
+        @Test
+        @DisplayName("include=product debe consultar una sola vez cada producto distinto")
+        void shouldIncludeProductOncePerDistinctProduct() {
+            when(productServiceClient.getProductInfo(100L)).thenReturn(testProductInfo);
+            List<InventoryResponse> responses = List.of(
+                    InventoryResponse.builder().productId(100L).build(),
+                    InventoryResponse.builder().productId(100L).build());
+
+            inventoryService.includeProduct(responses);
+
+            assertThat(responses).allSatisfy(r -> assertThat(r.getProduct().getName()).isEqualTo("Test Product"));
+            verify(productServiceClient, times(1)).getProductInfo(100L);
+        }
+
+        @Test
+        @DisplayName("include=product debe devolver solo el ID si el servicio de productos falla")
+        void shouldIncludeProductIdWhenProductServiceFails() {
+            when(productServiceClient.getProductInfo(100L))
+                    .thenThrow(new ProductServiceException(100L, "Servicio no disponible"));
+
+            InventoryResponse response = inventoryService.includeProduct(
+                    InventoryResponse.builder().productId(100L).build());
+
+            assertThat(response.getProduct().getId()).isEqualTo(100L);
+            assertThat(response.getProduct().getName()).isNull();
+        }
+
+        @Test
+        @DisplayName("include=product con varios productos debe consultarlos en una sola llamada")
+        void shouldIncludeProductsInOneBatchCall() {
+            when(productServiceClient.getProductsInfo(anyCollection())).thenReturn(Map.of(100L, testProductInfo));
+            List<InventoryResponse> responses = List.of(
+                    InventoryResponse.builder().productId(100L).build(),
+                    InventoryResponse.builder().productId(200L).build());
+
+            inventoryService.includeProduct(responses);
+
+            assertThat(responses.get(0).getProduct().getName()).isEqualTo("Test Product");
+            assertThat(responses.get(1).getProduct().getId()).isEqualTo(200L);
+            assertThat(responses.get(1).getProduct().getName()).isNull();
+            verify(productServiceClient, times(1)).getProductsInfo(anyCollection());
+            verify(productServiceClient, never()).getProductInfo(anyLong());
+        }
+
+        @Test
+        @DisplayName("La consulta en lote debe leer las filas con una sola consulta e informar las que faltan")
+        void shouldLookupInventoryInOneQuery() {
+            when(inventoryRepository.findAllByProductIdIn(List.of(100L, 999L))).thenReturn(List.of(testInventory));
+
+            InventoryLookup lookup = inventoryService.lookupInventory(List.of(100L, 999L, 100L));
+
+            assertThat(lookup.getItems()).extracting(InventoryResponse::getProductId).containsExactly(100L);
+            assertThat(lookup.getItems().get(0).getAvailableQuantity()).isEqualTo(50);
+            assertThat(lookup.getMissingProductIds()).containsExactly(999L);
+            verify(inventoryRepository, never()).findByProductId(anyLong());
         }
 
         @Test
@@ -132,9 +296,14 @@ class InventoryServiceTest {
     }
 
     @Nested
-    @DisplayName("Procesar Compra")
+    @DisplayName("Procesar Compra (lectura-modificación-escritura)")
     class ProcessPurchaseTests {
 
+        @BeforeEach
+        void useReadModifyWrite() {
+            ReflectionTestUtils.setField(inventoryService, "purchaseMode", PurchaseMode.READ_MODIFY_WRITE);
+        }
+
         @Test
         @DisplayName("Debe procesar compra cuando hay stock suficiente")
         void shouldProcessPurchaseWithSufficientStock() {
@@ -145,7 +314,6 @@ class InventoryServiceTest {
                 Inventory saved = inv.getArgument(0);
                 return saved;
             });
-            when(productServiceClient.getProductInfo(100L)).thenReturn(testProductInfo);
 
             InventoryResponse response = inventoryService.processPurchase(100L, purchaseRequest);
 
@@ -170,6 +338,152 @@ class InventoryServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Ajustar Stock (delta)")
+    class AdjustQuantityTests {
+
+        @Test
+        @DisplayName("Debe aplicar el delta con un único UPDATE y registrar el cambio")
+        void shouldAdjustWithSingleUpdate() {
+            testInventory.setQuantity(80);
+            when(inventoryRepository.adjustAndGet(100L, 30, 0, Integer.MAX_VALUE)).thenReturn(Optional.of(testInventory));
+
+            InventoryResponse response = inventoryService.adjustQuantity(100L,
+                    StockAdjustmentRequest.builder().delta(30).build());
+
+            assertThat(response.getQuantity()).isEqualTo(80);
+            verify(inventoryRepository, never()).findByProductId(anyLong());
+            verify(events).changed(100L, 50, 80, InventoryChangedEvent.Reason.QUANTITY_ADJUSTMENT);
+            verify(events).stockLevel(testInventory);
+        }
+
+        @Test
+        @DisplayName("Debe lanzar StockBoundsException con el límite efectivo cuando el UPDATE no afecta filas")
+        void shouldThrowBoundsWhenNoRowUpdated() {
+            testInventory.setReservedQuantity(20);
+            when(inventoryRepository.adjustAndGet(100L, -40, 5, 100)).thenReturn(Optional.empty());
+            when(inventoryRepository.findByProductId(100L)).thenReturn(Optional.of(testInventory));
+
+            assertThatThrownBy(() -> inventoryService.adjustQuantity(100L,
+                    StockAdjustmentRequest.builder().delta(-40).floor(5).ceiling(100).build()))
+                    .isInstanceOf(StockBoundsException.class)
+                    .hasMessageContaining("en 10, fuera de los límites [20, 100]");
+            verify(events, never()).changed(anyLong(), anyInt(), anyInt(), any());
+        }
+
+        @Test
+        @DisplayName("Debe rechazar un delta 0 o un mínimo mayor al máximo sin tocar la BD")
+        void shouldRejectInvalidAdjustment() {
+            assertThatThrownBy(() -> inventoryService.adjustQuantity(100L,
+                    StockAdjustmentRequest.builder().delta(0).build()))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> inventoryService.adjustQuantity(100L,
+                    StockAdjustmentRequest.builder().delta(1).floor(10).ceiling(5).build()))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            verifyNoInteractions(inventoryRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Procesar Compra (UPDATE condicional)")
+    class ConditionalUpdatePurchaseTests {
+
+        @Test
+        @DisplayName("Debe descontar stock con un único UPDATE sin leer ni guardar la entidad")
+        void shouldDecrementWithSingleConditionalUpdate() {
+            testInventory.setQuantity(40);
+            when(inventoryRepository.decrementAndGet(100L, 10)).thenReturn(Optional.of(testInventory));
+
+            InventoryResponse response = inventoryService.processPurchase(100L, new PurchaseRequest(10));
+
+            assertThat(response.getQuantity()).isEqualTo(40);
+            verify(inventoryRepository, never()).findByProductId(anyLong());
+            verify(inventoryRepository, never()).save(any(Inventory.class));
+            verify(events).purchased(testInventory, 10);
+        }
+
+        @Test
+        @DisplayName("Debe lanzar InsufficientStockException cuando el UPDATE no afecta filas")
+        void shouldThrowInsufficientStockWhenNoRowUpdated() {
+            testInventory.setReservedQuantity(45);
+            when(inventoryRepository.decrementAndGet(100L, 10)).thenReturn(Optional.empty());
+            when(inventoryRepository.findByProductId(100L)).thenReturn(Optional.of(testInventory));
+
+            assertThatThrownBy(() -> inventoryService.processPurchase(100L, new PurchaseRequest(10)))
+                    .isInstanceOf(InsufficientStockException.class)
+                    .hasMessageContaining("Disponible: 5");
+        }
+
+        @Test
+        @DisplayName("Debe lanzar InventoryNotFoundException cuando el producto no tiene inventario")
+        void shouldThrowNotFoundWhenNoInventory() {
+            when(inventoryRepository.decrementAndGet(999L, 10)).thenReturn(Optional.empty());
+            when(inventoryRepository.findByProductId(999L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> inventoryService.processPurchase(999L, new PurchaseRequest(10)))
+                    .isInstanceOf(InventoryNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Procesar Orden de Compra")
+    class ProcessOrderPurchaseTests {
+
+        private Inventory secondInventory;
+
+        @BeforeEach
+        void setUpSecondRow() {
+            secondInventory = Inventory.builder()
+                    .id(2L)
+                    .productId(200L)
+                    .quantity(20)
+                    .reservedQuantity(0)
+                    .minStock(5)
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Debe bloquear todas las filas con una sola consulta y descontar cada línea")
+        void shouldLockAllRowsOnceAndDecrementEachLine() {
+            when(inventoryRepository.findAllByProductIdInForUpdate(anyCollection()))
+                    .thenReturn(List.of(testInventory, secondInventory));
+
+            List<InventoryResponse> responses = inventoryService.processOrderPurchase(order(
+                    line(200L, 5), line(100L, 10), line(200L, 3)));
+
+            assertThat(responses).extracting(InventoryResponse::getQuantity).containsExactly(15, 40, 12);
+            assertThat(testInventory.getQuantity()).isEqualTo(40);
+            assertThat(secondInventory.getQuantity()).isEqualTo(12);
+            verify(inventoryRepository, times(1)).findAllByProductIdInForUpdate(anyCollection());
+            verify(inventoryRepository, never()).save(any(Inventory.class));
+            verifyNoInteractions(productServiceClient);
+        }
+
+        @Test
+        @DisplayName("Debe rechazar la orden completa reportando cada línea fallida")
+        void shouldRejectWholeOrderWithErrorPerLine() {
+            when(inventoryRepository.findAllByProductIdInForUpdate(anyCollection()))
+                    .thenReturn(List.of(testInventory, secondInventory));
+
+            assertThatThrownBy(() -> inventoryService.processOrderPurchase(order(
+                    line(100L, 10), line(200L, 50), line(999L, 1))))
+                    .isInstanceOfSatisfying(OrderPurchaseException.class, ex -> {
+                        assertThat(ex.getLineErrors()).containsOnlyKeys(1, 2);
+                        assertThat(ex.getLineErrors().get(1)).isInstanceOf(InsufficientStockException.class);
+                        assertThat(ex.getLineErrors().get(2)).isInstanceOf(InventoryNotFoundException.class);
+                    });
+        }
+
+        private OrderPurchaseRequest order(PurchaseLineRequest... lines) {
+            return new OrderPurchaseRequest(List.of(lines));
+        }
+
+        private PurchaseLineRequest line(Long productId, int quantity) {
+            return new PurchaseLineRequest(productId, quantity);
+        }
+    }
+
     @Nested
     @DisplayName("Verificar Stock")
     class HasStockTests {
@@ -0,0 +1,188 @@
+package com.techtest.inventory.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.response.InventoryResponse;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Con el servicio de productos lento, las conexiones del pool solo se retienen durante
+ * el acceso a la BD: la espera de la respuesta remota ocurre fuera de la transacción.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Slf4j
+@DisplayName("Pool de conexiones con servicio de productos lento")
+class SlowProductServicePoolTest {
+
+    private static final int WIREMOCK_PORT = 8089;
+    private static final int PRODUCT_DELAY_MS = 1000;
+    private static final int THREADS = 16;  // más que el tamaño del pool (10)
+
+    private static WireMockServer wireMockServer;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void startWireMock() {
+        wireMockServer = new WireMockServer(WIREMOCK_PORT);
+        wireMockServer.start();
+        WireMock.configureFor("localhost", WIREMOCK_PORT);
+    }
+
+    @AfterAll
+    static void stopWireMock() {
+        if (wireMockServer != null && wireMockServer.isRunning()) {
+            wireMockServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer.resetAll();
+        inventoryRepository.deleteAll();
+        for (long productId = 1; productId <= THREADS; productId++) {
+            inventoryRepository.save(Inventory.builder()
+                    .productId(productId)
+                    .quantity(100)
+                    .reservedQuantity(0)
+                    .minStock(5)
+                    .build());
+        }
+
+        // Calentamiento sin latencia: que la primera carga de consultas no cuente como retención
+        stubProductService(0);
+        for (long productId = 1; productId <= 4; productId++) {
+            runFlow(productId);
+        }
+        stubProductService(PRODUCT_DELAY_MS);
+    }
+
+    @Test
+    @DisplayName("Las conexiones no deben retenerse mientras se espera al servicio de productos")
+    void connectionsShouldNotBeHeldDuringRemoteCalls() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        Timer usage = meterRegistry.get("hikaricp.connections.usage").timer();
+        long usagesBefore = usage.count();
+        double usageMillisBefore = usage.totalTime(TimeUnit.MILLISECONDS);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger peakActive = new AtomicInteger();
+        AtomicInteger peakWaiting = new AtomicInteger();
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peakActive.accumulateAndGet(hikari.getHikariPoolMXBean().getActiveConnections(), Math::max);
+                peakWaiting.accumulateAndGet(hikari.getHikariPoolMXBean().getThreadsAwaitingConnection(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            long productId = i + 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                runFlow(productId);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        executor.shutdown();
+        running.set(false);
+        sampler.join();
+
+        long usages = usage.count() - usagesBefore;
+        double meanHoldMillis = (usage.totalTime(TimeUnit.MILLISECONDS) - usageMillisBefore) / usages;
+        log.warn("{} flujos en {} ms: {} préstamos de conexión, retención media {} ms, pico activas {}, pico en espera {}",
+                THREADS, elapsedMillis, usages, String.format("%.1f", meanHoldMillis),
+                peakActive.get(), peakWaiting.get());
+
+        // Si la transacción incluyera la llamada remota, cada préstamo duraría al menos PRODUCT_DELAY_MS
+        assertThat(meanHoldMillis).isLessThan(PRODUCT_DELAY_MS / 4.0);
+        // 16 flujos sobre un pool de 10 no se encolan detrás de las llamadas remotas (máximo dos por flujo)
+        assertThat(elapsedMillis).isLessThan(3L * PRODUCT_DELAY_MS);
+    }
+
+    /**
+     * Cada flujo hace al menos una llamada al servicio de productos: la validación al crear
+     * y los datos del producto como con include=product.
+     */
+    private void runFlow(long productId) {
+        InventoryResponse response = switch ((int) (productId % 4)) {
+            case 0 -> inventoryService.createOrUpdateInventory(
+                    InventoryRequest.builder().productId(productId).quantity(80).minStock(5).build());
+            case 1 -> inventoryService.updateQuantity(productId, 90);
+            case 2 -> inventoryService.processPurchase(productId, new PurchaseRequest(1));
+            default -> inventoryService.getInventoryByProductId(productId);
+        };
+        inventoryService.includeProduct(response);
+    }
+
+    private void stubProductService(int delayMillis) {
+        WireMock.stubFor(WireMock.get(WireMock.urlPathMatching("/api/v1/products/\\d+/exists"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("true")
+                        .withFixedDelay(delayMillis)));
+        WireMock.stubFor(WireMock.get(WireMock.urlPathMatching("/api/v1/products/\\d+"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"data\":{\"type\":\"products\",\"id\":\"1\",\"attributes\":{\"name\":\"Lento\"}}}")
+                        .withFixedDelay(delayMillis)));
+    }
+}
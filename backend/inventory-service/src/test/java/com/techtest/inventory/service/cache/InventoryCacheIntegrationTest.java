@@ -0,0 +1,259 @@
+package com.techtest.inventory.service.cache;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.OrderPurchaseRequest;
+import com.techtest.inventory.dto.request.PurchaseLineRequest;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.ReservationRequest;
+import com.techtest.inventory.dto.request.StockAdjustmentRequest;
+import com.techtest.inventory.dto.response.BulkInventoryResult;
+import com.techtest.inventory.dto.response.ReservationResponse;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.OrderPurchaseException;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.repository.ReservationRepository;
+import com.techtest.inventory.service.InventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache write-through contra la BD: las lecturas repetidas no van a la BD y cada escritura del
+ * servicio se refleja tras su commit.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false",
+        "inventory.cache.enabled=true",
+        "inventory.cache.ttl-ms=60000",
+        "inventory.cache.verify-sample-rate=0"
+})
+@ActiveProfiles("test")
+@DisplayName("Cache de inventario")
+class InventoryCacheIntegrationTest {
+
+    private static final Long PRODUCT_ID = 960L;
+    private static final Long OTHER_PRODUCT_ID = 961L;
+    private static final Long NEW_PRODUCT_ID = 962L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryLocationRepository locationRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        locationRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        inventoryCache.invalidateAll();
+        inventoryRepository.save(row(PRODUCT_ID, 10));
+        inventoryRepository.save(row(OTHER_PRODUCT_ID, 2));
+        when(productServiceClient.productExists(anyLong())).thenReturn(true);
+        when(productServiceClient.existingProducts(anyCollection()))
+                .thenAnswer(invocation -> Set.copyOf(invocation.<Collection<Long>>getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Las verificaciones repetidas de stock deben servirse desde memoria")
+    void repeatedChecksShouldNotReadDatabase() {
+        double misses = misses();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+            assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(10);
+        }
+
+        assertThat(misses() - misses).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Compras y cambios de ubicación deben actualizar el cache tras el commit")
+    void writesShouldUpdateCache() {
+        inventoryService.hasStock(PRODUCT_ID, 1);
+        double misses = misses();
+
+        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(3));
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(7);
+
+        inventoryService.setLocationStock(PRODUCT_ID, "norte", 5);
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(12);
+
+        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(4));
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(8);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 8)).isTrue();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 9)).isFalse();
+
+        assertThat(misses() - misses).isZero();
+        // La versión servida es la confirmada (ETag / If-Match)
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getVersion())
+                .isEqualTo(inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Una orden rechazada no debe cambiar el cache")
+    void rolledBackOrderShouldNotChangeCache() {
+        inventoryService.hasStock(PRODUCT_ID, 1);
+        inventoryService.hasStock(OTHER_PRODUCT_ID, 1);
+
+        assertThatThrownBy(() -> inventoryService.processOrderPurchase(new OrderPurchaseRequest(List.of(
+                new PurchaseLineRequest(PRODUCT_ID, 4),
+                new PurchaseLineRequest(OTHER_PRODUCT_ID, 5)))))
+                .isInstanceOf(OrderPurchaseException.class);
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(10);
+
+        inventoryService.processOrderPurchase(new OrderPurchaseRequest(List.of(
+                new PurchaseLineRequest(PRODUCT_ID, 4),
+                new PurchaseLineRequest(PRODUCT_ID, 1))));
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Una reserva debe invalidar la entrada y la siguiente lectura ver el reservado")
+    void reservationShouldEvictEntry() {
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+
+        inventoryService.reserveStock(PRODUCT_ID, ReservationRequest.builder().quantity(6).build());
+
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 5)).isFalse();
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getReservedQuantity()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Confirmar y liberar reservas deben reflejarse en la siguiente lectura")
+    void reservationLifecycleShouldRefreshEntry() {
+        ReservationResponse confirmed = inventoryService.reserveStock(PRODUCT_ID,
+                ReservationRequest.builder().quantity(3).build());
+        ReservationResponse released = inventoryService.reserveStock(PRODUCT_ID,
+                ReservationRequest.builder().quantity(4).build());
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 4)).isFalse();
+
+        inventoryService.confirmReservation(confirmed.getId());
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(7);
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getReservedQuantity()).isEqualTo(4);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 4)).isFalse();
+
+        inventoryService.releaseReservation(released.getId());
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getReservedQuantity()).isZero();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 7)).isTrue();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 8)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Los cambios directos de cantidad y mínimo deben actualizar el cache")
+    void rowWritesShouldUpdateCache() {
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+
+        inventoryService.updateQuantity(PRODUCT_ID, 30);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 30)).isTrue();
+
+        inventoryService.adjustQuantity(PRODUCT_ID, StockAdjustmentRequest.builder().delta(-12).build());
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(18);
+
+        inventoryService.createOrUpdateInventory(InventoryRequest.builder()
+                .productId(PRODUCT_ID)
+                .quantity(6)
+                .minStock(4)
+                .build());
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getMinStock()).isEqualTo(4);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 7)).isFalse();
+
+        inventoryService.setLocationStock(PRODUCT_ID, "norte", 5);
+        inventoryService.removeLocation(PRODUCT_ID, "norte");
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("La carga masiva debe actualizar las entradas existentes y las de productos nuevos")
+    void bulkUpsertShouldUpdateCache() {
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+        assertThat(inventoryService.hasStock(NEW_PRODUCT_ID, 1)).isFalse();
+
+        List<BulkInventoryResult> results = new ArrayList<>();
+        inventoryService.bulkUpsertInventory(List.of(
+                InventoryRequest.builder().productId(PRODUCT_ID).quantity(25).minStock(1).build(),
+                InventoryRequest.builder().productId(NEW_PRODUCT_ID).quantity(8).minStock(1).build()),
+                results::addAll);
+
+        assertThat(results).extracting(BulkInventoryResult::getStatus)
+                .containsExactly(BulkInventoryResult.Status.UPDATED, BulkInventoryResult.Status.CREATED);
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(25);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 25)).isTrue();
+        assertThat(inventoryService.getInventoryByProductId(NEW_PRODUCT_ID).getQuantity()).isEqualTo(8);
+        assertThat(inventoryService.hasStock(NEW_PRODUCT_ID, 8)).isTrue();
+    }
+
+    /**
+     * El modo que lee, valida y guarda la entidad también debe publicar la fila confirmada.
+     */
+    @Nested
+    @TestPropertySource(properties = "inventory.purchase.mode=READ_MODIFY_WRITE")
+    @DisplayName("Modo READ_MODIFY_WRITE")
+    class ReadModifyWriteTests {
+
+        @Test
+        @DisplayName("Compras y órdenes deben actualizar el cache tras el commit")
+        void purchasesShouldUpdateCache() {
+            assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+
+            inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(3));
+            assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(7);
+
+            inventoryService.processOrderPurchase(new OrderPurchaseRequest(List.of(
+                    new PurchaseLineRequest(PRODUCT_ID, 2),
+                    new PurchaseLineRequest(OTHER_PRODUCT_ID, 1))));
+            assertThat(inventoryService.hasStock(PRODUCT_ID, 5)).isTrue();
+            assertThat(inventoryService.hasStock(PRODUCT_ID, 6)).isFalse();
+            assertThat(inventoryService.getInventoryByProductId(OTHER_PRODUCT_ID).getQuantity()).isEqualTo(1);
+        }
+    }
+
+    private double misses() {
+        return meterRegistry.counter("inventory.cache.misses").count();
+    }
+
+    private static Inventory row(Long productId, int quantity) {
+        return Inventory.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .reservedQuantity(0)
+                .minStock(1)
+                .build();
+    }
+}
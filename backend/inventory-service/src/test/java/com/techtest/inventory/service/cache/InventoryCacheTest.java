@@ -0,0 +1,144 @@
+package com.techtest.inventory.service.cache;
+
+import com.techtest.inventory.entity.Inventory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InventoryCache Tests")
+class InventoryCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Solo el primer acceso debe leer la BD")
+    void repeatedReadsShouldBeServedFromMemory() {
+        InventoryCache cache = cache(100, 60_000, 0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(cache.get(1L, () -> load(row(1L, 10, 1L), 5)).orElseThrow().getQuantity()).isEqualTo(15);
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(registry.counter("inventory.cache.hits").count()).isEqualTo(999);
+        assertThat(registry.counter("inventory.cache.misses").count()).isEqualTo(1);
+        assertThat(registry.get("inventory.cache.hit-ratio").gauge().value()).isEqualTo(0.999);
+    }
+
+    @Test
+    @DisplayName("Una escritura debe actualizar la entrada conservando las ubicaciones, solo tras el commit")
+    void writeShouldApplyAfterCommit() {
+        InventoryCache cache = cache(100, 60_000, 0);
+        cache.get(1L, () -> load(row(1L, 10, 1L), 5));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.rowWritten(row(1L, 4, 2L));
+        assertThat(cache.get(1L, this::unexpectedLoad).orElseThrow().getQuantity()).isEqualTo(15);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.get(1L, this::unexpectedLoad).orElseThrow().getQuantity()).isEqualTo(9);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Sin transacción: se aplica en el momento
+        cache.locatedChanged(1L, -5);
+        assertThat(cache.get(1L, this::unexpectedLoad).orElseThrow().getQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Una escritura con versión anterior a la cacheada debe ignorarse")
+    void lateWriteShouldNotOverwriteNewerRow() {
+        InventoryCache cache = cache(100, 60_000, 0);
+        cache.get(1L, () -> load(row(1L, 10, 5L), 0));
+
+        cache.rowWritten(row(1L, 20, 4L));
+
+        assertThat(cache.get(1L, this::unexpectedLoad).orElseThrow().getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Una carga que se cruza con una escritura no debe quedar en el cache")
+    void loadRacingWithWriteShouldBeDiscarded() {
+        InventoryCache cache = cache(100, 60_000, 0);
+
+        // La escritura confirma mientras la lectura todavía tiene la fila anterior
+        Optional<Inventory> read = cache.get(1L, () -> {
+            cache.evict(1L);
+            return load(row(1L, 10, 1L), 0);
+        });
+
+        assertThat(read.orElseThrow().getQuantity()).isEqualTo(10);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Las entradas vencidas deben volver a leerse y el tamaño debe estar acotado")
+    void entriesShouldExpireAndBeBounded() throws InterruptedException {
+        InventoryCache cache = cache(64, 20, 0);
+        cache.get(1L, () -> load(row(1L, 10, 1L), 0));
+        Thread.sleep(30);
+        cache.get(1L, () -> load(row(1L, 8, 2L), 0));
+        assertThat(loads).hasValue(2);
+
+        for (long productId = 1; productId <= 10_000; productId++) {
+            long id = productId;
+            cache.get(id, () -> load(row(id, 1, 1L), 0));
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("La verificación por muestreo debe contar las lecturas desactualizadas y corregirlas")
+    void sampledVerificationShouldCountStaleReads() {
+        InventoryCache cache = cache(100, 60_000, 1.0);
+        cache.get(1L, () -> load(row(1L, 10, 1L), 0));
+
+        // Cambio fuera de esta instancia: la BD ya tiene otra cantidad
+        Inventory read = cache.get(1L, () -> load(row(1L, 3, 2L), 0)).orElseThrow();
+
+        assertThat(read.getQuantity()).isEqualTo(3);
+        assertThat(registry.counter("inventory.cache.verifications").count()).isEqualTo(1);
+        assertThat(registry.counter("inventory.cache.stale-reads").count()).isEqualTo(1);
+        assertThat(cache.get(1L, () -> load(row(1L, 3, 2L), 0)).orElseThrow().getQuantity()).isEqualTo(3);
+        assertThat(registry.counter("inventory.cache.stale-reads").count()).isEqualTo(1);
+    }
+
+    private InventoryCache cache(int maxEntries, long ttlMillis, double verifySampleRate) {
+        return new InventoryCache(registry, true, maxEntries, ttlMillis, verifySampleRate);
+    }
+
+    private Optional<InventoryCache.Snapshot> load(Inventory row, long located) {
+        loads.incrementAndGet();
+        return Optional.of(new InventoryCache.Snapshot(row, located));
+    }
+
+    private Optional<InventoryCache.Snapshot> unexpectedLoad() {
+        throw new AssertionError("La lectura debía servirse desde el cache");
+    }
+
+    private static Inventory row(Long productId, int quantity, Long version) {
+        return Inventory.builder()
+                .id(productId)
+                .productId(productId)
+                .quantity(quantity)
+                .reservedQuantity(0)
+                .minStock(0)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,259 @@
+package com.techtest.inventory.service.cluster;
+
+import com.jayway.jsonpath.JsonPath;
+import com.techtest.inventory.InventoryServiceApplication;
+import com.techtest.inventory.config.ClusterRoutingFilter;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.hotstock.HotStockManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Varios nodos de inventory-service en localhost, cada uno con su propia BD y un puerto elegido
+ * al arrancar: las peticiones a un nodo que no es dueño del producto se reenvían al dueño y el
+ * anillo se rebalancea cuando un nodo entra o sale.
+ */
+@DisplayName("Cluster - Reparto de productos entre nodos en localhost")
+class ClusterIntegrationTest {
+
+    private static final String API_KEY = "test-api-key";
+    private static final int NODES = 3;
+    private static final int STOCK = 50;
+
+    private final RestTemplate http = new RestTemplate();
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final List<String> urls = new ArrayList<>();
+
+    /**
+     * Cada nodo arranca en un puerto libre elegido por el servidor (server.port=0) y se une a
+     * través del primero.
+     */
+    @BeforeEach
+    void startNodes() {
+        for (int i = 0; i < NODES; i++) {
+            ConfigurableApplicationContext context = startNode(urls.isEmpty() ? List.of() : List.of(urls.get(0)));
+            contexts.add(context);
+            urls.add(context.getBean(ClusterMembership.class).self());
+        }
+    }
+
+    @AfterEach
+    void stopNodes() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("Una compra en un nodo que no es dueño debe aplicarse en el dueño")
+    void purchaseShouldBeForwardedToOwner() {
+        HashRing ring = HashRing.of(urls, 128);
+        for (long productId = 1; productId <= 30; productId++) {
+            repository(urls.indexOf(ring.ownerOf(productId))).save(inventory(productId));
+        }
+
+        for (long productId = 1; productId <= 30; productId++) {
+            int owner = urls.indexOf(ring.ownerOf(productId));
+            int entry = (owner + 1) % NODES;
+
+            ResponseEntity<String> response = http.exchange(urls.get(entry) + "/inventory/product/" + productId + "/purchase",
+                    HttpMethod.POST, new HttpEntity<>("{\"quantity\": 2}", headers()), String.class);
+
+            assertThat(response.getStatusCode().value()).isEqualTo(200);
+            assertThat(response.getHeaders().getFirst(ClusterRoutingFilter.NODE_HEADER)).isEqualTo(urls.get(owner));
+            Integer quantity = JsonPath.read(response.getBody(), "$.data.attributes.quantity");
+            assertThat(quantity).isEqualTo(STOCK - 2);
+            assertThat(repository(owner).findByProductId(productId).orElseThrow().getQuantity()).isEqualTo(STOCK - 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Los errores del dueño deben llegar tal cual al cliente")
+    void ownerErrorsShouldPassThrough() {
+        long productId = 404L;
+        String owner = HashRing.of(urls, 128).ownerOf(productId);
+        String entry = urls.stream().filter(url -> !url.equals(owner)).findFirst().orElseThrow();
+
+        assertThatThrownBy(() -> http.exchange(entry + "/inventory/product/" + productId,
+                HttpMethod.GET, new HttpEntity<>(headers()), String.class))
+                .isInstanceOfSatisfying(HttpClientErrorException.NotFound.class, e -> assertThat(
+                        e.getResponseHeaders().getFirst(ClusterRoutingFilter.NODE_HEADER)).isEqualTo(owner));
+    }
+
+    @Test
+    @DisplayName("Confirmar una reserva en un nodo que no es dueño debe aplicarse en el dueño")
+    void reservationConfirmShouldBeForwardedToOwner() {
+        long productId = 7L;
+        String owner = HashRing.of(urls, 128).ownerOf(productId);
+        repository(urls.indexOf(owner)).save(inventory(productId));
+        String entry = urls.stream().filter(url -> !url.equals(owner)).findFirst().orElseThrow();
+
+        ResponseEntity<String> reserved = http.exchange(entry + "/inventory/product/" + productId + "/reservations",
+                HttpMethod.POST, new HttpEntity<>("{\"quantity\": 3}", headers()), String.class);
+        String reservationId = JsonPath.read(reserved.getBody(), "$.data.id");
+
+        ResponseEntity<String> confirmed = http.exchange(entry + "/inventory/reservations/" + reservationId + "/confirm",
+                HttpMethod.POST, new HttpEntity<>(headers()), String.class);
+
+        assertThat(confirmed.getStatusCode().value()).isEqualTo(200);
+        assertThat(confirmed.getHeaders().getFirst(ClusterRoutingFilter.NODE_HEADER)).isEqualTo(owner);
+        assertThat(repository(urls.indexOf(owner)).findByProductId(productId).orElseThrow().getQuantity())
+                .isEqualTo(STOCK - 3);
+    }
+
+    @Test
+    @DisplayName("Una marca de reenvío enviada por un cliente no debe saltarse el enrutamiento")
+    void clientForwardedHeaderShouldBeIgnored() {
+        long productId = 11L;
+        String owner = HashRing.of(urls, 128).ownerOf(productId);
+        repository(urls.indexOf(owner)).save(inventory(productId));
+        String entry = urls.stream().filter(url -> !url.equals(owner)).findFirst().orElseThrow();
+
+        HttpHeaders headers = headers();
+        headers.set(ClusterClient.FORWARDED_HEADER, entry);
+        headers.set(ClusterClient.SECRET_HEADER, "adivinado");
+        ResponseEntity<String> response = http.exchange(entry + "/inventory/product/" + productId + "/purchase",
+                HttpMethod.POST, new HttpEntity<>("{\"quantity\": 1}", headers), String.class);
+
+        assertThat(response.getHeaders().getFirst(ClusterRoutingFilter.NODE_HEADER)).isEqualTo(owner);
+        assertThat(repository(urls.indexOf(owner)).findByProductId(productId).orElseThrow().getQuantity())
+                .isEqualTo(STOCK - 1);
+    }
+
+    @Test
+    @DisplayName("Un cliente con la API key no debe poder cambiar la membresía")
+    void membershipChangesShouldRequireClusterSecret() {
+        String entry = urls.get(0);
+        long epoch = contexts.get(0).getBean(ClusterMembership.class).state().getEpoch();
+        HttpHeaders headers = headers();
+        headers.set(ClusterClient.SECRET_HEADER, "adivinado");
+
+        assertThatThrownBy(() -> http.exchange(entry + "/inventory/cluster/members", HttpMethod.PUT,
+                new HttpEntity<>("{\"epoch\": " + (epoch + 100) + ", \"nodes\": [\"http://atacante:80/api/v1\"]}",
+                        headers()), String.class))
+                .isInstanceOf(HttpClientErrorException.Forbidden.class)
+                .hasMessageContaining("CLUSTER_PEER_REQUIRED");
+        assertThatThrownBy(() -> http.exchange(entry + "/inventory/cluster/nodes", HttpMethod.POST,
+                new HttpEntity<>("{\"url\": \"http://atacante:80/api/v1\"}", headers), String.class))
+                .isInstanceOf(HttpClientErrorException.Forbidden.class);
+        assertThatThrownBy(() -> http.exchange(entry + "/inventory/cluster/nodes?url=" + urls.get(1),
+                HttpMethod.DELETE, new HttpEntity<>(headers()), String.class))
+                .isInstanceOf(HttpClientErrorException.Forbidden.class);
+
+        for (ConfigurableApplicationContext context : contexts) {
+            ClusterMembership membership = context.getBean(ClusterMembership.class);
+            assertThat(membership.state().getEpoch()).isEqualTo(epoch);
+            assertThat(membership.state().getNodes()).containsExactlyInAnyOrderElementsOf(urls);
+        }
+    }
+
+    @Test
+    @DisplayName("Las operaciones sobre varios productos deben rechazarse en modo cluster")
+    void multiProductOperationsShouldBeRejected() {
+        String entry = urls.get(0);
+
+        assertThatThrownBy(() -> http.exchange(entry + "/inventory/purchases", HttpMethod.POST,
+                new HttpEntity<>("{\"items\": [{\"productId\": 1, \"quantity\": 1}]}", headers()), String.class))
+                .isInstanceOf(HttpClientErrorException.BadRequest.class)
+                .hasMessageContaining("CLUSTER_MULTI_PRODUCT_UNSUPPORTED");
+        assertThatThrownBy(() -> http.exchange(entry + "/inventory?productIds=1,2", HttpMethod.GET,
+                new HttpEntity<>(headers()), String.class))
+                .isInstanceOf(HttpClientErrorException.BadRequest.class);
+    }
+
+    @Test
+    @DisplayName("Al entrar y salir un nodo todos deben adoptar el nuevo anillo")
+    void ringShouldRebalanceOnJoinAndLeave() {
+        long initialEpoch = contexts.get(0).getBean(ClusterMembership.class).state().getEpoch();
+        HashRing before = HashRing.of(urls, 128);
+
+        // Productos en modo hot en su dueño actual; los que pasen al nodo nuevo deben liberarse
+        List<Long> hotProducts = LongStream.rangeClosed(1, 200).boxed().toList();
+        for (long productId : hotProducts) {
+            int owner = urls.indexOf(before.ownerOf(productId));
+            repository(owner).save(inventory(productId));
+            contexts.get(owner).getBean(HotStockManager.class).enable(productId);
+        }
+
+        ConfigurableApplicationContext joined = startNode(List.of(urls.get(0)));
+        contexts.add(joined);
+        String newUrl = joined.getBean(ClusterMembership.class).self();
+        List<String> grown = new ArrayList<>(urls);
+        grown.add(newUrl);
+
+        for (ConfigurableApplicationContext context : contexts) {
+            ClusterMembership membership = context.getBean(ClusterMembership.class);
+            assertThat(membership.state().getEpoch()).isEqualTo(initialEpoch + 1);
+            assertThat(membership.state().getNodes()).containsExactlyInAnyOrderElementsOf(grown);
+        }
+        HashRing after = HashRing.of(grown, 128);
+        List<Long> moved = hotProducts.stream().filter(id -> after.ownerOf(id).equals(newUrl)).toList();
+        assertThat(moved).isNotEmpty();
+        for (long productId : hotProducts) {
+            int previousOwner = urls.indexOf(before.ownerOf(productId));
+            assertThat(contexts.get(previousOwner).getBean(HotStockManager.class).isHot(productId))
+                    .isEqualTo(!moved.contains(productId));
+        }
+
+        // El nodo nuevo se detiene y avisa su salida
+        joined.close();
+        contexts.remove(joined);
+
+        for (ConfigurableApplicationContext context : contexts) {
+            ClusterMembership membership = context.getBean(ClusterMembership.class);
+            assertThat(membership.state().getEpoch()).isEqualTo(initialEpoch + 2);
+            assertThat(membership.state().getNodes()).containsExactlyInAnyOrderElementsOf(urls);
+            assertThat(membership.ownerOf(moved.get(0))).isEqualTo(before.ownerOf(moved.get(0)));
+        }
+    }
+
+    private ConfigurableApplicationContext startNode(List<String> seeds) {
+        return new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:cluster-node-" + UUID.randomUUID(),
+                        "--inventory.cluster.enabled=true",
+                        "--inventory.cluster.nodes=" + String.join(",", seeds),
+                        "--logging.level.com.techtest.inventory=WARN",
+                        "--spring.jpa.show-sql=false");
+    }
+
+    private InventoryRepository repository(int node) {
+        return contexts.get(node).getBean(InventoryRepository.class);
+    }
+
+    private static Inventory inventory(long productId) {
+        return Inventory.builder()
+                .productId(productId)
+                .quantity(STOCK)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build();
+    }
+
+    private static HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-API-Key", API_KEY);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
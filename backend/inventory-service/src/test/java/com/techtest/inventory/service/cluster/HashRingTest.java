@@ -0,0 +1,87 @@
+package com.techtest.inventory.service.cluster;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HashRing - Reparto de productos entre nodos")
+class HashRingTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int VIRTUAL_NODES = 128;
+    private static final List<String> NODES = List.of(
+            "http://localhost:8082/api/v1",
+            "http://localhost:8083/api/v1",
+            "http://localhost:8084/api/v1");
+    private static final String NEW_NODE = "http://localhost:8085/api/v1";
+
+    @Test
+    @DisplayName("Los productos deben repartirse de forma pareja entre los nodos")
+    void shouldBalanceProducts() {
+        HashRing ring = HashRing.of(NODES, VIRTUAL_NODES);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            owned.merge(ring.ownerOf(productId), 1, Integer::sum);
+        }
+
+        int expected = PRODUCTS / NODES.size();
+        assertThat(owned).containsOnlyKeys(NODES);
+        owned.values().forEach(count -> assertThat(count).isBetween(expected * 3 / 4, expected * 5 / 4));
+    }
+
+    @Test
+    @DisplayName("El dueño no debe depender del orden de los nodos")
+    void shouldNotDependOnNodeOrder() {
+        HashRing ring = HashRing.of(NODES, VIRTUAL_NODES);
+        HashRing reversed = HashRing.of(List.of(NODES.get(2), NODES.get(1), NODES.get(0)), VIRTUAL_NODES);
+
+        for (long productId = 1; productId <= 1000; productId++) {
+            assertThat(reversed.ownerOf(productId)).isEqualTo(ring.ownerOf(productId));
+        }
+    }
+
+    @Test
+    @DisplayName("Al agregar un nodo solo deben moverse productos hacia él")
+    void addingNodeShouldOnlyMoveProductsToIt() {
+        HashRing before = HashRing.of(NODES, VIRTUAL_NODES);
+        HashRing after = HashRing.of(List.of(NODES.get(0), NODES.get(1), NODES.get(2), NEW_NODE), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            String owner = after.ownerOf(productId);
+            if (!owner.equals(before.ownerOf(productId))) {
+                assertThat(owner).isEqualTo(NEW_NODE);
+                moved++;
+            }
+        }
+
+        // En promedio 1/4 de los productos pasa al nuevo nodo
+        assertThat(moved).isBetween(PRODUCTS / 8, PRODUCTS * 3 / 8);
+    }
+
+    @Test
+    @DisplayName("Al quitar un nodo solo deben moverse sus productos")
+    void removingNodeShouldOnlyMoveItsProducts() {
+        HashRing before = HashRing.of(NODES, VIRTUAL_NODES);
+        HashRing after = HashRing.of(NODES.subList(0, 2), VIRTUAL_NODES);
+
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            String previous = before.ownerOf(productId);
+            if (!previous.equals(NODES.get(2))) {
+                assertThat(after.ownerOf(productId)).isEqualTo(previous);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Un anillo vacío no debe tener dueños")
+    void emptyRingShouldHaveNoOwner() {
+        assertThat(HashRing.of(List.of(), VIRTUAL_NODES).ownerOf(1L)).isNull();
+    }
+}
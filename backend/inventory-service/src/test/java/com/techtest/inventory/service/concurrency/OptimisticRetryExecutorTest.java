@@ -0,0 +1,89 @@
+package com.techtest.inventory.service.concurrency;
+
+import com.techtest.inventory.exception.InventoryVersionMismatchException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OptimisticRetryExecutor Tests")
+class OptimisticRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticRetryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new OptimisticRetryExecutor(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Debe reintentar hasta que la acción no tenga conflicto y registrar la contención")
+    void shouldRetryUntilSuccessAndRecordContention() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.execute(7L, null, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflicto");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(meterRegistry.counter("inventory.optimistic_lock.attempts", "outcome", "completed").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("inventory.optimistic_lock.attempts", "outcome", "conflict").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe propagar el conflicto al agotar los intentos")
+    void shouldGiveUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute(7L, null, () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflicto");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(calls.get()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Debe publicar solo los productos con más conflictos de la ventana")
+    void shouldPublishBoundedTopConflicts() {
+        ReflectionTestUtils.setField(executor, "topProducts", 3);
+        for (long productId = 1; productId <= 50; productId++) {
+            conflict(productId);
+        }
+        for (int i = 0; i < 10; i++) {
+            conflict(99L);
+            conflict(98L);
+        }
+
+        executor.publishTopConflicts();
+
+        Collection<Gauge> gauges = meterRegistry.find("inventory.optimistic_lock.top_conflicts").gauges();
+        assertThat(gauges).hasSize(3);
+        assertThat(gauges).extracting(g -> g.getId().getTag("productId")).contains("99", "98");
+        assertThat(meterRegistry.find("inventory.optimistic_lock.attempts").counters()).hasSize(2);
+
+        // Una ventana sin conflictos deja el gauge vacío
+        executor.publishTopConflicts();
+        assertThat(meterRegistry.find("inventory.optimistic_lock.top_conflicts").gauges()).isEmpty();
+    }
+
+    private void conflict(long productId) {
+        assertThatThrownBy(() -> executor.execute(productId, 1L, () -> {
+            throw new OptimisticLockingFailureException("conflicto");
+        })).isInstanceOf(InventoryVersionMismatchException.class);
+    }
+}
@@ -0,0 +1,238 @@
+package com.techtest.inventory.service.escrow;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.repository.EscrowLeaseRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.repository.OutboxEventRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import com.techtest.inventory.service.outbox.OutboxWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Varias instancias del modo escrow en la misma JVM, compartiendo la BD como lo harían varias
+ * réplicas: nunca se sobrevende y las porciones de una instancia caída vuelven al disponible.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DisplayName("Escrow - Porciones de stock entre instancias")
+class EscrowStockIntegrationTest {
+
+    private static final Long PRODUCT_ID = 960L;
+    private static final int STOCK = 1000;
+    private static final int INSTANCES = 4;
+    private static final int LEASE_SIZE = 20;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private EscrowLeaseRepository leaseRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    private final List<EscrowStockManager> instances = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(STOCK)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(EscrowStockManager::shutdown);
+        instances.clear();
+    }
+
+    @Test
+    @DisplayName("Compras concurrentes en varias instancias no deben sobrevender")
+    void concurrentInstancesShouldNeverOversell() throws Exception {
+        for (int i = 0; i < INSTANCES; i++) {
+            startInstance("node-" + i, 30_000);
+        }
+        ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor();
+        maintenance.scheduleWithFixedDelay(() -> instances.forEach(EscrowStockManager::maintain),
+                20, 20, TimeUnit.MILLISECONDS);
+
+        ExecutorService buyers = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < STOCK + 500; i++) {
+                EscrowStockManager instance = instances.get(i % INSTANCES);
+                futures.add(buyers.submit(() -> {
+                    start.await();
+                    try {
+                        instance.purchase(PRODUCT_ID, 1);
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        // esperado al agotarse el stock (o quedar en porciones de otras instancias)
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            buyers.shutdown();
+            maintenance.shutdownNow();
+            maintenance.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        // Solo puede quedar sin vender lo que otras instancias tenían en su porción
+        assertThat(succeeded.get()).isLessThanOrEqualTo(STOCK);
+        assertThat(succeeded.get()).isGreaterThan(STOCK - INSTANCES * LEASE_SIZE);
+
+        instances.forEach(instance -> instance.disable(PRODUCT_ID));
+
+        Inventory row = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+        assertThat(row.getQuantity()).isEqualTo(STOCK - succeeded.get());
+        assertThat(row.getReservedQuantity()).isZero();
+        assertThat(row.getEscrowQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("Las unidades cedidas no pueden venderse por otra ruta")
+    void leasedUnitsShouldBeReserved() {
+        EscrowStockManager instance = startInstance("node-a", 30_000);
+
+        instance.purchase(PRODUCT_ID, 1);
+
+        Inventory row = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+        assertThat(row.getReservedQuantity()).isEqualTo(LEASE_SIZE);
+        assertThat(row.getEscrowQuantity()).isEqualTo(LEASE_SIZE);
+        // La ruta directa no alcanza a las unidades cedidas
+        Integer decremented = new TransactionTemplate(transactionManager).execute(status ->
+                inventoryRepository.decrementQuantity(PRODUCT_ID, STOCK - LEASE_SIZE + 1));
+        assertThat(decremented).isZero();
+
+        instance.maintain();
+
+        row = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+        assertThat(row.getQuantity()).isEqualTo(STOCK - 1);
+        assertThat(row.getReservedQuantity()).isEqualTo(LEASE_SIZE - 1);
+        assertThat(row.getEscrowQuantity()).isEqualTo(LEASE_SIZE - 1);
+    }
+
+    @Test
+    @DisplayName("La porción vencida de una instancia caída debe volver al disponible")
+    void expiredLeaseShouldBeReclaimed() throws InterruptedException {
+        EscrowStockManager crashed = startInstance("node-crashed", 200);
+        EscrowStockManager survivor = startInstance("node-survivor", 30_000);
+
+        crashed.purchase(PRODUCT_ID, 3);
+        crashed.maintain();
+        // La instancia se cae: deja de renovar su porción
+        instances.remove(crashed);
+
+        Thread.sleep(300);
+        survivor.reapExpired();
+
+        Inventory row = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+        assertThat(row.getQuantity()).isEqualTo(STOCK - 3);
+        assertThat(row.getReservedQuantity()).isZero();
+        assertThat(leaseRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Las ventas de una porción vencida sin stock deben registrarse como fallidas")
+    void expiredSalesWithoutStockShouldFail() throws InterruptedException {
+        EscrowStockManager isolated = startInstance("node-isolated", 200);
+        EscrowStockManager survivor = startInstance("node-survivor", 30_000);
+
+        isolated.purchase(PRODUCT_ID, 3);
+        // Aislada de la BD más que el vencimiento: otra instancia recupera la porción
+        Thread.sleep(300);
+        survivor.reapExpired();
+        // Las unidades devueltas se venden por otra ruta: queda 1 disponible
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                inventoryRepository.decrementQuantity(PRODUCT_ID, STOCK - 1));
+        outboxEventRepository.deleteAll();
+
+        isolated.maintain();
+
+        Inventory row = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+        assertThat(row.getQuantity()).isZero();
+        assertThat(row.getReservedQuantity()).isZero();
+        assertThat(row.getEscrowQuantity()).isZero();
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getEventType().equals("ESCROW_SALES_FAILED"))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getPayload()).contains("\"failedUnits\":2"));
+    }
+
+    @Test
+    @DisplayName("Sin stock suficiente en la BD ni en la porción debe rechazar la compra")
+    void shouldRejectWhenStockIsExhausted() {
+        EscrowStockManager instance = startInstance("node-a", 30_000);
+
+        assertThatThrownBy(() -> instance.purchase(PRODUCT_ID, STOCK + 1))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThat(instance.purchase(PRODUCT_ID, STOCK).getQuantity()).isZero();
+    }
+
+    private EscrowStockManager startInstance(String instanceId, long leaseTtlMillis) {
+        EscrowStockManager instance = new EscrowStockManager(inventoryRepository, leaseRepository, outboxWriter, inventoryCache, lowStockIndex,
+                transactionManager, new SimpleMeterRegistry(), instanceId);
+        ReflectionTestUtils.setField(instance, "leaseSize", LEASE_SIZE);
+        ReflectionTestUtils.setField(instance, "leaseTtlMillis", leaseTtlMillis);
+        instance.enable(PRODUCT_ID);
+        instances.add(instance);
+        return instance;
+    }
+}
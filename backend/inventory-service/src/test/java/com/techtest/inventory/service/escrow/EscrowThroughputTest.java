@@ -0,0 +1,192 @@
+package com.techtest.inventory.service.escrow;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.repository.EscrowLeaseRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import com.techtest.inventory.service.outbox.OutboxWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput de compras de un mismo producto con 1, 2 y 4 instancias en modo escrow, contra la
+ * ruta directa a BD (UPDATE condicional sobre la fila). Cada instancia aporta sus propios hilos,
+ * como lo haría una réplica con su propio pool.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Slf4j
+@DisplayName("Escrow - Throughput por cantidad de instancias")
+class EscrowThroughputTest {
+
+    private static final Long PRODUCT_ID = 970L;
+    private static final int STOCK = 1_000_000;
+    private static final int THREADS_PER_INSTANCE = 4;
+    private static final int PURCHASES_PER_THREAD = 5_000;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private EscrowLeaseRepository leaseRepository;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(STOCK)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build());
+    }
+
+    @Test
+    @DisplayName("El throughput crece con las instancias y pocas compras llegan a la BD")
+    void throughputShouldScaleWithInstances() throws Exception {
+        int sold = 0;
+        double db = runDirect();
+        sold += THREADS_PER_INSTANCE * PURCHASES_PER_THREAD;
+
+        double[] escrow = new double[3];
+        int[] counts = {1, 2, 4};
+        for (int i = 0; i < counts.length; i++) {
+            escrow[i] = runEscrow(counts[i]);
+            sold += counts[i] * THREADS_PER_INSTANCE * PURCHASES_PER_THREAD;
+        }
+
+        log.warn("Throughput compras - BD directa: {} ops/s, escrow 1 instancia: {} ops/s, " +
+                        "2 instancias: {} ops/s, 4 instancias: {} ops/s",
+                Math.round(db), Math.round(escrow[0]), Math.round(escrow[1]), Math.round(escrow[2]));
+
+        assertThat(escrow[0]).isGreaterThan(db);
+        Inventory row = inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+        assertThat(row.getQuantity()).isEqualTo(STOCK - sold);
+        assertThat(row.getReservedQuantity()).isZero();
+    }
+
+    /**
+     * Compras con el UPDATE condicional de la ruta normal, con los hilos de una instancia.
+     */
+    private double runDirect() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return run(THREADS_PER_INSTANCE, thread -> {
+            Integer updated = transactionTemplate.execute(status -> inventoryRepository.decrementQuantity(PRODUCT_ID, 1));
+            if (updated == null || updated == 0) {
+                throw new InsufficientStockException(PRODUCT_ID, 1, 0);
+            }
+        });
+    }
+
+    private double runEscrow(int instanceCount) throws Exception {
+        List<EscrowStockManager> instances = new ArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        for (int i = 0; i < instanceCount; i++) {
+            EscrowStockManager instance = new EscrowStockManager(inventoryRepository, leaseRepository, outboxWriter, inventoryCache, lowStockIndex,
+                    transactionManager, registry, "bench-" + instanceCount + "-" + i);
+            instance.enable(PRODUCT_ID);
+            instances.add(instance);
+        }
+        ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor();
+        maintenance.scheduleWithFixedDelay(() -> instances.forEach(EscrowStockManager::maintain),
+                50, 50, TimeUnit.MILLISECONDS);
+        try {
+            double throughput = run(instanceCount * THREADS_PER_INSTANCE,
+                    thread -> instances.get(thread % instanceCount).purchase(PRODUCT_ID, 1));
+
+            double leaseRequests = registry.find("inventory.escrow.lease-requests").counters().stream()
+                    .mapToDouble(counter -> counter.count()).sum();
+            double purchases = instanceCount * THREADS_PER_INSTANCE * (double) PURCHASES_PER_THREAD;
+            // La mayoría de las compras se sirven sin acceder a la BD
+            assertThat(leaseRequests / purchases).isLessThan(0.05);
+            return throughput;
+        } finally {
+            maintenance.shutdownNow();
+            maintenance.awaitTermination(5, TimeUnit.SECONDS);
+            instances.forEach(EscrowStockManager::shutdown);
+        }
+    }
+
+    /**
+     * Lanza PURCHASES_PER_THREAD compras de 1 unidad en cada hilo y retorna las compras por segundo.
+     */
+    private double run(int threads, PurchaseCall call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    try {
+                        call.purchase(thread);
+                    } catch (InsufficientStockException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        assertThat(failed.get()).isZero();
+        return threads * PURCHASES_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @FunctionalInterface
+    private interface PurchaseCall {
+        void purchase(int thread);
+    }
+}
@@ -0,0 +1,198 @@
+package com.techtest.inventory.service.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InventoryEventBus Tests")
+class InventoryEventBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InventoryEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe entregar los eventos por lotes, en orden y fuera del hilo que publica")
+    void shouldDeliverInOrderOnSubscriberThread() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber(100);
+        bus = startBus(EventOverflowPolicy.DROP_NEWEST, 1024, subscriber);
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(changed(i));
+        }
+
+        assertThat(subscriber.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.events).extracting(InventoryEvent::productId)
+                .containsExactlyElementsOf(LongStream.range(0, 100).boxed().toList());
+        assertThat(subscriber.threads).allMatch(name -> name.equals("inventory-events-recording"));
+        assertThat(subscriber.batches).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Dentro de una transacción debe entregar solo tras el commit y nada si hay rollback")
+    void shouldDeliverAfterCommitOnly() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        bus = startBus(EventOverflowPolicy.DROP_NEWEST, 1024, subscriber);
+
+        // Transacción con rollback
+        beginTransaction();
+        bus.publish(changed(1));
+        completeTransaction(false);
+
+        // Transacción con commit
+        beginTransaction();
+        bus.publish(changed(2));
+        Thread.sleep(200);
+        assertThat(subscriber.events).isEmpty();
+        completeTransaction(true);
+
+        assertThat(subscriber.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.events).extracting(InventoryEvent::productId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Con el buffer lleno y DROP_NEWEST debe descartar sin bloquear a quien publica")
+    void shouldDropNewestWhenBufferFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        InventoryEventSubscriber slow = new InventoryEventSubscriber() {
+            @Override
+            public String name() {
+                return "slow";
+            }
+
+            @Override
+            public void onEvents(List<InventoryEvent> events) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        bus = startBus(EventOverflowPolicy.DROP_NEWEST, 4, slow);
+
+        bus.publish(changed(0));
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();  // el suscriptor retiene el primer lote
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= 10; i++) {
+            bus.publish(changed(i));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertThat(elapsedMillis).isLessThan(100);
+        assertThat(meterRegistry.counter("inventory.events.dropped", "subscriber", "slow").count()).isEqualTo(6);
+        assertThat(meterRegistry.counter("inventory.events.published").count()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("Un suscriptor que falla no debe afectar a los demás")
+    void shouldIsolateFailingSubscriber() throws Exception {
+        RecordingSubscriber healthy = new RecordingSubscriber(3);
+        InventoryEventSubscriber failing = new InventoryEventSubscriber() {
+            @Override
+            public String name() {
+                return "failing";
+            }
+
+            @Override
+            public void onEvents(List<InventoryEvent> events) {
+                throw new IllegalStateException("fallo del suscriptor");
+            }
+        };
+        bus = startBus(EventOverflowPolicy.DROP_NEWEST, 1024, failing, healthy);
+
+        bus.publish(changed(1));
+        bus.publish(new LowStockEvent(1L, 2, 5));
+        bus.publish(changed(2));
+
+        assertThat(healthy.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(healthy.events).hasSize(3);
+        assertThat(healthy.events.get(1)).isInstanceOf(LowStockEvent.class);
+    }
+
+    // ==================== HELPERS ====================
+
+    private InventoryEventBus startBus(EventOverflowPolicy policy, int bufferSize,
+                                       InventoryEventSubscriber... subscribers) {
+        InventoryEventBus created = new InventoryEventBus(List.of(subscribers), meterRegistry);
+        ReflectionTestUtils.setField(created, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(created, "bufferSize", bufferSize);
+        created.start();
+        return created;
+    }
+
+    private static InventoryChangedEvent changed(long productId) {
+        return new InventoryChangedEvent(productId, 10, 9, InventoryChangedEvent.Reason.PURCHASE);
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static void completeTransaction(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (committed) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(committed
+                    ? TransactionSynchronization.STATUS_COMMITTED
+                    : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+
+    private static final class RecordingSubscriber implements InventoryEventSubscriber {
+
+        private final List<InventoryEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch done;
+        private volatile int batches;
+
+        private RecordingSubscriber(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public void onEvents(List<InventoryEvent> batch) {
+            batches++;
+            threads.add(Thread.currentThread().getName());
+            events.addAll(batch);
+            batch.forEach(event -> done.countDown());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.techtest.inventory.service.events;
+
+import com.techtest.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LowStockAlerts Tests")
+class LowStockAlertsTest {
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LowStockAlerts alerts;
+
+    @BeforeEach
+    void setUp() {
+        when(inventoryRepository.findLowStockProductIds()).thenReturn(List.of(7L));
+        alerts = new LowStockAlerts(inventoryRepository, meterRegistry);
+        alerts.rebuild();
+    }
+
+    @Test
+    @DisplayName("Debe alertar una sola vez al cruzar el mínimo, sin importar cuántas compras sigan")
+    void shouldAlertOnlyOnTransition() {
+        long alertsEmitted = 0;
+        for (int stock = 20; stock >= 0; stock--) {
+            if (alerts.update(1L, stock, 5) != LowStockAlerts.Transition.NONE) {
+                alertsEmitted++;
+            }
+        }
+
+        assertThat(alertsEmitted).isEqualTo(1);
+        assertThat(alerts.isLow(1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("El estado reconstruido al arrancar no debe volver a alertar productos ya bajos")
+    void shouldRebuildFromRepository() {
+        assertThat(alerts.isLow(7L)).isTrue();
+        assertThat(alerts.update(7L, 1, 5)).isEqualTo(LowStockAlerts.Transition.NONE);
+        assertThat(alerts.update(7L, 50, 5)).isEqualTo(LowStockAlerts.Transition.RECOVERED);
+    }
+
+    @Test
+    @DisplayName("Las transiciones repetidas dentro de la ventana deben coalescerse al estado final")
+    void shouldCoalesceWithinWindow() {
+        assertThat(alerts.update(1L, 3, 5)).isEqualTo(LowStockAlerts.Transition.LOW);
+        assertThat(alerts.update(1L, 50, 5)).isEqualTo(LowStockAlerts.Transition.NONE);
+        assertThat(alerts.update(1L, 2, 5)).isEqualTo(LowStockAlerts.Transition.NONE);
+        assertThat(alerts.update(1L, 40, 5)).isEqualTo(LowStockAlerts.Transition.NONE);
+
+        List<LowStockAlerts.Level> due = alerts.closeWindow();
+
+        assertThat(due).singleElement().satisfies(level -> {
+            assertThat(level.low()).isFalse();
+            assertThat(level.currentStock()).isEqualTo(40);
+            assertThat(level.toEvent()).isInstanceOf(StockRecoveredEvent.class);
+        });
+        assertThat(meterRegistry.counter("inventory.low_stock.coalesced").count()).isEqualTo(3);
+        // Ya emitido en la ventana nueva: otra transición vuelve a coalescerse
+        assertThat(alerts.update(1L, 1, 5)).isEqualTo(LowStockAlerts.Transition.NONE);
+    }
+
+    @Test
+    @DisplayName("Si el estado vuelve al último emitido dentro de la ventana no debe emitirse nada")
+    void shouldDropFlappingBackToEmittedState() {
+        alerts.update(1L, 3, 5);
+        alerts.update(1L, 50, 5);
+        alerts.update(1L, 1, 5);
+
+        assertThat(alerts.closeWindow()).isEmpty();
+        assertThat(alerts.closeWindow()).isEmpty();
+        assertThat(alerts.update(1L, 60, 5)).isEqualTo(LowStockAlerts.Transition.RECOVERED);
+    }
+
+    @Test
+    @DisplayName("Olvidar un producto eliminado debe permitir alertar de nuevo a la fila nueva")
+    void shouldForgetDeletedProduct() {
+        alerts.update(1L, 3, 5);
+
+        alerts.forget(1L);
+
+        assertThat(alerts.isLow(1L)).isFalse();
+        assertThat(alerts.update(1L, 2, 5)).isEqualTo(LowStockAlerts.Transition.LOW);
+    }
+}
@@ -0,0 +1,120 @@
+package com.techtest.inventory.service.groupcommit;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.InventoryService;
+import com.techtest.inventory.service.cache.InventoryCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compras concurrentes con el modo GROUP_COMMIT: sin sobreventa y menos transacciones que compras.
+ */
+@SpringBootTest(properties = {
+        "inventory.purchase.mode=GROUP_COMMIT",
+        "inventory.purchase.group-commit.window-ms=5",
+        "inventory.cache.enabled=true",
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Slf4j
+@DisplayName("Group commit - Compras concurrentes")
+class GroupCommitPurchaseTest {
+
+    private static final Long PRODUCT_ID = 800L;
+    private static final int STOCK = 500;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 800;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.deleteAll();
+        inventoryCache.invalidateAll();
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(STOCK)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build());
+    }
+
+    @Test
+    @DisplayName("No debe sobrevender y debe agrupar compras en menos transacciones")
+    void shouldCoalescePurchasesWithoutOverselling() throws Exception {
+        double batchesBefore = meterRegistry.counter("inventory.purchase.group_commit.batches").count();
+
+        assertThat(inventoryService.hasStock(PRODUCT_ID, STOCK)).isTrue();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(1));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        double batches = meterRegistry.counter("inventory.purchase.group_commit.batches").count() - batchesBefore;
+        log.warn("Group commit: {} compras en {} transacciones", ATTEMPTS, (long) batches);
+
+        assertThat(succeeded.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(ATTEMPTS - STOCK);
+        assertThat(inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow().getQuantity()).isZero();
+        assertThat(batches).isLessThan(ATTEMPTS);
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isZero();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 1)).isFalse();
+    }
+}
@@ -0,0 +1,145 @@
+package com.techtest.inventory.service.groupcommit;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.InventoryNotFoundException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.cache.InventoryCache;
+import com.techtest.inventory.service.groupcommit.PurchaseBatcher.PendingPurchase;
+import com.techtest.inventory.service.events.InventoryEventRecorder;
+import com.techtest.inventory.service.hotstock.HotStockManager;
+import com.techtest.inventory.service.lowstock.LowStockIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PurchaseBatcher Tests")
+class PurchaseBatcherTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private HotStockManager hotStockManager;
+
+    @Mock
+    private InventoryEventRecorder events;
+
+    @Mock
+    private InventoryCache inventoryCache;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    private PurchaseBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new PurchaseBatcher(inventoryRepository, hotStockManager,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), events, inventoryCache, lowStockIndex,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar el lote completo con un único UPDATE condicional")
+    void shouldApplyWholeBatchWithSingleUpdate() {
+        when(inventoryRepository.decrementAndGet(100L, 6)).thenReturn(Optional.of(inventory(14)));
+
+        List<Object> results = batcher.apply(100L, purchases(1, 2, 3));
+
+        assertThat(results).extracting(r -> ((Inventory) r).getQuantity()).containsExactly(19, 17, 14);
+        verify(inventoryRepository, never()).lockAvailableQuantity(any());
+        verify(hotStockManager).reconcileDirectPurchase(100L, 6);
+        // Solo la fila final del lote llega al cache
+        verify(inventoryCache).rowWritten(argThat(row -> row.getQuantity() == 14));
+    }
+
+    @Test
+    @DisplayName("Debe repartir el stock en orden de llegada cuando no alcanza para todo el lote")
+    void shouldPartitionInArrivalOrder() {
+        when(inventoryRepository.decrementAndGet(100L, 9)).thenReturn(Optional.empty());
+        when(inventoryRepository.lockAvailableQuantity(100L)).thenReturn(Optional.of(5));
+        when(inventoryRepository.decrementAndGet(100L, 5)).thenReturn(Optional.of(inventory(0)));
+
+        List<Object> results = batcher.apply(100L, purchases(3, 4, 2));
+
+        assertThat(((Inventory) results.get(0)).getQuantity()).isEqualTo(2);
+        assertThat(results.get(1)).isInstanceOf(InsufficientStockException.class);
+        assertThat(((InsufficientStockException) results.get(1)).getAvailableQuantity()).isEqualTo(2);
+        assertThat(((Inventory) results.get(2)).getQuantity()).isZero();
+        verify(inventoryCache).rowWritten(argThat(row -> row.getQuantity() == 0));
+    }
+
+    @Test
+    @DisplayName("Si no alcanza para ninguna compra no debe escribir la fila")
+    void shouldRejectBatchWithoutWriting() {
+        when(inventoryRepository.decrementAndGet(100L, 7)).thenReturn(Optional.empty());
+        when(inventoryRepository.lockAvailableQuantity(100L)).thenReturn(Optional.of(2));
+
+        List<Object> results = batcher.apply(100L, purchases(3, 4));
+
+        assertThat(results).allSatisfy(result -> assertThat(result)
+                .isInstanceOfSatisfying(InsufficientStockException.class,
+                        e -> assertThat(e.getAvailableQuantity()).isEqualTo(2)));
+        verify(inventoryRepository, times(1)).decrementAndGet(anyLong(), anyInt());
+        verify(inventoryCache, never()).rowWritten(any());
+    }
+
+    @Test
+    @DisplayName("Un lote cuya suma desborda un int debe repartirse sin descontar un total negativo")
+    void shouldPartitionBatchWhoseTotalOverflowsInt() {
+        int large = Integer.MAX_VALUE - 10;
+        when(inventoryRepository.lockAvailableQuantity(100L)).thenReturn(Optional.of(large));
+        when(inventoryRepository.decrementAndGet(100L, large)).thenReturn(Optional.of(inventory(0)));
+
+        List<Object> results = batcher.apply(100L, purchases(large, large));
+
+        assertThat(((Inventory) results.get(0)).getQuantity()).isZero();
+        assertThat(results.get(1)).isInstanceOfSatisfying(InsufficientStockException.class,
+                e -> assertThat(e.getAvailableQuantity()).isZero());
+        verify(inventoryRepository, never()).decrementAndGet(eq(100L), intThat(amount -> amount < 0));
+        verify(inventoryRepository, times(1)).decrementAndGet(anyLong(), anyInt());
+        verify(hotStockManager).reconcileDirectPurchase(100L, large);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar todo el lote cuando no existe inventario")
+    void shouldRejectBatchWhenInventoryNotFound() {
+        when(inventoryRepository.decrementAndGet(100L, 3)).thenReturn(Optional.empty());
+        when(inventoryRepository.lockAvailableQuantity(100L)).thenReturn(Optional.empty());
+
+        List<Object> results = batcher.apply(100L, purchases(1, 2));
+
+        assertThat(results).allMatch(InventoryNotFoundException.class::isInstance);
+        verify(inventoryCache, never()).rowWritten(any());
+    }
+
+    private List<PendingPurchase> purchases(int... quantities) {
+        return Arrays.stream(quantities).mapToObj(PendingPurchase::new).toList();
+    }
+
+    private Inventory inventory(int quantity) {
+        return Inventory.builder()
+                .id(1L)
+                .productId(100L)
+                .quantity(quantity)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build();
+    }
+}
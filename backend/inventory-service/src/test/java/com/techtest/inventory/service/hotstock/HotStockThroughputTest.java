@@ -0,0 +1,147 @@
+package com.techtest.inventory.service.hotstock;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compras concurrentes con el modo hot activado: sin sobreventa, delta volcado a BD
+ * y comparación de throughput contra la ruta directa a BD.
+ */
+@SpringBootTest(properties = {
+        "inventory.hot-stock.flush-interval-ms=50",
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Slf4j
+@DisplayName("HotStock - Compras concurrentes y throughput")
+class HotStockThroughputTest {
+
+    private static final Long DB_PRODUCT_ID = 700L;
+    private static final Long HOT_PRODUCT_ID = 701L;
+    private static final int STOCK = 2000;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 2500;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private HotStockManager hotStockManager;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository.deleteAll();
+        inventoryRepository.save(buildInventory(DB_PRODUCT_ID));
+        inventoryRepository.save(buildInventory(HOT_PRODUCT_ID));
+        hotStockManager.enable(HOT_PRODUCT_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotStockManager.disable(HOT_PRODUCT_ID);
+    }
+
+    @Test
+    @DisplayName("Modo hot: no sobrevende, vuelca el delta y supera a la ruta de BD")
+    void shouldNeverOversellAndFlushDelta() throws Exception {
+        double dbThroughput = runPurchases(DB_PRODUCT_ID);
+        double hotThroughput = runPurchases(HOT_PRODUCT_ID);
+
+        log.warn("Throughput compras - BD: {} ops/s, hot: {} ops/s",
+                Math.round(dbThroughput), Math.round(hotThroughput));
+
+        assertThat(hotStockManager.availableQuantity(HOT_PRODUCT_ID).getAsLong()).isZero();
+        assertThat(inventoryService.hasStock(HOT_PRODUCT_ID, 1)).isFalse();
+
+        hotStockManager.flush();
+
+        assertThat(inventoryRepository.findByProductId(HOT_PRODUCT_ID).orElseThrow().getQuantity()).isZero();
+        assertThat(inventoryRepository.findByProductId(DB_PRODUCT_ID).orElseThrow().getQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("Una escritura administrativa vuelve a sembrar el contador")
+    void shouldReseedAfterAdministrativeUpdate() {
+        inventoryService.processPurchase(HOT_PRODUCT_ID, new PurchaseRequest(10));
+
+        inventoryService.updateQuantity(HOT_PRODUCT_ID, 50);
+
+        assertThat(hotStockManager.isHot(HOT_PRODUCT_ID)).isTrue();
+        assertThat(hotStockManager.availableQuantity(HOT_PRODUCT_ID).getAsLong()).isEqualTo(50);
+        assertThat(inventoryRepository.findByProductId(HOT_PRODUCT_ID).orElseThrow().getQuantity()).isEqualTo(50);
+    }
+
+    /**
+     * Lanza compras de 1 unidad desde varios hilos y retorna las compras por segundo.
+     */
+    private double runPurchases(Long productId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryService.processPurchase(productId, new PurchaseRequest(1));
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    // esperado cuando se agota el stock
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(STOCK);
+        return ATTEMPTS / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private Inventory buildInventory(Long productId) {
+        return Inventory.builder()
+                .productId(productId)
+                .quantity(STOCK)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build();
+    }
+}
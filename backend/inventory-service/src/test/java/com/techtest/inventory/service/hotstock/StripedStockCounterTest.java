@@ -0,0 +1,110 @@
+package com.techtest.inventory.service.hotstock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StripedStockCounter Tests")
+class StripedStockCounterTest {
+
+    @Test
+    @DisplayName("Debe repartir el stock inicial entre las franjas")
+    void shouldSpreadInitialStock() {
+        StripedStockCounter counter = new StripedStockCounter(8, 103);
+
+        assertThat(counter.stripes()).isEqualTo(8);
+        assertThat(counter.available()).isEqualTo(103);
+        assertThat(counter.pendingDelta()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe reunir stock de varias franjas cuando una sola no alcanza")
+    void shouldRebalanceWhenSingleStripeIsNotEnough() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+
+        long remaining = counter.tryAcquire(9);
+
+        assertThat(remaining).isEqualTo(1);
+        assertThat(counter.pendingDelta()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar sin modificar el stock cuando no alcanza")
+    void shouldRejectWhenInsufficient() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+
+        long result = counter.tryAcquire(11);
+
+        assertThat(result).isEqualTo(-1 - 10);
+        assertThat(counter.available()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar compras una vez congelado")
+    void shouldRejectWhenFrozen() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+        counter.tryAcquire(3);
+
+        counter.freeze();
+
+        assertThat(counter.tryAcquire(1)).isEqualTo(StripedStockCounter.FROZEN_RESULT);
+        assertThat(counter.available()).isEqualTo(7);
+        assertThat(counter.pendingDelta()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Debe absorber descuentos directos sin contarlos como venta pendiente")
+    void shouldAbsorbDirectPurchases() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+
+        assertThat(counter.absorb(4)).isTrue();
+        assertThat(counter.absorb(7)).isFalse();
+
+        assertThat(counter.available()).isEqualTo(6);
+        assertThat(counter.pendingDelta()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debe sobrevender con compras concurrentes")
+    void shouldNeverOversellUnderContention() throws Exception {
+        int stock = 1000;
+        StripedStockCounter counter = new StripedStockCounter(8, stock);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    int amount = 1 + (i % 3);
+                    if (counter.tryAcquire(amount) >= 0) {
+                        sold.addAndGet(amount);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(sold.get()).isLessThanOrEqualTo(stock);
+        assertThat(counter.available()).isEqualTo(stock - sold.get());
+        assertThat(counter.pendingDelta()).isEqualTo(sold.get());
+    }
+}
@@ -0,0 +1,121 @@
+package com.techtest.inventory.service.idempotency;
+
+import com.techtest.inventory.entity.IdempotencyRecord;
+import com.techtest.inventory.repository.IdempotencyRecordRepository;
+import com.techtest.inventory.service.idempotency.IdempotencyStore.Claim;
+import com.techtest.inventory.service.idempotency.IdempotencyStore.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyStore Tests")
+class IdempotencyStoreTest {
+
+    private static final String SCOPE = "POST /api/v1/inventory/product/1/purchase";
+    private static final byte[] BODY = "{\"quantity\":1}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new IdempotencyStore(repository, mock(PlatformTransactionManager.class), meterRegistry);
+        store.init();
+    }
+
+    @Test
+    @DisplayName("Una clave nueva debe reclamarse y luego responderse desde memoria")
+    void shouldClaimThenReplayFromMemory() {
+        Claim first = store.claim(SCOPE, "key-1", BODY);
+        assertThat(first.outcome()).isEqualTo(Outcome.CLAIMED);
+        verify(repository).insertClaim(anyString(), anyString(), any(), any());
+
+        store.complete(first, 200, "application/json", "\"3\"", "{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+        Claim replay = store.claim(SCOPE, "key-1", BODY);
+
+        assertThat(replay.outcome()).isEqualTo(Outcome.REPLAY);
+        assertThat(replay.response().body()).isEqualTo("{\"ok\":true}");
+        assertThat(replay.response().etag()).isEqualTo("\"3\"");
+        verify(repository).complete(first.keyHash(), 200, "application/json", "\"3\"", "{\"ok\":true}");
+        verify(repository, times(1)).insertClaim(anyString(), anyString(), any(), any());
+        assertThat(counter("memory_hit")).isEqualTo(1);
+        assertThat(counter("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe responder desde la BD cuando la clave no está en memoria")
+    void shouldReplayFromDatabase() {
+        Claim original = store.claim(SCOPE, "key-2", BODY);
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .keyHash(original.keyHash())
+                .requestHash(original.requestHash())
+                .statusCode(201)
+                .contentType("application/json")
+                .etag("\"4\"")
+                .responseBody("{}")
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(repository.insertClaim(anyString(), anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicada"));
+        when(repository.findById(original.keyHash())).thenReturn(Optional.of(record));
+
+        Claim replay = store.claim(SCOPE, "key-2", BODY);
+
+        assertThat(replay.outcome()).isEqualTo(Outcome.REPLAY);
+        assertThat(replay.response().statusCode()).isEqualTo(201);
+        assertThat(replay.response().etag()).isEqualTo("\"4\"");
+        assertThat(counter("db_hit")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe reportar en curso si la clave está reclamada y no está abandonada")
+    void shouldReportInProgress() {
+        when(repository.insertClaim(anyString(), anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicada"));
+        when(repository.findById(anyString())).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .requestHash("x")
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build()));
+        when(repository.takeOverStaleClaim(anyString(), anyString(), any(), any())).thenReturn(0);
+
+        assertThat(store.claim(SCOPE, "key-3", BODY).outcome()).isEqualTo(Outcome.IN_PROGRESS);
+        assertThat(counter("conflict")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la misma clave con otro cuerpo")
+    void shouldDetectMismatchedBody() {
+        Claim first = store.claim(SCOPE, "key-4", BODY);
+        store.complete(first, 200, "application/json", null, new byte[0]);
+
+        Claim other = store.claim(SCOPE, "key-4", "{\"quantity\":2}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(other.outcome()).isEqualTo(Outcome.MISMATCH);
+    }
+
+    private double counter(String result) {
+        return meterRegistry.counter("inventory.idempotency.requests", "result", result).count();
+    }
+}
@@ -0,0 +1,25 @@
+package com.techtest.inventory.service.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LruCache Tests")
+class LruCacheTest {
+
+    @Test
+    @DisplayName("Debe descartar la entrada usada hace más tiempo al superar el límite")
+    void shouldEvictLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");  // "b" pasa a ser la menos usada
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
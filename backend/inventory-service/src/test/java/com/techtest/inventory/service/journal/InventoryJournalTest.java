@@ -0,0 +1,141 @@
+package com.techtest.inventory.service.journal;
+
+import com.techtest.inventory.service.events.InventoryChangedEvent;
+import com.techtest.inventory.service.events.LowStockEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("InventoryJournal Tests")
+class InventoryJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<InventoryJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(InventoryJournal::close);
+    }
+
+    @Test
+    @DisplayName("Debe devolver en el replay los registros escritos, desde la secuencia pedida")
+    void shouldReplayFromSequence() {
+        InventoryJournal journal = open(1024, 8);
+        LocalDateTime occurredAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        for (int i = 0; i < 10; i++) {
+            assertThat(journal.append(new InventoryChangedEvent((long) i, 100 - i, 99 - i,
+                    InventoryChangedEvent.Reason.PURCHASE, occurredAt))).isEqualTo(i);
+        }
+
+        List<InventoryChangedEvent> replayed = new ArrayList<>();
+        long next = journal.replay(4, 100, entry -> replayed.add(entry.toEvent()));
+
+        assertThat(next).isEqualTo(10);
+        assertThat(replayed).hasSize(6);
+        assertThat(replayed.get(0)).isEqualTo(new InventoryChangedEvent(4L, 96, 95,
+                InventoryChangedEvent.Reason.PURCHASE, occurredAt));
+    }
+
+    @Test
+    @DisplayName("Debe rotar segmentos y conservar solo los últimos max-segments")
+    void shouldRotateAndRetainSegments() throws Exception {
+        InventoryJournal journal = open(4, 2);
+        for (int i = 0; i < 10; i++) {
+            journal.append(changed(i));
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".journal")).count()).isEqualTo(2);
+        }
+        assertThat(journal.firstSequence()).isEqualTo(4);
+
+        List<Long> productIds = new ArrayList<>();
+        long next = journal.replay(0, 3, entry -> productIds.add(entry.productId()));
+        next = journal.replay(next, 100, entry -> productIds.add(entry.productId()));
+
+        assertThat(next).isEqualTo(10);
+        assertThat(productIds).containsExactly(4L, 5L, 6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    @DisplayName("Al reabrir debe continuar tras el último registro válido e ignorar uno escrito a medias")
+    void shouldRecoverAfterRestart() throws Exception {
+        InventoryJournal journal = open(16, 8);
+        for (int i = 0; i < 5; i++) {
+            journal.append(changed(i));
+        }
+        journal.close();
+        opened.remove(journal);
+
+        // Último registro escrito a medias: se corrompe un byte de la cantidad nueva
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve(String.format("%020d.journal", 0)).toFile(), "rw")) {
+            file.seek(4L * JournalEntry.RECORD_SIZE + 28);
+            file.write(0x7F);
+        }
+
+        InventoryJournal reopened = open(16, 8);
+        assertThat(reopened.nextSequence()).isEqualTo(4);
+        assertThat(reopened.append(changed(42))).isEqualTo(4);
+
+        List<Long> productIds = new ArrayList<>();
+        reopened.replay(0, 100, entry -> productIds.add(entry.productId()));
+        assertThat(productIds).containsExactly(0L, 1L, 2L, 3L, 42L);
+    }
+
+    @Test
+    @DisplayName("Debe escribir solo los cambios de cantidad con un fsync por lote")
+    void shouldGroupFsyncPerBatch() {
+        InventoryJournal journal = open(1024, 8);
+
+        journal.onEvents(List.of(changed(1), new LowStockEvent(1L, 2, 5), changed(2), changed(3)));
+        journal.onEvents(List.of(new LowStockEvent(1L, 2, 5)));
+
+        assertThat(journal.nextSequence()).isEqualTo(3);
+        assertThat(meterRegistry.counter("inventory.journal.appended").count()).isEqualTo(3);
+        assertThat(meterRegistry.counter("inventory.journal.fsyncs").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No debe permitir dos escritores sobre el mismo directorio")
+    void shouldLockDirectory() {
+        open(16, 8);
+
+        assertThatThrownBy(() -> open(16, 8))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("en uso");
+    }
+
+    // ==================== HELPERS ====================
+
+    private InventoryJournal open(int segmentRecords, int maxSegments) {
+        InventoryJournal journal = new InventoryJournal(meterRegistry);
+        ReflectionTestUtils.setField(journal, "directory", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentRecords", segmentRecords);
+        ReflectionTestUtils.setField(journal, "maxSegments", maxSegments);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+
+    private static InventoryChangedEvent changed(long productId) {
+        return new InventoryChangedEvent(productId, 10, 9, InventoryChangedEvent.Reason.PURCHASE);
+    }
+}
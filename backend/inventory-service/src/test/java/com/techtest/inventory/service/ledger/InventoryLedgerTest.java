@@ -0,0 +1,312 @@
+package com.techtest.inventory.service.ledger;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.InventoryRequest;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.StockAdjustmentRequest;
+import com.techtest.inventory.dto.response.InventoryMovementResponse;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.entity.InventoryMovement;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.StockBoundsException;
+import com.techtest.inventory.repository.InventoryMovementRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.InventoryService;
+import com.techtest.inventory.service.cache.InventoryCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Modo LEDGER: compras y cambios de cantidad como movimientos, lecturas con snapshot + pendientes
+ * y compactación al snapshot.
+ *
+ * Usa su propia base H2: los compactadores de otros contextos de test (que comparten testdb)
+ * no deben plegar estos movimientos mientras se verifican.
+ */
+@SpringBootTest(properties = {
+        "inventory.purchase.mode=LEDGER",
+        "inventory.ledger.compact-interval-ms=3600000",
+        "inventory.cache.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:ledgerdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@Slf4j
+@DisplayName("InventoryLedger Tests")
+class InventoryLedgerTest {
+
+    private static final Long PRODUCT_ID = 900L;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        movementRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        inventoryCache.invalidateAll();
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(STOCK)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build());
+        when(productServiceClient.productExists(anyLong())).thenReturn(true);
+        // Entrada en el cache antes de cada escritura: las lecturas deben ver los movimientos
+        assertThat(inventoryService.hasStock(PRODUCT_ID, STOCK)).isTrue();
+    }
+
+    @Nested
+    @DisplayName("Escrituras")
+    class WriteTests {
+
+        @Test
+        @DisplayName("Una compra debe insertar un movimiento sin modificar la fila")
+        void purchaseShouldAppendMovement() {
+            Inventory before = snapshot();
+
+            inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(3));
+
+            Inventory after = snapshot();
+            assertThat(after.getQuantity()).isEqualTo(STOCK);
+            assertThat(after.getVersion()).isEqualTo(before.getVersion());
+            assertThat(movementRepository.sumPending(PRODUCT_ID)).isEqualTo(-3);
+            assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(STOCK - 3);
+            assertThat(inventoryService.hasStock(PRODUCT_ID, STOCK - 3)).isTrue();
+            assertThat(inventoryService.hasStock(PRODUCT_ID, STOCK - 2)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Fijar la cantidad debe insertar la diferencia respecto de la cantidad vigente")
+        void updateQuantityShouldAppendDifference() {
+            inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(10));
+
+            inventoryService.updateQuantity(PRODUCT_ID, 40, null);
+            inventoryService.createOrUpdateInventory(InventoryRequest.builder()
+                    .productId(PRODUCT_ID)
+                    .quantity(55)
+                    .minStock(8)
+                    .build());
+
+            assertThat(snapshot().getQuantity()).isEqualTo(STOCK);
+            assertThat(snapshot().getMinStock()).isEqualTo(8);
+            assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(55);
+            assertThat(inventoryService.getMovements(PRODUCT_ID, 10))
+                    .extracting(InventoryMovementResponse::getDelta, InventoryMovementResponse::getReason)
+                    .containsExactly(
+                            tuple(15, "STOCK_UPDATE"),
+                            tuple(-50, "QUANTITY_ADJUSTMENT"),
+                            tuple(-10, "PURCHASE"));
+        }
+
+        @Test
+        @DisplayName("Una compra sin stock debe rechazarse sin insertar movimientos")
+        void purchaseWithoutStockShouldBeRejected() {
+            double rejectedBefore = meterRegistry.counter("inventory.ledger.rejected").count();
+
+            assertThatThrownBy(() -> inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(STOCK + 1)))
+                    .isInstanceOf(InsufficientStockException.class);
+
+            assertThat(movementRepository.sumPending(PRODUCT_ID)).isZero();
+            assertThat(ledger.history(PRODUCT_ID, 10)).isEmpty();
+            assertThat(meterRegistry.counter("inventory.ledger.rejected").count() - rejectedBefore).isEqualTo(1);
+            assertThat(inventoryService.hasStock(PRODUCT_ID, STOCK)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Una escritura directa sobre la fila debe partir de la cantidad vigente")
+        void rowWriteShouldFoldPendingMovements() {
+            inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(30));
+
+            inventoryService.adjustQuantity(PRODUCT_ID, StockAdjustmentRequest.builder()
+                    .delta(-60)
+                    .floor(0)
+                    .build());
+
+            assertThat(snapshot().getQuantity()).isEqualTo(STOCK - 90);
+            assertThat(movementRepository.sumPending(PRODUCT_ID)).isZero();
+            assertThatThrownBy(() -> inventoryService.adjustQuantity(PRODUCT_ID, StockAdjustmentRequest.builder()
+                    .delta(-11)
+                    .floor(0)
+                    .build()))
+                    .isInstanceOf(StockBoundsException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Compactación")
+    class CompactionTests {
+
+        @Test
+        @DisplayName("Debe plegar los movimientos al snapshot sin cambiar la versión ni la cantidad vigente")
+        void shouldFoldIntoSnapshot() {
+            for (int i = 0; i < 5; i++) {
+                inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(2));
+            }
+            Long versionBefore = snapshot().getVersion();
+
+            assertThat(ledger.compact()).isEqualTo(1);
+
+            Inventory after = snapshot();
+            assertThat(after.getQuantity()).isEqualTo(STOCK - 10);
+            assertThat(after.getVersion()).isEqualTo(versionBefore);
+            assertThat(movementRepository.sumPending(PRODUCT_ID)).isZero();
+            assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(STOCK - 10);
+            // Los movimientos plegados se conservan como historial
+            assertThat(ledger.history(PRODUCT_ID, 10)).hasSize(5).allMatch(InventoryMovement::getFolded);
+            assertThat(ledger.compact()).isZero();
+        }
+
+        @Test
+        @DisplayName("Los movimientos de un inventario eliminado deben descartarse")
+        void shouldDiscardMovementsOfDeletedInventory() {
+            inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(4));
+            inventoryService.deleteInventory(PRODUCT_ID);
+
+            assertThat(inventoryRepository.findByProductId(PRODUCT_ID)).isEmpty();
+            assertThat(movementRepository.sumPending(PRODUCT_ID)).isZero();
+            assertThat(ledger.compact()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrencia")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Compras concurrentes con compactación en paralelo no deben sobrevender")
+        void concurrentPurchasesShouldNeverOversell() throws Exception {
+            int threads = 16;
+            int attempts = 200;
+            double rejectedBefore = meterRegistry.counter("inventory.ledger.rejected").count();
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(1));
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            Future<?> compactor = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    ledger.compact();
+                    Thread.sleep(5);
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            compactor.get(60, TimeUnit.SECONDS);
+            executor.shutdown();
+            ledger.compact();
+
+            double rejectedCount = meterRegistry.counter("inventory.ledger.rejected").count() - rejectedBefore;
+            log.warn("Ledger: {} compras aceptadas, {} rechazadas", succeeded.get(), rejected.get());
+
+            // Cada compra que alcanza se acepta: se vende exactamente el stock
+            assertThat(succeeded.get()).isEqualTo(STOCK);
+            assertThat(rejected.get()).isEqualTo(attempts - STOCK);
+            assertThat(rejectedCount).isEqualTo(rejected.get());
+            assertThat(snapshot().getQuantity()).isZero();
+            assertThat(movementRepository.sumPending(PRODUCT_ID)).isZero();
+            assertThat(inventoryService.hasStock(PRODUCT_ID, 1)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Dos compras concurrentes que alcanzan deben aceptarse aunque otra no alcance")
+        void concurrentFittingPurchasesShouldBothSucceed() throws Exception {
+            int half = STOCK / 2;
+            ExecutorService executor = Executors.newFixedThreadPool(3);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(half));
+                        return true;
+                    } catch (InsufficientStockException e) {
+                        return false;
+                    }
+                }));
+            }
+
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            executor.shutdown();
+
+            assertThat(succeeded).isEqualTo(2);
+            assertThat(movementRepository.sumPending(PRODUCT_ID)).isEqualTo(-STOCK);
+            assertThat(ledger.history(PRODUCT_ID, 10))
+                    .extracting(InventoryMovement::getReason)
+                    .containsOnly(InventoryMovement.Reason.PURCHASE);
+        }
+    }
+
+    private Inventory snapshot() {
+        return inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow();
+    }
+}
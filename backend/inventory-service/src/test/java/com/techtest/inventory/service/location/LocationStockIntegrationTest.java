@@ -0,0 +1,186 @@
+package com.techtest.inventory.service.location;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.response.InventoryLocationResponse;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.InventoryLocationNotFoundException;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.service.InventoryService;
+import com.techtest.inventory.service.cache.InventoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Stock repartido en ubicaciones contra la BD: total agregado, compras por ubicación y
+ * respaldo en la fila principal. Las lecturas pasan por el cache, cargado antes de cada escritura.
+ */
+@SpringBootTest(properties = {
+        "inventory.cache.enabled=true",
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DisplayName("Stock por ubicación")
+class LocationStockIntegrationTest {
+
+    private static final Long PRODUCT_ID = 950L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryLocationRepository locationRepository;
+
+    @Autowired
+    private LocationStockManager locationStock;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        locationRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        inventoryCache.invalidateAll();
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(5)
+                .reservedQuantity(0)
+                .minStock(2)
+                .build());
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 5)).isTrue();
+    }
+
+    @Test
+    @DisplayName("La cantidad del inventario debe sumar la fila principal y las ubicaciones")
+    void quantityShouldAggregateLocations() {
+        inventoryService.setLocationStock(PRODUCT_ID, "norte", 10);
+        inventoryService.setLocationStock(PRODUCT_ID, "sur", 20);
+
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(35);
+        assertThat(inventoryService.getLocations(PRODUCT_ID))
+                .extracting(InventoryLocationResponse::getLocationId)
+                .containsExactly("norte", "sur");
+
+        inventoryService.removeLocation(PRODUCT_ID, "sur");
+
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(15);
+        assertThatThrownBy(() -> inventoryService.removeLocation(PRODUCT_ID, "sur"))
+                .isInstanceOf(InventoryLocationNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("La compra debe salir de una ubicación con stock suficiente antes que de la fila principal")
+    void purchaseShouldPreferLocationWithEnoughStock() {
+        inventoryService.setLocationStock(PRODUCT_ID, "norte", 3);
+        inventoryService.setLocationStock(PRODUCT_ID, "sur", 8);
+
+        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(6));
+
+        assertThat(quantityAt("sur")).isEqualTo(2);
+        assertThat(quantityAt("norte")).isEqualTo(3);
+        assertThat(inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow().getQuantity()).isEqualTo(5);
+        assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Solo los productos con ubicaciones deben pasar por el paso de ubicaciones")
+    void onlyLocatedProductsShouldTryLocations() {
+        Long plainProductId = PRODUCT_ID + 1;
+        inventoryRepository.save(Inventory.builder()
+                .productId(plainProductId)
+                .quantity(5)
+                .reservedQuantity(0)
+                .minStock(2)
+                .build());
+        assertThat(locationStock.hasLocations(plainProductId)).isFalse();
+
+        inventoryService.processPurchase(plainProductId, new PurchaseRequest(2));
+        assertThat(inventoryRepository.findByProductId(plainProductId).orElseThrow().getQuantity()).isEqualTo(3);
+        assertThat(inventoryService.hasStock(plainProductId, 3)).isTrue();
+
+        inventoryService.setLocationStock(plainProductId, "norte", 4);
+        assertThat(locationStock.hasLocations(plainProductId)).isTrue();
+
+        inventoryService.deleteInventory(plainProductId);
+        assertThat(locationStock.hasLocations(plainProductId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Si ninguna ubicación alcanza, la compra debe usar la fila principal")
+    void purchaseShouldFallBackToMainRow() {
+        inventoryService.setLocationStock(PRODUCT_ID, "norte", 2);
+
+        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(4));
+
+        assertThat(quantityAt("norte")).isEqualTo(2);
+        assertThat(inventoryRepository.findByProductId(PRODUCT_ID).orElseThrow().getQuantity()).isEqualTo(1);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 3)).isTrue();
+
+        // Quedan 3 en total pero repartidas: ninguna fila alcanza por sí sola
+        assertThatThrownBy(() -> inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(3)))
+                .isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    @DisplayName("Compras concurrentes repartidas en ubicaciones no deben sobrevender")
+    void concurrentPurchasesShouldNotOversell() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            inventoryService.setLocationStock(PRODUCT_ID, "loc-" + i, 10);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 60; i++) {
+                results.add(pool.submit(() -> {
+                    try {
+                        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(1));
+                        return true;
+                    } catch (InsufficientStockException e) {
+                        return false;
+                    }
+                }));
+            }
+            long succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+
+            assertThat(succeeded).isEqualTo(45);
+            assertThat(inventoryService.getInventoryByProductId(PRODUCT_ID).getQuantity()).isZero();
+            assertThat(inventoryService.hasStock(PRODUCT_ID, 1)).isFalse();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int quantityAt(String locationId) {
+        return locationRepository.findByProductIdAndLocationId(PRODUCT_ID, locationId).orElseThrow().getQuantity();
+    }
+}
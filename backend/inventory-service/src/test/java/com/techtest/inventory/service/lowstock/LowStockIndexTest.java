@@ -0,0 +1,115 @@
+package com.techtest.inventory.service.lowstock;
+
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.repository.InventoryLocationRepository;
+import com.techtest.inventory.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LowStockIndex Tests")
+class LowStockIndexTest {
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final InventoryLocationRepository locationRepository = mock(InventoryLocationRepository.class);
+    private LowStockIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(inventoryRepository.findLowStockItems()).thenReturn(List.of(
+                row(1L, 4, 5, 1L),
+                row(2L, 0, 10, 1L),
+                row(3L, 2, 5, 1L)));
+        when(locationRepository.sumQuantityByProduct()).thenReturn(List.of());
+        index = new LowStockIndex(inventoryRepository, locationRepository, new SimpleMeterRegistry());
+        index.rebuild();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe ordenar por faltante y recorrer las páginas desde el cursor")
+    void shouldPageBySeverity() {
+        List<LowStockIndex.Entry> first = index.page(null, 2);
+        assertThat(first).extracting(LowStockIndex.Entry::productId).containsExactly(2L, 3L);
+
+        LowStockIndex.Cursor cursor = LowStockIndex.Cursor.parse(first.get(1).cursor().toString());
+        assertThat(index.page(cursor, 2)).extracting(LowStockIndex.Entry::productId).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Un cambio debe aplicarse solo tras el commit y uno con versión anterior debe ignorarse")
+    void writesShouldApplyAfterCommitInVersionOrder() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.rowWritten(row(1L, 20, 5, 2L));
+        assertThat(index.size()).isEqualTo(3);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(index.page(null, 10)).extracting(LowStockIndex.Entry::productId).containsExactly(2L, 3L);
+
+        // Confirmado antes que el anterior pero aplicado después: no debe devolverlo al índice
+        index.rowWritten(row(1L, 1, 5, 1L));
+        assertThat(index.size()).isEqualTo(2);
+
+        index.rowWritten(row(4L, 0, 50, 1L));
+        assertThat(index.page(null, 1)).extracting(LowStockIndex.Entry::productId).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Las ubicaciones deben contar en la cantidad total")
+    void locatedUnitsShouldCoverMinimum() {
+        index.locationsWritten(row(2L, 0, 10, 2L), 4);
+        assertThat(index.page(null, 1).get(0).quantity()).isEqualTo(4);
+        assertThat(index.located(2L)).isEqualTo(4);
+
+        index.locationsWritten(row(2L, 0, 10, 3L), 11);
+        assertThat(index.page(null, 10)).extracting(LowStockIndex.Entry::productId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    @DisplayName("Un producto eliminado y creado de nuevo debe volver al índice")
+    void recreatedProductShouldBeIndexed() {
+        index.removed(2L);
+        assertThat(index.size()).isEqualTo(2);
+
+        index.rowWritten(row(2L, 1, 3, 0L));
+
+        assertThat(index.page(null, 10)).extracting(LowStockIndex.Entry::productId).contains(2L);
+    }
+
+    @Test
+    @DisplayName("Un cursor mal formado debe rechazarse")
+    void invalidCursorShouldBeRejected() {
+        assertThatThrownBy(() -> LowStockIndex.Cursor.parse("abc"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Inventory row(Long productId, int quantity, int minStock, Long version) {
+        return Inventory.builder()
+                .id(productId)
+                .productId(productId)
+                .quantity(quantity)
+                .reservedQuantity(0)
+                .minStock(minStock)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.techtest.inventory.service.outbox;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.repository.OutboxEventRepository;
+import com.techtest.inventory.service.InventoryService;
+import com.techtest.inventory.service.events.LowStockAlerts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Outbox contra la BD: escritura en la misma transacción que la compra y relay por lotes.
+ * El relay programado está desactivado en el perfil test; los lotes se lanzan desde cada prueba.
+ */
+@SpringBootTest(properties = {
+        "inventory.outbox.batch-size=10",
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DisplayName("Outbox de eventos de inventario")
+class OutboxRelayIntegrationTest {
+
+    private static final Long PRODUCT_ID = 950L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private LowStockAlerts lowStockAlerts;
+
+    @MockitoSpyBean
+    private InMemoryOutboxPublisher publisher;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        publisher.clear();
+        lowStockAlerts.forget(PRODUCT_ID);
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(100)
+                .reservedQuantity(0)
+                .minStock(5)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Una compra debe dejar su evento en el outbox y el relay debe publicarlo")
+    void purchaseShouldBeRelayed() {
+        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(3));
+
+        assertThat(outboxRepository.findAll()).singleElement().satisfies(event -> {
+            assertThat(event.getAggregateId()).isEqualTo(PRODUCT_ID);
+            assertThat(event.getEventType()).isEqualTo("INVENTORY_CHANGED");
+            assertThat(event.getPayload()).contains("\"previousQuantity\":100", "\"newQuantity\":97");
+            assertThat(event.getPublishedAt()).isNull();
+        });
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        assertThat(publisher.published()).singleElement()
+                .satisfies(message -> assertThat(message.aggregateId()).isEqualTo(PRODUCT_ID));
+        assertThat(outboxRepository.findAll()).allMatch(event -> event.getPublishedAt() != null);
+        assertThat(relay.position()).isEqualTo(publisher.published().get(0).id());
+        assertThat(relay.relayBatch()).isZero();
+    }
+
+    @Test
+    @DisplayName("Una compra rechazada no debe dejar eventos en el outbox")
+    void rejectedPurchaseShouldNotWriteOutbox() {
+        assertThatThrownBy(() -> inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(500)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("La compra que deja el stock bajo el mínimo debe registrar también la alerta")
+    void lowStockPurchaseShouldWriteAlert() {
+        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(96));
+
+        relay.relayBatch();
+
+        assertThat(publisher.published()).extracting(OutboxMessage::eventType)
+                .containsExactly("INVENTORY_CHANGED", "LOW_STOCK_ALERT");
+    }
+
+    @Test
+    @DisplayName("Si la publicación falla, el lote debe liberarse y reintentarse")
+    void failedPublishShouldReleaseClaim() {
+        inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(1));
+        doThrow(new IllegalStateException("broker caído")).when(publisher).publish(anyList());
+
+        assertThat(relay.relayBatch()).isZero();
+        assertThat(outboxRepository.findAll()).allSatisfy(event -> {
+            assertThat(event.getPublishedAt()).isNull();
+            assertThat(event.getClaimedUntil()).isNull();
+        });
+
+        doCallRealMethod().when(publisher).publish(anyList());
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        assertThat(publisher.published()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Relays concurrentes deben repartirse los lotes sin publicar dos veces el mismo evento")
+    void concurrentRelaysShouldNotDuplicate() throws Exception {
+        int purchases = 45;
+        for (int i = 0; i < purchases; i++) {
+            inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(1));
+        }
+
+        int relays = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(relays);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < relays; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (relay.relayBatch() > 0) {
+                    // drenar hasta que no queden lotes pendientes
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<Long> ids = publisher.published().stream().map(OutboxMessage::id).toList();
+        assertThat(ids).hasSize(purchases).doesNotHaveDuplicates();
+        assertThat(outboxRepository.findAll()).allMatch(event -> event.getPublishedAt() != null);
+    }
+}
@@ -0,0 +1,146 @@
+package com.techtest.inventory.service.reservation;
+
+import com.techtest.inventory.client.ProductServiceClient;
+import com.techtest.inventory.dto.request.PurchaseRequest;
+import com.techtest.inventory.dto.request.ReservationRequest;
+import com.techtest.inventory.dto.response.InventoryResponse;
+import com.techtest.inventory.dto.response.ReservationResponse;
+import com.techtest.inventory.entity.Inventory;
+import com.techtest.inventory.exception.InsufficientStockException;
+import com.techtest.inventory.exception.ReservationStateException;
+import com.techtest.inventory.repository.InventoryRepository;
+import com.techtest.inventory.repository.ReservationRepository;
+import com.techtest.inventory.service.InventoryService;
+import com.techtest.inventory.service.cache.InventoryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ciclo de vida de reservas contra la BD: reservar, confirmar, liberar y expirar por TTL. Las
+ * lecturas pasan por el cache, cargado antes de cada escritura.
+ */
+@SpringBootTest(properties = {
+        "inventory.reservation.tick-ms=50",
+        "inventory.cache.enabled=true",
+        "logging.level.com.techtest.inventory=WARN",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@DisplayName("Reservas de stock")
+class ReservationIntegrationTest {
+
+    private static final Long PRODUCT_ID = 900L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private InventoryCache inventoryCache;
+
+    @MockitoBean
+    private ProductServiceClient productServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        inventoryCache.invalidateAll();
+        inventoryRepository.save(Inventory.builder()
+                .productId(PRODUCT_ID)
+                .quantity(10)
+                .reservedQuantity(0)
+                .minStock(2)
+                .build());
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Reservar debe apartar unidades sin descontar el stock")
+    void reserveShouldHoldAvailableStock() {
+        ReservationResponse reservation = inventoryService.reserveStock(PRODUCT_ID, new ReservationRequest(6, null));
+
+        assertThat(reservation.getStatus()).isEqualTo("PENDING");
+        InventoryResponse inventory = currentInventory();
+        assertThat(inventory.getQuantity()).isEqualTo(10);
+        assertThat(inventory.getReservedQuantity()).isEqualTo(6);
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 5)).isFalse();
+
+        // Las unidades reservadas no se pueden comprar ni volver a reservar
+        assertThatThrownBy(() -> inventoryService.processPurchase(PRODUCT_ID, new PurchaseRequest(5)))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThatThrownBy(() -> inventoryService.reserveStock(PRODUCT_ID, new ReservationRequest(5, null)))
+                .isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    @DisplayName("Confirmar debe descontar las unidades reservadas una sola vez")
+    void confirmShouldConsumeReservedUnits() {
+        ReservationResponse reservation = inventoryService.reserveStock(PRODUCT_ID, new ReservationRequest(4, null));
+
+        ReservationResponse confirmed = inventoryService.confirmReservation(reservation.getId());
+
+        assertThat(confirmed.getStatus()).isEqualTo("CONFIRMED");
+        InventoryResponse inventory = currentInventory();
+        assertThat(inventory.getQuantity()).isEqualTo(6);
+        assertThat(inventory.getReservedQuantity()).isZero();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 6)).isTrue();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 7)).isFalse();
+
+        assertThatThrownBy(() -> inventoryService.releaseReservation(reservation.getId()))
+                .isInstanceOf(ReservationStateException.class);
+    }
+
+    @Test
+    @DisplayName("Liberar debe devolver las unidades al disponible")
+    void releaseShouldReturnReservedUnits() {
+        ReservationResponse reservation = inventoryService.reserveStock(PRODUCT_ID, new ReservationRequest(4, null));
+
+        ReservationResponse released = inventoryService.releaseReservation(reservation.getId());
+
+        assertThat(released.getStatus()).isEqualTo("RELEASED");
+        InventoryResponse inventory = currentInventory();
+        assertThat(inventory.getQuantity()).isEqualTo(10);
+        assertThat(inventory.getReservedQuantity()).isZero();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+
+        assertThatThrownBy(() -> inventoryService.confirmReservation(reservation.getId()))
+                .isInstanceOf(ReservationStateException.class);
+    }
+
+    @Test
+    @DisplayName("Una reserva vencida debe expirar sola y no poder confirmarse")
+    void expiredReservationShouldBeReleasedByWheel() throws InterruptedException {
+        ReservationResponse reservation = inventoryService.reserveStock(PRODUCT_ID, new ReservationRequest(4, 1));
+        assertThat(currentInventory().getReservedQuantity()).isEqualTo(4);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (currentInventory().getReservedQuantity() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(currentInventory().getReservedQuantity()).isZero();
+        assertThat(inventoryService.hasStock(PRODUCT_ID, 10)).isTrue();
+        assertThat(reservationRepository.findById(reservation.getId()).orElseThrow().getStatus().name())
+                .isEqualTo("EXPIRED");
+        assertThatThrownBy(() -> inventoryService.confirmReservation(reservation.getId()))
+                .isInstanceOf(ReservationStateException.class);
+    }
+
+    private InventoryResponse currentInventory() {
+        return inventoryService.getInventoryByProductId(PRODUCT_ID);
+    }
+}
@@ -0,0 +1,74 @@
+package com.techtest.inventory.service.reservation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TimingWheel Tests")
+class TimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    @DisplayName("Debe entregar solo los vencimientos alcanzados")
+    void shouldExpireOnlyDueKeys() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 500);
+
+        assertThat(wheel.advance(200)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly("a");
+        assertThat(wheel.advance(400)).isEmpty();
+        assertThat(wheel.advance(500)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe respetar vencimientos a varias vueltas de la rueda")
+    void shouldKeepKeysScheduledSeveralRoundsAhead() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        wheel.schedule("near", 100);
+        wheel.schedule("far", 100 + 3 * 4 * TICK);  // mismo slot, tres vueltas después
+
+        assertThat(wheel.advance(100)).containsExactly("near");
+        assertThat(wheel.advance(1200)).isEmpty();
+        assertThat(wheel.advance(1300)).containsExactly("far");
+    }
+
+    @Test
+    @DisplayName("Debe entregar todo lo vencido aunque se salten varias vueltas")
+    void shouldExpireEverythingAfterLongPause() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 4, 0);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule(i, i * TICK);
+        }
+
+        assertThat(wheel.advance(10_000)).hasSize(20);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debe entregar claves canceladas ni reprogramadas")
+    void shouldSkipCancelledAndRescheduledKeys() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 0);
+        wheel.schedule("cancelled", 200);
+        wheel.schedule("moved", 200);
+
+        assertThat(wheel.cancel("cancelled")).isTrue();
+        wheel.schedule("moved", 600);
+
+        assertThat(wheel.advance(300)).isEmpty();
+        assertThat(wheel.advance(600)).containsExactly("moved");
+        assertThat(wheel.cancel("moved")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Un vencimiento ya pasado debe entregarse en el siguiente avance")
+    void shouldExpirePastDeadlineOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 8, 1000);
+        wheel.schedule("late", 500);
+
+        assertThat(wheel.advance(1100)).containsExactly("late");
+    }
+}
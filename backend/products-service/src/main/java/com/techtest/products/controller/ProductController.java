@@ -22,6 +22,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Controller REST para gestión de productos.
  *
@@ -270,4 +272,49 @@ public class ProductController {
         boolean exists = productService.existsById(id);
         return ResponseEntity.ok(exists);
     }
-}
\ No newline at end of file
+
+    // ==================== VERIFICAR EXISTENCIA EN LOTE (Interno para Inventory Service) ====================
+
+    @PostMapping("/exists")
+    @Operation(
+            summary = "Verificar existencia en lote",
+            description = "Recibe una lista de IDs y devuelve los que existen, en una sola consulta " +
+                    "(usado por la carga masiva de inventario)"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "IDs existentes")
+    })
+    public ResponseEntity<List<Long>> existingProducts(@RequestBody List<Long> ids) {
+
+        log.debug("POST /products/exists - Verificando existencia de {} productos", ids.size());
+
+        return ResponseEntity.ok(productService.findExistingIds(ids));
+    }
+
+    // ==================== CONSULTA EN LOTE (Interno para Inventory Service) ====================
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Consultar productos en lote",
+            description = "Recibe una lista de IDs y devuelve los productos encontrados, en una sola consulta " +
+                    "(usado para completar una página de inventario con include=product). " +
+                    "Los IDs que no existen se omiten."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Productos encontrados",
+                    content = @Content(schema = @Schema(implementation = JsonApiListResponse.class))
+            )
+    })
+    public ResponseEntity<JsonApiListResponse<ProductResponse>> getProductsByIds(@RequestBody List<Long> ids) {
+
+        log.debug("POST /products/batch - Consultando {} productos", ids.size());
+
+        List<JsonApiData<ProductResponse>> data = productService.getProductsByIds(ids).stream()
+                .map(product -> JsonApiData.of(RESOURCE_TYPE, product.getId(), product))
+                .toList();
+
+        return ResponseEntity.ok(JsonApiListResponse.<ProductResponse>builder().data(data).build());
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,4 +48,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * Buscar productos activos por categoría
      */
     Page<Product> findByCategoryAndActiveTrue(String category, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * IDs de la lista que existen (verificación en lote en una sola consulta)
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
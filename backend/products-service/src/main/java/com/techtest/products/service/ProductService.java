@@ -5,6 +5,9 @@ import com.techtest.products.dto.response.ProductResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Interface del servicio de productos.
  *
@@ -86,4 +89,20 @@ public interface ProductService {
      * @return true si existe, false si no
      */
     boolean existsById(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Verifica en lote qué productos existen.
+     *
+     * @param ids identificadores a verificar
+     * @return los que existen (sin orden garantizado)
+     */
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    /**
+     * Obtiene en lote los productos de la lista, en una sola consulta.
+     *
+     * @param ids identificadores a buscar
+     * @return los productos encontrados (los que no existen se omiten)
+     */
+    List<ProductResponse> getProductsByIds(Collection<Long> ids);
+}
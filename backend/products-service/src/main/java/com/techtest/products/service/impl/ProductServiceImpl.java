@@ -14,6 +14,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Implementación del servicio de productos.
  *
@@ -132,6 +135,26 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.existsById(id);
     }
 
+    @Override
+    public List<Long> findExistingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findExistingIds(ids);
+    }
+
+    @Override
+    public List<ProductResponse> getProductsByIds(Collection<Long> ids) {
+        log.debug("Buscando {} productos en lote", ids.size());
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findAllById(ids).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
     // ==================== MÉTODOS PRIVADOS DE MAPEO ====================
 
     /**
@@ -51,9 +51,36 @@ export interface InventoryResponse {
   data: InventoryData;
 }
 
+// Listados paginados por cursor: links.next trae la página siguiente
 export interface InventoryListResponse {
   data: InventoryData[];
-  meta?: { totalElements: number; totalPages: number; currentPage: number; pageSize: number; };
+  meta?: { count: number; total?: number; };
+  links?: { next?: string; };
+}
+
+export interface InventorySearchParams {
+  limit?: number;
+  cursor?: string;
+  minQuantity?: number;
+  maxQuantity?: number;
+  stock?: 'low' | 'out';
+  includeProduct?: boolean;
+}
+
+export interface InventoryPage {
+  items: Inventory[];
+  nextCursor: string | null;
+}
+
+// Consulta en lote: los productos sin inventario vienen en meta.missing
+export interface InventoryLookupResponse {
+  data: InventoryData[];
+  meta: { count: number; missing: number[]; };
+}
+
+export interface InventoryLookup {
+  items: Inventory[];
+  missingProductIds: number[];
 }
 
 export type StockStatus = 'available' | 'low' | 'out_of_stock';
@@ -240,10 +240,8 @@ describe('InventoryService', () => {
       const lowStockResponse: InventoryListResponse = {
         data: [mockLowStockData],
         meta: {
-          totalElements: 1,
-          totalPages: 1,
-          currentPage: 0,
-          pageSize: 10
+          count: 1,
+          total: 1
         }
       };
 
@@ -263,10 +261,8 @@ describe('InventoryService', () => {
       const emptyResponse: InventoryListResponse = {
         data: [],
         meta: {
-          totalElements: 0,
-          totalPages: 0,
-          currentPage: 0,
-          pageSize: 10
+          count: 0,
+          total: 0
         }
       };
 
@@ -290,6 +286,52 @@ describe('InventoryService', () => {
     });
   });
 
+  describe('listInventory()', () => {
+    it('should send filters and return the next cursor', () => {
+      const pageResponse: InventoryListResponse = {
+        data: [mockLowStockData],
+        meta: { count: 1 },
+        links: { next: '/api/v1/inventory?limit=1&stock=low&cursor=2' }
+      };
+
+      service.listInventory({ limit: 1, stock: 'low', includeProduct: true }).subscribe(page => {
+        expect(page.items.length).toBe(1);
+        expect(page.nextCursor).toBe('2');
+      });
+
+      const req = httpMock.expectOne(r => r.url === `${apiUrl}/inventory`);
+      expect(req.request.params.get('limit')).toBe('1');
+      expect(req.request.params.get('stock')).toBe('low');
+      expect(req.request.params.get('include')).toBe('product');
+      req.flush(pageResponse);
+    });
+
+    it('should return a null cursor on the last page', () => {
+      service.listInventory({ cursor: '2' }).subscribe(page => {
+        expect(page.items).toEqual([]);
+        expect(page.nextCursor).toBeNull();
+      });
+
+      const req = httpMock.expectOne(r => r.url === `${apiUrl}/inventory`);
+      expect(req.request.params.get('cursor')).toBe('2');
+      req.flush({ data: [], meta: { count: 0 } });
+    });
+  });
+
+  describe('getInventoryForProducts()', () => {
+    it('should fetch several products in one request and report missing ones', () => {
+      service.getInventoryForProducts([1, 2]).subscribe(lookup => {
+        expect(lookup.items.length).toBe(1);
+        expect(lookup.missingProductIds).toEqual([2]);
+      });
+
+      const req = httpMock.expectOne(r => r.url === `${apiUrl}/inventory`);
+      expect(req.request.method).toBe('GET');
+      expect(req.request.params.get('productIds')).toBe('1,2');
+      req.flush({ data: [mockLowStockData], meta: { count: 1, missing: [2] } });
+    });
+  });
+
   describe('deleteInventory()', () => {
     it('should delete inventory for a product', () => {
       // First load inventory
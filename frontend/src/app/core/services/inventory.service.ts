@@ -2,7 +2,7 @@ import { Injectable, inject, signal, computed } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable, tap, map, finalize, of, catchError } from 'rxjs';
 import { environment } from '@env/environment';
-import { Inventory, InventoryRequest, InventoryResponse, InventoryListResponse, PurchaseRequest, InventoryData, getStockStatus, StockStatus } from '../models';
+import { Inventory, InventoryRequest, InventoryResponse, InventoryListResponse, InventoryLookup, InventoryLookupResponse, InventoryPage, InventorySearchParams, PurchaseRequest, InventoryData, getStockStatus, StockStatus } from '../models';
 
 @Injectable({ providedIn: 'root' })
 export class InventoryService {
@@ -72,6 +72,32 @@ export class InventoryService {
     );
   }
 
+  listInventory(params: InventorySearchParams = {}): Observable<InventoryPage> {
+    let httpParams = new HttpParams().set('limit', (params.limit ?? 100).toString());
+    if (params.cursor) httpParams = httpParams.set('cursor', params.cursor);
+    if (params.minQuantity !== undefined) httpParams = httpParams.set('minQuantity', params.minQuantity.toString());
+    if (params.maxQuantity !== undefined) httpParams = httpParams.set('maxQuantity', params.maxQuantity.toString());
+    if (params.stock) httpParams = httpParams.set('stock', params.stock);
+    if (params.includeProduct) httpParams = httpParams.set('include', 'product');
+
+    return this.http.get<InventoryListResponse>(`${this.apiUrl}/inventory`, { params: httpParams }).pipe(
+      map(response => ({
+        items: response.data.map(item => this.mapToInventory(item)),
+        nextCursor: this.nextCursor(response)
+      }))
+    );
+  }
+
+  getInventoryForProducts(productIds: number[]): Observable<InventoryLookup> {
+    const params = new HttpParams().set('productIds', productIds.join(','));
+    return this.http.get<InventoryLookupResponse>(`${this.apiUrl}/inventory`, { params }).pipe(
+      map(response => ({
+        items: response.data.map(item => this.mapToInventory(item)),
+        missingProductIds: response.meta.missing
+      }))
+    );
+  }
+
   deleteInventory(productId: number): Observable<void> {
     this.loadingSignal.set(true);
     return this.http.delete<void>(`${this.apiUrl}/inventory/product/${productId}`).pipe(
@@ -80,6 +106,11 @@ export class InventoryService {
     );
   }
 
+  private nextCursor(response: InventoryListResponse): string | null {
+    const next = response.links?.next;
+    return next ? new URL(next, window.location.origin).searchParams.get('cursor') : null;
+  }
+
   private mapToInventory(data: InventoryData): Inventory {
     return {
       id: parseInt(data.id, 10),
@@ -127,24 +127,30 @@ export class InventoryListComponent implements OnInit {
 
   private loadInventoryForProducts(products: Product[]): void {
     if (products.length === 0) { this.loading.set(false); return; }
-    let completed = 0, lowStock = 0;
-    const map = new Map<number, Inventory>();
-    products.forEach(product => {
-      this.inventoryService.getInventoryByProductId(product.id).subscribe({
-        next: (inventory) => {
-          map.set(product.id, inventory);
-          if (inventory.lowStock) lowStock++;
-          if (++completed === products.length) { this.inventoryMap.set(map); this.lowStockCount.set(lowStock); this.loading.set(false); }
-        },
-        error: () => {
-          map.set(product.id, { id: 0, productId: product.id, quantity: 0, reservedQuantity: 0, minStock: 5, availableQuantity: 0, lowStock: true });
-          lowStock++;
-          if (++completed === products.length) { this.inventoryMap.set(map); this.lowStockCount.set(lowStock); this.loading.set(false); }
-        }
-      });
+    // Una sola consulta para toda la página; los productos sin inventario se muestran sin stock
+    this.inventoryService.getInventoryForProducts(products.map(product => product.id)).subscribe({
+      next: (lookup) => {
+        const map = new Map<number, Inventory>();
+        lookup.items.forEach(inventory => map.set(inventory.productId, inventory));
+        products.forEach(product => { if (!map.has(product.id)) map.set(product.id, this.emptyInventory(product.id)); });
+        this.setInventory(map);
+      },
+      error: () => {
+        this.setInventory(new Map(products.map(product => [product.id, this.emptyInventory(product.id)])));
+      }
     });
   }
 
+  private setInventory(map: Map<number, Inventory>): void {
+    this.inventoryMap.set(map);
+    this.lowStockCount.set([...map.values()].filter(inventory => inventory.lowStock).length);
+    this.loading.set(false);
+  }
+
+  private emptyInventory(productId: number): Inventory {
+    return { id: 0, productId, quantity: 0, reservedQuantity: 0, minStock: 5, availableQuantity: 0, lowStock: true };
+  }
+
   getProductQuantity(productId: number): number { return this.inventoryMap().get(productId)?.quantity ?? 0; }
   getProductMinStock(productId: number): number { return this.inventoryMap().get(productId)?.minStock ?? 5; }
   getProductStockStatus(productId: number): StockStatus { const inv = this.inventoryMap().get(productId); return inv ? getStockStatus(inv.quantity, inv.minStock) : 'out_of_stock'; }